@@ -0,0 +1,86 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.base.ParallelFlowEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步步骤基准
+ * <p>
+ * 在4个线程的引擎线程池上同时启动 {@value #INSTANCES} 个实例，每个实例执行三个1ms的I/O步骤，测量整批完成的耗时。
+ * 阻塞步骤每个实例占用一个线程，整批耗时约为 实例数 / 线程数 × 3ms；异步步骤等待期间不占用线程，整批耗时接近单个实例
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncFlowStepBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int INSTANCES = 256;
+
+    private ExecutorService pool;
+    private ParallelFlowEngine engine;
+
+    @Setup
+    public void setup() {
+        pool = Executors.newFixedThreadPool(THREADS);
+        engine = new ParallelFlowEngine(pool);
+        engine.deploy(chain("blocking", "sleep"));
+        engine.deploy(chain("async", "async-sleep"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public Object blockingSteps() {
+        return runBatch("blocking");
+    }
+
+    @Benchmark
+    public Object asyncSteps() {
+        return runBatch("async");
+    }
+
+    private Object runBatch(String flowId) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++) {
+            futures[i] = engine.executeAsync(flowId, null);
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+
+    private static FlowDefinition chain(String flowId, String step) {
+        return FlowDefinition.builder(flowId)
+                .step("first", step)
+                .step("second", step)
+                .step("third", step)
+                .edge("first", "second")
+                .edge("second", "third")
+                .build();
+    }
+}
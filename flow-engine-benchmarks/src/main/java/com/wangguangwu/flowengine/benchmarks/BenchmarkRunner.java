@@ -0,0 +1,79 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 依次以每个线程数运行匹配的基准，启用 {@code -prof gc} 统计分配，并把结果写为JSON，便于在不同构建之间对比。
+ * 用法：
+ * <pre>
+ * java -jar flow-engine-benchmarks/target/benchmarks.jar [include正则] [--threads 1,4] [--virtual] [--output 目录]
+ * </pre>
+ * {@code --virtual} 让JMH在虚拟线程上执行基准（{@code -Djmh.executor=VIRTUAL_TPE}），需要Java 21及以上，
+ * 低版本运行时会忽略该选项并继续使用平台线程。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class BenchmarkRunner {
+
+    private static final int VIRTUAL_THREAD_FEATURE_VERSION = 21;
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = BenchmarkRunner.class.getPackageName() + ".*";
+        List<Integer> threadCounts = List.of(1, Runtime.getRuntime().availableProcessors());
+        boolean virtual = false;
+        Path output = Paths.get("target", "jmh");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threadCounts = parseThreads(args[++i]);
+                case "--virtual" -> virtual = true;
+                case "--output" -> output = Paths.get(args[++i]);
+                default -> include = args[i];
+            }
+        }
+        if (virtual && Runtime.version().feature() < VIRTUAL_THREAD_FEATURE_VERSION) {
+            System.err.println("Virtual threads require Java " + VIRTUAL_THREAD_FEATURE_VERSION
+                    + "+, running on platform threads");
+            virtual = false;
+        }
+        Files.createDirectories(output);
+
+        for (int threads : threadCounts.stream().distinct().toList()) {
+            String executor = virtual ? "virtual" : "platform";
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(output.resolve("result-" + executor + "-" + threads + "t.json").toString());
+            if (virtual) {
+                options.jvmArgsAppend("-Djmh.executor=VIRTUAL_TPE");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+
+    private static List<Integer> parseThreads(String value) {
+        List<Integer> threads = new ArrayList<>();
+        for (String part : value.split(",")) {
+            threads.add(Integer.parseInt(part.trim()));
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,55 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.benchmarks.spi.DefaultPrototypeBenchmarkService;
+import com.wangguangwu.flowengine.benchmarks.spi.PrototypeBenchmarkService;
+import com.wangguangwu.flowengine.spi.loader.ExtensionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 扩展实例创建方式对比基准
+ * <p>
+ * 对比 {@link ExtensionFactory} 生成的实例工厂与反射调用构造器的开销
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionFactoryBenchmark {
+
+    private Supplier<PrototypeBenchmarkService> factory;
+    private Constructor<DefaultPrototypeBenchmarkService> constructor;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        factory = ExtensionFactory.create(DefaultPrototypeBenchmarkService.class);
+        constructor = DefaultPrototypeBenchmarkService.class.getDeclaredConstructor();
+    }
+
+    @Benchmark
+    public PrototypeBenchmarkService factory() {
+        return factory.get();
+    }
+
+    @Benchmark
+    public PrototypeBenchmarkService reflection() throws ReflectiveOperationException {
+        return constructor.newInstance();
+    }
+}
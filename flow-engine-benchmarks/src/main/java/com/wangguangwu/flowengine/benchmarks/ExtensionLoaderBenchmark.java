@@ -0,0 +1,67 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.benchmarks.spi.BenchmarkService;
+import com.wangguangwu.flowengine.benchmarks.spi.PrototypeBenchmarkService;
+import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扩展获取热路径基准
+ * <p>
+ * 覆盖单例扩展的按名获取与默认扩展获取、非单例扩展的实例创建，以及经由 {@link SPILoader} 门面的完整路径
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionLoaderBenchmark {
+
+    private ExtensionLoader<BenchmarkService> loader;
+    private ExtensionLoader<PrototypeBenchmarkService> prototypeLoader;
+
+    @Setup
+    public void setup() {
+        loader = SPILoader.getExtensionLoader(BenchmarkService.class);
+        prototypeLoader = SPILoader.getExtensionLoader(PrototypeBenchmarkService.class);
+        // 预先完成类加载和实例创建，只测量稳态
+        loader.getDefaultExtension();
+        prototypeLoader.getDefaultExtension();
+    }
+
+    @Benchmark
+    public BenchmarkService getExtension() {
+        return loader.getExtension("default");
+    }
+
+    @Benchmark
+    public BenchmarkService getDefaultExtension() {
+        return loader.getDefaultExtension();
+    }
+
+    @Benchmark
+    public BenchmarkService spiLoaderGetExtension() {
+        return SPILoader.getExtension(BenchmarkService.class, "default");
+    }
+
+    @Benchmark
+    public PrototypeBenchmarkService getPrototypeExtension() {
+        return prototypeLoader.getDefaultExtension();
+    }
+}
@@ -0,0 +1,115 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.base.FairFlowScheduler;
+import com.wangguangwu.flowengine.core.base.SequentialFlowEngine;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 租户公平调度负载基准
+ * <p>
+ * 一个大租户持续保持 {@value #FLOOD} 个实例在途，测量小租户单个实例（一次1ms阻塞I/O）的提交到完成延迟分布。
+ * {@code fifo} 是所有租户共用一个固定线程池的现状，小租户排在大租户的积压之后；
+ * {@code fair} 使用 {@link FairFlowScheduler}，小租户在下一个空出的名额即可执行，p99应接近单个实例的耗时
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FairFlowSchedulerBenchmark {
+
+    private static final int CONCURRENCY = 8;
+    private static final int FLOOD = 400;
+
+    @Param({"fair", "fifo"})
+    private String scheduler;
+
+    private final TenantContext bigTenant = DefaultTenantContext.create("tenant-big");
+    private final TenantContext smallTenant = DefaultTenantContext.create("tenant-small");
+    private SequentialFlowEngine engine;
+    private FairFlowScheduler fairScheduler;
+    private ExecutorService sharedPool;
+    private Thread flood;
+    private volatile boolean running;
+
+    @Setup
+    public void setup() {
+        engine = new SequentialFlowEngine();
+        engine.deploy(FlowDefinition.builder("io").step("io", "sleep").build());
+        if ("fair".equals(scheduler)) {
+            fairScheduler = new FairFlowScheduler(engine, CONCURRENCY);
+        } else {
+            sharedPool = Executors.newFixedThreadPool(CONCURRENCY);
+        }
+        running = true;
+        flood = new Thread(() -> TenantContextHolder.runWithContext(bigTenant, this::flood), "tenant-big-flood");
+        flood.setDaemon(true);
+        flood.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        flood.interrupt();
+        flood.join();
+        if (fairScheduler != null) {
+            fairScheduler.close();
+        } else {
+            sharedPool.shutdownNow();
+        }
+        engine.close();
+    }
+
+    @Benchmark
+    public FlowResult smallTenantLatency() throws Exception {
+        return TenantContextHolder.callWithContext(smallTenant, () -> submit().join());
+    }
+
+    private void flood() {
+        Semaphore outstanding = new Semaphore(FLOOD);
+        while (running) {
+            try {
+                outstanding.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            submit().whenComplete((result, error) -> outstanding.release());
+        }
+    }
+
+    private CompletableFuture<FlowResult> submit() {
+        if (fairScheduler != null) {
+            return fairScheduler.submit("io", null);
+        }
+        Supplier<FlowResult> task = () -> engine.execute("io", null);
+        return CompletableFuture.supplyAsync(task, command -> sharedPool.execute(TenantContextPropagator.wrap(command)));
+    }
+}
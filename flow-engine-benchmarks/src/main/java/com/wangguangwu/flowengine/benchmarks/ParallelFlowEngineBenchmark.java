@@ -0,0 +1,80 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.base.ParallelFlowEngine;
+import com.wangguangwu.flowengine.core.base.SequentialFlowEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行分支基准
+ * <p>
+ * 执行一个 并行网关 → width个CPU步骤 → 汇聚网关 的扇出流程，比较顺序引擎与不同并行度 {@link ForkJoinPool} 上的并行引擎。
+ * 并行引擎的耗时应随并行度近似线性下降，直到并行度超过可用核数
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelFlowEngineBenchmark {
+
+    @Param({"16", "64"})
+    private int width;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private SequentialFlowEngine sequential;
+    private ParallelFlowEngine parallel;
+
+    @Setup
+    public void setup() {
+        FlowDefinition.Builder builder = FlowDefinition.builder("fan-out").parallel("fork").join("join");
+        for (int i = 0; i < width; i++) {
+            builder.step("branch-" + i, "cpu").edge("fork", "branch-" + i).edge("branch-" + i, "join");
+        }
+        FlowDefinition definition = builder.build();
+        pool = new ForkJoinPool(parallelism);
+        sequential = new SequentialFlowEngine();
+        sequential.deploy(definition);
+        parallel = new ParallelFlowEngine(pool);
+        parallel.deploy(definition);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sequential.close();
+        parallel.close();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public FlowResult sequential() {
+        return sequential.execute("fan-out", null);
+    }
+
+    @Benchmark
+    public FlowResult parallel() {
+        return parallel.execute("fan-out", null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户准入基准
+ * <p>
+ * 测量一次准入加释放的开销：只限制并发、同时限速和并发，以及在一万个租户之间轮转时的开销。
+ * 限速设置得足够高，测量的都是准入成功的路径
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantAdmissionBenchmark {
+
+    private static final int TENANTS = 10_000;
+
+    private final TenantAdmissionController concurrencyOnly =
+            new TenantAdmissionController(new TenantLimit(0, 0, 100));
+    private final TenantAdmissionController rateAndConcurrency =
+            new TenantAdmissionController(new TenantLimit(1_000_000_000, 1_000_000, 100));
+    private final TenantAdmissionController manyTenants = new TenantAdmissionController(
+            new TenantLimit(1_000_000_000, 1_000_000, 100), Map.of(), TENANTS * 2, Duration.ofMinutes(10));
+    private final String[] tenantIds = new String[TENANTS];
+    private int next;
+
+    public TenantAdmissionBenchmark() {
+        for (int i = 0; i < TENANTS; i++) {
+            tenantIds[i] = "tenant-" + i;
+        }
+    }
+
+    @Benchmark
+    public int concurrencyOnly() {
+        return acquireAndRelease(concurrencyOnly, "tenant-a");
+    }
+
+    @Benchmark
+    public int rateAndConcurrency() {
+        return acquireAndRelease(rateAndConcurrency, "tenant-a");
+    }
+
+    @Benchmark
+    public int manyTenants() {
+        String tenantId = tenantIds[next];
+        next = next + 1 == TENANTS ? 0 : next + 1;
+        return acquireAndRelease(manyTenants, tenantId);
+    }
+
+    private static int acquireAndRelease(TenantAdmissionController controller, String tenantId) {
+        var limiter = controller.acquire(tenantId);
+        int inFlight = limiter.getInFlight();
+        limiter.release();
+        return inFlight;
+    }
+}
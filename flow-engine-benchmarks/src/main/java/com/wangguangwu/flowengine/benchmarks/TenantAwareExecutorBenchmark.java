@@ -0,0 +1,71 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantAwareExecutorService;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户感知线程池提交开销基准
+ * <p>
+ * 使用在调用线程上直接执行的线程池，排除线程切换，只比较手动包装与 {@link TenantAwareExecutorService} 的传播开销
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantAwareExecutorBenchmark {
+
+    private TenantContext context;
+    private ExecutorService direct;
+    private TenantAwareExecutorService tenantAware;
+    private Runnable task;
+
+    @Setup
+    public void setup() {
+        context = DefaultTenantContext.create("tenant-benchmark");
+        TenantContextHolder.setContext(context);
+        direct = MoreExecutors.newDirectExecutorService();
+        tenantAware = new TenantAwareExecutorService(direct);
+        task = TenantContextHolder::getContext;
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+        direct.shutdown();
+    }
+
+    @Benchmark
+    public void executeManuallyWrapped() {
+        direct.execute(TenantContextPropagator.wrap(task));
+        // 手动包装的任务执行后会清除上下文
+        TenantContextHolder.setContext(context);
+    }
+
+    @Benchmark
+    public void executeTenantAware() {
+        tenantAware.execute(task);
+    }
+}
@@ -0,0 +1,70 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import com.wangguangwu.flowengine.tenant.spring.TenantAwarePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户感知注解解析基准
+ * <p>
+ * 对比切面每次调用时查找注解（原实现）、每次完整解析方法和类上的注解，以及按方法缓存的策略查找
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantAwarePolicyBenchmark {
+
+    private Method method;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        method = Service.class.getMethod("process");
+    }
+
+    @Benchmark
+    public TenantAware findAnnotation() {
+        return AnnotationUtils.findAnnotation(method, TenantAware.class);
+    }
+
+    @Benchmark
+    public TenantAwarePolicy resolvePolicy() {
+        return TenantAwarePolicy.resolve(method, ServiceImpl.class);
+    }
+
+    @Benchmark
+    public TenantAwarePolicy cachedPolicy() {
+        return TenantAwarePolicy.of(method, ServiceImpl.class);
+    }
+
+    public interface Service {
+        void process();
+    }
+
+    @TenantAware(allowSystemTenant = false)
+    public static class ServiceImpl implements Service {
+
+        @Override
+        @TenantAware
+        public void process() {
+        }
+    }
+}
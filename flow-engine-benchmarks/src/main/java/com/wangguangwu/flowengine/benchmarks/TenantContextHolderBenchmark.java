@@ -0,0 +1,66 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户上下文读写基准
+ * <p>
+ * 每个基准线程持有独立状态，模拟请求线程在进入和离开时设置、清除上下文
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantContextHolderBenchmark {
+
+    private TenantContext context;
+
+    @Setup
+    public void setup() {
+        context = DefaultTenantContext.create("tenant-benchmark");
+        TenantContextHolder.setContext(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public TenantContext getContext() {
+        return TenantContextHolder.getContext();
+    }
+
+    @Benchmark
+    public String getCurrentTenantId() {
+        return TenantContextHolder.getCurrentTenantId();
+    }
+
+    @Benchmark
+    public TenantContext setAndRestoreContext() {
+        TenantContext previous = TenantContextHolder.getContext();
+        TenantContextHolder.setContext(context);
+        TenantContextHolder.setContext(previous);
+        return previous;
+    }
+}
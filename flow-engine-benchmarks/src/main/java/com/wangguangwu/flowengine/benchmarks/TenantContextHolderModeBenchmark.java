@@ -0,0 +1,76 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolderMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户上下文存储模式对比基准
+ * <p>
+ * INHERITABLE 模式在每次创建线程时复制父线程的上下文，SCOPED 模式不复制。
+ * 分别测量创建线程、创建并运行一个任务，以及在调用范围内绑定上下文的单次开销
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantContextHolderModeBenchmark {
+
+    @Param({"INHERITABLE", "SCOPED"})
+    public TenantContextHolderMode mode;
+
+    private TenantContext context;
+    private Runnable task;
+
+    @Setup
+    public void setup() {
+        TenantContextHolder.setMode(mode);
+        context = DefaultTenantContext.create("tenant-benchmark");
+        TenantContextHolder.setContext(context);
+        task = TenantContextHolder::getContext;
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Thread newThread() {
+        return new Thread(task);
+    }
+
+    @Benchmark
+    public Thread startAndJoinThread() throws InterruptedException {
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+        return thread;
+    }
+
+    @Benchmark
+    public TenantContext runWithContext() {
+        TenantContextHolder.runWithContext(context, task);
+        return context;
+    }
+}
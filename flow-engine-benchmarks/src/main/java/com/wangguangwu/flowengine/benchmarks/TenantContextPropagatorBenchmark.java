@@ -0,0 +1,77 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户上下文传播基准
+ * <p>
+ * 分别测量包装任务的开销，以及包装后在当前线程执行一次（设置与清理上下文）的开销
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantContextPropagatorBenchmark {
+
+    private TenantContext context;
+    private Runnable task;
+    private Callable<String> callable;
+
+    @Setup
+    public void setup() {
+        context = DefaultTenantContext.create("tenant-benchmark");
+        TenantContextHolder.setContext(context);
+        task = () -> {
+        };
+        callable = TenantContextHolder::getCurrentTenantId;
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Runnable wrapRunnable() {
+        return TenantContextPropagator.wrap(task);
+    }
+
+    @Benchmark
+    public void wrapAndRunRunnable(Blackhole blackhole) {
+        Runnable wrapped = TenantContextPropagator.wrap(task);
+        wrapped.run();
+        // 包装任务执行后会清除当前线程的上下文，重新设置以保证每次调用捕获相同的上下文
+        TenantContextHolder.setContext(context);
+        blackhole.consume(wrapped);
+    }
+
+    @Benchmark
+    public String wrapAndCallCallable() throws Exception {
+        String tenantId = TenantContextPropagator.wrap(callable).call();
+        TenantContextHolder.setContext(context);
+        return tenantId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级租户上下文创建基准
+ * <p>
+ * 模拟过滤器从请求头解码出租户ID后创建上下文：每次新建 {@link DefaultTenantContext}，
+ * 与从 {@link TenantContextRegistry} 获取共享实例对比。配合 gc 分析器查看每次请求的分配字节数，
+ * 两者都包含解码请求头产生的字符串
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantContextRegistryBenchmark {
+
+    @Param({"1", "1000"})
+    public int tenants;
+
+    private byte[][] headers;
+    private TenantContextRegistry registry;
+    private int next;
+
+    @Setup
+    public void setup() {
+        headers = new byte[tenants][];
+        for (int i = 0; i < tenants; i++) {
+            headers[i] = ("tenant-" + i).getBytes(StandardCharsets.ISO_8859_1);
+        }
+        registry = new TenantContextRegistry("system");
+    }
+
+    @Benchmark
+    public TenantContext createPerRequest() {
+        return DefaultTenantContext.create(nextHeader());
+    }
+
+    @Benchmark
+    public TenantContext registry() {
+        return registry.initializeContext(nextHeader());
+    }
+
+    private String nextHeader() {
+        byte[] header = headers[next];
+        next = next + 1 == tenants ? 0 : next + 1;
+        return new String(header, StandardCharsets.ISO_8859_1);
+    }
+}
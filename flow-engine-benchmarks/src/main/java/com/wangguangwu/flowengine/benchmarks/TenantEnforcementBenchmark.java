@@ -0,0 +1,86 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.spring.TenantAwareAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户约束强制方式基准
+ * <p>
+ * 对比直接调用、编译期生成子类（{@code enforcement=generated}）与 Spring AOP 代理（{@code enforcement=proxy}）
+ * 调用 {@code @TenantAware} 方法的开销。切面在方法返回后会清理上下文，因此每次调用前都重新设置上下文。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantEnforcementBenchmark {
+
+    private TenantContext context;
+    private OrderService plain;
+    private OrderService generated;
+    private OrderService proxy;
+
+    @Setup
+    public void setup() {
+        context = DefaultTenantContext.create("tenant-a");
+        plain = new OrderService();
+        generated = new TenantEnforced_TenantEnforcementBenchmark_OrderService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TenantAwareAspect());
+        proxy = factory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public int plainCall() {
+        TenantContextHolder.setContext(context);
+        return plain.process(1);
+    }
+
+    @Benchmark
+    public int generatedSubclass() {
+        TenantContextHolder.setContext(context);
+        return generated.process(1);
+    }
+
+    @Benchmark
+    public int aopProxy() {
+        TenantContextHolder.setContext(context);
+        return proxy.process(1);
+    }
+
+    public static class OrderService {
+
+        @TenantAware
+        public int process(int value) {
+            return value + 1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.benchmarks.spi.BenchmarkService;
+import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantExtensionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户扩展解析命中路径基准
+ * <p>
+ * 缓存预热后按租户轮转调用 {@link TenantExtensionCache} 提供的加载器，与全局加载器对比；
+ * 两者都包含切换租户上下文的开销。配合 gc 分析器确认命中路径不分配对象。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantExtensionLoaderBenchmark {
+
+    @Param({"1", "10000"})
+    public int tenants;
+
+    private TenantContext[] contexts;
+    private TenantExtensionCache cache;
+    private ExtensionLoader<BenchmarkService> tenantLoader;
+    private ExtensionLoader<BenchmarkService> globalLoader;
+    private int next;
+
+    @Setup
+    public void setup() {
+        cache = new TenantExtensionCache(tenants * 2L, TenantExtensionCache.DEFAULT_EXPIRE_AFTER_ACCESS);
+        tenantLoader = cache.getExtensionLoader(BenchmarkService.class);
+        globalLoader = SPILoader.getExtensionLoader(BenchmarkService.class);
+        contexts = new TenantContext[tenants];
+        for (int i = 0; i < tenants; i++) {
+            contexts[i] = DefaultTenantContext.create("tenant-" + i);
+            TenantContextHolder.setContext(contexts[i]);
+            tenantLoader.getExtension("default");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        TenantContextHolder.clearContext();
+        cache.close();
+    }
+
+    @Benchmark
+    public BenchmarkService global() {
+        TenantContextHolder.setContext(nextContext());
+        return globalLoader.getExtension("default");
+    }
+
+    @Benchmark
+    public BenchmarkService tenant() {
+        TenantContextHolder.setContext(nextContext());
+        return tenantLoader.getExtension("default");
+    }
+
+    private TenantContext nextContext() {
+        TenantContext context = contexts[next];
+        next = next + 1 == tenants ? 0 : next + 1;
+        return context;
+    }
+}
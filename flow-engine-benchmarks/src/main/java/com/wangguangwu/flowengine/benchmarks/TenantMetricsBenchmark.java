@@ -0,0 +1,71 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.metrics.MicrometerTenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户指标记录基准
+ * <p>
+ * 测量记录一次请求的开销：被跟踪的热点租户、在一万个长尾租户之间轮转（计入草图并归入other），
+ * 以及一次拒绝计数。请求耗时发布百分位直方图，与默认配置一致
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantMetricsBenchmark {
+
+    private static final int TAIL_TENANTS = 10_000;
+
+    private final MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(
+            new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), true);
+    private final String[] tailTenants = new String[TAIL_TENANTS];
+    private int next;
+
+    public TenantMetricsBenchmark() {
+        // 先让热点租户占满跟踪名额
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 1_000; j++) {
+                recorder.recordRequest("hot-" + i, 1_000);
+            }
+        }
+        for (int i = 0; i < TAIL_TENANTS; i++) {
+            tailTenants[i] = "tail-" + i;
+        }
+    }
+
+    @Benchmark
+    public void trackedTenant() {
+        recorder.recordRequest("hot-7", 1_000);
+    }
+
+    @Benchmark
+    public void longTailTenant() {
+        String tenantId = tailTenants[next];
+        next = next + 1 == TAIL_TENANTS ? 0 : next + 1;
+        recorder.recordRequest(tenantId, 1_000);
+    }
+
+    @Benchmark
+    public void rejection() {
+        recorder.recordRejection("hot-7", TenantRejectionReason.RATE_LIMITED);
+    }
+}
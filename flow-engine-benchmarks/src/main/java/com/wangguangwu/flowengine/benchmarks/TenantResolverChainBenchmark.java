@@ -0,0 +1,104 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.tenant.resolver.TenantRequest;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户解析链基准
+ * <p>
+ * 所有来源都启用，分别测量租户ID位于请求头（第一个解析器命中）、Cookie、路径、子域名和令牌（最后一个解析器命中）时的开销。
+ * 配合 gc 分析器确认除结果字符串外没有其他分配
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantResolverChainBenchmark {
+
+    private TenantResolverChain chain;
+    private TenantRequest header;
+    private TenantRequest cookie;
+    private TenantRequest path;
+    private TenantRequest subdomain;
+    private TenantRequest jwt;
+
+    @Setup
+    public void setup() {
+        chain = TenantResolverChain.load(
+                new TenantResolverSettings("X-Tenant-ID", "tenant", "/tenants/", "example.com", "tenant_id"));
+        header = new Request(Map.of("X-Tenant-ID", "tenant-benchmark"), "/orders", "localhost");
+        cookie = new Request(Map.of("Cookie", "session=0123456789abcdef; tenant=tenant-benchmark; theme=dark"),
+                "/orders", "localhost");
+        path = new Request(Map.of(), "/tenants/tenant-benchmark/orders/42", "localhost");
+        subdomain = new Request(Map.of(), "/orders", "tenant-benchmark.example.com");
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8))
+                + '.' + encoder.encodeToString(("{\"sub\":\"user-1\",\"iat\":1700000000,\"exp\":1700003600,"
+                + "\"tenant_id\":\"tenant-benchmark\"}").getBytes(StandardCharsets.UTF_8)) + ".signature";
+        jwt = new Request(Map.of("Authorization", "Bearer " + token), "/orders", "localhost");
+    }
+
+    @Benchmark
+    public String header() {
+        return chain.resolve(header);
+    }
+
+    @Benchmark
+    public String cookie() {
+        return chain.resolve(cookie);
+    }
+
+    @Benchmark
+    public String path() {
+        return chain.resolve(path);
+    }
+
+    @Benchmark
+    public String subdomain() {
+        return chain.resolve(subdomain);
+    }
+
+    @Benchmark
+    public String jwt() {
+        return chain.resolve(jwt);
+    }
+
+    private record Request(Map<String, String> headers, String path, String host) implements TenantRequest {
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getHost() {
+            return host;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.wangguangwu.flowengine.benchmarks;
+
+import com.wangguangwu.flowengine.core.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 预写日志组提交基准
+ * <p>
+ * 持续追加128字节的记录（约为一次节点完成的编码大小），最多允许 {@value #WINDOW} 条记录尚未持久化，
+ * 测量不同 {@code fsyncBatchSize} 下的持久化吞吐；刷盘线程每次覆盖所有待刷盘记录，批量越大fsync次数越少。
+ * {@code appendAndAwait} 每条记录都等待持久化，只有一个写入者时攒不满一批，批量大于1的配置要等满fsync间隔
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteAheadLogBenchmark {
+
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int WINDOW = 1024;
+    private static final int RECORD_SIZE = 128;
+    private static final int TRUNCATE_EVERY = 64 * 1024;
+
+    @Param({"1", "8", "64", "512"})
+    public int fsyncBatchSize;
+
+    private Path directory;
+    private WriteAheadLog wal;
+    private byte[] record;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("flow-wal-benchmark");
+        wal = new WriteAheadLog(directory, SEGMENT_SIZE, fsyncBatchSize, Duration.ofMillis(1));
+        record = new byte[RECORD_SIZE];
+        ThreadLocalRandom.current().nextBytes(record);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        wal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long appendDurable() throws Exception {
+        long lsn = wal.append(record);
+        if (lsn > WINDOW) {
+            wal.awaitDurable(lsn - WINDOW);
+        }
+        if (lsn % TRUNCATE_EVERY == 0) {
+            // 模拟快照后删除旧段，避免基准占满磁盘
+            wal.truncateBefore(wal.durableLsn());
+        }
+        return lsn;
+    }
+
+    @Benchmark
+    public long appendAndAwait() throws Exception {
+        long lsn = wal.append(record);
+        wal.awaitDurable(lsn);
+        if (lsn % TRUNCATE_EVERY == 0) {
+            wal.truncateBefore(lsn);
+        }
+        return lsn;
+    }
+}
@@ -0,0 +1,30 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1毫秒后完成的异步流程步骤，模拟一次非阻塞I/O，与 {@link SleepFlowStep} 对照
+ *
+ * @author wangguangwu
+ */
+@Extension("async-sleep")
+public class AsyncSleepFlowStep implements AsyncFlowStep {
+
+    /**
+     * 在延迟线程上直接完成，不再经过公共线程池
+     */
+    private static final Executor DELAYED = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS, Runnable::run);
+
+    @Override
+    public CompletionStage<?> executeAsync(FlowContext context) {
+        return CompletableFuture.runAsync(() -> {
+        }, DELAYED);
+    }
+}
@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+/**
+ * 基准测试使用的单例扩展点
+ *
+ * @author wangguangwu
+ */
+@SPI("default")
+public interface BenchmarkService {
+
+    /**
+     * 执行一次空操作
+     *
+     * @param input 输入值
+     * @return 输出值
+     */
+    int apply(int input);
+}
@@ -0,0 +1,25 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 消耗固定CPU时间的流程步骤，用于测量并行分支的扩展性
+ *
+ * @author wangguangwu
+ */
+@Extension("cpu")
+public class CpuFlowStep implements FlowStep {
+
+    /**
+     * 单个步骤消耗的CPU令牌数，约数微秒
+     */
+    public static final long TOKENS = 2_000;
+
+    @Override
+    public void execute(FlowContext context) {
+        Blackhole.consumeCPU(TOKENS);
+    }
+}
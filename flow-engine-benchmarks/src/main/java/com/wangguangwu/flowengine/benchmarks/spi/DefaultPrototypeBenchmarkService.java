@@ -0,0 +1,17 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 默认非单例基准测试扩展
+ *
+ * @author wangguangwu
+ */
+@Extension("default")
+public class DefaultPrototypeBenchmarkService implements PrototypeBenchmarkService {
+
+    @Override
+    public int apply(int input) {
+        return input - 1;
+    }
+}
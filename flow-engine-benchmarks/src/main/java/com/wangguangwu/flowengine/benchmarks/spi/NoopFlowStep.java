@@ -0,0 +1,18 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 空操作流程步骤，用于测量引擎自身的调度开销
+ *
+ * @author wangguangwu
+ */
+@Extension("noop")
+public class NoopFlowStep implements FlowStep {
+
+    @Override
+    public void execute(FlowContext context) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+/**
+ * 基准测试使用的非单例扩展点，每次获取都会创建新实例
+ *
+ * @author wangguangwu
+ */
+@SPI(value = "default", singleton = false)
+public interface PrototypeBenchmarkService {
+
+    /**
+     * 执行一次空操作
+     *
+     * @param input 输入值
+     * @return 输出值
+     */
+    int apply(int input);
+}
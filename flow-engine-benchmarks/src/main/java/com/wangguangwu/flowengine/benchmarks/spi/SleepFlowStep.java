@@ -0,0 +1,19 @@
+package com.wangguangwu.flowengine.benchmarks.spi;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 休眠1毫秒的流程步骤，模拟一次阻塞I/O
+ *
+ * @author wangguangwu
+ */
+@Extension("sleep")
+public class SleepFlowStep implements FlowStep {
+
+    @Override
+    public void execute(FlowContext context) throws InterruptedException {
+        Thread.sleep(1);
+    }
+}
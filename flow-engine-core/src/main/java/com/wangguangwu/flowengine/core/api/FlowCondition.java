@@ -0,0 +1,23 @@
+package com.wangguangwu.flowengine.core.api;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+/**
+ * 连线条件
+ * <p>
+ * 源节点完成后求值，返回false时该连线不触发。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@FunctionalInterface
+public interface FlowCondition {
+
+    /**
+     * 判断连线是否触发
+     *
+     * @param context 流程上下文
+     * @return 是否触发
+     */
+    boolean test(FlowContext context);
+}
@@ -0,0 +1,176 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 流程定义
+ * <p>
+ * 由节点和有向连线组成的不可变DAG描述，通过 {@link #builder(String)} 构建。
+ * 节点的执行语义：没有入边的节点在流程开始时执行；其余节点在任一入边触发后执行，
+ * 所有入边都未触发（条件不满足或源节点被跳过）的节点被跳过。
+ * 引擎总是在节点的所有入边都确定之后才处理该节点，{@link FlowNodeType#PARALLEL} 和 {@link FlowNodeType#JOIN}
+ * 网关不执行步骤，用于显式表达分支的分叉与汇聚。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class FlowDefinition {
+
+    private final String id;
+
+    private final List<FlowNode> nodes;
+
+    private final List<FlowEdge> edges;
+
+    private FlowDefinition(String id, List<FlowNode> nodes, List<FlowEdge> edges) {
+        this.id = id;
+        this.nodes = List.copyOf(nodes);
+        this.edges = List.copyOf(edges);
+    }
+
+    /**
+     * 创建流程定义构建器
+     *
+     * @param id 流程ID
+     * @return 构建器
+     */
+    public static Builder builder(String id) {
+        return new Builder(id);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 获取节点，按声明顺序排列
+     *
+     * @return 节点列表
+     */
+    public List<FlowNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 获取连线，按声明顺序排列
+     *
+     * @return 连线列表
+     */
+    public List<FlowEdge> getEdges() {
+        return edges;
+    }
+
+    /**
+     * 流程定义构建器
+     */
+    public static final class Builder {
+
+        private final String id;
+
+        private final List<FlowNode> nodes = new ArrayList<>();
+
+        private final List<FlowEdge> edges = new ArrayList<>();
+
+        private Builder(String id) {
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("Flow id must not be empty");
+            }
+            this.id = id;
+        }
+
+        /**
+         * 添加步骤节点
+         *
+         * @param nodeId 节点ID
+         * @param step   步骤扩展名
+         * @return 构建器
+         */
+        public Builder step(String nodeId, String step) {
+            return node(new FlowNode(nodeId, FlowNodeType.STEP, step));
+        }
+
+        /**
+         * 添加并行网关
+         *
+         * @param nodeId 节点ID
+         * @return 构建器
+         */
+        public Builder parallel(String nodeId) {
+            return node(new FlowNode(nodeId, FlowNodeType.PARALLEL, null));
+        }
+
+        /**
+         * 添加汇聚网关
+         *
+         * @param nodeId 节点ID
+         * @return 构建器
+         */
+        public Builder join(String nodeId) {
+            return node(new FlowNode(nodeId, FlowNodeType.JOIN, null));
+        }
+
+        /**
+         * 添加节点
+         *
+         * @param node 节点定义
+         * @return 构建器
+         */
+        public Builder node(FlowNode node) {
+            nodes.add(Objects.requireNonNull(node, "Node must not be null"));
+            return this;
+        }
+
+        /**
+         * 添加无条件连线
+         *
+         * @param from 源节点ID
+         * @param to   目标节点ID
+         * @return 构建器
+         */
+        public Builder edge(String from, String to) {
+            return edge(from, to, null);
+        }
+
+        /**
+         * 添加条件连线
+         *
+         * @param from      源节点ID
+         * @param to        目标节点ID
+         * @param condition 触发条件，为null时无条件触发
+         * @return 构建器
+         */
+        public Builder edge(String from, String to, FlowCondition condition) {
+            edges.add(new FlowEdge(from, to, condition));
+            return this;
+        }
+
+        /**
+         * 校验并构建流程定义，环路检测在部署编译时进行
+         *
+         * @return 流程定义
+         * @throws FlowException 没有节点、节点ID重复或连线引用了不存在的节点
+         */
+        public FlowDefinition build() {
+            if (nodes.isEmpty()) {
+                throw new FlowException("Flow '" + id + "' has no nodes");
+            }
+            Set<String> nodeIds = new HashSet<>();
+            for (FlowNode node : nodes) {
+                if (!nodeIds.add(node.id())) {
+                    throw new FlowException("Flow '" + id + "' has duplicate node '" + node.id() + "'");
+                }
+            }
+            for (FlowEdge edge : edges) {
+                if (!nodeIds.contains(edge.from()) || !nodeIds.contains(edge.to())) {
+                    throw new FlowException("Flow '" + id + "' has edge " + edge.from() + " -> " + edge.to()
+                            + " referencing an unknown node");
+                }
+            }
+            return new FlowDefinition(id, nodes, edges);
+        }
+    }
+}
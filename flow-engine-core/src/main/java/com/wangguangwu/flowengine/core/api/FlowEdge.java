@@ -0,0 +1,19 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.Objects;
+
+/**
+ * 流程连线定义
+ *
+ * @param from      源节点ID
+ * @param to        目标节点ID
+ * @param condition 触发条件，为null时无条件触发
+ * @author wangguangwu
+ */
+public record FlowEdge(String from, String to, FlowCondition condition) {
+
+    public FlowEdge {
+        Objects.requireNonNull(from, "Edge source must not be null");
+        Objects.requireNonNull(to, "Edge target must not be null");
+    }
+}
@@ -0,0 +1,46 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 流程引擎
+ * <p>
+ * 流程定义在部署时编译为执行计划，之后每次执行都复用同一份计划。
+ * 执行时从当前租户上下文获取租户ID，步骤在调用线程的租户上下文中运行。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface FlowEngine {
+
+    /**
+     * 部署流程定义，已存在同ID的流程时替换
+     *
+     * @param definition 流程定义
+     * @throws FlowException 流程存在环或引用了不存在的步骤扩展
+     */
+    void deploy(FlowDefinition definition);
+
+    /**
+     * 执行流程
+     *
+     * @param flowId    流程ID
+     * @param variables 初始变量，可以为null
+     * @return 执行结果
+     * @throws FlowException 流程未部署
+     */
+    FlowResult execute(String flowId, Map<String, Object> variables);
+
+    /**
+     * 异步执行流程，默认在调用线程上同步执行
+     *
+     * @param flowId    流程ID
+     * @param variables 初始变量，可以为null
+     * @return 实例结束时完成的执行结果，步骤失败不会使其异常完成
+     * @throws FlowException 流程未部署
+     */
+    default CompletableFuture<FlowResult> executeAsync(String flowId, Map<String, Object> variables) {
+        return CompletableFuture.completedFuture(execute(flowId, variables));
+    }
+}
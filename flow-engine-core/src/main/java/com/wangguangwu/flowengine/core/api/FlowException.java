@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.core.api;
+
+/**
+ * 流程引擎异常
+ * <p>
+ * 流程定义非法、部署时无法编译或执行未部署的流程时抛出。步骤执行失败不会抛出该异常，而是体现在 {@link FlowResult} 中。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class FlowException extends RuntimeException {
+
+    public FlowException(String message) {
+        super(message);
+    }
+
+    public FlowException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 流程实例的持久化状态
+ * <p>
+ * 重启后从持久化层恢复的未结束实例，交给 {@code AbstractFlowEngine#resume} 继续执行。
+ * </p>
+ *
+ * @param flowId         流程ID
+ * @param instanceId     流程实例ID
+ * @param tenantId       租户ID，没有租户上下文时为null
+ * @param variables      最后一个已完成节点之后的变量
+ * @param completedNodes 已完成的节点ID，恢复时不再执行
+ * @author wangguangwu
+ */
+public record FlowInstanceState(String flowId, long instanceId, String tenantId, Map<String, Object> variables,
+                                Set<String> completedNodes) {
+
+    public FlowInstanceState {
+        variables = Map.copyOf(variables);
+        completedNodes = Set.copyOf(completedNodes);
+    }
+}
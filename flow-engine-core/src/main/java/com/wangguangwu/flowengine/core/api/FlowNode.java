@@ -0,0 +1,25 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.Objects;
+
+/**
+ * 流程节点定义
+ *
+ * @param id   节点ID，在流程内唯一
+ * @param type 节点类型
+ * @param step 步骤扩展名，网关节点为null
+ * @author wangguangwu
+ */
+public record FlowNode(String id, FlowNodeType type, String step) {
+
+    public FlowNode {
+        Objects.requireNonNull(id, "Node id must not be null");
+        Objects.requireNonNull(type, "Node type must not be null");
+        if (type == FlowNodeType.STEP && (step == null || step.isEmpty())) {
+            throw new IllegalArgumentException("Step node '" + id + "' must name a step extension");
+        }
+        if (type != FlowNodeType.STEP && step != null) {
+            throw new IllegalArgumentException("Gateway node '" + id + "' must not name a step extension");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.wangguangwu.flowengine.core.api;
+
+/**
+ * 流程节点类型
+ *
+ * @author wangguangwu
+ */
+public enum FlowNodeType {
+
+    /**
+     * 步骤节点，执行一个 {@link com.wangguangwu.flowengine.extension.api.FlowStep} 扩展
+     */
+    STEP,
+
+    /**
+     * 并行网关，不执行步骤，激活后触发所有出边，各分支可以被并行执行
+     */
+    PARALLEL,
+
+    /**
+     * 汇聚网关，不执行步骤，等待所有入边都已确定（触发或被跳过）后才继续
+     */
+    JOIN
+}
@@ -0,0 +1,31 @@
+package com.wangguangwu.flowengine.core.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流程实例执行结果
+ *
+ * @param flowId        流程ID
+ * @param instanceId    流程实例ID
+ * @param tenantId      租户ID，没有租户上下文时为null
+ * @param status        实例状态
+ * @param executedNodes 按完成顺序排列的已执行节点ID
+ * @param variables     执行结束时的变量快照
+ * @param failedNode    失败的节点ID，成功时为null
+ * @param error         失败原因，成功时为null
+ * @author wangguangwu
+ */
+public record FlowResult(String flowId, long instanceId, String tenantId, FlowStatus status,
+                         List<String> executedNodes, Map<String, Object> variables,
+                         String failedNode, Throwable error) {
+
+    /**
+     * 是否执行成功
+     *
+     * @return 状态为 {@link FlowStatus#COMPLETED} 时返回true
+     */
+    public boolean isSuccess() {
+        return status == FlowStatus.COMPLETED;
+    }
+}
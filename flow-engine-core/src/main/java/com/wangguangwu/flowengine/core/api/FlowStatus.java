@@ -0,0 +1,19 @@
+package com.wangguangwu.flowengine.core.api;
+
+/**
+ * 流程实例状态
+ *
+ * @author wangguangwu
+ */
+public enum FlowStatus {
+
+    /**
+     * 所有可达节点执行完成
+     */
+    COMPLETED,
+
+    /**
+     * 某个步骤或条件抛出异常，后续节点未执行
+     */
+    FAILED
+}
@@ -0,0 +1,226 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowEngine;
+import com.wangguangwu.flowengine.core.api.FlowException;
+import com.wangguangwu.flowengine.core.api.FlowInstanceState;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.spi.loader.DefaultExtensionLoader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionReloadListener;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流程引擎基类
+ * <p>
+ * 负责部署编译、执行计划查找、实例ID分配和租户ID获取，子类只需实现计划的执行方式。
+ * 步骤扩展重新加载后用新的扩展实例重新编译所有已部署流程。设置 {@link FlowJournal} 后记录实例的状态流转，
+ * 重启后通过 {@link #resume(FlowInstanceState)} 继续执行未结束的实例。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public abstract class AbstractFlowEngine implements FlowEngine, ExtensionReloadListener, AutoCloseable {
+
+    private final Map<String, FlowPlan> plans = new ConcurrentHashMap<>();
+
+    private final AtomicLong instanceIds = new AtomicLong();
+
+    private volatile FlowJournal journal = FlowJournal.NOOP;
+
+    protected AbstractFlowEngine() {
+        DefaultExtensionLoader.addReloadListener(this);
+    }
+
+    @Override
+    public void deploy(FlowDefinition definition) {
+        FlowPlan plan = FlowCompiler.compile(definition);
+        plans.put(definition.getId(), plan);
+    }
+
+    @Override
+    public FlowResult execute(String flowId, Map<String, Object> variables) {
+        FlowPlan plan = getPlan(flowId);
+        return execute(plan, startInstance(flowId, variables), null);
+    }
+
+    /**
+     * 继续执行重启前未结束的实例
+     * <p>
+     * 实例沿用原来的实例ID，在其租户上下文中执行；已完成的节点不再执行步骤，只按恢复的变量重新计算出边条件。
+     * 状态流转日志分配实例ID时新实例不会与恢复的实例冲突，否则应在接收新实例之前恢复，
+     * 使引擎分配的实例ID大于所有恢复的实例ID。
+     * </p>
+     *
+     * @param state 持久化的实例状态
+     * @return 执行结果
+     * @throws FlowException 流程未部署，或已完成的节点在当前流程定义中不存在
+     */
+    public FlowResult resume(FlowInstanceState state) {
+        FlowPlan plan = getPlan(state.flowId());
+        boolean[] completed = new boolean[plan.size()];
+        for (String nodeId : state.completedNodes()) {
+            completed[plan.indexOf(nodeId)] = true;
+        }
+        instanceIds.accumulateAndGet(state.instanceId(), Math::max);
+        DefaultFlowContext context = new DefaultFlowContext(state.flowId(), state.instanceId(), state.tenantId(),
+                state.variables());
+        TenantContext tenant = state.tenantId() == null ? null : DefaultTenantContext.create(state.tenantId());
+        FlowResult[] result = new FlowResult[1];
+        TenantContextHolder.runWithContext(tenant, () -> result[0] = execute(plan, context, completed));
+        return result[0];
+    }
+
+    /**
+     * 设置状态流转日志，默认不记录
+     *
+     * @param journal 状态流转日志
+     */
+    public void setJournal(FlowJournal journal) {
+        this.journal = Objects.requireNonNull(journal, "Journal must not be null");
+    }
+
+    /**
+     * 获取状态流转日志
+     *
+     * @return 状态流转日志
+     */
+    public FlowJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * 启动流程实例：由状态流转日志或引擎分配实例ID、从当前租户上下文获取租户ID，并记录实例启动
+     *
+     * @param flowId    流程ID
+     * @param variables 初始变量，可以为null
+     * @return 流程上下文
+     */
+    protected DefaultFlowContext startInstance(String flowId, Map<String, Object> variables) {
+        FlowJournal journal = this.journal;
+        long instanceId = journal.nextInstanceId();
+        if (instanceId <= 0) {
+            instanceId = instanceIds.incrementAndGet();
+        }
+        DefaultFlowContext context = new DefaultFlowContext(flowId, instanceId,
+                TenantContextHolder.getCurrentTenantId(), variables);
+        journal.started(context);
+        return context;
+    }
+
+    /**
+     * 结束流程实例：记录实例结束并构建执行结果，每个实例只应调用一次
+     *
+     * @param journal    实例启动时的状态流转日志
+     * @param context    流程上下文
+     * @param status     实例状态
+     * @param executed   已执行节点ID
+     * @param failedNode 失败的节点ID，成功时为null
+     * @param error      失败原因，成功时为null
+     * @return 执行结果
+     */
+    protected static FlowResult finish(FlowJournal journal, DefaultFlowContext context, FlowStatus status,
+                                       Collection<String> executed, String failedNode, Throwable error) {
+        try {
+            journal.finished(context, status);
+        } catch (RuntimeException e) {
+            // 结束记录丢失只会让实例在重启后被再次恢复，不影响本次结果
+            log.warn("Failed to journal completion of flow {} instance {}", context.flowId(), context.instanceId(), e);
+        }
+        return new FlowResult(context.flowId(), context.instanceId(), context.tenantId(), status,
+                List.copyOf(executed), Map.copyOf(context.getVariables()), failedNode, error);
+    }
+
+    /**
+     * 在指定线程池上异步执行流程，默认把整个实例提交到线程池上同步执行，执行线程设置为调用时的租户上下文
+     *
+     * @param flowId    流程ID
+     * @param variables 初始变量，可以为null
+     * @param executor  执行实例的线程池
+     * @return 实例结束时完成的执行结果，步骤失败不会使其异常完成
+     * @throws FlowException              流程未部署
+     * @throws RejectedExecutionException 线程池拒绝执行
+     */
+    public CompletableFuture<FlowResult> executeAsync(String flowId, Map<String, Object> variables,
+                                                      Executor executor) {
+        FlowPlan plan = getPlan(flowId);
+        CompletableFuture<FlowResult> result = new CompletableFuture<>();
+        executor.execute(TenantContextPropagator.wrap(() -> {
+            try {
+                result.complete(execute(plan, startInstance(flowId, variables), null));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * 获取已部署流程的执行计划
+     *
+     * @param flowId 流程ID
+     * @return 执行计划
+     * @throws FlowException 流程未部署
+     */
+    public FlowPlan getPlan(String flowId) {
+        FlowPlan plan = plans.get(flowId);
+        if (plan == null) {
+            throw new FlowException("Flow '" + flowId + "' is not deployed");
+        }
+        return plan;
+    }
+
+    /**
+     * 按执行计划运行一个流程实例
+     *
+     * @param plan      执行计划
+     * @param context   流程上下文
+     * @param completed 恢复执行时已完成的节点，按节点下标标记；新实例为null
+     * @return 执行结果
+     */
+    protected abstract FlowResult execute(FlowPlan plan, DefaultFlowContext context, boolean[] completed);
+
+    @Override
+    public void onReload(Class<?> type) {
+        if (type != FlowStep.class) {
+            return;
+        }
+        for (FlowPlan plan : plans.values()) {
+            FlowDefinition definition = plan.getDefinition();
+            try {
+                // 只替换仍是旧计划的条目，避免覆盖重新加载期间新部署的版本
+                plans.replace(definition.getId(), plan, FlowCompiler.compile(definition));
+            } catch (FlowException e) {
+                log.warn("Failed to recompile flow {} after step reload, keeping previous plan",
+                        definition.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 停止监听扩展重新加载
+     */
+    @Override
+    public void close() {
+        DefaultExtensionLoader.removeReloadListener(this);
+    }
+}
@@ -0,0 +1,73 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 默认流程上下文
+ *
+ * @author wangguangwu
+ */
+public class DefaultFlowContext implements FlowContext {
+
+    private final String flowId;
+
+    private final long instanceId;
+
+    private final String tenantId;
+
+    private final Map<String, Object> variables;
+
+    /**
+     * 构造函数
+     *
+     * @param flowId     流程ID
+     * @param instanceId 流程实例ID
+     * @param tenantId   租户ID，可以为null
+     * @param variables  初始变量，可以为null
+     */
+    public DefaultFlowContext(String flowId, long instanceId, String tenantId, Map<String, Object> variables) {
+        this.flowId = flowId;
+        this.instanceId = instanceId;
+        this.tenantId = tenantId;
+        this.variables = variables == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(variables);
+    }
+
+    @Override
+    public String flowId() {
+        return flowId;
+    }
+
+    @Override
+    public long instanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public String tenantId() {
+        return tenantId;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getVariable(String name) {
+        return (T) variables.get(name);
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        if (value == null) {
+            variables.remove(name);
+        } else {
+            variables.put(name, value);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getVariables() {
+        return Collections.unmodifiableMap(variables);
+    }
+}
@@ -0,0 +1,322 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantAwareExecutorService;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 租户公平的流程实例调度器
+ * <p>
+ * 提交的流程实例按租户（{@link TenantContext#tenantId()}）进入各自的队列，最多同时运行 {@code maxConcurrency} 个实例，
+ * 空出的名额按赤字轮询（Deficit Round-Robin）在有排队实例的租户之间分配：每轮租户获得 {@code quantum × 权重} 的额度，
+ * 实例的代价是其执行计划的节点数，额度不足的租户让给下一个租户并把余额留到下一轮。
+ * 一个租户积压再多实例，其他租户的等待也只取决于活跃租户数而不是积压量，小租户的尾延迟保持平稳。
+ * </p>
+ * <p>
+ * 实例通过 {@link AbstractFlowEngine#executeAsync(String, Map, Executor)} 在调度器的线程池上启动，默认是虚拟线程
+ * （运行时不支持时退化为平台线程，见 {@link TenantAwareExecutorService#newVirtualThreadPerTaskExecutor()}），
+ * 执行线程设置为提交时的租户上下文。
+ * {@link ParallelFlowEngine} 的所有分支和异步步骤之后的节点同样在该线程池上执行，而不是引擎构造时的线程池。
+ * 并发名额在实例结束时释放，引擎支持异步步骤时挂起中的实例不占用线程。队列只保存有排队实例的租户，空闲租户不占用内存。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class FairFlowScheduler implements AutoCloseable {
+
+    /**
+     * 默认每轮额度，按节点数计
+     */
+    public static final int DEFAULT_QUANTUM = 16;
+
+    /**
+     * 默认单个租户最大排队实例数
+     */
+    public static final int DEFAULT_MAX_QUEUED_PER_TENANT = 10_000;
+
+    private final AbstractFlowEngine engine;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private final int maxConcurrency;
+
+    private final int quantum;
+
+    private final int maxQueuedPerTenant;
+
+    private final Map<String, Integer> weights;
+
+    /**
+     * 有排队实例的租户队列，无租户上下文的实例使用null键
+     */
+    private final Map<String, TenantQueue> queues = new HashMap<>();
+
+    /**
+     * 轮询顺序，与 {@link #queues} 包含相同的队列
+     */
+    private final ArrayDeque<TenantQueue> active = new ArrayDeque<>();
+
+    private int inFlight;
+
+    private int queued;
+
+    private boolean closed;
+
+    /**
+     * 使用默认额度、队列上限和虚拟线程创建调度器，所有租户权重相同
+     *
+     * @param engine         流程引擎
+     * @param maxConcurrency 最大并发实例数
+     */
+    public FairFlowScheduler(AbstractFlowEngine engine, int maxConcurrency) {
+        this(engine, null, maxConcurrency, DEFAULT_QUANTUM, DEFAULT_MAX_QUEUED_PER_TENANT, Map.of());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param engine             流程引擎
+     * @param executor           执行实例步骤的线程池，为null时使用调度器自有的虚拟线程执行器并在关闭时关闭
+     * @param maxConcurrency     最大并发实例数
+     * @param quantum            每轮额度，按节点数计
+     * @param maxQueuedPerTenant 单个租户最大排队实例数
+     * @param weights            租户权重，未配置的租户权重为1
+     */
+    public FairFlowScheduler(AbstractFlowEngine engine, Executor executor, int maxConcurrency, int quantum,
+                             int maxQueuedPerTenant, Map<String, Integer> weights) {
+        if (maxConcurrency < 1 || quantum < 1 || maxQueuedPerTenant < 1) {
+            throw new IllegalArgumentException("maxConcurrency, quantum and maxQueuedPerTenant must be positive");
+        }
+        weights.forEach((tenantId, weight) -> {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Weight of tenant " + tenantId + " must be positive");
+            }
+        });
+        this.engine = Objects.requireNonNull(engine, "Engine must not be null");
+        this.ownedExecutor = executor == null ? TenantAwareExecutorService.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+        this.maxConcurrency = maxConcurrency;
+        this.quantum = quantum;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.weights = Map.copyOf(weights);
+    }
+
+    /**
+     * 以当前租户的身份提交流程实例
+     *
+     * @param flowId    流程ID
+     * @param variables 初始变量，可以为null
+     * @return 实例结束时完成的执行结果
+     * @throws com.wangguangwu.flowengine.core.api.FlowException 流程未部署
+     * @throws RejectedExecutionException                       调度器已关闭或当前租户排队实例数已达上限
+     */
+    public CompletableFuture<FlowResult> submit(String flowId, Map<String, Object> variables) {
+        FlowPlan plan = engine.getPlan(flowId);
+        TenantContext context = TenantContextHolder.getContext();
+        String tenantId = context == null ? null : context.tenantId();
+        Task task = new Task(flowId, variables, context, plan.size());
+        synchronized (this) {
+            if (closed) {
+                throw new RejectedExecutionException("Flow scheduler is closed");
+            }
+            TenantQueue queue = queues.get(tenantId);
+            if (queue == null) {
+                queue = new TenantQueue(tenantId, tenantId == null ? 1 : weights.getOrDefault(tenantId, 1));
+                queues.put(tenantId, queue);
+                active.addLast(queue);
+            } else if (queue.tasks.size() >= maxQueuedPerTenant) {
+                throw new RejectedExecutionException("Tenant " + tenantId + " has " + maxQueuedPerTenant
+                        + " queued flow instances");
+            }
+            queue.tasks.addLast(task);
+            queued++;
+        }
+        dispatch();
+        return task.result;
+    }
+
+    /**
+     * 正在运行的实例数
+     *
+     * @return 实例数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 所有租户的排队实例数
+     *
+     * @return 实例数
+     */
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    /**
+     * 指定租户的排队实例数
+     *
+     * @param tenantId 租户ID，为null时表示无租户上下文提交的实例
+     * @return 实例数
+     */
+    public synchronized int getQueued(String tenantId) {
+        TenantQueue queue = queues.get(tenantId);
+        return queue == null ? 0 : queue.tasks.size();
+    }
+
+    /**
+     * 拒绝新的提交并以 {@link RejectedExecutionException} 结束所有排队实例，正在运行的实例不受影响
+     */
+    @Override
+    public void close() {
+        ArrayDeque<Task> abandoned = new ArrayDeque<>();
+        synchronized (this) {
+            closed = true;
+            for (TenantQueue queue : active) {
+                abandoned.addAll(queue.tasks);
+            }
+            active.clear();
+            queues.clear();
+            queued = 0;
+        }
+        for (Task task : abandoned) {
+            task.result.completeExceptionally(new RejectedExecutionException("Flow scheduler is closed"));
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void dispatch() {
+        Task task;
+        while ((task = next()) != null) {
+            launch(task);
+        }
+    }
+
+    /**
+     * 占用一个并发名额并按赤字轮询选出下一个实例，没有名额或没有排队实例时返回null
+     */
+    private synchronized Task next() {
+        if (inFlight >= maxConcurrency) {
+            return null;
+        }
+        while (!active.isEmpty()) {
+            TenantQueue queue = active.peekFirst();
+            if (!queue.visited) {
+                queue.deficit += (long) quantum * queue.weight;
+                queue.visited = true;
+            }
+            Task task = queue.tasks.peekFirst();
+            if (queue.deficit < task.cost) {
+                // 本轮额度用完，余额留到下一轮
+                queue.visited = false;
+                active.addLast(active.pollFirst());
+                continue;
+            }
+            queue.tasks.pollFirst();
+            queue.deficit -= task.cost;
+            if (queue.tasks.isEmpty()) {
+                // 队列清空的租户不保留余额，避免空闲后一次性占用过多名额
+                active.pollFirst();
+                queues.remove(queue.tenantId);
+            }
+            queued--;
+            inFlight++;
+            return task;
+        }
+        return null;
+    }
+
+    /**
+     * 在实例提交时的租户上下文中启动实例，实例在调度器的线程池上执行
+     */
+    private void launch(Task task) {
+        CompletableFuture<FlowResult> result;
+        try {
+            result = TenantContextHolder.callWithContext(task.context,
+                    () -> engine.executeAsync(task.flowId, task.variables, executor));
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        } catch (Error e) {
+            task.result.completeExceptionally(e);
+            release();
+            throw e;
+        }
+        // 名额在实例结束时释放，异步步骤挂起期间不占用执行线程
+        result.whenComplete((flowResult, error) -> {
+            release();
+            if (error != null) {
+                task.result.completeExceptionally(error);
+            } else {
+                task.result.complete(flowResult);
+            }
+        });
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        dispatch();
+    }
+
+    /**
+     * 排队的流程实例
+     */
+    private static final class Task {
+
+        private final String flowId;
+
+        private final Map<String, Object> variables;
+
+        private final TenantContext context;
+
+        private final int cost;
+
+        private final CompletableFuture<FlowResult> result = new CompletableFuture<>();
+
+        private Task(String flowId, Map<String, Object> variables, TenantContext context, int cost) {
+            this.flowId = flowId;
+            this.variables = variables;
+            this.context = context;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * 单个租户的排队实例与赤字计数
+     */
+    private static final class TenantQueue {
+
+        private final String tenantId;
+
+        private final int weight;
+
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+
+        private long deficit;
+
+        /**
+         * 本轮是否已经获得额度
+         */
+        private boolean visited;
+
+        private TenantQueue(String tenantId, int weight) {
+            this.tenantId = tenantId;
+            this.weight = weight;
+        }
+    }
+}
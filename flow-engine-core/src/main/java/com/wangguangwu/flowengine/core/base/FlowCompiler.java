@@ -0,0 +1,133 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowCondition;
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowEdge;
+import com.wangguangwu.flowengine.core.api.FlowException;
+import com.wangguangwu.flowengine.core.api.FlowNode;
+import com.wangguangwu.flowengine.core.api.FlowNodeType;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流程编译器
+ * <p>
+ * 将流程定义编译为 {@link FlowPlan}：为节点分配int下标、构建后继数组、用Kahn算法计算拓扑序并检测环，
+ * 同时通过 {@link SPILoader} 解析步骤扩展，使扩展缺失在部署时而不是执行时暴露。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class FlowCompiler {
+
+    private FlowCompiler() {
+    }
+
+    /**
+     * 编译流程定义
+     *
+     * @param definition 流程定义
+     * @return 执行计划
+     * @throws FlowException 流程存在环或引用了不存在的步骤扩展
+     */
+    public static FlowPlan compile(FlowDefinition definition) {
+        List<FlowNode> nodes = definition.getNodes();
+        int n = nodes.size();
+        String[] nodeIds = new String[n];
+        FlowNodeType[] types = new FlowNodeType[n];
+        FlowStep[] steps = new FlowStep[n];
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            FlowNode node = nodes.get(i);
+            nodeIds[i] = node.id();
+            types[i] = node.type();
+            steps[i] = node.type() == FlowNodeType.STEP ? resolveStep(definition, node) : null;
+            index.put(node.id(), i);
+        }
+
+        // 先计数再填充，避免为每个节点分配可增长的列表
+        int[] outDegrees = new int[n];
+        int[] predecessorCounts = new int[n];
+        for (FlowEdge edge : definition.getEdges()) {
+            outDegrees[index.get(edge.from())]++;
+            predecessorCounts[index.get(edge.to())]++;
+        }
+        int[][] successors = new int[n][];
+        FlowCondition[][] conditions = new FlowCondition[n][];
+        for (int i = 0; i < n; i++) {
+            successors[i] = new int[outDegrees[i]];
+        }
+        int[] filled = new int[n];
+        for (FlowEdge edge : definition.getEdges()) {
+            int from = index.get(edge.from());
+            int slot = filled[from]++;
+            successors[from][slot] = index.get(edge.to());
+            if (edge.condition() != null) {
+                if (conditions[from] == null) {
+                    conditions[from] = new FlowCondition[outDegrees[from]];
+                }
+                conditions[from][slot] = edge.condition();
+            }
+        }
+
+        int[] order = topologicalOrder(definition, nodeIds, successors, predecessorCounts);
+        int starts = 0;
+        for (int count : predecessorCounts) {
+            if (count == 0) {
+                starts++;
+            }
+        }
+        int[] startNodes = new int[starts];
+        for (int i = 0, s = 0; i < n; i++) {
+            if (predecessorCounts[i] == 0) {
+                startNodes[s++] = i;
+            }
+        }
+        return new FlowPlan(definition, nodeIds, types, steps, order, startNodes, successors, conditions,
+                predecessorCounts);
+    }
+
+    private static FlowStep resolveStep(FlowDefinition definition, FlowNode node) {
+        try {
+            return SPILoader.getExtension(FlowStep.class, node.step());
+        } catch (SPIException e) {
+            throw new FlowException("Flow '" + definition.getId() + "' node '" + node.id()
+                    + "' references unknown step '" + node.step() + "'", e);
+        }
+    }
+
+    private static int[] topologicalOrder(FlowDefinition definition, String[] nodeIds, int[][] successors,
+                                          int[] predecessorCounts) {
+        int n = nodeIds.length;
+        int[] remaining = predecessorCounts.clone();
+        // order同时作为队列：[head, tail) 是入度已降为0但尚未展开的节点
+        int[] order = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (remaining[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            for (int successor : successors[order[head]]) {
+                if (--remaining[successor] == 0) {
+                    order[tail++] = successor;
+                }
+            }
+        }
+        if (tail < n) {
+            for (int i = 0; i < n; i++) {
+                if (remaining[i] > 0) {
+                    throw new FlowException("Flow '" + definition.getId() + "' contains a cycle, node '"
+                            + nodeIds[i] + "' can never become ready");
+                }
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,60 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+/**
+ * 流程实例状态流转日志
+ * <p>
+ * 引擎在实例启动、节点完成和实例结束时回调，持久化实现据此在重启后恢复未结束的实例。
+ * 回调在执行线程上同步调用，抛出的异常使当前节点失败。恢复执行时已完成的节点不再回调。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface FlowJournal {
+
+    /**
+     * 不记录任何状态
+     */
+    FlowJournal NOOP = new FlowJournal() {
+    };
+
+    /**
+     * 为新实例分配ID
+     * <p>
+     * 持久化实现应保证ID在重启后和共享同一日志的多个引擎之间都不重复
+     * </p>
+     *
+     * @return 实例ID，不大于0时由引擎在进程内递增分配
+     */
+    default long nextInstanceId() {
+        return 0;
+    }
+
+    /**
+     * 实例启动
+     *
+     * @param context 流程上下文，包含初始变量
+     */
+    default void started(FlowContext context) {
+    }
+
+    /**
+     * 节点完成，网关节点同样回调
+     *
+     * @param context 流程上下文，包含节点完成后的变量
+     * @param nodeId  节点ID
+     */
+    default void nodeCompleted(FlowContext context, String nodeId) {
+    }
+
+    /**
+     * 实例结束，每个实例只回调一次
+     *
+     * @param context 流程上下文
+     * @param status  实例状态
+     */
+    default void finished(FlowContext context, FlowStatus status) {
+    }
+}
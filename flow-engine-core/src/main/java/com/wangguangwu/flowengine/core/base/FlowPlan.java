@@ -0,0 +1,154 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowCondition;
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowException;
+import com.wangguangwu.flowengine.core.api.FlowNodeType;
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+/**
+ * 流程执行计划
+ * <p>
+ * 流程定义编译后的不可变结构：节点按声明顺序编号为0..n-1，所有关系都以int下标存储在数组中，
+ * 执行时只做数组访问，不再查找节点ID或连线。由 {@link FlowCompiler} 创建，实例可被所有执行线程共享。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class FlowPlan {
+
+    private final FlowDefinition definition;
+
+    private final String[] nodeIds;
+
+    private final FlowNodeType[] types;
+
+    private final FlowStep[] steps;
+
+    private final AsyncFlowStep[] asyncSteps;
+
+    private final int[] order;
+
+    private final int[] startNodes;
+
+    private final int[][] successors;
+
+    private final FlowCondition[][] conditions;
+
+    private final int[] predecessorCounts;
+
+    FlowPlan(FlowDefinition definition, String[] nodeIds, FlowNodeType[] types, FlowStep[] steps, int[] order,
+             int[] startNodes, int[][] successors, FlowCondition[][] conditions, int[] predecessorCounts) {
+        this.definition = definition;
+        this.nodeIds = nodeIds;
+        this.types = types;
+        this.steps = steps;
+        this.asyncSteps = new AsyncFlowStep[steps.length];
+        for (int node = 0; node < steps.length; node++) {
+            if (steps[node] instanceof AsyncFlowStep async) {
+                asyncSteps[node] = async;
+            }
+        }
+        this.order = order;
+        this.startNodes = startNodes;
+        this.successors = successors;
+        this.conditions = conditions;
+        this.predecessorCounts = predecessorCounts;
+    }
+
+    /**
+     * 获取编译来源的流程定义
+     *
+     * @return 流程定义
+     */
+    public FlowDefinition getDefinition() {
+        return definition;
+    }
+
+    public String getFlowId() {
+        return definition.getId();
+    }
+
+    /**
+     * 节点数量
+     *
+     * @return 节点数量
+     */
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /**
+     * 按节点ID查找节点下标，只用于恢复等非热路径
+     *
+     * @param nodeId 节点ID
+     * @return 节点下标
+     * @throws FlowException 节点不存在
+     */
+    public int indexOf(String nodeId) {
+        for (int node = 0; node < nodeIds.length; node++) {
+            if (nodeIds[node].equals(nodeId)) {
+                return node;
+            }
+        }
+        throw new FlowException("Flow '" + getFlowId() + "' has no node '" + nodeId + "'");
+    }
+
+    /**
+     * 获取节点ID
+     *
+     * @param node 节点下标
+     * @return 节点ID
+     */
+    public String nodeId(int node) {
+        return nodeIds[node];
+    }
+
+    FlowNodeType type(int node) {
+        return types[node];
+    }
+
+    /**
+     * 获取节点的步骤扩展，网关节点为null
+     */
+    FlowStep step(int node) {
+        return steps[node];
+    }
+
+    /**
+     * 获取节点的异步步骤扩展，同步步骤和网关节点为null
+     */
+    AsyncFlowStep asyncStep(int node) {
+        return asyncSteps[node];
+    }
+
+    /**
+     * 拓扑序，每个节点都排在其所有前驱之后
+     */
+    int[] order() {
+        return order;
+    }
+
+    /**
+     * 没有入边的节点
+     */
+    int[] startNodes() {
+        return startNodes;
+    }
+
+    int[] successors(int node) {
+        return successors[node];
+    }
+
+    /**
+     * 与 {@link #successors(int)} 一一对应的连线条件，节点的出边全部无条件时为null
+     */
+    FlowCondition[] conditions(int node) {
+        return conditions[node];
+    }
+
+    int predecessorCount(int node) {
+        return predecessorCounts[node];
+    }
+}
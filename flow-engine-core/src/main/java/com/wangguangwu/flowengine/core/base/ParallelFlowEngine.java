@@ -0,0 +1,349 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowCondition;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * 并行流程引擎
+ * <p>
+ * 节点的所有入边都确定后立即调度，互不依赖的分支在线程池中并行执行。每个实例为每个节点维护一个原子计数：
+ * 低32位是尚未确定的入边数，高32位是已触发的入边数，前驱完成时一次 {@code addAndGet} 同时更新两者，
+ * 把计数降为0的线程负责该节点：有入边触发则执行，否则跳过并继续向后传播。
+ * </p>
+ * <p>
+ * 执行线程完成一个节点后在当前线程继续执行一个就绪后继，其余就绪后继提交到线程池，链式路径不产生任务切换。
+ * 默认使用工作窃取的 {@link ForkJoinPool#commonPool()}；提交的任务经 {@link TenantContextPropagator} 包装，
+ * 每个分支都在启动实例时的租户上下文中执行。任一步骤或条件失败后实例立即以失败结束，已在执行的分支完成后不再调度新节点。
+ * </p>
+ * <p>
+ * {@link AsyncFlowStep} 走异步路径：执行线程发起步骤后注册回调即返回，不为等待中的实例占用线程；
+ * 阶段完成时回调把后续节点提交回线程池，并恢复启动实例时的租户上下文。阶段在注册回调前已经完成时直接在当前线程继续。
+ * 同步步骤直接调用，不包装为异步阶段。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class ParallelFlowEngine extends AbstractFlowEngine {
+
+    /**
+     * 节点计数中一次已触发入边的增量
+     */
+    private static final long FIRED = 1L << 32;
+
+    private static final long PENDING_MASK = FIRED - 1;
+
+    private final Executor executor;
+
+    /**
+     * 使用公共 {@link ForkJoinPool} 创建引擎
+     */
+    public ParallelFlowEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param executor 执行分支的线程池
+     */
+    public ParallelFlowEngine(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "Executor must not be null");
+    }
+
+    /**
+     * 在调用线程上开始执行并等待实例结束
+     */
+    @Override
+    protected FlowResult execute(FlowPlan plan, DefaultFlowContext context, boolean[] completed) {
+        Instance instance = new Instance(plan, context, completed, executor);
+        instance.start();
+        return instance.result.join();
+    }
+
+    /**
+     * 异步执行流程，调用线程只负责提交
+     */
+    @Override
+    public CompletableFuture<FlowResult> executeAsync(String flowId, Map<String, Object> variables) {
+        return executeAsync(flowId, variables, executor);
+    }
+
+    /**
+     * 异步执行流程，实例的所有分支和异步步骤之后的节点都在指定线程池上执行，调用线程只负责提交
+     */
+    @Override
+    public CompletableFuture<FlowResult> executeAsync(String flowId, Map<String, Object> variables,
+                                                      Executor executor) {
+        FlowPlan plan = getPlan(flowId);
+        Instance instance = new Instance(plan, startInstance(flowId, variables), null, executor);
+        try {
+            executor.execute(TenantContextPropagator.wrap(instance::start));
+        } catch (RejectedExecutionException e) {
+            instance.fail(instance.plan.startNodes()[0], e);
+        }
+        return instance.result;
+    }
+
+    /**
+     * 一个流程实例的运行状态
+     */
+    private final class Instance {
+
+        private final FlowPlan plan;
+
+        private final DefaultFlowContext context;
+
+        private final boolean[] completed;
+
+        /**
+         * 执行本实例分支的线程池
+         */
+        private final Executor executor;
+
+        private final FlowJournal journal = getJournal();
+
+        /**
+         * 启动实例时的租户上下文，异步步骤完成后在其他线程上恢复
+         */
+        private final TenantContext tenant = TenantContextHolder.getContext();
+
+        private final AtomicLongArray pending;
+
+        private final AtomicInteger unresolved;
+
+        private final Queue<String> executed = new ConcurrentLinkedQueue<>();
+
+        private final CompletableFuture<FlowResult> result = new CompletableFuture<>();
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Instance(FlowPlan plan, DefaultFlowContext context, boolean[] completed, Executor executor) {
+            this.plan = plan;
+            this.context = context;
+            this.completed = completed;
+            this.executor = executor;
+            this.pending = new AtomicLongArray(plan.size());
+            for (int node = 0; node < plan.size(); node++) {
+                pending.set(node, plan.predecessorCount(node));
+            }
+            this.unresolved = new AtomicInteger(plan.size());
+        }
+
+        private void start() {
+            int[] startNodes = plan.startNodes();
+            for (int i = 0; i < startNodes.length - 1; i++) {
+                fork(startNodes[i]);
+            }
+            run(startNodes[startNodes.length - 1]);
+        }
+
+        private void fork(int node) {
+            try {
+                executor.execute(TenantContextPropagator.wrap(() -> run(node)));
+            } catch (RejectedExecutionException e) {
+                fail(node, e);
+            }
+        }
+
+        /**
+         * 执行节点，并沿就绪后继在当前线程继续执行
+         */
+        private void run(int node) {
+            int current = node;
+            while (current >= 0 && !finished.get()) {
+                try {
+                    if (completed != null && completed[current]) {
+                        // 恢复执行时已完成的节点只传播出边
+                        executed.add(plan.nodeId(current));
+                        current = resolve(current, true);
+                        continue;
+                    }
+                    AsyncFlowStep async = plan.asyncStep(current);
+                    if (async != null) {
+                        Suspension suspension = new Suspension(current);
+                        async.executeAsync(context).whenComplete(suspension);
+                        if (suspension.suspend()) {
+                            return;
+                        }
+                        if (suspension.error != null) {
+                            fail(current, unwrap(suspension.error));
+                            return;
+                        }
+                    } else {
+                        FlowStep step = plan.step(current);
+                        if (step != null) {
+                            step.execute(context);
+                        }
+                    }
+                    current = complete(current);
+                } catch (Exception e) {
+                    fail(current, e);
+                    return;
+                } catch (Error e) {
+                    // 保证等待方不会永久阻塞，Error本身仍然抛给线程池
+                    fail(current, e);
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * 确定节点的出边并更新后继计数
+         * <p>
+         * 跳过的后继放入工作栈在当前线程继续确定，跳过链再长也不会递归；跳过传播中就绪的后继与直接就绪的后继同样处理。
+         * </p>
+         *
+         * @param node  已确定的节点
+         * @param fired 节点是否已执行，跳过的节点的出边都不触发
+         * @return 需要在当前线程继续执行的就绪后继，没有时返回-1
+         */
+        private int resolve(int node, boolean fired) {
+            int next = -1;
+            int[] skipped = null;
+            int top = 0;
+            int current = node;
+            boolean currentFired = fired;
+            while (true) {
+                int[] successors = plan.successors(current);
+                FlowCondition[] conditions = plan.conditions(current);
+                for (int i = 0; i < successors.length; i++) {
+                    int successor = successors[i];
+                    boolean edgeFired = currentFired && (conditions == null || conditions[i] == null
+                            || conditions[i].test(context));
+                    long state = pending.addAndGet(successor, edgeFired ? FIRED - 1 : -1);
+                    if ((state & PENDING_MASK) != 0) {
+                        continue;
+                    }
+                    if (state < FIRED) {
+                        // 每个节点只确定一次，栈深度不超过节点数
+                        if (skipped == null) {
+                            skipped = new int[plan.size()];
+                        }
+                        skipped[top++] = successor;
+                    } else {
+                        if (next >= 0) {
+                            fork(next);
+                        }
+                        next = successor;
+                    }
+                }
+                if (unresolved.decrementAndGet() == 0) {
+                    finish(FlowStatus.COMPLETED, null, null);
+                }
+                if (top == 0) {
+                    return next;
+                }
+                current = skipped[--top];
+                currentFired = false;
+            }
+        }
+
+        /**
+         * 记录节点完成并更新后继计数
+         */
+        private int complete(int node) {
+            journal.nodeCompleted(context, plan.nodeId(node));
+            executed.add(plan.nodeId(node));
+            return resolve(node, true);
+        }
+
+        /**
+         * 异步步骤完成后在线程池中恢复执行
+         */
+        private void resume(int node, Throwable error) {
+            Runnable continuation = () -> TenantContextHolder.runWithContext(tenant, () -> {
+                if (error != null) {
+                    fail(node, unwrap(error));
+                    return;
+                }
+                int next;
+                try {
+                    next = complete(node);
+                } catch (Exception e) {
+                    fail(node, e);
+                    return;
+                }
+                if (next >= 0) {
+                    run(next);
+                }
+            });
+            try {
+                executor.execute(continuation);
+            } catch (RejectedExecutionException e) {
+                fail(node, e);
+            }
+        }
+
+        private void fail(int node, Throwable error) {
+            finish(FlowStatus.FAILED, plan.nodeId(node), error);
+        }
+
+        private void finish(FlowStatus status, String failedNode, Throwable error) {
+            // 多个分支可能同时失败，只有第一个结束实例
+            if (finished.compareAndSet(false, true)) {
+                result.complete(ParallelFlowEngine.finish(journal, context, status, executed, failedNode, error));
+            }
+        }
+
+        /**
+         * 一次异步步骤的挂起状态：回调与注册回调的线程竞争，先到者决定在当前线程继续还是由回调恢复
+         */
+        private final class Suspension extends AtomicInteger implements BiConsumer<Object, Throwable> {
+
+            private static final int PENDING = 0;
+
+            private static final int COMPLETED = 1;
+
+            private static final int SUSPENDED = 2;
+
+            private final int node;
+
+            private Throwable error;
+
+            private Suspension(int node) {
+                this.node = node;
+            }
+
+            @Override
+            public void accept(Object value, Throwable error) {
+                this.error = error;
+                if (!compareAndSet(PENDING, COMPLETED)) {
+                    resume(node, error);
+                }
+            }
+
+            /**
+             * 注册回调后调用
+             *
+             * @return 阶段尚未完成、由回调恢复时返回true；已经完成、应在当前线程继续时返回false
+             */
+            private boolean suspend() {
+                return compareAndSet(PENDING, SUSPENDED);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,61 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowCondition;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 顺序流程引擎
+ * <p>
+ * 在调用线程上按拓扑序遍历执行计划，步骤继承调用线程的租户上下文。
+ * 每个实例只分配一个与节点数等长的激活标记数组：节点执行后激活满足条件的后继，
+ * 按拓扑序遍历到未激活的节点即说明其所有入边都未触发，直接跳过。网关节点没有步骤，激活后只传播连线。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class SequentialFlowEngine extends AbstractFlowEngine {
+
+    @Override
+    protected FlowResult execute(FlowPlan plan, DefaultFlowContext context, boolean[] completed) {
+        FlowJournal journal = getJournal();
+        boolean[] active = new boolean[plan.size()];
+        for (int node : plan.startNodes()) {
+            active[node] = true;
+        }
+        List<String> executed = new ArrayList<>(plan.size());
+        for (int node : plan.order()) {
+            if (!active[node]) {
+                continue;
+            }
+            try {
+                if (completed == null || !completed[node]) {
+                    FlowStep step = plan.step(node);
+                    if (step != null) {
+                        step.execute(context);
+                    }
+                    journal.nodeCompleted(context, plan.nodeId(node));
+                }
+                executed.add(plan.nodeId(node));
+                activateSuccessors(plan, node, context, active);
+            } catch (Exception e) {
+                return finish(journal, context, FlowStatus.FAILED, executed, plan.nodeId(node), e);
+            }
+        }
+        return finish(journal, context, FlowStatus.COMPLETED, executed, null, null);
+    }
+
+    private static void activateSuccessors(FlowPlan plan, int node, DefaultFlowContext context, boolean[] active) {
+        int[] successors = plan.successors(node);
+        FlowCondition[] conditions = plan.conditions(node);
+        for (int i = 0; i < successors.length; i++) {
+            if (conditions == null || conditions[i] == null || conditions[i].test(context)) {
+                active[successors[i]] = true;
+            }
+        }
+    }
+}
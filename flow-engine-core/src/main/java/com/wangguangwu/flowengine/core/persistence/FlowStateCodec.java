@@ -0,0 +1,305 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import com.wangguangwu.flowengine.core.api.FlowInstanceState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 状态流转与实例状态的二进制编码
+ * <p>
+ * 字符串、整数、长整数、浮点数和布尔变量使用紧凑编码，其他变量必须实现 {@link Serializable}，按Java序列化写入。
+ * </p>
+ * <p>
+ * 反序列化只接受变量过滤器允许的类，并通过指定的类加载器解析；写入时也按同一过滤器检查变量的类，
+ * 不允许的变量在记录时就失败，而不是在恢复时才失败。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+final class FlowStateCodec {
+
+    private static final byte NULL = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte INTEGER = 2;
+
+    private static final byte LONG = 3;
+
+    private static final byte DOUBLE = 4;
+
+    private static final byte BOOLEAN = 5;
+
+    private static final byte SERIALIZED = 6;
+
+    private static final FlowTransition.Type[] TYPES = FlowTransition.Type.values();
+
+    private final ObjectInputFilter variableFilter;
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 构造函数
+     *
+     * @param variableFilter 序列化变量的过滤器
+     * @param classLoader    解析序列化变量的类加载器
+     */
+    FlowStateCodec(ObjectInputFilter variableFilter, ClassLoader classLoader) {
+        this.variableFilter = Objects.requireNonNull(variableFilter, "Variable filter must not be null");
+        this.classLoader = Objects.requireNonNull(classLoader, "Class loader must not be null");
+    }
+
+    /**
+     * 编码一次状态流转
+     *
+     * @param transition 状态流转
+     * @return 编码后的字节
+     * @throws IllegalArgumentException 变量不可序列化
+     */
+    byte[] encode(FlowTransition transition) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(transition.type().ordinal());
+            out.writeLong(transition.instanceId());
+            switch (transition.type()) {
+                case STARTED -> {
+                    writeString(out, transition.flowId());
+                    writeNullableString(out, transition.tenantId());
+                    writeVariables(out, transition.variables());
+                }
+                case NODE_COMPLETED -> {
+                    writeString(out, transition.nodeId());
+                    writeVariables(out, transition.variables());
+                }
+                case FINISHED -> {
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码一次状态流转
+     *
+     * @param payload 预写日志记录内容
+     * @return 状态流转
+     * @throws IOException 记录内容不完整
+     */
+    FlowTransition decode(ByteBuffer payload) throws IOException {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        FlowTransition.Type type = TYPES[in.readUnsignedByte()];
+        long instanceId = in.readLong();
+        return switch (type) {
+            case STARTED -> FlowTransition.started(instanceId, readString(in), readNullableString(in),
+                    readVariables(in));
+            case NODE_COMPLETED -> FlowTransition.nodeCompleted(instanceId, readString(in), readVariables(in));
+            case FINISHED -> FlowTransition.finished(instanceId);
+        };
+    }
+
+    /**
+     * 写入实例状态，用于快照
+     */
+    void writeState(DataOutput out, FlowInstanceState state) throws IOException {
+        writeString(out, state.flowId());
+        out.writeLong(state.instanceId());
+        writeNullableString(out, state.tenantId());
+        writeVariables(out, state.variables());
+        out.writeInt(state.completedNodes().size());
+        for (String node : state.completedNodes()) {
+            writeString(out, node);
+        }
+    }
+
+    /**
+     * 读取实例状态，用于快照
+     */
+    FlowInstanceState readState(DataInput in) throws IOException {
+        String flowId = readString(in);
+        long instanceId = in.readLong();
+        String tenantId = readNullableString(in);
+        Map<String, Object> variables = readVariables(in);
+        int count = in.readInt();
+        Set<String> completedNodes = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            completedNodes.add(readString(in));
+        }
+        return new FlowInstanceState(flowId, instanceId, tenantId, variables, completedNodes);
+    }
+
+    private void writeVariables(DataOutput out, Map<String, Object> variables) throws IOException {
+        out.writeInt(variables.size());
+        for (Map.Entry<String, Object> entry : variables.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private Map<String, Object> readVariables(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> variables = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String name = readString(in);
+            Object value = readValue(in);
+            if (value != null) {
+                variables.put(name, value);
+            }
+        }
+        return variables;
+    }
+
+    private void writeValue(DataOutput out, String name, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer integer) {
+            out.writeByte(INTEGER);
+            out.writeInt(integer);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof Serializable) {
+            if (variableFilter.checkInput(new VariableClass(value.getClass())) == ObjectInputFilter.Status.REJECTED) {
+                throw new IllegalArgumentException("Variable " + name + " of type " + value.getClass().getName()
+                        + " is not allowed by the variable filter");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(value);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Failed to serialize variable " + name, e);
+            }
+            out.writeByte(SERIALIZED);
+            out.writeInt(bytes.size());
+            out.write(bytes.toByteArray());
+        } else {
+            throw new IllegalArgumentException("Variable " + name + " of type " + value.getClass().getName()
+                    + " is not serializable");
+        }
+    }
+
+    private Object readValue(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case INTEGER -> in.readInt();
+            case LONG -> in.readLong();
+            case DOUBLE -> in.readDouble();
+            case BOOLEAN -> in.readBoolean();
+            case SERIALIZED -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream objects = new VariableInputStream(bytes)) {
+                    yield objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown variable class", e);
+                }
+            }
+            default -> throw new IOException("Unknown variable tag " + tag);
+        };
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    /**
+     * 只接受过滤器允许的类，并通过指定的类加载器解析
+     */
+    private final class VariableInputStream extends ObjectInputStream {
+
+        private VariableInputStream(byte[] bytes) throws IOException {
+            super(new ByteArrayInputStream(bytes));
+            setObjectInputFilter(variableFilter);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws ClassNotFoundException {
+            return Class.forName(desc.getName(), false, classLoader);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws InvalidClassException {
+            throw new InvalidClassException("Proxy variables are not supported");
+        }
+    }
+
+    /**
+     * 写入时按变量的类查询过滤器
+     */
+    private record VariableClass(Class<?> serialClass) implements ObjectInputFilter.FilterInfo {
+
+        @Override
+        public long arrayLength() {
+            return -1;
+        }
+
+        @Override
+        public long depth() {
+            return 1;
+        }
+
+        @Override
+        public long references() {
+            return 0;
+        }
+
+        @Override
+        public long streamBytes() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import com.wangguangwu.flowengine.core.api.FlowInstanceState;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.core.base.FlowJournal;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * 基于预写日志的流程实例状态存储
+ * <p>
+ * 作为 {@link FlowJournal} 设置到引擎后，实例启动、节点完成和实例结束都编码为一条记录追加到 {@link WriteAheadLog}，
+ * 同时更新内存中的未结束实例表。配置为等待持久化时，回调在记录所在的组提交完成后才返回，
+ * 节点完成的记录持久化之后引擎才执行后继节点。
+ * </p>
+ * <p>
+ * 每隔 {@code snapshotInterval} 次流转在后台线程写一次快照：快照包含所有未结束实例，写入临时文件、fsync后原子重命名，
+ * 然后删除旧快照和已被快照覆盖的日志段，日志占用的磁盘空间与未结束实例数而不是历史流转数成正比。
+ * 打开时加载最新的有效快照并回放其后的日志，{@link #getRunningInstances()} 返回重启前未结束的实例，
+ * 逐个交给 {@code AbstractFlowEngine#resume} 继续执行。
+ * </p>
+ * <p>
+ * 实例ID由存储分配：快照记录已分配的最大实例ID，回放时再与日志中启动的实例ID取最大值，
+ * 重启后和共享同一存储的多个引擎都不会分配重复的ID。
+ * </p>
+ * <p>
+ * 恢复粒度是节点：崩溃时正在执行的步骤在恢复后会再次执行，步骤需要保证幂等。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public class FlowStateStore implements FlowJournal, AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x464C5353;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    private final FlowStateStoreSettings settings;
+
+    private final FlowStateCodec codec;
+
+    private final WriteAheadLog wal;
+
+    /**
+     * 未结束的实例，由this保护
+     */
+    private final Map<Long, RunningInstance> running = new HashMap<>();
+
+    private final ExecutorService snapshotExecutor;
+
+    /**
+     * 串行化快照写入
+     */
+    private final Object snapshotLock = new Object();
+
+    /**
+     * 已分配或在日志中出现过的最大实例ID，由this保护
+     */
+    private long lastInstanceId;
+
+    private long transitionsSinceSnapshot;
+
+    private boolean snapshotScheduled;
+
+    /**
+     * 使用默认配置打开状态存储
+     *
+     * @param directory 存储目录，不存在时创建
+     * @throws IOException 读取快照或日志失败
+     */
+    public FlowStateStore(Path directory) throws IOException {
+        this(directory, FlowStateStoreSettings.ofDefaults());
+    }
+
+    /**
+     * 打开状态存储，从最新快照和其后的日志恢复未结束的实例
+     *
+     * @param directory 存储目录，不存在时创建
+     * @param settings  存储配置
+     * @throws IOException 读取快照或日志失败
+     */
+    public FlowStateStore(Path directory, FlowStateStoreSettings settings) throws IOException {
+        this.directory = directory;
+        this.settings = Objects.requireNonNull(settings, "Settings must not be null");
+        this.codec = new FlowStateCodec(settings.variableFilter(), settings.variableClassLoader());
+        Files.createDirectories(directory);
+        long snapshotLsn = loadSnapshot();
+        this.wal = new WriteAheadLog(directory.resolve("wal"), settings.segmentSize(), settings.fsyncBatchSize(),
+                settings.fsyncInterval());
+        wal.replay(snapshotLsn, this::replay);
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flow-state-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Recovered {} running flow instances from {}", running.size(), directory);
+    }
+
+    @Override
+    public synchronized long nextInstanceId() {
+        return ++lastInstanceId;
+    }
+
+    @Override
+    public void started(FlowContext context) {
+        record(() -> FlowTransition.started(context.instanceId(), context.flowId(), context.tenantId(),
+                Map.copyOf(context.getVariables())));
+    }
+
+    @Override
+    public void nodeCompleted(FlowContext context, String nodeId) {
+        record(() -> FlowTransition.nodeCompleted(context.instanceId(), nodeId, Map.copyOf(context.getVariables())));
+    }
+
+    @Override
+    public void finished(FlowContext context, FlowStatus status) {
+        record(() -> FlowTransition.finished(context.instanceId()));
+    }
+
+    /**
+     * 未结束的实例，按实例ID排序
+     *
+     * @return 实例状态
+     */
+    public synchronized List<FlowInstanceState> getRunningInstances() {
+        List<FlowInstanceState> states = new ArrayList<>(running.size());
+        new TreeMap<>(running).forEach((instanceId, instance) -> states.add(instance.toState(instanceId)));
+        return states;
+    }
+
+    /**
+     * 立即写一次快照并删除已被覆盖的日志段
+     *
+     * @throws IOException 写快照或删除日志段失败
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long lsn;
+            long instanceId;
+            List<FlowInstanceState> states;
+            synchronized (this) {
+                lsn = wal.lastLsn();
+                instanceId = lastInstanceId;
+                states = getRunningInstances();
+                transitionsSinceSnapshot = 0;
+            }
+            // 快照只覆盖已持久化的记录，否则崩溃后日志回退到快照之前，新记录的LSN会与快照重叠
+            try {
+                wal.awaitDurable(lsn);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for write-ahead log", e);
+            }
+            writeSnapshot(lsn, instanceId, states);
+            deleteSnapshotsBefore(lsn);
+            int removed = wal.truncateBefore(lsn + 1);
+            log.debug("Wrote snapshot of {} flow instances at lsn {}, removed {} log segments",
+                    states.size(), lsn, removed);
+        }
+    }
+
+    /**
+     * 等待进行中的快照，刷盘所有记录后关闭
+     */
+    @Override
+    public void close() throws InterruptedException {
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        wal.close();
+    }
+
+    /**
+     * 在锁内复制变量并追加日志
+     * <p>
+     * 并行分支各自回调节点完成，回放时以最后一条记录的变量为准。
+     * 复制和追加必须在同一把锁内，否则先复制的分支可能后追加，覆盖其他分支已记录的变量。
+     * </p>
+     *
+     * @param transition 在锁内创建流转记录
+     */
+    private void record(Supplier<FlowTransition> transition) {
+        long lsn;
+        boolean snapshot = false;
+        synchronized (this) {
+            FlowTransition current = transition.get();
+            lsn = wal.append(codec.encode(current));
+            apply(current);
+            if (++transitionsSinceSnapshot >= settings.snapshotInterval() && !snapshotScheduled) {
+                snapshotScheduled = true;
+                snapshot = true;
+            }
+        }
+        if (snapshot) {
+            snapshotExecutor.execute(this::scheduledSnapshot);
+        }
+        if (settings.waitForDurable()) {
+            try {
+                wal.awaitDurable(lsn);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for flow state to be durable", e);
+            }
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write flow state snapshot in {}", directory, e);
+        } finally {
+            synchronized (this) {
+                snapshotScheduled = false;
+            }
+        }
+    }
+
+    private void replay(long lsn, ByteBuffer payload) {
+        try {
+            apply(codec.decode(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupted flow state record " + lsn, e);
+        }
+    }
+
+    private void apply(FlowTransition transition) {
+        switch (transition.type()) {
+            case STARTED -> {
+                running.put(transition.instanceId(), new RunningInstance(transition.flowId(),
+                        transition.tenantId(), transition.variables(), new LinkedHashSet<>()));
+                lastInstanceId = Math.max(lastInstanceId, transition.instanceId());
+            }
+            case NODE_COMPLETED -> {
+                RunningInstance instance = running.get(transition.instanceId());
+                if (instance != null) {
+                    instance.variables = transition.variables();
+                    instance.completedNodes.add(transition.nodeId());
+                }
+            }
+            case FINISHED -> running.remove(transition.instanceId());
+        }
+    }
+
+    private void writeSnapshot(long lsn, long instanceId, List<FlowInstanceState> states) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(lsn);
+        out.writeLong(instanceId);
+        out.writeInt(states.size());
+        for (FlowInstanceState state : states) {
+            codec.writeState(out, state);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        Path target = snapshotPath(lsn);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // 重命名本身也需要落盘
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    /**
+     * 加载最新的有效快照，损坏的快照被跳过
+     *
+     * @return 快照覆盖的最后一个LSN，没有快照时为0
+     */
+    private long loadSnapshot() throws IOException {
+        TreeMap<Long, Path> snapshots = listSnapshots();
+        for (Path snapshot : snapshots.descendingMap().values()) {
+            byte[] bytes = Files.readAllBytes(snapshot);
+            if (bytes.length < Integer.BYTES) {
+                log.warn("Skipping truncated flow state snapshot {}", snapshot);
+                continue;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length - Integer.BYTES);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+                log.warn("Skipping corrupted flow state snapshot {}", snapshot);
+                continue;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Skipping flow state snapshot {} of unknown format", snapshot);
+                continue;
+            }
+            long lsn = in.readLong();
+            lastInstanceId = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                FlowInstanceState state = codec.readState(in);
+                running.put(state.instanceId(), new RunningInstance(state.flowId(), state.tenantId(),
+                        state.variables(), new LinkedHashSet<>(state.completedNodes())));
+                lastInstanceId = Math.max(lastInstanceId, state.instanceId());
+            }
+            return lsn;
+        }
+        return 0;
+    }
+
+    private void deleteSnapshotsBefore(long lsn) throws IOException {
+        for (Path snapshot : listSnapshots().headMap(lsn, false).values()) {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private TreeMap<Long, Path> listSnapshots() throws IOException {
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // 写快照时崩溃留下的临时文件
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshots.put(Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                            name.length() - SNAPSHOT_SUFFIX.length())), path);
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private Path snapshotPath(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * 一个未结束实例的内存状态
+     */
+    private static final class RunningInstance {
+
+        private final String flowId;
+
+        private final String tenantId;
+
+        private final Set<String> completedNodes;
+
+        private Map<String, Object> variables;
+
+        private RunningInstance(String flowId, String tenantId, Map<String, Object> variables,
+                                Set<String> completedNodes) {
+            this.flowId = flowId;
+            this.tenantId = tenantId;
+            this.variables = variables;
+            this.completedNodes = completedNodes;
+        }
+
+        private FlowInstanceState toState(long instanceId) {
+            return new FlowInstanceState(flowId, instanceId, tenantId, variables, completedNodes);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import java.io.ObjectInputFilter;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 流程状态存储配置
+ *
+ * @param segmentSize         预写日志段大小
+ * @param fsyncBatchSize      触发fsync的待刷盘记录数，越大fsync次数越少，并发写入不足时记录等待持久化的时间越长
+ * @param fsyncInterval       未攒满一批时的最长fsync间隔
+ * @param snapshotInterval    两次快照之间的状态流转数，快照后删除已被覆盖的日志段
+ * @param waitForDurable      记录状态流转后是否等待其持久化，为false时进程崩溃可能丢失最后一个fsync间隔内的流转
+ * @param variableFilter      允许按Java序列化保存的变量类，记录和恢复时都会检查
+ * @param variableClassLoader 恢复时解析序列化变量的类加载器，插件定义的变量类需要传入插件的类加载器
+ * @author wangguangwu
+ */
+public record FlowStateStoreSettings(int segmentSize, int fsyncBatchSize, Duration fsyncInterval,
+                                     long snapshotInterval, boolean waitForDurable,
+                                     ObjectInputFilter variableFilter, ClassLoader variableClassLoader) {
+
+    /**
+     * 默认两次快照之间的状态流转数
+     */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+
+    /**
+     * 默认只允许 {@code java.lang}、{@code java.util}、{@code java.time} 和 {@code java.math} 包中的类
+     */
+    public static final ObjectInputFilter DEFAULT_VARIABLE_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=32;maxrefs=100000;java.lang.*;java.util.*;java.time.*;java.math.*;!*");
+
+    public FlowStateStoreSettings {
+        Objects.requireNonNull(fsyncInterval, "Fsync interval must not be null");
+        Objects.requireNonNull(variableFilter, "Variable filter must not be null");
+        Objects.requireNonNull(variableClassLoader, "Variable class loader must not be null");
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+    }
+
+    /**
+     * 使用默认变量过滤器和本模块类加载器的配置
+     *
+     * @param segmentSize      预写日志段大小
+     * @param fsyncBatchSize   触发fsync的待刷盘记录数
+     * @param fsyncInterval    未攒满一批时的最长fsync间隔
+     * @param snapshotInterval 两次快照之间的状态流转数
+     * @param waitForDurable   记录状态流转后是否等待其持久化
+     */
+    public FlowStateStoreSettings(int segmentSize, int fsyncBatchSize, Duration fsyncInterval,
+                                  long snapshotInterval, boolean waitForDurable) {
+        this(segmentSize, fsyncBatchSize, fsyncInterval, snapshotInterval, waitForDurable,
+                DEFAULT_VARIABLE_FILTER, FlowStateStoreSettings.class.getClassLoader());
+    }
+
+    /**
+     * 等待持久化、按默认参数组提交的配置
+     *
+     * @return 默认配置
+     */
+    public static FlowStateStoreSettings ofDefaults() {
+        return new FlowStateStoreSettings(WriteAheadLog.DEFAULT_SEGMENT_SIZE, WriteAheadLog.DEFAULT_FSYNC_BATCH_SIZE,
+                WriteAheadLog.DEFAULT_FSYNC_INTERVAL, DEFAULT_SNAPSHOT_INTERVAL, true);
+    }
+}
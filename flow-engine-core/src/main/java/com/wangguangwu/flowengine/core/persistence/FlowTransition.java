@@ -0,0 +1,51 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import java.util.Map;
+
+/**
+ * 一次流程实例状态流转，对应预写日志中的一条记录
+ *
+ * @param type       流转类型
+ * @param instanceId 流程实例ID
+ * @param flowId     流程ID，仅启动时记录
+ * @param tenantId   租户ID，仅启动时记录，可以为null
+ * @param nodeId     完成的节点ID，仅节点完成时记录
+ * @param variables  流转后的变量，实例结束时为空
+ * @author wangguangwu
+ */
+record FlowTransition(Type type, long instanceId, String flowId, String tenantId, String nodeId,
+                      Map<String, Object> variables) {
+
+    static FlowTransition started(long instanceId, String flowId, String tenantId, Map<String, Object> variables) {
+        return new FlowTransition(Type.STARTED, instanceId, flowId, tenantId, null, variables);
+    }
+
+    static FlowTransition nodeCompleted(long instanceId, String nodeId, Map<String, Object> variables) {
+        return new FlowTransition(Type.NODE_COMPLETED, instanceId, null, null, nodeId, variables);
+    }
+
+    static FlowTransition finished(long instanceId) {
+        return new FlowTransition(Type.FINISHED, instanceId, null, null, null, Map.of());
+    }
+
+    /**
+     * 流转类型
+     */
+    enum Type {
+
+        /**
+         * 实例启动
+         */
+        STARTED,
+
+        /**
+         * 节点完成
+         */
+        NODE_COMPLETED,
+
+        /**
+         * 实例结束
+         */
+        FINISHED
+    }
+}
@@ -0,0 +1,562 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * 分段、内存映射的预写日志
+ * <p>
+ * 日志由固定大小的段文件组成，文件名是段内第一条记录的序号（LSN，从1开始连续递增）。
+ * 每条记录为 {@code [int 长度][int CRC32C][long LSN][载荷]}，段文件预先映射到内存，追加只是一次内存拷贝。
+ * </p>
+ * <p>
+ * 持久化采用组提交：追加线程不做fsync，由后台刷盘线程在待刷盘记录攒够 {@code fsyncBatchSize} 条或等待
+ * {@code fsyncInterval} 后对所有脏区间调用一次 {@link MappedByteBuffer#force(int, int)}，
+ * 需要持久化保证的调用方通过 {@link #awaitDurable(long)} 等待，同一批记录共享一次fsync。
+ * </p>
+ * <p>
+ * 打开时顺序校验所有段：长度越界、LSN不连续或CRC不匹配的记录视为崩溃时写了一半的尾部，
+ * 从该位置起的数据被清除，之后的段被删除，新记录从最后一条有效记录之后继续追加。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public class WriteAheadLog implements AutoCloseable {
+
+    /**
+     * 默认段大小
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * 默认触发fsync的待刷盘记录数：一有记录立即fsync，fsync期间到达的记录自然合并到下一批
+     */
+    public static final int DEFAULT_FSYNC_BATCH_SIZE = 1;
+
+    /**
+     * 默认最长fsync间隔
+     */
+    public static final Duration DEFAULT_FSYNC_INTERVAL = Duration.ofMillis(1);
+
+    /**
+     * 记录头长度：长度、CRC、LSN
+     */
+    static final int HEADER_SIZE = 16;
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int fsyncBatchSize;
+
+    private final long fsyncIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 出现待刷盘记录或攒满一批时通知刷盘线程
+     */
+    private final Condition appended = lock.newCondition();
+
+    /**
+     * 刷盘完成时通知等待持久化的线程
+     */
+    private final Condition flushed = lock.newCondition();
+
+    /**
+     * 段的起始LSN到段文件
+     */
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+
+    /**
+     * 已经写满但尚未刷盘的段区间
+     */
+    private final List<DirtyRange> rolled = new ArrayList<>();
+
+    private final Thread flusher;
+
+    private Segment current;
+
+    private int dirtyFrom;
+
+    private long lastLsn;
+
+    private long durableLsn;
+
+    private boolean closed;
+
+    private RuntimeException failure;
+
+    /**
+     * 使用默认段大小和组提交参数打开日志
+     *
+     * @param directory 日志目录，不存在时创建
+     * @throws IOException 读取或创建段文件失败
+     */
+    public WriteAheadLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FSYNC_BATCH_SIZE, DEFAULT_FSYNC_INTERVAL);
+    }
+
+    /**
+     * 打开日志，恢复已有段并截断崩溃时未写完的尾部
+     *
+     * @param directory      日志目录，不存在时创建
+     * @param segmentSize    段大小，单条记录不能超过段大小
+     * @param fsyncBatchSize 触发fsync的待刷盘记录数，为1时一有记录立即fsync
+     * @param fsyncInterval  最长fsync间隔，未攒满一批时最多等待该时间
+     * @throws IOException 读取或创建段文件失败
+     */
+    public WriteAheadLog(Path directory, int segmentSize, int fsyncBatchSize, Duration fsyncInterval)
+            throws IOException {
+        if (segmentSize <= HEADER_SIZE || fsyncBatchSize < 1 || fsyncInterval.isNegative()) {
+            throw new IllegalArgumentException("Invalid write-ahead log settings");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncBatchSize = fsyncBatchSize;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        Files.createDirectories(directory);
+        recover();
+        this.durableLsn = lastLsn;
+        this.flusher = new Thread(this::flushLoop, "flow-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 追加一条记录，返回时记录已写入映射内存但不保证已经持久化
+     *
+     * @param payload 记录内容
+     * @return 记录的LSN
+     * @throws IllegalArgumentException 记录为空或超过段大小
+     * @throws IllegalStateException    日志已关闭
+     * @throws UncheckedIOException     创建新段或此前的刷盘失败
+     */
+    public long append(byte[] payload) {
+        // 长度为0的记录头与段内未写入的区域无法区分，回放会把它当作日志末尾
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Record must not be empty");
+        }
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds segment size "
+                    + segmentSize);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int checksum = (int) crc.getValue();
+        lock.lock();
+        try {
+            ensureOpen();
+            if (current.position + size > current.buffer.capacity()) {
+                roll();
+            }
+            long lsn = lastLsn + 1;
+            MappedByteBuffer buffer = current.buffer;
+            int position = current.position;
+            buffer.putInt(position, payload.length);
+            buffer.putInt(position + 4, checksum);
+            buffer.putLong(position + 8, lsn);
+            buffer.put(position + HEADER_SIZE, payload);
+            current.position = position + size;
+            lastLsn = lsn;
+            // 刷盘线程只在空闲或等待攒批时阻塞，只需在这两个状态变化时唤醒
+            long pending = lsn - durableLsn;
+            if (pending == 1 || pending == fsyncBatchSize) {
+                appended.signal();
+            }
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待指定LSN及之前的记录持久化
+     *
+     * @param lsn 记录的LSN
+     * @throws InterruptedException 等待被中断
+     * @throws UncheckedIOException 刷盘失败
+     */
+    public void awaitDurable(long lsn) throws InterruptedException {
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (closed && !flusher.isAlive()) {
+                    throw new IllegalStateException("Write-ahead log is closed");
+                }
+                flushed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按顺序回放LSN大于 {@code afterLsn} 的记录，通常在打开后、追加前调用
+     *
+     * @param afterLsn 已经通过快照恢复的最后一个LSN，为0时回放全部记录
+     * @param consumer 记录消费者，载荷缓冲区只在回调期间有效
+     * @throws IOException 读取段文件失败
+     */
+    public void replay(long afterLsn, RecordConsumer consumer) throws IOException {
+        List<Map.Entry<Long, Path>> files;
+        lock.lock();
+        try {
+            files = new ArrayList<>(segments.entrySet());
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Map.Entry<Long, Path> entry = files.get(i);
+            // 下一段的起始LSN不大于afterLsn时，本段的记录都已被快照覆盖
+            if (i + 1 < files.size() && files.get(i + 1).getKey() <= afterLsn + 1) {
+                continue;
+            }
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            scan(buffer, entry.getKey(), afterLsn, consumer);
+        }
+    }
+
+    /**
+     * 删除所有记录的LSN都小于 {@code lsn} 的段，当前段不会被删除
+     *
+     * @param lsn 需要保留的最小LSN
+     * @return 删除的段数
+     * @throws IOException 删除段文件失败
+     */
+    public int truncateBefore(long lsn) throws IOException {
+        List<Path> obsolete = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Path> entry = iterator.next();
+                Long next = segments.higherKey(entry.getKey());
+                if (next == null || next > lsn) {
+                    break;
+                }
+                obsolete.add(entry.getValue());
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+        return obsolete.size();
+    }
+
+    /**
+     * 最后一条记录的LSN
+     *
+     * @return LSN，没有记录时为0
+     */
+    public long lastLsn() {
+        lock.lock();
+        try {
+            return lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 已持久化的最后一条记录的LSN
+     *
+     * @return LSN
+     */
+    public long durableLsn() {
+        lock.lock();
+        try {
+            return durableLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前的段数
+     *
+     * @return 段数
+     */
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘所有已追加的记录后关闭
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+        lock.lock();
+        try {
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        if (segments.isEmpty()) {
+            current = createSegment(1);
+            lastLsn = 0;
+            return;
+        }
+        for (Map.Entry<Long, Path> entry : new ArrayList<>(segments.entrySet())) {
+            Segment segment = mapSegment(entry.getKey(), entry.getValue());
+            long[] nextLsn = {entry.getKey()};
+            segment.position = scan(segment.buffer, entry.getKey(), entry.getKey() - 1,
+                    (lsn, payload) -> nextLsn[0] = lsn + 1);
+            Long following = segments.higherKey(entry.getKey());
+            if (following == null || following != nextLsn[0]) {
+                // 本段是最后一段或在此处断开：清除未写完的尾部，删除之后的段
+                truncateTail(segment);
+                for (Path obsolete : segments.tailMap(entry.getKey(), false).values()) {
+                    log.warn("Discarding write-ahead log segment {} after torn record", obsolete);
+                    Files.deleteIfExists(obsolete);
+                }
+                segments.tailMap(entry.getKey(), false).clear();
+                current = segment;
+                lastLsn = nextLsn[0] - 1;
+                return;
+            }
+        }
+    }
+
+    private static void truncateTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int end = buffer.capacity();
+        boolean dirty = false;
+        for (int i = segment.position; i < end && !dirty; i++) {
+            dirty = buffer.get(i) != 0;
+        }
+        if (dirty) {
+            for (int i = segment.position; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * 顺序校验并回调段内的记录，遇到第一条无效记录时停止
+     *
+     * @return 最后一条有效记录之后的位置
+     */
+    private static int scan(ByteBuffer buffer, long firstLsn, long afterLsn, RecordConsumer consumer) {
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        long expected = firstLsn;
+        int limit = buffer.limit();
+        while (position + HEADER_SIZE <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > limit - position - HEADER_SIZE
+                    || buffer.getLong(position + 8) != expected) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            if (expected > afterLsn) {
+                consumer.accept(expected, payload.asReadOnlyBuffer());
+            }
+            position += HEADER_SIZE + length;
+            expected++;
+        }
+        return position;
+    }
+
+    private void roll() {
+        rolled.add(new DirtyRange(current, dirtyFrom, current.position));
+        try {
+            current = createSegment(lastLsn + 1);
+        } catch (IOException e) {
+            failure = new UncheckedIOException("Failed to create write-ahead log segment", e);
+            throw failure;
+        }
+        dirtyFrom = 0;
+    }
+
+    private Segment createSegment(long firstLsn) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstLsn, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            // 映射扩展了文件长度，段文件的元数据和目录项都落盘后，刷盘的记录在崩溃后才能找到
+            channel.force(true);
+            try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                dir.force(true);
+            }
+            segments.put(firstLsn, path);
+            return new Segment(firstLsn, buffer);
+        }
+    }
+
+    private static Segment mapSegment(long firstLsn, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(firstLsn, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            List<DirtyRange> ranges;
+            lock.lock();
+            try {
+                while (!closed && lastLsn == durableLsn) {
+                    appended.await();
+                }
+                if (lastLsn == durableLsn) {
+                    return;
+                }
+                // 等待攒满一批，最多等待一个fsync间隔
+                long deadline = System.nanoTime() + fsyncIntervalNanos;
+                long remaining = fsyncIntervalNanos;
+                while (!closed && lastLsn - durableLsn < fsyncBatchSize && remaining > 0) {
+                    appended.awaitNanos(remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+                target = lastLsn;
+                ranges = new ArrayList<>(rolled);
+                rolled.clear();
+                ranges.add(new DirtyRange(current, dirtyFrom, current.position));
+                dirtyFrom = current.position;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException error = null;
+            try {
+                for (DirtyRange range : ranges) {
+                    range.force();
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    log.error("Failed to fsync write-ahead log in {}", directory, error);
+                    failure = error instanceof UncheckedIOException ? error
+                            : new UncheckedIOException(new IOException("Failed to fsync write-ahead log", error));
+                    flushed.signalAll();
+                    return;
+                }
+                durableLsn = target;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 记录消费者
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+
+        /**
+         * 消费一条记录
+         *
+         * @param lsn     记录的LSN
+         * @param payload 记录内容，只读
+         */
+        void accept(long lsn, ByteBuffer payload);
+    }
+
+    /**
+     * 一个映射到内存的段
+     */
+    private static final class Segment {
+
+        private final long firstLsn;
+
+        private final MappedByteBuffer buffer;
+
+        private int position;
+
+        private Segment(long firstLsn, MappedByteBuffer buffer) {
+            this.firstLsn = firstLsn;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 段内需要刷盘的区间
+     */
+    private record DirtyRange(Segment segment, int from, int to) {
+
+        void force() {
+            if (to > from) {
+                segment.buffer.force(from, to - from);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FairFlowScheduler 单元测试
+ *
+ * @author wangguangwu
+ */
+class FairFlowSchedulerTest {
+
+    private final SequentialFlowEngine engine = new SequentialFlowEngine();
+
+    private final ManualExecutor executor = new ManualExecutor();
+
+    private final List<String> order = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine.deploy(FlowDefinition.builder("tenant").step("tenant", "tenant").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("测试积压租户不阻塞其他租户")
+    void testRoundRobinAcrossTenants() {
+        FairFlowScheduler scheduler = new FairFlowScheduler(engine, executor, 1, 1, 100, Map.of());
+
+        submit(scheduler, "tenant-a", 4);
+        submit(scheduler, "tenant-b", 2);
+        executor.runAll();
+
+        // 第一个实例提交时直接获得名额，其后两个租户交替执行
+        assertEquals(List.of("tenant-a", "tenant-a", "tenant-b", "tenant-a", "tenant-b", "tenant-a"), order);
+        assertEquals(0, scheduler.getInFlight());
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    @DisplayName("测试按权重分配名额")
+    void testWeights() {
+        FairFlowScheduler scheduler = new FairFlowScheduler(engine, executor, 1, 1, 100,
+                Map.of("tenant-b", 2));
+
+        submit(scheduler, "tenant-a", 4);
+        submit(scheduler, "tenant-b", 4);
+        assertEquals(3, scheduler.getQueued("tenant-a"));
+        assertEquals(4, scheduler.getQueued("tenant-b"));
+        executor.runAll();
+
+        assertEquals(List.of("tenant-a", "tenant-a", "tenant-b", "tenant-b", "tenant-a", "tenant-b", "tenant-b",
+                "tenant-a"), order);
+    }
+
+    @Test
+    @DisplayName("测试租户排队上限与关闭")
+    void testQueueLimitAndClose() {
+        FairFlowScheduler scheduler = new FairFlowScheduler(engine, executor, 1, 1, 2, Map.of());
+
+        List<CompletableFuture<FlowResult>> futures = submit(scheduler, "tenant-a", 3);
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit("tenant", null));
+
+        scheduler.close();
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit("tenant", null));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> futures.get(2).get());
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+
+        // 已经开始的实例不受关闭影响
+        executor.runAll();
+        assertTrue(futures.get(0).join().isSuccess());
+    }
+
+    @Test
+    @DisplayName("测试在执行线程上设置租户上下文")
+    void testTenantContext() throws Exception {
+        try (FairFlowScheduler scheduler = new FairFlowScheduler(engine, 2)) {
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            List<CompletableFuture<FlowResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(scheduler.submit("tenant", null));
+            }
+            for (CompletableFuture<FlowResult> future : futures) {
+                FlowResult result = future.get(5, TimeUnit.SECONDS);
+                assertEquals("tenant-a", result.tenantId());
+                assertEquals("tenant-a", result.variables().get("tenant"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("测试并行引擎的分支在调度器的线程池上执行")
+    void testParallelBranchesOnSchedulerExecutor() {
+        // 引擎自身的线程池拒绝所有任务，实例只能在调度器的线程池上完成
+        try (ParallelFlowEngine parallel = new ParallelFlowEngine(command -> {
+            throw new RejectedExecutionException("engine executor must not be used");
+        })) {
+            parallel.deploy(FlowDefinition.builder("fork")
+                    .parallel("fork")
+                    .step("left", "tenant")
+                    .step("right", "tenant")
+                    .join("join")
+                    .edge("fork", "left")
+                    .edge("fork", "right")
+                    .edge("left", "join")
+                    .edge("right", "join")
+                    .build());
+            FairFlowScheduler scheduler = new FairFlowScheduler(parallel, executor, 2, 1, 100, Map.of());
+
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            CompletableFuture<FlowResult> first = scheduler.submit("fork", null);
+            CompletableFuture<FlowResult> second = scheduler.submit("fork", null);
+            assertFalse(first.isDone());
+            executor.runAll();
+
+            for (CompletableFuture<FlowResult> future : List.of(first, second)) {
+                FlowResult result = future.join();
+                assertTrue(result.isSuccess());
+                assertEquals(Set.of("fork", "left", "right", "join"), Set.copyOf(result.executedNodes()));
+                assertEquals("tenant-a", result.variables().get("tenant"));
+            }
+        }
+    }
+
+    private List<CompletableFuture<FlowResult>> submit(FairFlowScheduler scheduler, String tenantId, int count) {
+        List<CompletableFuture<FlowResult>> futures = new ArrayList<>();
+        TenantContextHolder.runWithContext(DefaultTenantContext.create(tenantId), () -> {
+            for (int i = 0; i < count; i++) {
+                CompletableFuture<FlowResult> future = scheduler.submit("tenant", null);
+                future.thenAccept(result -> order.add(result.tenantId()));
+                futures.add(future);
+            }
+        });
+        return futures;
+    }
+
+    /**
+     * 由测试线程逐个执行任务的线程池
+     */
+    private static final class ManualExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FlowCompiler 单元测试
+ *
+ * @author wangguangwu
+ */
+class FlowCompilerTest {
+
+    @Test
+    @DisplayName("测试编译为下标化的执行计划")
+    void testCompile() {
+        FlowDefinition definition = FlowDefinition.builder("order")
+                .step("d", "increment")
+                .step("b", "increment")
+                .step("c", "increment")
+                .step("a", "increment")
+                .edge("a", "b")
+                .edge("a", "c", context -> true)
+                .edge("b", "d")
+                .edge("c", "d")
+                .build();
+
+        FlowPlan plan = FlowCompiler.compile(definition);
+
+        assertEquals(4, plan.size());
+        // 节点按声明顺序编号
+        assertEquals("d", plan.nodeId(0));
+        assertEquals("a", plan.nodeId(3));
+        assertArrayEquals(new int[]{3}, plan.startNodes());
+        assertArrayEquals(new int[]{1, 2}, plan.successors(3));
+        assertNull(plan.conditions(3)[0]);
+        assertNotNull(plan.conditions(3)[1]);
+        assertNull(plan.conditions(1));
+        assertEquals(2, plan.predecessorCount(0));
+        assertArrayEquals(new int[]{3, 1, 2, 0}, plan.order());
+        assertSame(plan.step(0), plan.step(1));
+    }
+
+    @Test
+    @DisplayName("测试检测环")
+    void testCycle() {
+        FlowDefinition definition = FlowDefinition.builder("cycle")
+                .step("start", "increment")
+                .step("a", "increment")
+                .step("b", "increment")
+                .edge("start", "a")
+                .edge("a", "b")
+                .edge("b", "a")
+                .build();
+
+        FlowException exception = assertThrows(FlowException.class, () -> FlowCompiler.compile(definition));
+        assertTrue(exception.getMessage().contains("cycle"));
+    }
+
+    @Test
+    @DisplayName("测试步骤扩展不存在")
+    void testUnknownStep() {
+        FlowDefinition definition = FlowDefinition.builder("unknown")
+                .step("a", "missing")
+                .build();
+
+        FlowException exception = assertThrows(FlowException.class, () -> FlowCompiler.compile(definition));
+        assertTrue(exception.getMessage().contains("missing"));
+    }
+
+    @Test
+    @DisplayName("测试非法流程定义")
+    void testInvalidDefinition() {
+        assertThrows(FlowException.class, () -> FlowDefinition.builder("empty").build());
+        assertThrows(FlowException.class, () -> FlowDefinition.builder("duplicate")
+                .step("a", "increment")
+                .step("a", "increment")
+                .build());
+        assertThrows(FlowException.class, () -> FlowDefinition.builder("dangling")
+                .step("a", "increment")
+                .edge("a", "b")
+                .build());
+    }
+}
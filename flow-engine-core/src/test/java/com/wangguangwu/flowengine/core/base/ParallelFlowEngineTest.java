@@ -0,0 +1,296 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowInstanceState;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.core.base.step.GateAsyncStep;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ParallelFlowEngine 单元测试
+ *
+ * @author wangguangwu
+ */
+class ParallelFlowEngineTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final ParallelFlowEngine engine = new ParallelFlowEngine(executor);
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        engine.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("测试并行网关的分支同时执行")
+    void testBranchesRunConcurrently() {
+        engine.deploy(FlowDefinition.builder("fork")
+                .step("start", "increment")
+                .parallel("fork")
+                .step("left", "barrier")
+                .step("right", "barrier")
+                .join("join")
+                .step("end", "increment")
+                .edge("start", "fork")
+                .edge("fork", "left")
+                .edge("fork", "right")
+                .edge("left", "join")
+                .edge("right", "join")
+                .edge("join", "end")
+                .build());
+
+        FlowResult result = engine.execute("fork", null);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals(6, result.executedNodes().size());
+        assertEquals(List.of("join", "end"), result.executedNodes().subList(4, 6));
+        assertEquals(2, result.variables().get("count"));
+    }
+
+    @Test
+    @DisplayName("测试汇聚网关等待被跳过的分支")
+    void testJoinWithSkippedBranch() {
+        engine.deploy(FlowDefinition.builder("skip")
+                .parallel("fork")
+                .step("taken", "increment")
+                .step("skipped", "increment")
+                .step("after-skipped", "increment")
+                .join("join")
+                .step("end", "increment")
+                .edge("fork", "taken")
+                .edge("fork", "skipped", context -> false)
+                .edge("skipped", "after-skipped")
+                .edge("taken", "join")
+                .edge("after-skipped", "join")
+                .edge("join", "end")
+                .build());
+
+        FlowResult result = engine.execute("skip", Map.of("count", 0));
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of("fork", "taken", "join", "end"), result.executedNodes());
+        assertEquals(2, result.variables().get("count"));
+    }
+
+    @Test
+    @DisplayName("测试跳过的入边最后确定时仍执行汇合节点")
+    void testSkippedEdgeResolvesLast() throws Exception {
+        // 触发的入边先到达end，最后一条入边由跳过传播确定
+        engine.deploy(FlowDefinition.builder("late-skip")
+                .step("p", "increment")
+                .step("opt", "increment")
+                .step("end", "increment")
+                .edge("p", "end")
+                .edge("p", "opt", context -> false)
+                .edge("opt", "end")
+                .build());
+
+        FlowResult result = engine.executeAsync("late-skip", null).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals(List.of("p", "end"), result.executedNodes());
+    }
+
+    @Test
+    @DisplayName("测试长跳过链不会栈溢出")
+    void testLongSkippedChain() throws Exception {
+        int length = 50_000;
+        FlowDefinition.Builder builder = FlowDefinition.builder("long-skip")
+                .step("start", "increment")
+                .step("end", "increment")
+                .edge("start", "end")
+                .edge("start", "skip-0", context -> false);
+        for (int i = 0; i < length; i++) {
+            builder.step("skip-" + i, "increment");
+            builder.edge("skip-" + i, i + 1 < length ? "skip-" + (i + 1) : "end");
+        }
+        engine.deploy(builder.build());
+
+        FlowResult result = engine.executeAsync("long-skip", null).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals(List.of("start", "end"), result.executedNodes());
+    }
+
+    @Test
+    @DisplayName("测试租户上下文传播到每个分支")
+    void testTenantPropagation() {
+        FlowDefinition.Builder builder = FlowDefinition.builder("tenant").parallel("fork").join("join");
+        for (int i = 0; i < 16; i++) {
+            builder.step("branch-" + i, "tenant-check").edge("fork", "branch-" + i).edge("branch-" + i, "join");
+        }
+        engine.deploy(builder.build());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        FlowResult result = engine.execute("tenant", null);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals("tenant-a", result.tenantId());
+        assertEquals(18, result.executedNodes().size());
+        // 调用线程的租户上下文不受影响
+        assertEquals("tenant-a", TenantContextHolder.getCurrentTenantId());
+    }
+
+    @Test
+    @DisplayName("测试分支失败")
+    void testBranchFailure() {
+        engine.deploy(FlowDefinition.builder("failing")
+                .parallel("fork")
+                .step("ok", "tenant-check")
+                .step("fail", "failing")
+                .join("join")
+                .step("end", "increment")
+                .edge("fork", "ok")
+                .edge("fork", "fail")
+                .edge("ok", "join")
+                .edge("fail", "join")
+                .edge("join", "end")
+                .build());
+
+        FlowResult result = engine.execute("failing", null);
+
+        assertEquals(FlowStatus.FAILED, result.status());
+        assertEquals("fail", result.failedNode());
+        assertInstanceOf(IllegalStateException.class, result.error());
+        assertFalse(result.executedNodes().contains("end"));
+    }
+
+    @Test
+    @DisplayName("测试异步步骤完成后恢复租户上下文")
+    void testAsyncStep() {
+        engine.deploy(FlowDefinition.builder("async-step")
+                .step("io", "async-delayed")
+                .step("check", "tenant-check")
+                .edge("io", "check")
+                .build());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        FlowResult result = engine.execute("async-step", null);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals(List.of("io", "check"), result.executedNodes());
+        assertEquals(true, result.variables().get("async"));
+    }
+
+    @Test
+    @DisplayName("测试已完成的异步步骤在当前线程继续")
+    void testCompletedAsyncStep() {
+        engine.deploy(FlowDefinition.builder("completed")
+                .step("a", "async-completed")
+                .step("b", "tenant")
+                .edge("a", "b")
+                .build());
+
+        FlowResult result = engine.execute("completed", null);
+
+        assertTrue(result.isSuccess());
+        assertEquals(Thread.currentThread().getName(), result.variables().get("thread"));
+    }
+
+    @Test
+    @DisplayName("测试异步步骤失败")
+    void testAsyncStepFailure() {
+        engine.deploy(FlowDefinition.builder("async-failing")
+                .step("io", "async-failing")
+                .step("end", "increment")
+                .edge("io", "end")
+                .build());
+
+        FlowResult result = engine.execute("async-failing", null);
+
+        assertEquals(FlowStatus.FAILED, result.status());
+        assertEquals("io", result.failedNode());
+        assertInstanceOf(IllegalStateException.class, result.error());
+        assertEquals(List.of(), result.executedNodes());
+    }
+
+    @Test
+    @DisplayName("测试等待异步步骤的实例不占用线程")
+    void testAsyncStepDoesNotPark() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try (ParallelFlowEngine singleThreaded = new ParallelFlowEngine(single)) {
+            singleThreaded.deploy(FlowDefinition.builder("gate")
+                    .step("gate", "async-gate")
+                    .step("check", "tenant-check")
+                    .edge("gate", "check")
+                    .build());
+            int instances = 20;
+            GateAsyncStep.reset(instances);
+
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            List<CompletableFuture<FlowResult>> futures = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                futures.add(singleThreaded.executeAsync("gate", null));
+            }
+            for (CompletableFuture<FlowResult> future : futures) {
+                FlowResult result = future.get(5, TimeUnit.SECONDS);
+                assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("测试异步执行")
+    void testExecuteAsync() throws Exception {
+        engine.deploy(FlowDefinition.builder("async")
+                .step("a", "increment")
+                .step("b", "tenant-check")
+                .edge("a", "b")
+                .build());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-b"));
+        FlowResult result = engine.executeAsync("async", null).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals("tenant-b", result.tenantId());
+        assertEquals(List.of("a", "b"), result.executedNodes());
+    }
+
+    @Test
+    @DisplayName("测试恢复执行跳过已完成的节点")
+    void testResume() {
+        engine.deploy(FlowDefinition.builder("resume")
+                .parallel("fork")
+                .step("left", "increment")
+                .step("right", "increment")
+                .join("join")
+                .step("end", "tenant-check")
+                .edge("fork", "left")
+                .edge("fork", "right")
+                .edge("left", "join")
+                .edge("right", "join")
+                .edge("join", "end")
+                .build());
+
+        FlowResult result = engine.resume(new FlowInstanceState("resume", 42, "tenant-c", Map.of("count", 1),
+                Set.of("fork", "left")));
+
+        assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+        assertEquals(42, result.instanceId());
+        assertEquals("tenant-c", result.tenantId());
+        // 已完成的left不再执行，只有right累加
+        assertEquals(2, result.variables().get("count"));
+        assertEquals(5, result.executedNodes().size());
+    }
+}
@@ -0,0 +1,155 @@
+package com.wangguangwu.flowengine.core.base;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowException;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SequentialFlowEngine 单元测试
+ *
+ * @author wangguangwu
+ */
+class SequentialFlowEngineTest {
+
+    private final SequentialFlowEngine engine = new SequentialFlowEngine();
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("测试按拓扑序执行")
+    void testExecuteInOrder() {
+        engine.deploy(FlowDefinition.builder("diamond")
+                .step("end", "increment")
+                .step("left", "increment")
+                .step("right", "increment")
+                .step("start", "increment")
+                .edge("start", "left")
+                .edge("start", "right")
+                .edge("left", "end")
+                .edge("right", "end")
+                .build());
+
+        FlowResult result = engine.execute("diamond", Map.of("count", 10));
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of("start", "left", "right", "end"), result.executedNodes());
+        // 汇合节点只执行一次
+        assertEquals(14, result.variables().get("count"));
+    }
+
+    @Test
+    @DisplayName("测试条件分支与跳过")
+    void testConditionalBranch() {
+        engine.deploy(FlowDefinition.builder("branch")
+                .step("start", "increment")
+                .step("approve", "increment")
+                .step("reject", "increment")
+                .step("audit", "increment")
+                .step("end", "increment")
+                .edge("start", "approve", context -> context.<Integer>getVariable("count") > 5)
+                .edge("start", "reject", context -> context.<Integer>getVariable("count") <= 5)
+                .edge("reject", "audit")
+                .edge("approve", "end")
+                .edge("audit", "end")
+                .build());
+
+        FlowResult high = engine.execute("branch", Map.of("count", 10));
+        assertEquals(List.of("start", "approve", "end"), high.executedNodes());
+
+        FlowResult low = engine.execute("branch", null);
+        assertEquals(List.of("start", "reject", "audit", "end"), low.executedNodes());
+        assertNotEquals(high.instanceId(), low.instanceId());
+    }
+
+    @Test
+    @DisplayName("测试网关节点")
+    void testGateways() {
+        engine.deploy(FlowDefinition.builder("gateway")
+                .parallel("fork")
+                .step("left", "increment")
+                .step("right", "increment")
+                .join("join")
+                .edge("fork", "left")
+                .edge("fork", "right", context -> false)
+                .edge("left", "join")
+                .edge("right", "join")
+                .build());
+
+        FlowResult result = engine.execute("gateway", null);
+
+        assertEquals(List.of("fork", "left", "join"), result.executedNodes());
+        assertEquals(1, result.variables().get("count"));
+    }
+
+    @Test
+    @DisplayName("测试同步等待异步步骤")
+    void testAsyncStep() {
+        engine.deploy(FlowDefinition.builder("async")
+                .step("io", "async-delayed")
+                .step("fail", "async-failing")
+                .edge("io", "fail")
+                .build());
+
+        FlowResult result = engine.execute("async", null);
+
+        assertEquals(List.of("io"), result.executedNodes());
+        assertEquals(true, result.variables().get("async"));
+        assertEquals("fail", result.failedNode());
+        assertInstanceOf(IllegalStateException.class, result.error());
+    }
+
+    @Test
+    @DisplayName("测试步骤失败")
+    void testStepFailure() {
+        engine.deploy(FlowDefinition.builder("failing")
+                .step("start", "increment")
+                .step("fail", "failing")
+                .step("end", "increment")
+                .edge("start", "fail")
+                .edge("fail", "end")
+                .build());
+
+        FlowResult result = engine.execute("failing", null);
+
+        assertEquals(FlowStatus.FAILED, result.status());
+        assertEquals("fail", result.failedNode());
+        assertInstanceOf(IllegalStateException.class, result.error());
+        assertEquals(List.of("start"), result.executedNodes());
+        assertEquals(1, result.variables().get("count"));
+    }
+
+    @Test
+    @DisplayName("测试从租户上下文获取租户ID")
+    void testTenant() {
+        engine.deploy(FlowDefinition.builder("tenant").step("tenant", "tenant").build());
+
+        FlowResult anonymous = engine.execute("tenant", null);
+        assertNull(anonymous.tenantId());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        FlowResult result = engine.execute("tenant", null);
+        assertEquals("tenant-a", result.tenantId());
+        assertEquals("tenant-a", result.variables().get("tenant"));
+    }
+
+    @Test
+    @DisplayName("测试执行未部署的流程")
+    void testNotDeployed() {
+        assertThrows(FlowException.class, () -> engine.execute("missing", null));
+    }
+}
@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两个分支同时到达才能通过，分支被顺序执行时超时失败
+ */
+public class BarrierStep implements FlowStep {
+
+    private final CyclicBarrier barrier = new CyclicBarrier(2);
+
+    @Override
+    public void execute(FlowContext context) throws Exception {
+        barrier.await(5, TimeUnit.SECONDS);
+    }
+}
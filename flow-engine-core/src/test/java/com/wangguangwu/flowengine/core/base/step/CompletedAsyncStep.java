@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public class CompletedAsyncStep implements AsyncFlowStep {
+    @Override
+    public CompletionStage<?> executeAsync(FlowContext context) {
+        context.setVariable("thread", Thread.currentThread().getName());
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在没有租户上下文的延迟线程上完成
+ */
+public class DelayedAsyncStep implements AsyncFlowStep {
+    @Override
+    public CompletionStage<?> executeAsync(FlowContext context) {
+        return CompletableFuture.runAsync(() -> context.setVariable("async", true),
+                CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS));
+    }
+}
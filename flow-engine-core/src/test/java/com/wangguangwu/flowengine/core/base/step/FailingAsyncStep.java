@@ -0,0 +1,17 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+public class FailingAsyncStep implements AsyncFlowStep {
+    @Override
+    public CompletionStage<?> executeAsync(FlowContext context) {
+        return CompletableFuture.runAsync(() -> {
+            throw new IllegalStateException("async step failed");
+        }, CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS));
+    }
+}
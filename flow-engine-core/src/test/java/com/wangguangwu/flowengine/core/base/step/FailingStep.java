@@ -0,0 +1,11 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+public class FailingStep implements FlowStep {
+    @Override
+    public void execute(FlowContext context) {
+        throw new IllegalStateException("step failed");
+    }
+}
@@ -0,0 +1,34 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.AsyncFlowStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 只有 {@link #reset(int)} 指定数量的实例全部到达后才一起完成，实例等待期间占用线程时会死锁
+ */
+public class GateAsyncStep implements AsyncFlowStep {
+
+    private static final List<CompletableFuture<Void>> WAITING = new CopyOnWriteArrayList<>();
+
+    private static volatile int expected;
+
+    public static void reset(int count) {
+        WAITING.clear();
+        expected = count;
+    }
+
+    @Override
+    public CompletionStage<?> executeAsync(FlowContext context) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        WAITING.add(future);
+        if (WAITING.size() == expected) {
+            new Thread(() -> WAITING.forEach(waiting -> waiting.complete(null))).start();
+        }
+        return future;
+    }
+}
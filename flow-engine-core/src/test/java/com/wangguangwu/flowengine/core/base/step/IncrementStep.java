@@ -0,0 +1,12 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+public class IncrementStep implements FlowStep {
+    @Override
+    public void execute(FlowContext context) {
+        Integer count = context.getVariable("count");
+        context.setVariable("count", count == null ? 1 : count + 1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 等到 {@link #release()} 后才写入变量，用于控制并行分支写变量的时机
+ */
+public class LatchStep implements FlowStep {
+
+    private static volatile CountDownLatch latch = new CountDownLatch(1);
+
+    public static void reset() {
+        latch = new CountDownLatch(1);
+    }
+
+    public static void release() {
+        latch.countDown();
+    }
+
+    @Override
+    public void execute(FlowContext context) throws Exception {
+        if (!latch.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Latch was not released");
+        }
+        context.setVariable("released", true);
+    }
+}
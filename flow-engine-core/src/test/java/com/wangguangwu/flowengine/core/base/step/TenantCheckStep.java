@@ -0,0 +1,17 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+
+import java.util.Objects;
+
+public class TenantCheckStep implements FlowStep {
+    @Override
+    public void execute(FlowContext context) {
+        String current = TenantContextHolder.getCurrentTenantId();
+        if (!Objects.equals(current, context.tenantId())) {
+            throw new IllegalStateException("Expected tenant " + context.tenantId() + " but was " + current);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.wangguangwu.flowengine.core.base.step;
+
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.extension.api.FlowStep;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+
+public class TenantStep implements FlowStep {
+    @Override
+    public void execute(FlowContext context) {
+        context.setVariable("tenant", TenantContextHolder.getCurrentTenantId());
+    }
+}
@@ -0,0 +1,345 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import com.wangguangwu.flowengine.core.api.FlowDefinition;
+import com.wangguangwu.flowengine.core.api.FlowInstanceState;
+import com.wangguangwu.flowengine.core.api.FlowResult;
+import com.wangguangwu.flowengine.core.api.FlowStatus;
+import com.wangguangwu.flowengine.core.base.DefaultFlowContext;
+import com.wangguangwu.flowengine.core.base.FlowJournal;
+import com.wangguangwu.flowengine.core.base.ParallelFlowEngine;
+import com.wangguangwu.flowengine.core.base.SequentialFlowEngine;
+import com.wangguangwu.flowengine.core.base.step.LatchStep;
+import com.wangguangwu.flowengine.extension.api.FlowContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ObjectInputFilter;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FlowStateStore 单元测试
+ *
+ * @author wangguangwu
+ */
+class FlowStateStoreTest {
+
+    private final SequentialFlowEngine engine = new SequentialFlowEngine();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("测试重启后恢复未结束的实例并只执行剩余节点")
+    void testRecoverAndResume() throws Exception {
+        engine.deploy(FlowDefinition.builder("chain")
+                .step("first", "increment")
+                .step("second", "increment")
+                .step("third", "increment")
+                .edge("first", "second")
+                .edge("second", "third")
+                .build());
+
+        // 模拟执行完first后进程崩溃
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            DefaultFlowContext context = new DefaultFlowContext("chain", 7, "tenant-a", Map.of("count", 0));
+            store.started(context);
+            context.setVariable("count", 1);
+            store.nodeCompleted(context, "first");
+        }
+
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            List<FlowInstanceState> running = store.getRunningInstances();
+            assertEquals(1, running.size());
+            FlowInstanceState state = running.get(0);
+            assertEquals(7, state.instanceId());
+            assertEquals("tenant-a", state.tenantId());
+            assertEquals(Set.of("first"), state.completedNodes());
+            assertEquals(1, state.variables().get("count"));
+
+            engine.setJournal(store);
+            FlowResult result = engine.resume(state);
+
+            assertTrue(result.isSuccess());
+            assertEquals(7, result.instanceId());
+            assertEquals("tenant-a", result.tenantId());
+            assertEquals(3, result.variables().get("count"));
+            assertTrue(store.getRunningInstances().isEmpty());
+            // 新实例的ID大于恢复的实例ID
+            assertTrue(engine.execute("chain", null).instanceId() > 7);
+        }
+
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            assertTrue(store.getRunningInstances().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("测试从快照和其后的日志恢复")
+    void testSnapshotAndTail() throws Exception {
+        try (FlowStateStore store = new FlowStateStore(directory, settings(3))) {
+            for (long id = 1; id <= 5; id++) {
+                DefaultFlowContext context = new DefaultFlowContext("flow", id, null, Map.of("id", id));
+                store.started(context);
+                store.nodeCompleted(context, "a");
+                if (id % 2 == 0) {
+                    store.finished(context, FlowStatus.COMPLETED);
+                }
+            }
+            store.snapshot();
+            DefaultFlowContext context = new DefaultFlowContext("flow", 6, null, Map.of("name", "tail"));
+            store.started(context);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().endsWith(".snap")).count());
+        }
+
+        try (FlowStateStore store = new FlowStateStore(directory, settings(3))) {
+            List<FlowInstanceState> running = store.getRunningInstances();
+            assertEquals(List.of(1L, 3L, 5L, 6L), running.stream().map(FlowInstanceState::instanceId).toList());
+            assertEquals(Set.of("a"), running.get(0).completedNodes());
+            assertEquals(5L, running.get(2).variables().get("id"));
+            assertEquals("tail", running.get(3).variables().get("name"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试引擎执行完成后不留下未结束的实例")
+    void testCompletedInstancesAreForgotten() throws Exception {
+        engine.deploy(FlowDefinition.builder("single").step("only", "increment").build());
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            engine.setJournal(store);
+            assertTrue(engine.execute("single", null).isSuccess());
+            assertTrue(engine.execute("single", null).isSuccess());
+            assertTrue(store.getRunningInstances().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("测试实例ID在重启后和共享存储的引擎之间不重复")
+    void testInstanceIdsAreUnique() throws Exception {
+        SequentialFlowEngine other = new SequentialFlowEngine();
+        FlowDefinition definition = FlowDefinition.builder("single").step("only", "increment").build();
+        engine.deploy(definition);
+        other.deploy(definition);
+        try {
+            try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+                engine.setJournal(store);
+                other.setJournal(store);
+                assertEquals(1, engine.execute("single", null).instanceId());
+                assertEquals(2, other.execute("single", null).instanceId());
+                assertEquals(3, engine.execute("single", null).instanceId());
+            }
+            // 从日志恢复已分配的最大实例ID
+            try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+                other.setJournal(store);
+                assertEquals(4, other.execute("single", null).instanceId());
+                // 快照之后日志中不再有启动记录，由快照保存已分配的最大实例ID
+                store.snapshot();
+            }
+            try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+                engine.setJournal(store);
+                assertEquals(5, engine.execute("single", null).instanceId());
+            }
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    @DisplayName("测试并行分支的变量在恢复后都不丢失")
+    void testRecoverParallelBranches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ParallelFlowEngine parallel = new ParallelFlowEngine(executor);
+        parallel.deploy(FlowDefinition.builder("fork")
+                .parallel("fork")
+                .step("left", "increment")
+                .step("right", "latch")
+                .join("join")
+                .step("end", "increment")
+                .edge("fork", "left")
+                .edge("fork", "right")
+                .edge("left", "join")
+                .edge("right", "join")
+                .edge("join", "end")
+                .build());
+        int instances = 3;
+        try {
+            // 模拟两个分支都完成、汇聚前进程崩溃
+            try (FlowStateStore store = new FlowStateStore(directory, settings(1000))) {
+                parallel.setJournal(new CrashBeforeJoinJournal(store));
+                for (int i = 0; i < instances; i++) {
+                    LatchStep.reset();
+                    assertTrue(parallel.execute("fork", null).isSuccess());
+                }
+            }
+
+            try (FlowStateStore store = new FlowStateStore(directory, settings(1000))) {
+                List<FlowInstanceState> running = store.getRunningInstances();
+                assertEquals(instances, running.size());
+                parallel.setJournal(store);
+                for (FlowInstanceState state : running) {
+                    assertEquals(Set.of("fork", "left", "right"), state.completedNodes());
+                    assertEquals(1, state.variables().get("count"));
+                    assertEquals(true, state.variables().get("released"));
+
+                    FlowResult result = parallel.resume(state);
+                    assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+                    assertEquals(2, result.variables().get("count"));
+                }
+                assertTrue(store.getRunningInstances().isEmpty());
+            }
+        } finally {
+            parallel.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("测试不可序列化的变量")
+    void testUnserializableVariable() throws Exception {
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            DefaultFlowContext context = new DefaultFlowContext("flow", 1, null, Map.of("lock", new Object()));
+            assertThrows(IllegalArgumentException.class, () -> store.started(context));
+            assertTrue(store.getRunningInstances().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("测试只按过滤器允许的类保存和恢复序列化变量")
+    void testVariableFilter() throws Exception {
+        Map<String, Object> variables = Map.of("point", new Point(1, 2));
+        try (FlowStateStore store = new FlowStateStore(directory, settings(100))) {
+            store.started(new DefaultFlowContext("flow", 1, null, Map.of("names", List.of("a", "b"))));
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.started(new DefaultFlowContext("flow", 2, null, variables)));
+        }
+
+        FlowStateStoreSettings allowPoint = new FlowStateStoreSettings(64 * 1024, 8, Duration.ofMillis(1), 100, true,
+                ObjectInputFilter.Config.createFilter(Point.class.getName() + ";java.lang.*;java.util.*;!*"),
+                Point.class.getClassLoader());
+        try (FlowStateStore store = new FlowStateStore(directory, allowPoint)) {
+            store.started(new DefaultFlowContext("flow", 2, null, variables));
+        }
+        try (FlowStateStore store = new FlowStateStore(directory, allowPoint)) {
+            List<FlowInstanceState> running = store.getRunningInstances();
+            assertEquals(List.of("a", "b"), running.get(0).variables().get("names"));
+            assertEquals(new Point(1, 2), running.get(1).variables().get("point"));
+        }
+
+        // 日志中出现过滤器不允许的类时拒绝恢复
+        assertThrows(UncheckedIOException.class, () -> new FlowStateStore(directory, settings(100)));
+    }
+
+    private record Point(int x, int y) implements Serializable {
+    }
+
+    /**
+     * 只记录到两个分支完成，模拟汇聚前进程崩溃
+     * <p>
+     * left复制完变量才放行right写变量，再等right的记录先追加，超时后继续
+     * </p>
+     */
+    private static final class CrashBeforeJoinJournal implements FlowJournal {
+
+        private final FlowStateStore store;
+
+        private volatile CountDownLatch rightRecorded;
+
+        private CrashBeforeJoinJournal(FlowStateStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public long nextInstanceId() {
+            return store.nextInstanceId();
+        }
+
+        @Override
+        public void started(FlowContext context) {
+            rightRecorded = new CountDownLatch(1);
+            store.started(context);
+        }
+
+        @Override
+        public void nodeCompleted(FlowContext context, String nodeId) {
+            switch (nodeId) {
+                case "left" -> store.nodeCompleted(new CopyFirstContext(context, rightRecorded), nodeId);
+                case "right" -> {
+                    store.nodeCompleted(context, nodeId);
+                    rightRecorded.countDown();
+                }
+                case "fork" -> store.nodeCompleted(context, nodeId);
+                default -> {
+                }
+            }
+        }
+    }
+
+    private record CopyFirstContext(FlowContext delegate, CountDownLatch rightRecorded) implements FlowContext {
+
+        @Override
+        public String flowId() {
+            return delegate.flowId();
+        }
+
+        @Override
+        public long instanceId() {
+            return delegate.instanceId();
+        }
+
+        @Override
+        public String tenantId() {
+            return delegate.tenantId();
+        }
+
+        @Override
+        public <T> T getVariable(String name) {
+            return delegate.getVariable(name);
+        }
+
+        @Override
+        public void setVariable(String name, Object value) {
+            delegate.setVariable(name, value);
+        }
+
+        @Override
+        public Map<String, Object> getVariables() {
+            Map<String, Object> copy = Map.copyOf(delegate.getVariables());
+            LatchStep.release();
+            // 在锁内复制时right阻塞在存储的锁上，只能等到超时
+            try {
+                rightRecorded.await(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return copy;
+        }
+    }
+
+    private static FlowStateStoreSettings settings(long snapshotInterval) {
+        return new FlowStateStoreSettings(64 * 1024, 8, Duration.ofMillis(1), snapshotInterval, true);
+    }
+}
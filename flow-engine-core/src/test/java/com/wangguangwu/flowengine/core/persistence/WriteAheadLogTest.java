@@ -0,0 +1,134 @@
+package com.wangguangwu.flowengine.core.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WriteAheadLog 单元测试
+ *
+ * @author wangguangwu
+ */
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("测试追加、分段与重新打开后回放")
+    void testAppendRollAndReplay() throws Exception {
+        try (WriteAheadLog wal = open()) {
+            for (int i = 1; i <= 20; i++) {
+                assertEquals(i, wal.append(record(i)));
+            }
+            wal.awaitDurable(20);
+            assertEquals(20, wal.durableLsn());
+            assertTrue(wal.segmentCount() > 1);
+        }
+
+        try (WriteAheadLog wal = open()) {
+            assertEquals(20, wal.lastLsn());
+            assertEquals(List.of("record-18", "record-19", "record-20"), replay(wal, 17));
+            assertEquals(21, wal.append(record(21)));
+        }
+    }
+
+    @Test
+    @DisplayName("测试截断崩溃时写了一半的尾部")
+    void testTornTail() throws Exception {
+        try (WriteAheadLog wal = open()) {
+            for (int i = 1; i <= 3; i++) {
+                wal.append(record(i));
+            }
+        }
+        // 破坏最后一条记录的载荷，CRC不再匹配
+        Path segment = segments().get(0);
+        int lastPayload = 2 * (WriteAheadLog.HEADER_SIZE + record(1).length) + WriteAheadLog.HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), lastPayload);
+        }
+
+        try (WriteAheadLog wal = open()) {
+            assertEquals(2, wal.lastLsn());
+            assertEquals(3, wal.append("replacement".getBytes(StandardCharsets.UTF_8)));
+            wal.awaitDurable(3);
+        }
+        try (WriteAheadLog wal = open()) {
+            assertEquals(List.of("record-1", "record-2", "replacement"), replay(wal, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("测试删除已被覆盖的段")
+    void testTruncateBefore() throws Exception {
+        try (WriteAheadLog wal = open()) {
+            for (int i = 1; i <= 20; i++) {
+                wal.append(record(i));
+            }
+            int segments = wal.segmentCount();
+            assertEquals(segments - 1, wal.truncateBefore(Long.MAX_VALUE));
+            assertEquals(1, wal.segmentCount());
+            assertEquals(1, segments().size());
+
+            List<String> remaining = replay(wal, 0);
+            assertFalse(remaining.isEmpty());
+            assertEquals("record-20", remaining.get(remaining.size() - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("测试记录超过段大小")
+    void testRecordTooLarge() throws Exception {
+        try (WriteAheadLog wal = open()) {
+            assertThrows(IllegalArgumentException.class, () -> wal.append(new byte[SEGMENT_SIZE]));
+        }
+    }
+
+    @Test
+    @DisplayName("测试拒绝空记录")
+    void testEmptyRecord() throws Exception {
+        try (WriteAheadLog wal = open()) {
+            wal.append(record(1));
+            assertThrows(IllegalArgumentException.class, () -> wal.append(new byte[0]));
+            wal.append(record(2));
+        }
+        try (WriteAheadLog wal = open()) {
+            assertEquals(List.of("record-1", "record-2"), replay(wal, 0));
+        }
+    }
+
+    private WriteAheadLog open() throws Exception {
+        return new WriteAheadLog(directory, SEGMENT_SIZE, 4, Duration.ofMillis(1));
+    }
+
+    private static byte[] record(int index) {
+        return ("record-" + index).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> replay(WriteAheadLog wal, long afterLsn) throws Exception {
+        List<String> records = new ArrayList<>();
+        wal.replay(afterLsn, (lsn, payload) -> records.add(StandardCharsets.UTF_8.decode(payload).toString()));
+        return records;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
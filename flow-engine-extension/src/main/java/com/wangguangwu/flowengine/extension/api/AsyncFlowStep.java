@@ -0,0 +1,50 @@
+package com.wangguangwu.flowengine.extension.api;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步流程步骤
+ * <p>
+ * 以I/O为主的步骤实现该接口，在 {@link #executeAsync(FlowContext)} 中发起操作并立即返回，操作完成时完成返回的阶段。
+ * 仍按 {@link FlowStep} 扩展点注册；支持异步的引擎在阶段完成前不占用线程，阶段完成后在引擎线程池中继续执行后续节点，
+ * 并恢复启动实例时的租户上下文，因此完成阶段的线程（例如I/O线程）不需要租户上下文。
+ * 同步执行的引擎通过 {@link #execute(FlowContext)} 等待阶段完成。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface AsyncFlowStep extends FlowStep {
+
+    /**
+     * 异步执行步骤
+     *
+     * @param context 流程上下文
+     * @return 步骤完成时完成的阶段，异常完成时流程实例随之失败
+     */
+    CompletionStage<?> executeAsync(FlowContext context);
+
+    /**
+     * 同步执行步骤，阻塞等待 {@link #executeAsync(FlowContext)} 返回的阶段完成
+     *
+     * @param context 流程上下文
+     * @throws Exception 阶段异常完成的原因
+     */
+    @Override
+    default void execute(FlowContext context) throws Exception {
+        try {
+            executeAsync(context).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            // 恢复中断标记，让调用方仍能感知中断
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wangguangwu.flowengine.extension.api;
+
+import java.util.Map;
+
+/**
+ * 流程上下文
+ * <p>
+ * 一个流程实例的运行时数据，在该实例的所有步骤和条件之间共享。变量表支持并发读写，不允许null值。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface FlowContext {
+
+    /**
+     * 获取流程ID
+     *
+     * @return 流程ID
+     */
+    String flowId();
+
+    /**
+     * 获取流程实例ID
+     *
+     * @return 流程实例ID，在同一个引擎内唯一
+     */
+    long instanceId();
+
+    /**
+     * 获取启动流程实例时的租户ID
+     *
+     * @return 租户ID，没有租户上下文时为null
+     */
+    String tenantId();
+
+    /**
+     * 获取变量
+     *
+     * @param name 变量名
+     * @param <T>  变量类型
+     * @return 变量值，不存在时返回null
+     */
+    <T> T getVariable(String name);
+
+    /**
+     * 设置变量
+     *
+     * @param name  变量名
+     * @param value 变量值，为null时移除变量
+     */
+    void setVariable(String name, Object value);
+
+    /**
+     * 获取所有变量
+     *
+     * @return 变量表的只读视图
+     */
+    Map<String, Object> getVariables();
+}
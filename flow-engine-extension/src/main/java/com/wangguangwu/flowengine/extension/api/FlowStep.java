@@ -0,0 +1,25 @@
+package com.wangguangwu.flowengine.extension.api;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+/**
+ * 流程步骤扩展点
+ * <p>
+ * 流程定义中的步骤节点按名称通过 {@code SPILoader} 加载步骤实现，在流程部署时解析一次。
+ * 扩展默认是单例，同一个实例会被所有租户和流程实例并发调用，因此实现应当无状态，
+ * 实例数据通过 {@link FlowContext} 的变量读写。以I/O为主的步骤应实现 {@link AsyncFlowStep}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@SPI
+public interface FlowStep {
+
+    /**
+     * 执行步骤
+     *
+     * @param context 流程上下文
+     * @throws Exception 步骤执行失败，流程实例随之失败
+     */
+    void execute(FlowContext context) throws Exception;
+}
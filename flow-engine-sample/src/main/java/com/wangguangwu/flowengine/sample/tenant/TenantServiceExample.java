@@ -1,8 +1,8 @@
 package com.wangguangwu.flowengine.sample.tenant;
 
-import com.wangguangwu.flowengine.tenant.core.annotation.TenantAware;
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import com.wangguangwu.flowengine.tenant.api.TenantRouting;
 import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
-import com.wangguangwu.flowengine.tenant.core.isolation.TenantRouting;
 import org.springframework.stereotype.Service;
 
 /**
@@ -0,0 +1,151 @@
+package com.wangguangwu.flowengine.spi.processor;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+import com.wangguangwu.flowengine.spi.loader.ExtensionIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * SPI 编译期索引注解处理器。
+ * <p>
+ * 收集所有 {@link Extension} 标注的实现类，找出其实现的 {@link SPI} 扩展点接口，
+ * 在编译结束时写出 {@link ExtensionIndex#INDEX_LOCATION} 二进制索引，
+ * 使运行时加载器无需扫描和解析描述文件。
+ * 增量编译时会合并上一次生成的索引，并剔除已不存在的实现类。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@SupportedAnnotationTypes("com.wangguangwu.flowengine.spi.annotation.Extension")
+public class ExtensionIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 扩展点接口名 -> (扩展名 -> 实现类名)，使用有序结构保证输出稳定
+     */
+    private final Map<String, Map<String, String>> index = new TreeMap<>();
+
+    /**
+     * 本次编译中已处理的 扩展点接口名#扩展名，用于检测重名
+     */
+    private final Set<String> processed = new LinkedHashSet<>();
+
+    private boolean previousIndexMerged;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!previousIndexMerged) {
+            mergePreviousIndex();
+            previousIndexMerged = true;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Extension.class)) {
+            collect(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        Messager messager = processingEnv.getMessager();
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@Extension must be placed on a concrete class", element);
+            return;
+        }
+        TypeElement implementation = (TypeElement) element;
+        Set<TypeElement> spiTypes = new LinkedHashSet<>();
+        collectSpiTypes(implementation.asType(), spiTypes);
+        if (spiTypes.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@Extension class does not implement any @SPI interface", element);
+            return;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        String name = implementation.getAnnotation(Extension.class).value();
+        String className = elements.getBinaryName(implementation).toString();
+        // 本次重新编译的类以源码为准，丢弃历史索引中的旧条目
+        index.values().forEach(extensions -> extensions.values().remove(className));
+        for (TypeElement spiType : spiTypes) {
+            String typeName = elements.getBinaryName(spiType).toString();
+            String previous = index.computeIfAbsent(typeName, k -> new TreeMap<>()).put(name, className);
+            if (!processed.add(typeName + '#' + name) && !className.equals(previous)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Duplicate extension name '" + name + "' for "
+                        + typeName + ": " + previous + " and " + className, element);
+            }
+        }
+    }
+
+    private void collectSpiTypes(TypeMirror type, Set<TypeElement> spiTypes) {
+        for (TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) superType).asElement();
+            if (element.getKind() == ElementKind.INTERFACE && element.getAnnotation(SPI.class) != null) {
+                spiTypes.add(element);
+            }
+            collectSpiTypes(superType, spiTypes);
+        }
+    }
+
+    private void mergePreviousIndex() {
+        Elements elements = processingEnv.getElementUtils();
+        try {
+            FileObject previous = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ExtensionIndex.INDEX_LOCATION);
+            try (InputStream in = previous.openInputStream()) {
+                ExtensionIndex.read(in).forEach((typeName, extensions) -> extensions.forEach((name, className) -> {
+                    if (elements.getTypeElement(className.replace('$', '.')) != null) {
+                        index.computeIfAbsent(typeName, k -> new TreeMap<>()).put(name, className);
+                    }
+                }));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译时不存在历史索引
+        }
+    }
+
+    private void writeIndex() {
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ExtensionIndex.INDEX_LOCATION);
+            try (OutputStream out = resource.openOutputStream()) {
+                ExtensionIndex.write(out, index);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + ExtensionIndex.INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+}
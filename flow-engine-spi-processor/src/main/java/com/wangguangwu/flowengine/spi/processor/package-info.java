@@ -0,0 +1,11 @@
+/**
+ * 流程引擎SPI编译期索引
+ * <p>
+ * 将本模块加入编译期注解处理器路径（或以 provided 依赖引入），
+ * 编译时会为 {@code @Extension} 实现类生成 {@code META-INF/flow-engine/flow-engine.idx} 索引，
+ * 运行时加载器优先读取索引，缺失时再回退到描述文件。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+package com.wangguangwu.flowengine.spi.processor;
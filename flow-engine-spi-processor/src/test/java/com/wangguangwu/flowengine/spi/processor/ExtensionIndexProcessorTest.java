@@ -0,0 +1,122 @@
+package com.wangguangwu.flowengine.spi.processor;
+
+import com.wangguangwu.flowengine.spi.loader.ExtensionIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExtensionIndexProcessor 单元测试
+ *
+ * @author wangguangwu
+ */
+class ExtensionIndexProcessorTest {
+
+    private static final String SPI_INTERFACE = """
+            package demo;
+            @com.wangguangwu.flowengine.spi.annotation.SPI("json")
+            public interface Converter { String convert(String value); }
+            """;
+
+    @TempDir
+    Path output;
+
+    @Test
+    void testGenerateIndex() throws IOException {
+        boolean success = compile(
+                source("demo.Converter", SPI_INTERFACE),
+                source("demo.JsonConverter", """
+                        package demo;
+                        @com.wangguangwu.flowengine.spi.annotation.Extension("json")
+                        public class JsonConverter implements Converter {
+                            public String convert(String value) { return value; }
+                        }
+                        """),
+                source("demo.Outer", """
+                        package demo;
+                        public class Outer {
+                            @com.wangguangwu.flowengine.spi.annotation.Extension(value = "xml", order = 1)
+                            public static class XmlConverter implements Converter {
+                                public String convert(String value) { return value; }
+                            }
+                        }
+                        """)).isEmpty();
+        assertTrue(success);
+
+        Map<String, Map<String, String>> index = readIndex();
+        assertEquals(Map.of("json", "demo.JsonConverter", "xml", "demo.Outer$XmlConverter"), index.get("demo.Converter"));
+    }
+
+    @Test
+    void testRejectClassWithoutSpiInterface() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile(source("demo.Plain", """
+                package demo;
+                @com.wangguangwu.flowengine.spi.annotation.Extension("plain")
+                public class Plain implements Runnable { public void run() {} }
+                """));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains("@SPI"));
+    }
+
+    @Test
+    void testRejectDuplicateName() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile(
+                source("demo.Converter", SPI_INTERFACE),
+                source("demo.A", """
+                        package demo;
+                        @com.wangguangwu.flowengine.spi.annotation.Extension("same")
+                        public class A implements Converter { public String convert(String value) { return value; } }
+                        """),
+                source("demo.B", """
+                        package demo;
+                        @com.wangguangwu.flowengine.spi.annotation.Extension("same")
+                        public class B implements Converter { public String convert(String value) { return value; } }
+                        """));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains("Duplicate extension name"));
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                List.of("-d", output.toString(), "-classpath", System.getProperty("java.class.path"), "-proc:only"),
+                null, List.of(sources));
+        task.setProcessors(List.of(new ExtensionIndexProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .toList();
+    }
+
+    private Map<String, Map<String, String>> readIndex() throws IOException {
+        try (InputStream in = Files.newInputStream(output.resolve(ExtensionIndex.INDEX_LOCATION))) {
+            return ExtensionIndex.read(in);
+        }
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
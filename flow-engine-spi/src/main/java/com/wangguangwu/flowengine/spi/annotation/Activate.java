@@ -0,0 +1,36 @@
+package com.wangguangwu.flowengine.spi.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记一个扩展实现可被自动激活
+ * <p>
+ * 被该注解标记的扩展会参与 {@code ExtensionLoader#getActivatedExtensions} 的匹配，
+ * 结果按 {@link Extension#order()} 升序排列。属性为空表示对该维度不做限制。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Activate {
+
+    /**
+     * 激活的租户ID
+     * 为空时对所有租户生效
+     */
+    String[] tenants() default {};
+
+    /**
+     * 激活的流程类型
+     * 为空时对所有流程类型生效
+     */
+    String[] flowTypes() default {};
+
+    /**
+     * 激活的标签
+     * 为空时对所有标签生效
+     */
+    String[] tags() default {};
+}
@@ -0,0 +1,50 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+
+/**
+ * 扩展激活条件。
+ * <p>
+ * 作为已激活扩展列表的缓存键。某个维度为 null 时，只匹配在该维度上没有限制的扩展；
+ * 否则匹配未限制该维度或在 {@link Activate} 中声明了该值的扩展。
+ * </p>
+ *
+ * @param tenantId 租户ID
+ * @param flowType 流程类型
+ * @param tag      标签
+ * @author wangguangwu
+ */
+public record ActivateCondition(String tenantId, String flowType, String tag) {
+
+    /**
+     * 不指定任何维度的条件，只匹配无限制的扩展
+     */
+    public static final ActivateCondition NONE = new ActivateCondition(null, null, null);
+
+    /**
+     * 判断扩展是否满足条件
+     *
+     * @param activate 扩展上的激活注解
+     * @return 满足条件返回true
+     */
+    boolean matches(Activate activate) {
+        return matches(activate.tenants(), tenantId)
+                && matches(activate.flowTypes(), flowType)
+                && matches(activate.tags(), tag);
+    }
+
+    private static boolean matches(String[] declared, String value) {
+        if (declared.length == 0) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        for (String candidate : declared) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
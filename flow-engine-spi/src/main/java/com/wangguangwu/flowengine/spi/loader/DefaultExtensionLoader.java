@@ -1,31 +1,84 @@
 package com.wangguangwu.flowengine.spi.loader;
 
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import com.wangguangwu.flowengine.spi.annotation.SPI;
 import com.wangguangwu.flowengine.spi.exception.SPIException;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * MVP SPI扩展点加载器最简实现。
+ * <p>
+ * 构造时读取编译期生成的 {@link ExtensionIndex}，并解析索引未覆盖该扩展点的jar中的
+ * {@code META-INF/flow-engine/<type>} 描述文件，得到 名称 -> 实现类名 的映射表；
+ * 实现类在首次 {@link #getExtension(String)} 时才加载并实例化，并发的首次调用只会创建一个实例。
+ * 若扩展点声明了 {@code @SPI(singleton = false)}，则每次调用都通过缓存的 {@link ExtensionFactory} 创建新实例。
+ * 已激活扩展按激活条件预先排序并缓存为不可变列表，调用方无需在每次请求时排序；
+ * 条件中未被任何 {@link Activate} 声明的值不参与缓存键，缓存大小不随租户数增长。
+ * </p>
+ * <p>
+ * 所有扩展注册信息保存在不可变的 {@link Registry} 快照中。{@link #reload} 在调用线程上构建新快照后原子替换，
+ * 读取方不加锁，也不会看到构建到一半的注册表；旧快照中的实例在排空延迟后被关闭。
+ * </p>
+ * <p>
+ * 通过 {@link #addPlugin} 注册的插件类加载器中的扩展会合并到每个扩展点的注册表中，同名时插件覆盖宿主扩展。
+ * 插件增删时未变化的扩展实例会保留，只有来自被移除插件的实例被关闭，之后注册表不再引用插件类加载器。
+ * </p>
  *
  * @param <T> 扩展点类型
  * @author wangguangwu
  */
+@Slf4j
 public class DefaultExtensionLoader<T> implements ExtensionLoader<T> {
     private static final String SPI_DIRECTORY = "META-INF/flow-engine/";
+    private static final String DEFAULT_NAME = "default";
     private static final Map<Class<?>, DefaultExtensionLoader<?>> LOADERS = new ConcurrentHashMap<>();
-    private final Map<String, T> instances = new ConcurrentHashMap<>();
+    private static final List<ExtensionReloadListener> RELOAD_LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * 插件ID -> 插件类加载器，按注册顺序保存
+     */
+    private static final Map<String, ClassLoader> PLUGINS = new LinkedHashMap<>();
+    private static volatile List<ClassLoader> pluginClassLoaders = List.of();
+
+    /**
+     * 默认排空延迟，给正在使用旧实例的调用留出完成时间
+     */
+    public static final Duration DEFAULT_DRAIN_DELAY = Duration.ofSeconds(30);
+
     private final Class<T> type;
-    private String defaultName;
+    private final boolean singleton;
+    private volatile Registry<T> registry;
 
     private DefaultExtensionLoader(Class<T> type) {
         this.type = type;
-        loadExtensions();
+        SPI spi = type.getAnnotation(SPI.class);
+        this.singleton = spi == null || spi.singleton();
+        this.registry = loadRegistry(Thread.currentThread().getContextClassLoader(), null);
     }
 
     @SuppressWarnings("unchecked")
@@ -34,32 +87,415 @@ public class DefaultExtensionLoader<T> implements ExtensionLoader<T> {
         if (!type.isInterface()) {
             throw new SPIException("Extension type must be interface: " + type);
         }
-        return (DefaultExtensionLoader<T>) LOADERS.computeIfAbsent(type, DefaultExtensionLoader::new);
+        DefaultExtensionLoader<?> loader = LOADERS.get(type);
+        if (loader == null) {
+            // 在 ConcurrentHashMap 的桶锁之外构建，并发构建时只保留先写入者，被丢弃的加载器尚未创建任何实例
+            DefaultExtensionLoader<T> created = new DefaultExtensionLoader<>(type);
+            loader = LOADERS.putIfAbsent(type, created);
+            if (loader == null) {
+                loader = created;
+            }
+        }
+        return (DefaultExtensionLoader<T>) loader;
+    }
+
+    /**
+     * 获取所有已创建的扩展加载器
+     *
+     * @return 扩展加载器集合
+     */
+    public static Collection<DefaultExtensionLoader<?>> getExtensionLoaders() {
+        return Collections.unmodifiableCollection(LOADERS.values());
+    }
+
+    /**
+     * 注册重新加载监听器
+     *
+     * @param listener 监听器
+     */
+    public static void addReloadListener(ExtensionReloadListener listener) {
+        RELOAD_LISTENERS.add(Objects.requireNonNull(listener, "listener == null"));
+    }
+
+    /**
+     * 移除重新加载监听器
+     *
+     * @param listener 监听器
+     */
+    public static void removeReloadListener(ExtensionReloadListener listener) {
+        RELOAD_LISTENERS.remove(listener);
+    }
+
+    /**
+     * 注册插件，插件类加载器中声明的扩展对所有扩展点可见
+     *
+     * @param pluginId    插件ID
+     * @param classLoader 插件类加载器，只应暴露插件自身的扩展描述文件
+     * @return 被替换的注册表排空后完成的Future
+     */
+    public static CompletableFuture<Void> addPlugin(String pluginId, ClassLoader classLoader) {
+        Objects.requireNonNull(pluginId, "pluginId == null");
+        Objects.requireNonNull(classLoader, "classLoader == null");
+        synchronized (PLUGINS) {
+            if (PLUGINS.putIfAbsent(pluginId, classLoader) != null) {
+                throw new SPIException("Plugin already registered: " + pluginId);
+            }
+            pluginClassLoaders = List.copyOf(PLUGINS.values());
+            return refreshAll(DEFAULT_DRAIN_DELAY);
+        }
+    }
+
+    /**
+     * 移除插件
+     * <p>
+     * 由插件类加载器定义的扩展点加载器被丢弃，其他扩展点的注册表重建后不再引用该类加载器，
+     * 来自插件的实例在排空延迟后关闭。Future完成后插件类加载器即可被回收。
+     * </p>
+     *
+     * @param pluginId   插件ID
+     * @param drainDelay 关闭插件实例前的排空延迟
+     * @return 插件实例全部关闭后完成的Future
+     */
+    public static CompletableFuture<Void> removePlugin(String pluginId, Duration drainDelay) {
+        Objects.requireNonNull(drainDelay, "drainDelay == null");
+        synchronized (PLUGINS) {
+            ClassLoader classLoader = PLUGINS.remove(pluginId);
+            if (classLoader == null) {
+                throw new SPIException("No such plugin: " + pluginId);
+            }
+            pluginClassLoaders = List.copyOf(PLUGINS.values());
+            ExtensionIndex.invalidate(classLoader);
+            List<DefaultExtensionLoader<?>> discarded = LOADERS.values().stream()
+                    .filter(loader -> loader.type.getClassLoader() == classLoader)
+                    .toList();
+            LOADERS.values().removeAll(discarded);
+            Executor drainExecutor = CompletableFuture.delayedExecutor(drainDelay.toNanos(), TimeUnit.NANOSECONDS);
+            CompletableFuture<Void> closed = CompletableFuture.runAsync(
+                    () -> discarded.forEach(loader -> Registry.close(loader.type, loader.registry.holders)), drainExecutor);
+            return CompletableFuture.allOf(refreshAll(drainDelay), closed);
+        }
+    }
+
+    /**
+     * 获取已注册的插件ID
+     *
+     * @return 插件ID集合
+     */
+    public static Set<String> getPluginIds() {
+        synchronized (PLUGINS) {
+            return Set.copyOf(PLUGINS.keySet());
+        }
+    }
+
+    /**
+     * 使用指定类加载器重新加载所有已创建的扩展点
+     * <p>
+     * 先为每个扩展点构建新注册表，全部构建成功后才逐个替换；任一扩展点构建失败时抛出异常，所有注册表保持不变。
+     * 与插件增删互斥，替换期间插件集合不会变化。
+     * </p>
+     *
+     * @param classLoader 用于发现和加载扩展的类加载器
+     * @param drainDelay  关闭旧实例前的排空延迟
+     * @return 旧实例全部关闭后完成的Future
+     */
+    public static CompletableFuture<Void> reloadAll(ClassLoader classLoader, Duration drainDelay) {
+        Objects.requireNonNull(classLoader, "classLoader == null");
+        Objects.requireNonNull(drainDelay, "drainDelay == null");
+        ExtensionIndex.invalidate(classLoader);
+        synchronized (PLUGINS) {
+            List<Supplier<CompletableFuture<Void>>> installs = LOADERS.values().stream()
+                    .map(loader -> loader.prepare(classLoader, drainDelay))
+                    .toList();
+            return CompletableFuture.allOf(installs.stream()
+                    .map(Supplier::get)
+                    .toArray(CompletableFuture[]::new));
+        }
+    }
+
+    private static CompletableFuture<Void> refreshAll(Duration drainDelay) {
+        return CompletableFuture.allOf(LOADERS.values().stream()
+                .map(loader -> loader.replace(loader.registry.classLoader, drainDelay, true))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 获取扩展点类型
+     *
+     * @return 扩展点类型
+     */
+    public Class<T> getType() {
+        return type;
     }
 
     @Override
     public T getExtension(String name) {
-        T instance = instances.get(name);
-        if (instance == null) {
+        ExtensionHolder<T> holder = registry.holders.get(name);
+        if (holder == null) {
             throw new SPIException("No such extension: " + name);
         }
-        return instance;
+        return getExtension(name, holder);
     }
 
     @Override
     public T getDefaultExtension() {
-        if (defaultName == null) {
+        Registry<T> current = registry;
+        if (current.defaultName == null) {
             throw new SPIException("No default extension defined for " + type.getName());
         }
-        return getExtension(defaultName);
+        return getExtension(current.defaultName, current.holders.get(current.defaultName));
+    }
+
+    @Override
+    public boolean hasExtension(String name) {
+        return registry.holders.containsKey(name);
+    }
+
+    @Override
+    public List<T> getActivatedExtensions(ActivateCondition condition) {
+        Objects.requireNonNull(condition, "Activate condition == null");
+        Registry<T> current = registry;
+        ActivateIndex index = getActivateIndex(current);
+        ActivateCondition key = index.normalize(condition);
+        if (!singleton) {
+            return createActivatedExtensions(current, getActivatedNames(current, index, key));
+        }
+        List<T> extensions = current.activatedInstances.get(key);
+        if (extensions == null) {
+            extensions = createActivatedExtensions(current, getActivatedNames(current, index, key));
+            List<T> previous = current.activatedInstances.putIfAbsent(key, extensions);
+            if (previous != null) {
+                extensions = previous;
+            }
+        }
+        return extensions;
+    }
+
+    /**
+     * 预热扩展：加载并初始化所有实现类，生成实例工厂，但不创建实例
+     * <p>
+     * 单个扩展加载失败只记录日志，不影响其他扩展，该扩展在首次获取时仍会抛出异常
+     * </p>
+     *
+     * @return 预热成功的扩展数
+     */
+    public int preload() {
+        int loaded = 0;
+        for (Map.Entry<String, ExtensionHolder<T>> entry : registry.holders.entrySet()) {
+            try {
+                getFactory(entry.getKey(), entry.getValue());
+                loaded++;
+            } catch (SPIException e) {
+                log.warn("Failed to preload extension {} of {}", entry.getKey(), type.getName(), e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 使用当前类加载器重新加载扩展，旧实例在默认排空延迟后关闭
+     *
+     * @return 旧实例全部关闭后完成的Future
+     */
+    public CompletableFuture<Void> reload() {
+        return reload(registry.classLoader, DEFAULT_DRAIN_DELAY);
+    }
+
+    /**
+     * 使用指定类加载器重新加载扩展
+     * <p>
+     * 新注册表构建完成后原子替换，随后通知监听器；旧注册表中实现了 {@link AutoCloseable} 的单例实例
+     * 在 {@code drainDelay} 之后于后台关闭。构建失败时保留原注册表并抛出异常。
+     * </p>
+     *
+     * @param classLoader 用于发现和加载扩展的类加载器
+     * @param drainDelay  关闭旧实例前的排空延迟
+     * @return 旧实例全部关闭后完成的Future
+     */
+    public CompletableFuture<Void> reload(ClassLoader classLoader, Duration drainDelay) {
+        Objects.requireNonNull(classLoader, "classLoader == null");
+        Objects.requireNonNull(drainDelay, "drainDelay == null");
+        ExtensionIndex.invalidate(classLoader);
+        return replace(classLoader, drainDelay, false);
+    }
+
+    /**
+     * 构建并替换注册表
+     *
+     * @param retainUnchanged 是否沿用实现类和类加载器均未变化的扩展实例
+     */
+    private CompletableFuture<Void> replace(ClassLoader classLoader, Duration drainDelay, boolean retainUnchanged) {
+        Registry<T> previous;
+        Registry<T> replacement;
+        synchronized (this) {
+            previous = registry;
+            replacement = loadRegistry(classLoader, retainUnchanged ? previous : null);
+            registry = replacement;
+        }
+        return replaced(previous, replacement, drainDelay);
+    }
+
+    /**
+     * 构建新注册表，返回的Supplier被调用时才替换
+     */
+    private Supplier<CompletableFuture<Void>> prepare(ClassLoader classLoader, Duration drainDelay) {
+        Registry<T> replacement = loadRegistry(classLoader, null);
+        return () -> {
+            Registry<T> previous;
+            synchronized (this) {
+                previous = registry;
+                registry = replacement;
+            }
+            return replaced(previous, replacement, drainDelay);
+        };
+    }
+
+    /**
+     * 通知监听器，并在排空延迟后关闭旧注册表中不再使用的实例
+     */
+    private CompletableFuture<Void> replaced(Registry<T> previous, Registry<T> replacement, Duration drainDelay) {
+        for (ExtensionReloadListener listener : RELOAD_LISTENERS) {
+            try {
+                listener.onReload(type);
+            } catch (RuntimeException e) {
+                log.warn("Extension reload listener failed for {}", type.getName(), e);
+            }
+        }
+        Executor drainExecutor = CompletableFuture.delayedExecutor(drainDelay.toNanos(), TimeUnit.NANOSECONDS);
+        Map<String, ExtensionHolder<T>> expired = previous.expiredHolders(replacement);
+        return CompletableFuture.runAsync(() -> Registry.close(type, expired), drainExecutor);
+    }
+
+    private T getExtension(String name, ExtensionHolder<T> holder) {
+        if (!singleton) {
+            return getFactory(name, holder).get();
+        }
+        T instance = holder.instance;
+        if (instance == null) {
+            synchronized (holder) {
+                instance = holder.instance;
+                if (instance == null) {
+                    instance = getFactory(name, holder).get();
+                    holder.instance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private List<T> createActivatedExtensions(Registry<T> current, String[] names) {
+        List<T> extensions = new ArrayList<>(names.length);
+        for (String name : names) {
+            extensions.add(getExtension(name, current.holders.get(name)));
+        }
+        return List.copyOf(extensions);
+    }
+
+    private String[] getActivatedNames(Registry<T> current, ActivateIndex index, ActivateCondition key) {
+        String[] names = current.activatedNames.get(key);
+        if (names == null) {
+            names = index.candidates().stream()
+                    .filter(candidate -> key.matches(candidate.activate()))
+                    .map(ActivateCandidate::name)
+                    .toArray(String[]::new);
+            current.activatedNames.putIfAbsent(key, names);
+        }
+        return names;
+    }
+
+    /**
+     * 读取所有带 {@link Activate} 注解的扩展并按 order、名称排序，只加载类而不初始化
+     */
+    private ActivateIndex getActivateIndex(Registry<T> current) {
+        ActivateIndex index = current.activateIndex;
+        if (index == null) {
+            List<ActivateCandidate> result = new ArrayList<>();
+            Set<String> tenants = new HashSet<>();
+            Set<String> flowTypes = new HashSet<>();
+            Set<String> tags = new HashSet<>();
+            current.holders.forEach((name, holder) -> {
+                Class<?> clazz = loadClass(name, holder, false);
+                Activate activate = clazz.getAnnotation(Activate.class);
+                if (activate != null) {
+                    Extension extension = clazz.getAnnotation(Extension.class);
+                    result.add(new ActivateCandidate(name, extension != null ? extension.order() : 0, activate));
+                    tenants.addAll(Arrays.asList(activate.tenants()));
+                    flowTypes.addAll(Arrays.asList(activate.flowTypes()));
+                    tags.addAll(Arrays.asList(activate.tags()));
+                }
+            });
+            result.sort(Comparator.comparingInt(ActivateCandidate::order).thenComparing(ActivateCandidate::name));
+            index = new ActivateIndex(List.copyOf(result), Set.copyOf(tenants), Set.copyOf(flowTypes),
+                    Set.copyOf(tags));
+            current.activateIndex = index;
+        }
+        return index;
+    }
+
+    private Supplier<T> getFactory(String name, ExtensionHolder<T> holder) {
+        Supplier<T> factory = holder.factory;
+        if (factory == null) {
+            synchronized (holder) {
+                factory = holder.factory;
+                if (factory == null) {
+                    factory = ExtensionFactory.create(loadClass(name, holder, true).asSubclass(type));
+                    holder.factory = factory;
+                }
+            }
+        }
+        return factory;
     }
 
-    private void loadExtensions() {
+    private Class<?> loadClass(String name, ExtensionHolder<T> holder, boolean initialize) {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(holder.className, initialize, holder.classLoader);
+        } catch (Exception | LinkageError e) {
+            throw new SPIException("Failed to load extension " + name + " of " + type.getName(), e);
+        }
+        if (!type.isAssignableFrom(clazz)) {
+            throw new SPIException("Extension " + holder.className + " is not subtype of " + type.getName());
+        }
+        return clazz;
+    }
+
+    /**
+     * 读取宿主与插件的索引或描述文件，只记录扩展名与实现类名，不加载类
+     *
+     * @param retained 非空时沿用其中实现类和类加载器均未变化的持有者
+     */
+    private Registry<T> loadRegistry(ClassLoader classLoader, Registry<T> retained) {
+        Map<String, ExtensionHolder<T>> result = new LinkedHashMap<>();
+        loadExtensions(classLoader, result);
+        for (ClassLoader pluginClassLoader : pluginClassLoaders) {
+            if (pluginClassLoader != classLoader) {
+                loadExtensions(pluginClassLoader, result);
+            }
+        }
+        if (retained != null) {
+            result.replaceAll((name, holder) -> {
+                ExtensionHolder<T> old = retained.holders.get(name);
+                return old != null && old.className.equals(holder.className) && old.classLoader == holder.classLoader
+                        ? old : holder;
+            });
+        }
+        return new Registry<>(classLoader, result);
+    }
+
+    private void loadExtensions(ClassLoader classLoader, Map<String, ExtensionHolder<T>> result) {
+        Map<String, String> indexed = ExtensionIndex.find(classLoader, type.getName());
+        if (indexed != null) {
+            indexed.forEach((name, className) -> result.put(name, new ExtensionHolder<>(className, classLoader)));
+        }
         String fileName = SPI_DIRECTORY + type.getName();
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         try {
-            for (URL url : java.util.Collections.list(classLoader.getResources(fileName))) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            for (URL url : Collections.list(classLoader.getResources(fileName))) {
+                // 同一jar的索引已包含该扩展点时跳过描述文件，没有索引的jar仍按描述文件注册
+                if (indexed != null && ExtensionIndex.covers(classLoader, type.getName(), url, fileName)) {
+                    continue;
+                }
+                URLConnection connection = url.openConnection();
+                connection.setUseCaches(false);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
                     String line;
                     while ((line = reader.readLine()) != null) {
                         line = line.trim();
@@ -73,14 +509,7 @@ public class DefaultExtensionLoader<T> implements ExtensionLoader<T> {
                             name = line.substring(0, eqIdx).trim();
                             className = line.substring(eqIdx + 1).trim();
                         }
-                        
-                        Class<?> clazz = Class.forName(className, true, classLoader);
-                        T instance = type.cast(clazz.getDeclaredConstructor().newInstance());
-                        instances.put(name, instance);
-                        
-                        if ("default".equals(name)) {
-                            defaultName = name;
-                        }
+                        result.put(name, new ExtensionHolder<>(className, classLoader));
                     }
                 }
             }
@@ -88,4 +517,99 @@ public class DefaultExtensionLoader<T> implements ExtensionLoader<T> {
             throw new SPIException("Failed to load SPI extensions for " + type.getName(), e);
         }
     }
+
+    /**
+     * 扩展注册表快照，扩展集合在创建后不再变化
+     */
+    private static final class Registry<T> {
+        private final ClassLoader classLoader;
+        private final Map<String, ExtensionHolder<T>> holders;
+
+        private final String defaultName;
+        private final Map<ActivateCondition, String[]> activatedNames = new ConcurrentHashMap<>();
+        private final Map<ActivateCondition, List<T>> activatedInstances = new ConcurrentHashMap<>();
+        private volatile ActivateIndex activateIndex;
+
+        private Registry(ClassLoader classLoader, Map<String, ExtensionHolder<T>> holders) {
+            this.classLoader = classLoader;
+            this.holders = Collections.unmodifiableMap(holders);
+            this.defaultName = holders.containsKey(DEFAULT_NAME) ? DEFAULT_NAME : null;
+        }
+
+        /**
+         * 找出未被新快照沿用的持有者
+         * <p>
+         * 排空任务只持有这些持有者，而不持有新快照，避免延迟期间引用已移除插件的类加载器
+         * </p>
+         *
+         * @param replacement 新快照
+         * @return 扩展名 -> 过期的持有者
+         */
+        private Map<String, ExtensionHolder<T>> expiredHolders(Registry<T> replacement) {
+            Map<String, ExtensionHolder<T>> expired = new LinkedHashMap<>(holders);
+            expired.entrySet().removeIf(entry -> replacement.holders.get(entry.getKey()) == entry.getValue());
+            return expired;
+        }
+
+        /**
+         * 关闭持有者中已创建的单例实例
+         */
+        private static <E> void close(Class<?> type, Map<String, ExtensionHolder<E>> holders) {
+            holders.forEach((name, holder) -> {
+                if (holder.instance instanceof AutoCloseable closeable) {
+                    try {
+                        closeable.close();
+                    } catch (Exception e) {
+                        log.warn("Failed to close extension {} of {}", name, type.getName(), e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 单个扩展的延迟实例持有者，factory 与 instance 通过 volatile + 双重检查安全发布
+     */
+    private static final class ExtensionHolder<T> {
+        private final String className;
+        private final ClassLoader classLoader;
+        private volatile Supplier<T> factory;
+        private volatile T instance;
+
+        private ExtensionHolder(String className, ClassLoader classLoader) {
+            this.className = className;
+            this.classLoader = classLoader;
+        }
+    }
+
+    /**
+     * 可激活的扩展候选项
+     */
+    private record ActivateCandidate(String name, int order, Activate activate) {
+    }
+
+    /**
+     * 排序后的激活候选项，以及各维度在 {@link Activate} 中声明过的值
+     */
+    private record ActivateIndex(List<ActivateCandidate> candidates, Set<String> tenants, Set<String> flowTypes,
+                                 Set<String> tags) {
+
+        /**
+         * 把未被任何扩展声明的维度值归一为null，两者的匹配结果相同，
+         * 缓存键的数量因此只取决于注解声明的值，而不随请求中出现的租户、流程类型和标签增长
+         */
+        private ActivateCondition normalize(ActivateCondition condition) {
+            String tenantId = declared(tenants, condition.tenantId());
+            String flowType = declared(flowTypes, condition.flowType());
+            String tag = declared(tags, condition.tag());
+            if (tenantId == condition.tenantId() && flowType == condition.flowType() && tag == condition.tag()) {
+                return condition;
+            }
+            return new ActivateCondition(tenantId, flowType, tag);
+        }
+
+        private static String declared(Set<String> values, String value) {
+            return value != null && values.contains(value) ? value : null;
+        }
+    }
 }
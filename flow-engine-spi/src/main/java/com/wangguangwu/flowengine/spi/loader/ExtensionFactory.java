@@ -0,0 +1,95 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * 扩展实例工厂。
+ * <p>
+ * 为扩展实现类的无参构造器生成 {@link Supplier}：优先通过 {@link LambdaMetafactory} 生成直接调用构造器的实现，
+ * 当查找权限不足（例如实现类位于其他模块或隔离的类加载器中）时退化为缓存的 {@link MethodHandle}。
+ * 两种方式都避免了每次创建实例时的反射调用开销。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class ExtensionFactory {
+
+    private static final MethodType SUPPLIER_FACTORY = MethodType.methodType(Supplier.class);
+    private static final MethodType SUPPLIER_GET = MethodType.methodType(Object.class);
+
+    private ExtensionFactory() {}
+
+    /**
+     * 为实现类创建实例工厂
+     *
+     * @param clazz 扩展实现类，必须有无参构造器
+     * @param <T>   扩展点类型
+     * @return 实例工厂
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> create(Class<? extends T> clazz) {
+        MethodHandle constructor = findConstructor(clazz);
+        CallSite site;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_FACTORY, SUPPLIER_GET,
+                    constructor, MethodType.methodType(clazz));
+        } catch (LambdaConversionException | IllegalAccessException | RuntimeException e) {
+            // 查找权限不足或无法生成lambda时退化为方法句柄，Error照常抛出
+            return new MethodHandleSupplier<>(constructor.asType(SUPPLIER_GET));
+        }
+        try {
+            return (Supplier<T>) site.getTarget().invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SPIException("Failed to create extension factory", e);
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> clazz) {
+        try {
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            } catch (IllegalAccessException e) {
+                lookup = MethodHandles.publicLookup();
+            }
+            return lookup.findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new SPIException("Extension " + clazz.getName() + " has no accessible no-arg constructor", e);
+        }
+    }
+
+    /**
+     * 基于 MethodHandle 的实例工厂
+     */
+    private static final class MethodHandleSupplier<T> implements Supplier<T> {
+        private final MethodHandle constructor;
+
+        private MethodHandleSupplier(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            try {
+                Object instance = constructor.invokeExact();
+                return (T) instance;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new SPIException("Failed to create extension instance", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 编译期生成的扩展索引。
+ * <p>
+ * 索引由 flow-engine-spi-processor 注解处理器在编译期生成，位于 {@link #INDEX_LOCATION}，
+ * 以紧凑的二进制格式记录 扩展点接口 -> (扩展名 -> 实现类名)。加载器读取索引后，
+ * 只解析索引未覆盖该扩展点的jar中的 {@code META-INF/flow-engine/<type>} 描述文件，
+ * 带索引与不带索引的jar可以混合使用。每个类加载器的索引只在首次使用时读取一次。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class ExtensionIndex {
+
+    /**
+     * 索引文件位置
+     */
+    public static final String INDEX_LOCATION = "META-INF/flow-engine/flow-engine.idx";
+
+    private static final int MAGIC = 0x46454958;
+    private static final short VERSION = 1;
+
+    /**
+     * 按类加载器缓存合并后的索引，弱引用避免阻止类加载器被回收
+     */
+    private static final Map<ClassLoader, LoadedIndex> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ExtensionIndex() {}
+
+    /**
+     * 查找指定扩展点的索引项
+     *
+     * @param classLoader 类加载器
+     * @param typeName    扩展点接口名
+     * @return 扩展名 -> 实现类名，如果索引中不存在该扩展点则返回null
+     */
+    public static Map<String, String> find(ClassLoader classLoader, String typeName) {
+        return CACHE.computeIfAbsent(classLoader, ExtensionIndex::load).types().get(typeName);
+    }
+
+    /**
+     * 判断描述文件所在的jar或目录是否带有覆盖该扩展点的索引，已覆盖的描述文件无需再解析
+     *
+     * @param classLoader 类加载器
+     * @param typeName    扩展点接口名
+     * @param descriptor  描述文件的URL
+     * @param location    描述文件在jar或目录中的相对路径
+     * @return 同一位置的索引包含该扩展点时返回true
+     */
+    public static boolean covers(ClassLoader classLoader, String typeName, URL descriptor, String location) {
+        String url = descriptor.toString();
+        if (!url.endsWith(location)) {
+            return false;
+        }
+        Set<String> types = CACHE.computeIfAbsent(classLoader, ExtensionIndex::load).roots()
+                .get(url.substring(0, url.length() - location.length()));
+        return types != null && types.contains(typeName);
+    }
+
+    /**
+     * 丢弃指定类加载器的索引缓存，下次查找时重新读取
+     *
+     * @param classLoader 类加载器
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        CACHE.remove(classLoader);
+    }
+
+    /**
+     * 写出索引
+     *
+     * @param out   输出流
+     * @param index 扩展点接口名 -> (扩展名 -> 实现类名)
+     * @throws IOException 写出失败
+     */
+    public static void write(OutputStream out, Map<String, Map<String, String>> index) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(index.size());
+        for (Map.Entry<String, Map<String, String>> type : index.entrySet()) {
+            data.writeUTF(type.getKey());
+            data.writeInt(type.getValue().size());
+            for (Map.Entry<String, String> extension : type.getValue().entrySet()) {
+                data.writeUTF(extension.getKey());
+                data.writeUTF(extension.getValue());
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * 读取索引
+     *
+     * @param in 输入流
+     * @return 扩展点接口名 -> (扩展名 -> 实现类名)
+     * @throws IOException 读取失败或格式不正确
+     */
+    public static Map<String, Map<String, String>> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a flow-engine extension index");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported extension index version: " + version);
+        }
+        int typeCount = data.readInt();
+        Map<String, Map<String, String>> index = new LinkedHashMap<>();
+        for (int i = 0; i < typeCount; i++) {
+            String typeName = data.readUTF();
+            int count = data.readInt();
+            Map<String, String> extensions = new LinkedHashMap<>();
+            for (int j = 0; j < count; j++) {
+                extensions.put(data.readUTF(), data.readUTF());
+            }
+            index.put(typeName, extensions);
+        }
+        return index;
+    }
+
+    private static LoadedIndex load(ClassLoader classLoader) {
+        Map<String, Map<String, String>> merged = new LinkedHashMap<>();
+        Map<String, Set<String>> roots = new LinkedHashMap<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(INDEX_LOCATION))) {
+                URLConnection connection = url.openConnection();
+                connection.setUseCaches(false);
+                Map<String, Map<String, String>> index;
+                try (InputStream in = connection.getInputStream()) {
+                    index = read(in);
+                }
+                index.forEach((typeName, extensions) ->
+                        merged.computeIfAbsent(typeName, k -> new LinkedHashMap<>()).putAll(extensions));
+                String location = url.toString();
+                roots.put(location.substring(0, location.length() - INDEX_LOCATION.length()),
+                        Set.copyOf(index.keySet()));
+            }
+        } catch (IOException e) {
+            throw new SPIException("Failed to load extension index " + INDEX_LOCATION, e);
+        }
+        merged.replaceAll((typeName, extensions) -> Collections.unmodifiableMap(extensions));
+        return new LoadedIndex(Collections.unmodifiableMap(merged), roots);
+    }
+
+    /**
+     * 一个类加载器合并后的索引
+     *
+     * @param types 扩展点接口名 -> (扩展名 -> 实现类名)
+     * @param roots 带索引的jar或目录的URL前缀 -> 其索引包含的扩展点接口名
+     */
+    private record LoadedIndex(Map<String, Map<String, String>> types, Map<String, Set<String>> roots) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.wangguangwu.flowengine.spi.loader;
 
+import java.util.List;
+
 /**
  * MVP SPI扩展点加载器接口，只保留最基础方法。
  *
@@ -19,4 +21,22 @@ public interface ExtensionLoader<T> {
      * @return 默认实例
      */
     T getDefaultExtension();
+
+    /**
+     * 判断是否存在指定名称的扩展点实现
+     * @param name 扩展名
+     * @return 存在返回true
+     */
+    boolean hasExtension(String name);
+
+    /**
+     * 获取满足条件的已激活扩展，按 {@code @Extension.order} 升序排列
+     * <p>
+     * 返回的列表不可修改，对单例扩展点会按条件缓存，可在热点路径上直接遍历
+     * </p>
+     *
+     * @param condition 激活条件
+     * @return 已激活扩展列表
+     */
+    List<T> getActivatedExtensions(ActivateCondition condition);
 }
@@ -0,0 +1,116 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 扩展预热器
+ * <p>
+ * 启动阶段在有界线程池上并行构建多个扩展点的加载器并预热实现类，
+ * 避免首个请求在扩展发现和类加载上停顿。每个扩展点的耗时单独记录，便于分析启动过程。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public final class ExtensionPreloader {
+
+    private ExtensionPreloader() {}
+
+    /**
+     * 使用不超过CPU核数的线程并行预热
+     *
+     * @param types 扩展点类型
+     * @return 每个扩展点的预热结果，顺序与入参一致
+     */
+    public static List<PreloadResult> preload(Collection<Class<?>> types) {
+        return preload(types, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 并行预热
+     *
+     * @param types       扩展点类型
+     * @param parallelism 最大并行线程数
+     * @return 每个扩展点的预热结果，顺序与入参一致
+     */
+    public static List<PreloadResult> preload(Collection<Class<?>> types, int parallelism) {
+        Objects.requireNonNull(types, "types == null");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (types.isEmpty()) {
+            return List.of();
+        }
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, types.size()), runnable -> {
+            Thread thread = new Thread(runnable, "flow-engine-spi-preload-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            // 与调用线程使用相同的类加载器发现扩展
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+        try {
+            List<Future<PreloadResult>> futures = new ArrayList<>(types.size());
+            for (Class<?> type : types) {
+                futures.add(executor.submit(() -> preload(type)));
+            }
+            List<PreloadResult> results = new ArrayList<>(futures.size());
+            for (Future<PreloadResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preloading extensions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to preload extensions", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PreloadResult preload(Class<?> type) {
+        long start = System.nanoTime();
+        try {
+            int extensions = DefaultExtensionLoader.getExtensionLoader(type).preload();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            log.debug("Preloaded {} extension(s) of {} in {} ms", extensions, type.getName(), elapsed.toMillis());
+            return new PreloadResult(type, extensions, elapsed, null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to preload extension loader of {}", type.getName(), e);
+            return new PreloadResult(type, 0, Duration.ofNanos(System.nanoTime() - start), e);
+        }
+    }
+
+    /**
+     * 单个扩展点的预热结果
+     *
+     * @param type       扩展点类型
+     * @param extensions 预热成功的扩展数
+     * @param elapsed    构建加载器与预热的耗时
+     * @param error      加载器构建失败时的异常，成功时为null
+     */
+    public record PreloadResult(Class<?> type, int extensions, Duration elapsed, Throwable error) {
+
+        /**
+         * 是否预热成功
+         *
+         * @return 加载器构建成功时返回true
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+/**
+ * 扩展重新加载监听器
+ * <p>
+ * 在扩展点的注册表被替换后回调，用于清理基于旧实例的缓存
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@FunctionalInterface
+public interface ExtensionReloadListener {
+
+    /**
+     * 扩展点重新加载完成
+     *
+     * @param type 扩展点类型
+     */
+    void onReload(Class<?> type);
+}
@@ -0,0 +1,213 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 扩展目录监听器
+ * <p>
+ * 监听扩展jar目录，目录内容变化并静默一段时间后，基于目录中的jar创建新的类加载器，
+ * 在后台线程重新加载所有已创建的扩展点。所有扩展点的注册表都构建成功后才切换到新的类加载器，
+ * 失败时保留原类加载器和注册表并关闭新的类加载器；旧的类加载器在排空延迟后关闭。
+ * </p>
+ * <p>
+ * 只有刷新时已创建的扩展点会切换到目录的类加载器。两次刷新之间首次创建的扩展点仍通过线程上下文类加载器发现扩展，
+ * 直到下一次刷新才能看到目录中的jar；需要目录中扩展的扩展点应在 {@link #start()} 之前创建，
+ * 或在创建时把线程上下文类加载器设置为 {@link #getClassLoader()}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public class ExtensionWatcher implements AutoCloseable {
+
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(500);
+
+    private final Path directory;
+    private final ClassLoader parent;
+    private final Duration drainDelay;
+    private WatchService watchService;
+    private Thread thread;
+    private boolean closed;
+    private volatile URLClassLoader current;
+
+    /**
+     * 构造函数
+     *
+     * @param directory  扩展jar目录
+     * @param parent     父类加载器
+     * @param drainDelay 关闭旧实例和旧类加载器前的排空延迟
+     */
+    public ExtensionWatcher(Path directory, ClassLoader parent, Duration drainDelay) {
+        this.directory = Objects.requireNonNull(directory, "directory == null");
+        this.parent = Objects.requireNonNull(parent, "parent == null");
+        this.drainDelay = Objects.requireNonNull(drainDelay, "drainDelay == null");
+    }
+
+    /**
+     * 加载目录中已有的jar并开始监听
+     */
+    public synchronized void start() {
+        ensureOpen();
+        if (thread != null) {
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            refresh();
+        } catch (IOException e) {
+            closeWatchService();
+            throw new SPIException("Failed to watch extension directory " + directory, e);
+        } catch (RuntimeException e) {
+            closeWatchService();
+            throw e;
+        }
+        thread = new Thread(this::watch, "flow-engine-extension-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 当前用于加载扩展的类加载器
+     *
+     * @return 类加载器，未启动时返回null
+     */
+    public ClassLoader getClassLoader() {
+        return current;
+    }
+
+    /**
+     * 基于目录中的jar重建类加载器并重新加载所有扩展点，失败时保留当前的类加载器和扩展
+     */
+    public synchronized void refresh() {
+        ensureOpen();
+        URLClassLoader previous = current;
+        URLClassLoader replacement = new URLClassLoader("flow-engine-extensions", listJars(), parent);
+        CompletableFuture<Void> drained;
+        try {
+            drained = SPILoader.reloadAll(replacement, drainDelay);
+        } catch (RuntimeException e) {
+            closeQuietly(replacement);
+            throw e;
+        }
+        current = replacement;
+        drained.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Failed to drain extensions after reload of {}", directory, error);
+            }
+            closeQuietly(previous);
+        });
+    }
+
+    /**
+     * 停止监听并关闭当前的类加载器，已加载的扩展仍可使用，但不能再从目录中的jar加载新的类
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        closeWatchService();
+        closeQuietly(current);
+        current = null;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Extension watcher of " + directory + " is closed");
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close watch service of {}", directory, e);
+            }
+            watchService = null;
+        }
+    }
+
+    private void watch() {
+        // close() 会清空字段，监听线程只使用启动时的实例
+        WatchService watchService = this.watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                key.reset();
+                // 等待目录静默，合并拷贝jar时产生的连续事件
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_PERIOD.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+                synchronized (this) {
+                    // 关闭与目录变化并发时不再刷新
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        refresh();
+                    } catch (RuntimeException e) {
+                        log.error("Failed to reload extensions from {}", directory, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private URL[] listJars() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .sorted()
+                    .map(ExtensionWatcher::toUrl)
+                    .toArray(URL[]::new);
+        } catch (IOException e) {
+            throw new SPIException("Failed to list extension directory " + directory, e);
+        }
+    }
+
+    private static URL toUrl(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new SPIException("Invalid extension jar " + path, e);
+        }
+    }
+
+    private static void closeQuietly(URLClassLoader classLoader) {
+        if (classLoader == null) {
+            return;
+        }
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close extension class loader", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.wangguangwu.flowengine.spi.plugin;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * 插件类加载器
+ * <p>
+ * 子优先加载：插件jar中的类和资源优先于宿主，使不同插件可以携带互相冲突的依赖版本。
+ * JDK类与 {@code com.wangguangwu.flowengine} 下的宿主API始终委派给父类加载器，保证扩展点接口在宿主与插件间一致。
+ * 扩展描述文件和索引只从插件自身查找，避免把宿主扩展重复注册为插件扩展。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class PluginClassLoader extends URLClassLoader {
+
+    private static final String[] PARENT_FIRST_PACKAGES = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.slf4j.", "com.wangguangwu.flowengine."
+    };
+
+    private static final String EXTENSION_RESOURCE_PREFIX = "META-INF/flow-engine/";
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final String pluginId;
+
+    /**
+     * 构造函数
+     *
+     * @param pluginId 插件ID
+     * @param urls     插件jar或目录
+     * @param parent   父类加载器
+     */
+    public PluginClassLoader(String pluginId, URL[] urls, ClassLoader parent) {
+        super("plugin-" + pluginId, urls, parent);
+        this.pluginId = pluginId;
+    }
+
+    /**
+     * 获取插件ID
+     *
+     * @return 插件ID
+     */
+    public String getPluginId() {
+        return pluginId;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isParentFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                try {
+                    clazz = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    clazz = getParent().loadClass(name);
+                }
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = findResource(name);
+        if (url != null || name.startsWith(EXTENSION_RESOURCE_PREFIX)) {
+            return url;
+        }
+        return getParent().getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        if (name.startsWith(EXTENSION_RESOURCE_PREFIX)) {
+            return findResources(name);
+        }
+        List<URL> urls = new ArrayList<>(Collections.list(findResources(name)));
+        urls.addAll(Collections.list(getParent().getResources(name)));
+        return Collections.enumeration(urls);
+    }
+
+    private static boolean isParentFirst(String className) {
+        for (String prefix : PARENT_FIRST_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wangguangwu.flowengine.spi.plugin;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.loader.DefaultExtensionLoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 扩展插件管理器
+ * <p>
+ * 每个插件使用独立的 {@link PluginClassLoader} 加载，并以插件ID注册到 {@link DefaultExtensionLoader}。
+ * 卸载插件后扩展注册表不再引用插件类加载器，排空结束时关闭类加载器，插件的类和元空间随之可被回收。
+ * 调用方不应在卸载后继续持有插件扩展实例。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public class PluginManager {
+
+    private final ClassLoader parent;
+    private final Map<String, PluginClassLoader> plugins = new ConcurrentHashMap<>();
+
+    /**
+     * 以SPI模块所在类加载器作为插件的父类加载器
+     */
+    public PluginManager() {
+        this(PluginManager.class.getClassLoader());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param parent 插件的父类加载器
+     */
+    public PluginManager(ClassLoader parent) {
+        this.parent = Objects.requireNonNull(parent, "parent == null");
+    }
+
+    /**
+     * 加载插件
+     *
+     * @param pluginId 插件ID
+     * @param jars     插件jar或类目录
+     * @return 插件类加载器
+     */
+    public ClassLoader load(String pluginId, Path... jars) {
+        Objects.requireNonNull(pluginId, "pluginId == null");
+        URL[] urls = new URL[jars.length];
+        for (int i = 0; i < jars.length; i++) {
+            urls[i] = toUrl(jars[i]);
+        }
+        PluginClassLoader classLoader = new PluginClassLoader(pluginId, urls, parent);
+        if (plugins.putIfAbsent(pluginId, classLoader) != null) {
+            closeQuietly(classLoader);
+            throw new SPIException("Plugin already loaded: " + pluginId);
+        }
+        try {
+            DefaultExtensionLoader.addPlugin(pluginId, classLoader);
+        } catch (RuntimeException e) {
+            plugins.remove(pluginId, classLoader);
+            closeQuietly(classLoader);
+            throw e;
+        }
+        log.info("Loaded plugin {} from {} jar(s)", pluginId, jars.length);
+        return classLoader;
+    }
+
+    /**
+     * 卸载插件，插件实例在默认排空延迟后关闭
+     *
+     * @param pluginId 插件ID
+     * @return 插件类加载器关闭后完成的Future
+     */
+    public CompletableFuture<Void> unload(String pluginId) {
+        return unload(pluginId, DefaultExtensionLoader.DEFAULT_DRAIN_DELAY);
+    }
+
+    /**
+     * 卸载插件
+     *
+     * @param pluginId   插件ID
+     * @param drainDelay 关闭插件实例前的排空延迟
+     * @return 插件类加载器关闭后完成的Future
+     */
+    public CompletableFuture<Void> unload(String pluginId, Duration drainDelay) {
+        PluginClassLoader classLoader = plugins.remove(pluginId);
+        if (classLoader == null) {
+            throw new SPIException("No such plugin: " + pluginId);
+        }
+        return DefaultExtensionLoader.removePlugin(pluginId, drainDelay).whenComplete((ignored, error) -> {
+            closeQuietly(classLoader);
+            log.info("Unloaded plugin {}", pluginId);
+        });
+    }
+
+    /**
+     * 获取已加载的插件ID
+     *
+     * @return 插件ID集合
+     */
+    public Set<String> getPluginIds() {
+        return Set.copyOf(plugins.keySet());
+    }
+
+    private static URL toUrl(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new SPIException("Invalid plugin path " + path, e);
+        }
+    }
+
+    private static void closeQuietly(PluginClassLoader classLoader) {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close class loader of plugin {}", classLoader.getPluginId(), e);
+        }
+    }
+}
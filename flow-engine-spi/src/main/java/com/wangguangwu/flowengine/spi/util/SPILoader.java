@@ -1,7 +1,15 @@
 package com.wangguangwu.flowengine.spi.util;
 
+import com.wangguangwu.flowengine.spi.loader.ActivateCondition;
 import com.wangguangwu.flowengine.spi.loader.DefaultExtensionLoader;
 import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionPreloader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionPreloader.PreloadResult;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SPI工具类，MVP版本。
@@ -22,4 +30,20 @@ public final class SPILoader {
     public static <T> T getExtension(Class<T> type, String name) {
         return getExtensionLoader(type).getExtension(name);
     }
+
+    public static List<PreloadResult> preload(Collection<Class<?>> types) {
+        return ExtensionPreloader.preload(types);
+    }
+
+    public static CompletableFuture<Void> reload(Class<?> type) {
+        return DefaultExtensionLoader.getExtensionLoader(type).reload();
+    }
+
+    public static CompletableFuture<Void> reloadAll(ClassLoader classLoader, Duration drainDelay) {
+        return DefaultExtensionLoader.reloadAll(classLoader, drainDelay);
+    }
+
+    public static <T> List<T> getActivatedExtensions(Class<T> type, ActivateCondition condition) {
+        return getExtensionLoader(type).getActivatedExtensions(condition);
+    }
 }
@@ -1,9 +1,34 @@
 package com.wangguangwu.flowengine.spi.loader;
 
 import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.testservice.ChainFilter;
+import com.wangguangwu.flowengine.spi.testservice.ClosingReloadableService;
+import com.wangguangwu.flowengine.spi.testservice.CountingLazyService;
+import com.wangguangwu.flowengine.spi.testservice.IndexedService;
+import com.wangguangwu.flowengine.spi.testservice.IndexedServiceImpl;
+import com.wangguangwu.flowengine.spi.testservice.LazyService;
 import com.wangguangwu.flowengine.spi.testservice.NoDefaultService;
+import com.wangguangwu.flowengine.spi.testservice.PrototypeService;
+import com.wangguangwu.flowengine.spi.testservice.ReloadableService;
 import com.wangguangwu.flowengine.spi.testservice.TestService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,4 +67,165 @@ class DefaultExtensionLoaderTest {
         DefaultExtensionLoader<NoDefaultService> loader = DefaultExtensionLoader.getExtensionLoader(NoDefaultService.class);
         assertThrows(SPIException.class, loader::getDefaultExtension);
     }
+
+    @Test
+    void testLazyInstantiation() throws Exception {
+        DefaultExtensionLoader<LazyService> loader = DefaultExtensionLoader.getExtensionLoader(LazyService.class);
+        // 描述文件中存在无法加载的类，但只要不访问就不会报错
+        assertEquals(0, CountingLazyService.CREATED.get());
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<LazyService>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return loader.getExtension("counting");
+                }));
+            }
+            start.countDown();
+            LazyService first = futures.get(0).get();
+            for (Future<LazyService> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, CountingLazyService.CREATED.get());
+        assertThrows(SPIException.class, () -> loader.getExtension("missing"));
+    }
+
+    @Test
+    void testSingletonExtension() {
+        DefaultExtensionLoader<TestService> loader = DefaultExtensionLoader.getExtensionLoader(TestService.class);
+        assertSame(loader.getExtension("another"), loader.getExtension("another"));
+    }
+
+    @Test
+    void testPrototypeExtension() {
+        DefaultExtensionLoader<PrototypeService> loader = DefaultExtensionLoader.getExtensionLoader(PrototypeService.class);
+        PrototypeService first = loader.getDefaultExtension();
+        PrototypeService second = loader.getDefaultExtension();
+        assertNotSame(first, second);
+        assertEquals("prototype", second.name());
+    }
+
+    @Test
+    void testIndexMergedWithDescriptors(@TempDir Path dir) throws Exception {
+        Path indexFile = dir.resolve(ExtensionIndex.INDEX_LOCATION);
+        Files.createDirectories(indexFile.getParent());
+        try (OutputStream out = Files.newOutputStream(indexFile)) {
+            ExtensionIndex.write(out, Map.of(IndexedService.class.getName(),
+                    Map.of("indexed", IndexedServiceImpl.class.getName())));
+        }
+        // 同一位置的索引已覆盖该扩展点，描述文件不再解析
+        Files.writeString(indexFile.resolveSibling(IndexedService.class.getName()),
+                "shadowed=" + IndexedServiceImpl.class.getName());
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(classLoader);
+            DefaultExtensionLoader<IndexedService> loader = DefaultExtensionLoader.getExtensionLoader(IndexedService.class);
+            assertEquals("indexed", loader.getExtension("indexed").name());
+            // 没有索引的 test-classes 中的描述文件仍然生效
+            assertEquals("indexed", loader.getExtension("descriptor").name());
+            assertThrows(SPIException.class, () -> loader.getExtension("shadowed"));
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    void testActivatedExtensionsSortedByOrder() {
+        DefaultExtensionLoader<ChainFilter> loader = DefaultExtensionLoader.getExtensionLoader(ChainFilter.class);
+
+        assertEquals(List.of("global"), names(loader.getActivatedExtensions(ActivateCondition.NONE)));
+        assertEquals(List.of("tenant", "global"),
+                names(loader.getActivatedExtensions(new ActivateCondition("tenant-a", null, null))));
+        assertEquals(List.of("audit", "tenant", "global"),
+                names(loader.getActivatedExtensions(new ActivateCondition("tenant-a", "order", "audit"))));
+        assertEquals(List.of("audit", "global"),
+                names(loader.getActivatedExtensions(new ActivateCondition("tenant-b", null, "audit"))));
+    }
+
+    @Test
+    void testActivatedExtensionsCached() {
+        DefaultExtensionLoader<ChainFilter> loader = DefaultExtensionLoader.getExtensionLoader(ChainFilter.class);
+        ActivateCondition condition = new ActivateCondition("tenant-a", null, null);
+        List<ChainFilter> first = loader.getActivatedExtensions(condition);
+        assertSame(first, loader.getActivatedExtensions(new ActivateCondition("tenant-a", null, null)));
+        assertSame(loader.getExtension("tenant"), first.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> first.add(loader.getExtension("manual")));
+    }
+
+    @Test
+    void testActivatedExtensionsCacheKeyedOnDeclaredValues() {
+        DefaultExtensionLoader<ChainFilter> loader = DefaultExtensionLoader.getExtensionLoader(ChainFilter.class);
+        List<ChainFilter> unrestricted = loader.getActivatedExtensions(ActivateCondition.NONE);
+        // 没有扩展声明的租户、流程类型和标签与null共用同一个缓存项
+        for (int i = 0; i < 100; i++) {
+            assertSame(unrestricted, loader.getActivatedExtensions(
+                    new ActivateCondition("tenant-" + i, "flow-" + i, "tag-" + i)));
+        }
+        List<ChainFilter> audit = loader.getActivatedExtensions(new ActivateCondition("tenant-x", null, "audit"));
+        assertSame(audit, loader.getActivatedExtensions(new ActivateCondition("tenant-y", "order", "audit")));
+        assertEquals(List.of("audit", "global"), names(audit));
+    }
+
+    @Test
+    void testReloadWhileReading() throws Exception {
+        DefaultExtensionLoader<ReloadableService> loader =
+                DefaultExtensionLoader.getExtensionLoader(ReloadableService.class);
+        ClassLoader classLoader = ReloadableService.class.getClassLoader();
+        List<String> reloaded = new ArrayList<>();
+        ExtensionReloadListener listener = type -> {
+            if (type == ReloadableService.class) {
+                reloaded.add(type.getSimpleName());
+            }
+        };
+        DefaultExtensionLoader.addReloadListener(listener);
+
+        int readers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    int reads = 0;
+                    while (running.get()) {
+                        assertEquals("closing", loader.getExtension("closing").name());
+                        assertTrue(loader.hasExtension("closing"));
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            List<CompletableFuture<Void>> drains = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                drains.add(loader.reload(classLoader, Duration.ofMillis(50)));
+            }
+            running.set(false);
+            for (Future<Integer> future : futures) {
+                assertTrue(future.get() > 0);
+            }
+            CompletableFuture.allOf(drains.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+            DefaultExtensionLoader.removeReloadListener(listener);
+        }
+
+        assertEquals(50, reloaded.size());
+        // 除当前注册表中的实例外，旧实例全部被关闭
+        loader.getExtension("closing");
+        assertEquals(ClosingReloadableService.CREATED.get() - 1, ClosingReloadableService.CLOSED.get());
+    }
+
+    private static List<String> names(List<ChainFilter> filters) {
+        return filters.stream().map(ChainFilter::name).toList();
+    }
 }
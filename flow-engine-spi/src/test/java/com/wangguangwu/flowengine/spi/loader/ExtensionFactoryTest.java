@@ -0,0 +1,58 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.testservice.AnotherTestService;
+import com.wangguangwu.flowengine.spi.testservice.TestService;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExtensionFactory 单元测试
+ *
+ * @author wangguangwu
+ */
+class ExtensionFactoryTest {
+
+    @Test
+    void testCreateNewInstanceEachTime() {
+        Supplier<TestService> factory = ExtensionFactory.create(AnotherTestService.class);
+        TestService first = factory.get();
+        TestService second = factory.get();
+        assertNotSame(first, second);
+        assertEquals("Hello from AnotherTestService", first.sayHello());
+    }
+
+    @Test
+    void testPackagePrivateImplementation() {
+        Supplier<TestService> factory = ExtensionFactory.create(HiddenTestService.class);
+        assertEquals("hidden", factory.get().sayHello());
+    }
+
+    @Test
+    void testNoDefaultConstructor() {
+        assertThrows(SPIException.class, () -> ExtensionFactory.create(NoArgLessTestService.class));
+    }
+
+    static class HiddenTestService implements TestService {
+        @Override
+        public String sayHello() {
+            return "hidden";
+        }
+    }
+
+    static class NoArgLessTestService implements TestService {
+        private final String message;
+
+        NoArgLessTestService(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String sayHello() {
+            return message;
+        }
+    }
+}
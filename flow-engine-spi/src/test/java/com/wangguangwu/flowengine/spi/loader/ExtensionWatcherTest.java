@@ -0,0 +1,83 @@
+package com.wangguangwu.flowengine.spi.loader;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.testservice.DefaultTestService;
+import com.wangguangwu.flowengine.spi.testservice.TestService;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExtensionWatcher 单元测试
+ *
+ * @author wangguangwu
+ */
+class ExtensionWatcherTest {
+
+    private static final String DESCRIPTOR = "META-INF/flow-engine/" + TestService.class.getName();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        // 恢复为测试类路径，避免注册表继续引用已关闭的类加载器
+        SPILoader.reloadAll(TestService.class.getClassLoader(), Duration.ZERO).join();
+    }
+
+    @Test
+    void testFailedRefreshKeepsCurrent() throws Exception {
+        DefaultExtensionLoader<TestService> loader = DefaultExtensionLoader.getExtensionLoader(TestService.class);
+        writeJar(dir.resolve("a.jar"), DESCRIPTOR, "watched=" + DefaultTestService.class.getName());
+        ExtensionWatcher watcher = new ExtensionWatcher(dir, TestService.class.getClassLoader(), Duration.ZERO);
+        try {
+            watcher.start();
+            URLClassLoader started = (URLClassLoader) watcher.getClassLoader();
+            assertTrue(loader.hasExtension("watched"));
+
+            // 索引损坏时注册表构建失败，保留原类加载器和注册表
+            writeJar(dir.resolve("b.jar"), ExtensionIndex.INDEX_LOCATION, "broken");
+            assertThrows(SPIException.class, watcher::refresh);
+            assertSame(started, watcher.getClassLoader());
+            assertNotNull(started.findResource(DESCRIPTOR));
+            assertTrue(loader.hasExtension("watched"));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void testCloseClosesClassLoader() throws Exception {
+        writeJar(dir.resolve("a.jar"), DESCRIPTOR, "watched=" + DefaultTestService.class.getName());
+        ExtensionWatcher watcher = new ExtensionWatcher(dir, TestService.class.getClassLoader(), Duration.ZERO);
+        watcher.start();
+        URLClassLoader started = (URLClassLoader) watcher.getClassLoader();
+        assertNotNull(started.findResource(DESCRIPTOR));
+
+        watcher.close();
+        assertNull(watcher.getClassLoader());
+        assertNull(started.findResource(DESCRIPTOR));
+        assertThrows(IllegalStateException.class, watcher::refresh);
+    }
+
+    private static void writeJar(Path jar, String entry, String content) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry(entry));
+            jarOut.write(content.getBytes(StandardCharsets.UTF_8));
+            jarOut.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.wangguangwu.flowengine.spi.plugin;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.testservice.TestService;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PluginManager 单元测试
+ *
+ * @author wangguangwu
+ */
+class PluginManagerTest {
+
+    private static final String TEST_SERVICE_DESCRIPTOR = "META-INF/flow-engine/" + TestService.class.getName();
+
+    @TempDir
+    Path dir;
+
+    private final PluginManager manager = new PluginManager();
+
+    @Test
+    void testPluginsIsolated() throws Exception {
+        Path v1 = buildPlugin("v1", "plugin-v1");
+        Path v2 = buildPlugin("v2", "plugin-v2");
+        manager.load("a", v1);
+        manager.load("b", v2);
+        try {
+            // 两个插件携带同名但不同版本的依赖类，各自使用自己的版本
+            assertEquals("Hello from plugin v1", SPILoader.getExtension(TestService.class, "plugin-v1").sayHello());
+            assertEquals("Hello from plugin v2", SPILoader.getExtension(TestService.class, "plugin-v2").sayHello());
+            // 宿主扩展不受影响
+            assertEquals("Hello from DefaultTestService", SPILoader.getDefaultExtension(TestService.class).sayHello());
+            assertThrows(SPIException.class, () -> manager.load("a", v1));
+        } finally {
+            manager.unload("a", Duration.ZERO).join();
+            manager.unload("b", Duration.ZERO).join();
+        }
+        assertFalse(SPILoader.getExtensionLoader(TestService.class).hasExtension("plugin-v1"));
+        assertTrue(manager.getPluginIds().isEmpty());
+        assertThrows(SPIException.class, () -> manager.unload("a"));
+    }
+
+    @Test
+    void testUnloadReleasesClassLoader() throws Exception {
+        Path jar = buildPlugin("cycle", "plugin-cycle");
+        // 第一轮加载JDK与框架自身的类，之后的内存作为基线
+        runCycle("warmup", jar);
+        awaitCollected(List.of(runCycle("warmup-2", jar)));
+        long baseline = metaspaceUsed();
+
+        List<WeakReference<ClassLoader>> classLoaders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            classLoaders.add(runCycle("cycle-" + i, jar));
+        }
+        awaitCollected(classLoaders);
+
+        // 卸载的插件元空间被回收，只允许少量波动
+        assertTrue(metaspaceUsed() - baseline < 2 * 1024 * 1024,
+                "metaspace grew from " + baseline + " to " + metaspaceUsed());
+    }
+
+    private WeakReference<ClassLoader> runCycle(String pluginId, Path jar) {
+        ClassLoader classLoader = manager.load(pluginId, jar);
+        assertEquals("Hello from plugin cycle", SPILoader.getExtension(TestService.class, "plugin-cycle").sayHello());
+        manager.unload(pluginId, Duration.ZERO).join();
+        assertFalse(SPILoader.getExtensionLoader(TestService.class).hasExtension("plugin-cycle"));
+        return new WeakReference<>(classLoader);
+    }
+
+    private static void awaitCollected(List<WeakReference<ClassLoader>> references) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            System.gc();
+            if (references.stream().allMatch(reference -> reference.get() == null)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("Plugin class loaders were not collected");
+    }
+
+    private static long metaspaceUsed() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getName().equals("Metaspace"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .findFirst()
+                .orElse(0);
+    }
+
+    /**
+     * 编译一个插件jar，其中的扩展依赖插件内同名的 demo.lib.Version 类
+     */
+    private Path buildPlugin(String version, String extensionName) throws IOException {
+        Path src = Files.createDirectories(dir.resolve(version + "-src"));
+        Path classes = Files.createDirectories(dir.resolve(version + "-classes"));
+        Path lib = Files.createDirectories(src.resolve("demo/lib")).resolve("Version.java");
+        Files.writeString(lib, "package demo.lib; public class Version {"
+                + " public static String value() { return \"" + version + "\"; } }");
+        Path service = Files.createDirectories(src.resolve("demo/plugin")).resolve("VersionedTestService.java");
+        Files.writeString(service, "package demo.plugin;"
+                + " public class VersionedTestService implements " + TestService.class.getName() + " {"
+                + " public String sayHello() { return \"Hello from plugin \" + demo.lib.Version.value(); } }");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-proc:none", "-d", classes.toString(),
+                "-cp", System.getProperty("java.class.path"), lib.toString(), service.toString());
+        assertEquals(0, result);
+
+        Path jar = dir.resolve(version + ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                out.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+            out.putNextEntry(new JarEntry(TEST_SERVICE_DESCRIPTOR));
+            writeLine(out, extensionName + "=demo.plugin.VersionedTestService");
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+@Activate(tags = "audit")
+@Extension(value = "audit", order = -1)
+public class AuditChainFilter implements ChainFilter {
+    @Override
+    public String name() {
+        return "audit";
+    }
+}
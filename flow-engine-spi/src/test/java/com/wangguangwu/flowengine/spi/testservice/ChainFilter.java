@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 用于测试扩展激活的SPI接口
+ *
+ * @author wangguangwu
+ */
+public interface ChainFilter {
+    /**
+     * 测试方法
+     *
+     * @return 过滤器名称
+     */
+    String name();
+}
@@ -0,0 +1,28 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录创建与关闭次数的可重新加载扩展实现
+ *
+ * @author wangguangwu
+ */
+public class ClosingReloadableService implements ReloadableService, AutoCloseable {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+    public static final AtomicInteger CLOSED = new AtomicInteger();
+
+    public ClosingReloadableService() {
+        CREATED.incrementAndGet();
+    }
+
+    @Override
+    public String name() {
+        return "closing";
+    }
+
+    @Override
+    public void close() {
+        CLOSED.incrementAndGet();
+    }
+}
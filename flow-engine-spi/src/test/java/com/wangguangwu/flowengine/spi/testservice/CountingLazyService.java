@@ -0,0 +1,22 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录构造次数的延迟扩展实现
+ *
+ * @author wangguangwu
+ */
+public class CountingLazyService implements LazyService {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public CountingLazyService() {
+        CREATED.incrementAndGet();
+    }
+
+    @Override
+    public String name() {
+        return "counting";
+    }
+}
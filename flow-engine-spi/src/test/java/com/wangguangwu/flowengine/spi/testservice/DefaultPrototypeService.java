@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 非单例扩展的默认实现
+ *
+ * @author wangguangwu
+ */
+public class DefaultPrototypeService implements PrototypeService {
+    @Override
+    public String name() {
+        return "prototype";
+    }
+}
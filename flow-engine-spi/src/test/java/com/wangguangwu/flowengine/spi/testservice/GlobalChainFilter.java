@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+@Activate
+@Extension(value = "global", order = 10)
+public class GlobalChainFilter implements ChainFilter {
+    @Override
+    public String name() {
+        return "global";
+    }
+}
@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 用于测试编译期索引的SPI接口
+ *
+ * @author wangguangwu
+ */
+public interface IndexedService {
+    /**
+     * 测试方法
+     *
+     * @return 返回消息
+     */
+    String name();
+}
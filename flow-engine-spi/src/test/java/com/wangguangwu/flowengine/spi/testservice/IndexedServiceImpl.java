@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 通过编译期索引注册的扩展实现
+ *
+ * @author wangguangwu
+ */
+public class IndexedServiceImpl implements IndexedService {
+    @Override
+    public String name() {
+        return "indexed";
+    }
+}
@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 用于测试延迟实例化的SPI接口
+ *
+ * @author wangguangwu
+ */
+public interface LazyService {
+    /**
+     * 测试方法
+     *
+     * @return 返回消息
+     */
+    String name();
+}
@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 未声明激活条件的过滤器，只能按名称获取
+ *
+ * @author wangguangwu
+ */
+public class ManualChainFilter implements ChainFilter {
+    @Override
+    public String name() {
+        return "manual";
+    }
+}
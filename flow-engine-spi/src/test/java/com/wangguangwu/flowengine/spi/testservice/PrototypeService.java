@@ -0,0 +1,18 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+/**
+ * 用于测试非单例扩展点的SPI接口
+ *
+ * @author wangguangwu
+ */
+@SPI(value = "default", singleton = false)
+public interface PrototypeService {
+    /**
+     * 测试方法
+     *
+     * @return 返回消息
+     */
+    String name();
+}
@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+/**
+ * 用于测试热重新加载的SPI接口
+ *
+ * @author wangguangwu
+ */
+public interface ReloadableService {
+    /**
+     * 测试方法
+     *
+     * @return 返回消息
+     */
+    String name();
+}
@@ -0,0 +1,13 @@
+package com.wangguangwu.flowengine.spi.testservice;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+@Activate(tenants = "tenant-a")
+@Extension(value = "tenant", order = 5)
+public class TenantChainFilter implements ChainFilter {
+    @Override
+    public String name() {
+        return "tenant";
+    }
+}
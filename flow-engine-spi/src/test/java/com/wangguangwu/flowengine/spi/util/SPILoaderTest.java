@@ -1,8 +1,15 @@
 package com.wangguangwu.flowengine.spi.util;
 
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.loader.ExtensionPreloader.PreloadResult;
+import com.wangguangwu.flowengine.spi.testservice.ChainFilter;
+import com.wangguangwu.flowengine.spi.testservice.DefaultTestService;
+import com.wangguangwu.flowengine.spi.testservice.LazyService;
 import com.wangguangwu.flowengine.spi.testservice.TestService;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SPILoaderTest {
@@ -20,4 +27,24 @@ class SPILoaderTest {
         assertNotNull(another);
         assertEquals("Hello from AnotherTestService", another.sayHello());
     }
+
+    @Test
+    void testPreload() {
+        List<PreloadResult> results = SPILoader.preload(
+                List.of(TestService.class, ChainFilter.class, LazyService.class, DefaultTestService.class));
+
+        assertEquals(List.of(TestService.class, ChainFilter.class, LazyService.class, DefaultTestService.class),
+                results.stream().map(PreloadResult::type).toList());
+        assertEquals(2, results.get(0).extensions());
+        assertEquals(4, results.get(1).extensions());
+        // 无法加载的扩展被跳过，不影响其他扩展
+        assertEquals(1, results.get(2).extensions());
+        assertTrue(results.get(2).isSuccess());
+        // 非接口类型的加载器构建失败
+        assertFalse(results.get(3).isSuccess());
+        assertInstanceOf(SPIException.class, results.get(3).error());
+        results.forEach(result -> assertFalse(result.elapsed().isNegative()));
+
+        assertSame(SPILoader.getExtensionLoader(TestService.class), SPILoader.getExtensionLoader(TestService.class));
+    }
 }
@@ -0,0 +1,397 @@
+package com.wangguangwu.flowengine.tenant.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * 租户强制注解处理器。
+ * <p>
+ * 为声明了 {@code @TenantAware} 的类（类上或任一方法上）生成 {@code TenantEnforced_} 子类：
+ * 覆盖每个受注解约束的可覆盖方法，先调用 {@code TenantGuard.check} 再调用父类实现，并复制所有非私有构造器。
+ * 方法的约束与 {@code TenantAwarePolicy} 相同：方法（或其覆盖的父类方法）上的注解优先，其次是类及其父类上的注解。
+ * 检查参数是编译期常量，运行时没有反射、代理和参数装箱，类内部的自调用同样经过检查。
+ * 无法生成子类的情况（final 类、私有类、非静态内部类、带注解的 final 方法）报告编译错误。
+ * </p>
+ * <p>
+ * 处理器只通过类名引用 {@code flow-engine-tenant} 中的注解和 {@code TenantGuard}，不依赖该模块，
+ * 因此 {@code flow-engine-tenant} 自身的测试编译也可以使用处理器；生成类的命名与 {@code TenantGuard.enforcedClassName} 一致。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@SupportedAnnotationTypes(TenantEnforcementProcessor.TENANT_AWARE)
+public class TenantEnforcementProcessor extends AbstractProcessor {
+
+    static final String TENANT_AWARE = "com.wangguangwu.flowengine.tenant.api.TenantAware";
+
+    private static final String GUARD = "com.wangguangwu.flowengine.tenant.core.TenantGuard";
+
+    private static final String ENFORCED_CLASS_PREFIX = "TenantEnforced_";
+
+    /**
+     * 已生成的类，避免多轮处理时重复生成
+     */
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type = element.getKind() == ElementKind.METHOD ? element.getEnclosingElement() : element;
+                if (type instanceof TypeElement typeElement) {
+                    types.add(typeElement);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            if (generated.add(type.getQualifiedName().toString()) && canEnforce(type)) {
+                generate(type);
+            }
+        }
+        return false;
+    }
+
+    private boolean canEnforce(TypeElement type) {
+        Messager messager = processingEnv.getMessager();
+        ElementKind kind = type.getKind();
+        if (kind == ElementKind.INTERFACE || kind == ElementKind.ANNOTATION_TYPE
+                || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            // 接口和抽象类不是Bean的实现类，由具体子类上的注解约束
+            return false;
+        }
+        if (kind != ElementKind.CLASS || type.getModifiers().contains(Modifier.FINAL)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@TenantAware cannot be enforced on a final type, make it non-final", type);
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@TenantAware cannot be enforced on a local or anonymous class", type);
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@TenantAware cannot be enforced on a non-static inner class", type);
+            return false;
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@TenantAware cannot be enforced on a private class", type);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String generatedName = enforcedClassName(binaryName);
+        String simpleName = generatedName.substring(generatedName.lastIndexOf('.') + 1);
+
+        List<ExecutableElement> constructors = new ArrayList<>();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                constructors.add(constructor);
+            }
+        }
+        if (constructors.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@TenantAware cannot be enforced on a class without a non-private constructor", type);
+            return;
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"")
+                .append(TenantEnforcementProcessor.class.getName()).append("\")\n");
+        if (type.getModifiers().contains(Modifier.PUBLIC)) {
+            source.append("public ");
+        }
+        source.append("class ").append(simpleName).append(typeParameters(type.getTypeParameters()).trim())
+                .append(" extends ").append(type.getQualifiedName()).append(typeArguments(type.getTypeParameters()))
+                .append(" {\n");
+        for (ExecutableElement constructor : constructors) {
+            appendConstructor(source, simpleName, constructor);
+        }
+        Policy typeAnnotation = findTypeAnnotation(type);
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            appendMethod(source, type, typeAnnotation, method);
+        }
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(generatedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + generatedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private void appendConstructor(StringBuilder source, String simpleName, ExecutableElement constructor) {
+        source.append('\n');
+        for (AnnotationMirror annotation : constructor.getAnnotationMirrors()) {
+            source.append("    ").append(annotation).append('\n');
+        }
+        source.append("    ").append(visibility(constructor)).append(typeParameters(constructor.getTypeParameters()))
+                .append(simpleName).append('(')
+                .append(parameters(constructor, (ExecutableType) constructor.asType(), true)).append(')')
+                .append(throwsClause(constructor.getThrownTypes())).append(" {\n")
+                .append("        super(").append(arguments(constructor)).append(");\n")
+                .append("    }\n");
+    }
+
+    private void appendMethod(StringBuilder source, TypeElement type, Policy typeAnnotation,
+                              ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        Element owner = method.getEnclosingElement();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.ABSTRACT)
+                || ((TypeElement) owner).getQualifiedName().contentEquals("java.lang.Object")) {
+            return;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        // 其他包中父类的包私有方法对生成类不可见，无法覆盖
+        if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)
+                && !elements.getPackageOf(owner).equals(elements.getPackageOf(type))) {
+            return;
+        }
+        Policy methodAnnotation = findMethodAnnotation(type, method);
+        Policy tenantAware = methodAnnotation != null ? methodAnnotation : typeAnnotation;
+        if (tenantAware == null) {
+            return;
+        }
+        if (modifiers.contains(Modifier.FINAL)) {
+            processingEnv.getMessager().printMessage(
+                    methodAnnotation != null ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING,
+                    "@TenantAware cannot be enforced on final method " + method.getSimpleName(), method);
+            return;
+        }
+
+        ExecutableType executable = (ExecutableType) processingEnv.getTypeUtils()
+                .asMemberOf((DeclaredType) type.asType(), method);
+        String returnType = executable.getReturnType().toString();
+        String descriptor = type.getQualifiedName() + "#" + method.getSimpleName();
+        source.append('\n')
+                .append("    @Override\n")
+                .append("    ").append(visibility(method)).append(typeParameters(method.getTypeParameters()))
+                .append(returnType).append(' ').append(method.getSimpleName()).append('(')
+                .append(parameters(method, executable, false)).append(')')
+                .append(throwsClause(executable.getThrownTypes())).append(" {\n")
+                .append("        ").append(GUARD).append(".check(").append(tenantAware.required()).append(", ")
+                .append(tenantAware.allowSystemTenant()).append(", \"").append(descriptor).append("\");\n")
+                .append("        ").append(executable.getReturnType().getKind() == TypeKind.VOID ? "" : "return ")
+                .append("super.").append(method.getSimpleName()).append('(').append(arguments(method)).append(");\n")
+                .append("    }\n");
+    }
+
+    /**
+     * 查找方法上的注解，方法本身没有时查找其覆盖的父类和接口方法
+     */
+    private Policy findMethodAnnotation(TypeElement type, ExecutableElement method) {
+        Policy tenantAware = policyOf(method);
+        if (tenantAware != null) {
+            return tenantAware;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        Set<TypeElement> supertypes = new LinkedHashSet<>();
+        collectSupertypes(types, type.asType(), supertypes);
+        for (TypeElement supertype : supertypes) {
+            for (ExecutableElement candidate : ElementFilter.methodsIn(supertype.getEnclosedElements())) {
+                if (candidate != method && candidate.getSimpleName().equals(method.getSimpleName())
+                        && (tenantAware = policyOf(candidate)) != null
+                        && elements.overrides(method, candidate, (TypeElement) method.getEnclosingElement())) {
+                    return tenantAware;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找类及其父类、接口上的注解
+     */
+    private Policy findTypeAnnotation(TypeElement type) {
+        Policy tenantAware = policyOf(type);
+        if (tenantAware != null) {
+            return tenantAware;
+        }
+        Set<TypeElement> supertypes = new LinkedHashSet<>();
+        collectSupertypes(processingEnv.getTypeUtils(), type.asType(), supertypes);
+        for (TypeElement supertype : supertypes) {
+            tenantAware = policyOf(supertype);
+            if (tenantAware != null) {
+                return tenantAware;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取元素上的注解，未声明的属性取注解定义的默认值
+     */
+    private Policy policyOf(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(TENANT_AWARE)) {
+                Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+                boolean required = true;
+                boolean allowSystemTenant = true;
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+                    String name = value.getKey().getSimpleName().toString();
+                    if (name.equals("required")) {
+                        required = (Boolean) value.getValue().getValue();
+                    } else if (name.equals("allowSystemTenant")) {
+                        allowSystemTenant = (Boolean) value.getValue().getValue();
+                    }
+                }
+                return new Policy(required, allowSystemTenant);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与 {@code TenantGuard.enforcedClassName} 相同的命名规则
+     */
+    private static String enforcedClassName(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        String packagePrefix = className.substring(0, packageEnd + 1);
+        return packagePrefix + ENFORCED_CLASS_PREFIX + className.substring(packageEnd + 1).replace('$', '_');
+    }
+
+    private static void collectSupertypes(Types types, TypeMirror type, Set<TypeElement> supertypes) {
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            if (supertype.getKind() == TypeKind.DECLARED
+                    && supertypes.add((TypeElement) ((DeclaredType) supertype).asElement())) {
+                collectSupertypes(types, supertype, supertypes);
+            }
+        }
+    }
+
+    /**
+     * 方法的租户约束，对应注解的两个属性
+     */
+    private record Policy(boolean required, boolean allowSystemTenant) {
+    }
+
+    private static String visibility(ExecutableElement executable) {
+        Set<Modifier> modifiers = executable.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return "public ";
+        }
+        return modifiers.contains(Modifier.PROTECTED) ? "protected " : "";
+    }
+
+    private static String typeParameters(List<? extends TypeParameterElement> typeParameters) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "<", "> ");
+        for (TypeParameterElement typeParameter : typeParameters) {
+            StringJoiner bounds = new StringJoiner(" & ", " extends ", "").setEmptyValue("");
+            for (TypeMirror bound : typeParameter.getBounds()) {
+                if (!bound.toString().equals("java.lang.Object")) {
+                    bounds.add(bound.toString());
+                }
+            }
+            joiner.add(typeParameter.getSimpleName() + bounds.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static String typeArguments(List<? extends TypeParameterElement> typeParameters) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "<", ">");
+        for (TypeParameterElement typeParameter : typeParameters) {
+            joiner.add(typeParameter.getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private static String parameters(ExecutableElement executable, ExecutableType type, boolean withAnnotations) {
+        List<? extends VariableElement> parameters = executable.getParameters();
+        List<? extends TypeMirror> parameterTypes = type.getParameterTypes();
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < parameters.size(); i++) {
+            StringBuilder parameter = new StringBuilder();
+            if (withAnnotations) {
+                for (AnnotationMirror annotation : parameters.get(i).getAnnotationMirrors()) {
+                    parameter.append(annotation).append(' ');
+                }
+            }
+            TypeMirror parameterType = parameterTypes.get(i);
+            if (executable.isVarArgs() && i == parameters.size() - 1) {
+                parameter.append(((ArrayType) parameterType).getComponentType()).append("...");
+            } else {
+                parameter.append(parameterType);
+            }
+            joiner.add(parameter.append(' ').append(parameters.get(i).getSimpleName()));
+        }
+        return joiner.toString();
+    }
+
+    private static String arguments(ExecutableElement executable) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (VariableElement parameter : executable.getParameters()) {
+            joiner.add(parameter.getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private static String throwsClause(List<? extends TypeMirror> thrownTypes) {
+        if (thrownTypes.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", " throws ", "");
+        for (TypeMirror thrownType : thrownTypes) {
+            joiner.add(thrownType.toString());
+        }
+        return joiner.toString();
+    }
+}
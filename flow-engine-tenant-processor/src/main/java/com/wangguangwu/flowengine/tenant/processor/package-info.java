@@ -0,0 +1,11 @@
+/**
+ * 流程引擎租户强制编译期代码生成
+ * <p>
+ * 将本模块加入编译期注解处理器路径（或以 provided 依赖引入），编译时会为 {@code @TenantAware} 类生成
+ * {@code TenantEnforced_} 子类，在方法入口直接调用 {@code TenantGuard} 检查租户上下文。
+ * 配合 {@code flow.engine.tenant.enforcement=generated}，Spring 会用生成类替换Bean的实现类，不再创建AOP代理。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+package com.wangguangwu.flowengine.tenant.processor;
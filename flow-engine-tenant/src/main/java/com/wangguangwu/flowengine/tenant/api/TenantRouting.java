@@ -5,7 +5,8 @@ import java.lang.annotation.*;
 /**
  * 租户数据源路由注解
  * <p>
- * 标记需要进行租户数据源路由的方法或类
+ * 标记需要进行租户数据源路由的方法或类。方法内通过租户路由数据源获取的连接都指向当前租户的数据源，
+ * 方法执行时必须存在租户上下文，不会回退到默认数据源
  * </p>
  *
  * @author wangguangwu
@@ -14,5 +15,22 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface TenantRouting {
-    // 简化注解，移除不必要的属性
+
+    /**
+     * 路由的资源类型
+     *
+     * @return 资源类型
+     */
+    ResourceType resourceType() default ResourceType.DATASOURCE;
+
+    /**
+     * 按租户路由的资源类型
+     */
+    enum ResourceType {
+
+        /**
+         * 数据源
+         */
+        DATASOURCE
+    }
 }
@@ -0,0 +1,122 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * 按二次机会（CLOCK）策略淘汰 {@link ConcurrentMap} 中的条目
+ * <p>
+ * 条目被访问时只设置访问标记，命中路径不加锁、不读取时钟。淘汰只在新条目加入前由 {@link #sweepIfNeeded()} 进行。
+ * 距上次清理超过空闲过期时间时扫描一圈，移除自上次清理以来未被访问的条目并重置其余条目的访问标记，
+ * 因此空闲条目在过期时间的一到两倍之间被淘汰。
+ * </p>
+ * <p>
+ * 条目数达到上限时从时钟指针上次停下的位置继续扫描，淘汰到低于上限为止，最多扫描两圈；
+ * 所有条目都被访问过时只淘汰最先被重置的条目，而不是清空。退役钩子返回false的条目（例如仍在使用中）不会被移除，
+ * 此时条目数可以暂时超过上限。
+ * </p>
+ *
+ * @param <K> 键类型
+ * @param <E> 条目类型
+ * @author wangguangwu
+ */
+public final class ClockSweeper<K, E extends ClockSweeper.Entry> {
+
+    private final ConcurrentMap<K, E> entries;
+    private final long maximumSize;
+    private final long expireAfterAccessNanos;
+    private final Predicate<? super E> retire;
+    private final Object lock = new Object();
+    private volatile long lastSweepNanos = System.nanoTime();
+
+    /**
+     * 时钟指针，由lock保护
+     */
+    private Iterator<Map.Entry<K, E>> hand;
+
+    /**
+     * 构造函数
+     *
+     * @param entries           被淘汰的映射
+     * @param maximumSize       最大条目数
+     * @param expireAfterAccess 空闲过期时间
+     * @param retire            退役钩子，返回true时条目被移除
+     */
+    public ClockSweeper(ConcurrentMap<K, E> entries, long maximumSize, Duration expireAfterAccess,
+                        Predicate<? super E> retire) {
+        this.entries = entries;
+        this.maximumSize = maximumSize;
+        this.expireAfterAccessNanos = expireAfterAccess.toNanos();
+        this.retire = retire;
+    }
+
+    /**
+     * 在加入新条目前调用，需要时淘汰条目
+     */
+    public void sweepIfNeeded() {
+        long now = System.nanoTime();
+        if (entries.size() < maximumSize && now - lastSweepNanos < expireAfterAccessNanos) {
+            return;
+        }
+        synchronized (lock) {
+            if (now - lastSweepNanos >= expireAfterAccessNanos) {
+                expire();
+                lastSweepNanos = now;
+            }
+            if (entries.size() >= maximumSize) {
+                evict();
+            }
+        }
+    }
+
+    private void expire() {
+        for (Map.Entry<K, E> next : entries.entrySet()) {
+            visit(next);
+        }
+    }
+
+    private void evict() {
+        // 第一圈可能只重置访问标记，第二圈才能淘汰；条目在扫描期间被再次访问时也不会无限扫描
+        long remaining = 2L * entries.size();
+        while (entries.size() >= maximumSize && remaining-- > 0) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.entrySet().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+            visit(hand.next());
+        }
+    }
+
+    private void visit(Map.Entry<K, E> next) {
+        E entry = next.getValue();
+        Entry clock = entry;
+        if (clock.accessed) {
+            clock.accessed = false;
+        } else if (retire.test(entry)) {
+            entries.remove(next.getKey(), entry);
+        }
+    }
+
+    /**
+     * 带访问标记的条目，新条目视为已访问，加入后至少经过一次扫描才会被淘汰
+     */
+    public abstract static class Entry {
+
+        private volatile boolean accessed = true;
+
+        /**
+         * 标记条目被访问
+         */
+        public final void markAccessed() {
+            // 先读后写，避免热点条目的每次命中都写同一缓存行
+            if (!accessed) {
+                accessed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 租户感知的线程池装饰器
+ * <p>
+ * 在 execute、submit、invokeAll、invokeAny 时自动捕获提交线程的租户上下文，并在执行线程中恢复；
+ * 作为 {@code CompletableFuture.*Async} 的执行器时，每个异步阶段同样会传递上下文。
+ * 每次提交只读取一次租户上下文，同一次提交的多个任务共享同一个 {@link TenantContextSnapshot}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantAwareExecutorService implements ExecutorService {
+
+    protected final ExecutorService delegate;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 被装饰的线程池
+     */
+    public TenantAwareExecutorService(ExecutorService delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate == null");
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的租户感知线程池
+     * <p>
+     * 运行时不支持虚拟线程（Java 21 之前）时退化为按需创建守护线程的缓存线程池
+     * </p>
+     *
+     * @return 租户感知线程池
+     */
+    public static TenantAwareExecutorService newVirtualThreadPerTaskExecutor() {
+        return new TenantAwareExecutorService(createVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 支持时返回true
+     */
+    public static boolean isVirtualThreadSupported() {
+        return findVirtualThreadFactoryMethod() != null;
+    }
+
+    private static ExecutorService createVirtualThreadPerTaskExecutor() {
+        Method method = findVirtualThreadFactoryMethod();
+        if (method == null) {
+            return Executors.newCachedThreadPool(new TenantTaskThreadFactory());
+        }
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static Method findVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(TenantContextSnapshot.capture().wrap(command));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(TenantContextSnapshot.capture().wrap(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return delegate.submit(TenantContextSnapshot.capture().wrap(task), result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(TenantContextSnapshot.capture().wrap(task));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return delegate.invokeAll(TenantContextSnapshot.capture().wrapAll(tasks));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return delegate.invokeAll(TenantContextSnapshot.capture().wrapAll(tasks), timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        return delegate.invokeAny(TenantContextSnapshot.capture().wrapAll(tasks));
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.invokeAny(TenantContextSnapshot.capture().wrapAll(tasks), timeout, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 不支持虚拟线程时使用的守护线程工厂
+     */
+    private static final class TenantTaskThreadFactory implements ThreadFactory {
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "tenant-task-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
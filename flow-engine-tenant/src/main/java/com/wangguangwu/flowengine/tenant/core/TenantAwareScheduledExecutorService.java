@@ -0,0 +1,51 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户感知的定时线程池装饰器
+ * <p>
+ * 调度任务时捕获提交线程的租户上下文，周期任务的每次执行都使用同一个快照
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantAwareScheduledExecutorService extends TenantAwareExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService scheduledDelegate;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 被装饰的定时线程池
+     */
+    public TenantAwareScheduledExecutorService(ScheduledExecutorService delegate) {
+        super(delegate);
+        this.scheduledDelegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return scheduledDelegate.schedule(TenantContextSnapshot.capture().wrap(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return scheduledDelegate.schedule(TenantContextSnapshot.capture().wrap(callable), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return scheduledDelegate.scheduleAtFixedRate(TenantContextSnapshot.capture().wrap(command),
+                initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return scheduledDelegate.scheduleWithFixedDelay(TenantContextSnapshot.capture().wrap(command),
+                initialDelay, delay, unit);
+    }
+}
@@ -2,10 +2,16 @@ package com.wangguangwu.flowengine.tenant.core;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
 
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
 /**
  * 租户上下文持有者
  * <p>
- * 使用InheritableThreadLocal存储当前线程的租户上下文，确保线程安全
+ * 默认使用InheritableThreadLocal存储当前线程的租户上下文，确保线程安全。
+ * {@link TenantContextHolderMode#SCOPED} 模式下使用不可继承的ThreadLocal，配合
+ * {@link #runWithContext} / {@link #callWithContext} 把上下文限定在一次调用范围内，
+ * 避免每次创建线程时复制上下文，也不会把旧租户遗留在池化线程中。
  * </p>
  *
  * @author wangguangwu
@@ -13,9 +19,85 @@ import com.wangguangwu.flowengine.tenant.api.TenantContext;
 public class TenantContextHolder {
 
     /**
-     * 使用InheritableThreadLocal存储租户上下文，确保线程安全
+     * 当前存储模式
+     */
+    private static volatile TenantContextHolderMode mode = TenantContextHolderMode.INHERITABLE;
+
+    /**
+     * 存储租户上下文的ThreadLocal，随模式切换
+     */
+    private static volatile ThreadLocal<TenantContext> contextHolder = new InheritableThreadLocal<>();
+
+    /**
+     * 切换存储模式
+     * <p>
+     * 切换后各线程中已设置的上下文不再可见，应在应用启动时、处理请求之前设置
+     * </p>
+     *
+     * @param newMode 存储模式
+     */
+    public static synchronized void setMode(TenantContextHolderMode newMode) {
+        Objects.requireNonNull(newMode, "mode == null");
+        if (newMode == mode) {
+            return;
+        }
+        contextHolder = newMode == TenantContextHolderMode.SCOPED ? new ThreadLocal<>() : new InheritableThreadLocal<>();
+        mode = newMode;
+    }
+
+    /**
+     * 获取当前存储模式
+     *
+     * @return 存储模式
+     */
+    public static TenantContextHolderMode getMode() {
+        return mode;
+    }
+
+    /**
+     * 在指定租户上下文中执行任务，结束后恢复调用前的上下文
+     *
+     * @param context 租户上下文，为null时在无租户上下文中执行
+     * @param task    任务
      */
-    private static final InheritableThreadLocal<TenantContext> CONTEXT_HOLDER = new InheritableThreadLocal<>();
+    public static void runWithContext(TenantContext context, Runnable task) {
+        ThreadLocal<TenantContext> holder = contextHolder;
+        TenantContext previous = holder.get();
+        holder.set(context);
+        try {
+            task.run();
+        } finally {
+            restore(holder, previous);
+        }
+    }
+
+    /**
+     * 在指定租户上下文中执行任务并返回结果，结束后恢复调用前的上下文
+     *
+     * @param context 租户上下文，为null时在无租户上下文中执行
+     * @param task    任务
+     * @param <V>     返回值类型
+     * @return 任务结果
+     * @throws Exception 任务抛出的异常
+     */
+    public static <V> V callWithContext(TenantContext context, Callable<V> task) throws Exception {
+        ThreadLocal<TenantContext> holder = contextHolder;
+        TenantContext previous = holder.get();
+        holder.set(context);
+        try {
+            return task.call();
+        } finally {
+            restore(holder, previous);
+        }
+    }
+
+    private static void restore(ThreadLocal<TenantContext> holder, TenantContext previous) {
+        if (previous == null) {
+            holder.remove();
+        } else {
+            holder.set(previous);
+        }
+    }
     
     /**
      * 获取当前线程的租户上下文
@@ -23,7 +105,7 @@ public class TenantContextHolder {
      * @return 当前租户上下文，如果不存在则返回null
      */
     public static TenantContext getContext() {
-        return CONTEXT_HOLDER.get();
+        return contextHolder.get();
     }
     
     /**
@@ -32,14 +114,14 @@ public class TenantContextHolder {
      * @param context 租户上下文
      */
     public static void setContext(TenantContext context) {
-        CONTEXT_HOLDER.set(context);
+        contextHolder.set(context);
     }
     
     /**
      * 清除当前线程的租户上下文
      */
     public static void clearContext() {
-        CONTEXT_HOLDER.remove();
+        contextHolder.remove();
     }
     
     /**
@@ -0,0 +1,20 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+/**
+ * 租户上下文存储模式
+ *
+ * @author wangguangwu
+ */
+public enum TenantContextHolderMode {
+
+    /**
+     * 使用InheritableThreadLocal存储，新建线程时复制父线程的上下文
+     */
+    INHERITABLE,
+
+    /**
+     * 上下文只在 {@link TenantContextHolder#runWithContext} / {@link TenantContextHolder#callWithContext}
+     * 的调用范围内有效，结束时恢复原值；新建线程不复制上下文，跨线程需通过 {@link TenantContextPropagator} 显式传递
+     */
+    SCOPED
+}
@@ -1,13 +1,18 @@
 package com.wangguangwu.flowengine.tenant.core;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantPropagationEvent;
 
+import java.util.Objects;
 import java.util.concurrent.Callable;
 
 /**
  * 租户上下文传播器
  * <p>
- * 用于在父子线程之间传递租户上下文
+ * 用于在父子线程之间传递租户上下文。启用租户指标时，任务开始执行时记录一次传播事件：
+ * 执行线程残留了与传递的上下文不同的租户上下文时记为 {@link TenantPropagationEvent#LEAKED}。
  * </p>
  *
  * @author wangguangwu
@@ -27,6 +32,7 @@ public class TenantContextPropagator {
         return () -> {
             // 保存子线程原有的租户上下文（如果有）
             TenantContext originalContext = TenantContextHolder.getContext();
+            record(context, originalContext);
             
             try {
                 // 设置从父线程继承的租户上下文
@@ -57,6 +63,7 @@ public class TenantContextPropagator {
         return () -> {
             // 保存子线程原有的租户上下文（如果有）
             TenantContext originalContext = TenantContextHolder.getContext();
+            record(context, originalContext);
             
             try {
                 // 设置从父线程继承的租户上下文
@@ -72,4 +79,35 @@ public class TenantContextPropagator {
             }
         };
     }
+
+    /**
+     * 在执行线程上记录一次租户上下文传播，未启用租户指标时不读取当前上下文
+     *
+     * @param propagated 传递给任务的租户上下文，可能为null
+     */
+    static void record(TenantContext propagated) {
+        if (TenantMetrics.recorder().isEnabled()) {
+            record(propagated, TenantContextHolder.getContext());
+        }
+    }
+
+    /**
+     * 记录一次租户上下文传播
+     *
+     * @param propagated 传递给任务的租户上下文，可能为null
+     * @param current    任务开始时执行线程上的租户上下文，可能为null
+     */
+    static void record(TenantContext propagated, TenantContext current) {
+        TenantMetricsRecorder metrics = TenantMetrics.recorder();
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        if (current != null && !Objects.equals(current, propagated)) {
+            metrics.recordPropagation(TenantPropagationEvent.LEAKED);
+        } else if (propagated == null) {
+            metrics.recordPropagation(TenantPropagationEvent.EMPTY);
+        } else {
+            metrics.recordPropagation(TenantPropagationEvent.PROPAGATED);
+        }
+    }
 }
@@ -0,0 +1,150 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.api.TenantContextInitializer;
+import com.wangguangwu.flowengine.tenant.exception.InvalidTenantIdException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 租户上下文注册表
+ * <p>
+ * 按租户ID缓存共享的不可变租户上下文，同一租户的请求复用同一个实例，避免每次请求分配上下文和拼接租户名称。
+ * 租户ID只在首次出现时校验，缓存中保存的ID即规范实例；非法ID不会进入缓存。
+ * </p>
+ * <p>
+ * 命中路径只有一次 {@link ConcurrentHashMap#get} 和一次访问标记，不读取时钟；
+ * 新租户加入前由 {@link ClockSweeper} 淘汰空闲租户。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantContextRegistry implements TenantContextInitializer {
+
+    /**
+     * 默认最大缓存租户数
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 默认空闲过期时间
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(30);
+
+    /**
+     * 租户ID最大长度
+     */
+    public static final int MAX_TENANT_ID_LENGTH = 64;
+
+    private final String systemTenantId;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ClockSweeper<String, Entry> sweeper;
+
+    /**
+     * 使用默认容量和过期时间创建注册表
+     *
+     * @param systemTenantId 系统租户ID，可以为null
+     */
+    public TenantContextRegistry(String systemTenantId) {
+        this(systemTenantId, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_ACCESS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param systemTenantId    系统租户ID，可以为null
+     * @param maximumSize       最大缓存租户数
+     * @param expireAfterAccess 空闲过期时间
+     */
+    public TenantContextRegistry(String systemTenantId, long maximumSize, Duration expireAfterAccess) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.systemTenantId = systemTenantId;
+        this.sweeper = new ClockSweeper<>(entries, maximumSize, expireAfterAccess, entry -> true);
+    }
+
+    /**
+     * 获取租户的共享上下文
+     *
+     * @param tenantId 租户ID
+     * @return 租户上下文
+     * @throws InvalidTenantIdException 租户ID非法
+     */
+    @Override
+    public TenantContext initializeContext(String tenantId) {
+        if (tenantId == null) {
+            throw new InvalidTenantIdException("Tenant id is null");
+        }
+        Entry entry = entries.get(tenantId);
+        if (entry == null) {
+            validate(tenantId);
+            sweeper.sweepIfNeeded();
+            Entry created = new Entry(create(tenantId));
+            entry = entries.putIfAbsent(tenantId, created);
+            if (entry == null) {
+                return created.context;
+            }
+        }
+        entry.markAccessed();
+        return entry.context;
+    }
+
+    /**
+     * 移除指定租户的缓存上下文
+     *
+     * @param tenantId 租户ID
+     */
+    public void invalidate(String tenantId) {
+        entries.remove(tenantId);
+    }
+
+    /**
+     * 当前缓存的租户数
+     *
+     * @return 缓存的租户数
+     */
+    public long size() {
+        return entries.size();
+    }
+
+    private TenantContext create(String tenantId) {
+        if (tenantId.equals(systemTenantId)) {
+            return DefaultTenantContext.createSystemTenant(tenantId);
+        }
+        return DefaultTenantContext.create(tenantId);
+    }
+    /**
+     * 校验租户ID：非空、长度不超过 {@link #MAX_TENANT_ID_LENGTH}，只包含字母、数字、'-'、'_'、'.'
+     *
+     * @param tenantId 租户ID
+     * @throws InvalidTenantIdException 租户ID非法
+     */
+    public static void validate(String tenantId) {
+        int length = tenantId.length();
+        if (length == 0 || length > MAX_TENANT_ID_LENGTH) {
+            throw new InvalidTenantIdException("Tenant id length must be between 1 and " + MAX_TENANT_ID_LENGTH);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = tenantId.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            if (!valid) {
+                throw new InvalidTenantIdException("Tenant id contains illegal character at index " + i);
+            }
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    private static final class Entry extends ClockSweeper.Entry {
+        private final TenantContext context;
+
+        private Entry(TenantContext context) {
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 租户上下文快照
+ * <p>
+ * 提交任务时只读取一次当前线程的租户上下文，之后同一次提交的所有任务共享这个不可变快照。
+ * 任务执行时绑定快照中的上下文，结束后恢复执行线程原有的上下文，而不是直接清除。
+ * 传播事件按 {@link TenantContextPropagator} 的规则记录。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantContextSnapshot {
+
+    private static final TenantContextSnapshot EMPTY = new TenantContextSnapshot(null);
+
+    private final TenantContext context;
+
+    private TenantContextSnapshot(TenantContext context) {
+        this.context = context;
+    }
+
+    /**
+     * 捕获当前线程的租户上下文
+     *
+     * @return 快照，当前线程没有租户上下文时返回共享的空快照
+     */
+    public static TenantContextSnapshot capture() {
+        TenantContext context = TenantContextHolder.getContext();
+        return context == null ? EMPTY : new TenantContextSnapshot(context);
+    }
+
+    /**
+     * 获取快照中的租户上下文
+     *
+     * @return 租户上下文，可能为null
+     */
+    public TenantContext getContext() {
+        return context;
+    }
+
+    /**
+     * 包装Runnable
+     *
+     * @param task 原始任务
+     * @return 在快照上下文中执行的任务
+     */
+    public Runnable wrap(Runnable task) {
+        return new ContextRunnable(this, task);
+    }
+
+    /**
+     * 包装Callable
+     *
+     * @param task 原始任务
+     * @param <V>  返回值类型
+     * @return 在快照上下文中执行的任务
+     */
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return new ContextCallable<>(this, task);
+    }
+
+    /**
+     * 批量包装Callable，所有任务共享同一个快照
+     *
+     * @param tasks 原始任务
+     * @param <V>   返回值类型
+     * @return 包装后的任务
+     */
+    public <V> List<Callable<V>> wrapAll(Collection<? extends Callable<V>> tasks) {
+        List<Callable<V>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<V> task : tasks) {
+            wrapped.add(wrap(task));
+        }
+        return wrapped;
+    }
+
+    private record ContextRunnable(TenantContextSnapshot snapshot, Runnable task) implements Runnable {
+        @Override
+        public void run() {
+            TenantContextPropagator.record(snapshot.context);
+            TenantContextHolder.runWithContext(snapshot.context, task);
+        }
+    }
+
+    private record ContextCallable<V>(TenantContextSnapshot snapshot, Callable<V> task) implements Callable<V> {
+        @Override
+        public V call() throws Exception {
+            TenantContextPropagator.record(snapshot.context);
+            return TenantContextHolder.callWithContext(snapshot.context, task);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.spi.loader.DefaultExtensionLoader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionReloadListener;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 租户扩展解析缓存
+ * <p>
+ * 以 (租户ID, 扩展点类型, 扩展名) 为键在一个 {@link ConcurrentHashMap} 中缓存租户级扩展的解析结果。
+ * 命中路径是一次 {@link ConcurrentHashMap#get}、一次访问标记和一次重载代数比较，不读取时钟。
+ * </p>
+ * <p>
+ * 扩展点重新加载时递增重载代数并清除该扩展点的缓存；解析结果带有解析开始时的代数，
+ * 与重新加载并发完成的旧结果即使写入缓存，也会因代数过期在下次访问时重新解析，且不会覆盖更新的结果。
+ * </p>
+ * <p>
+ * 新的解析结果加入前由 {@link ClockSweeper} 淘汰空闲条目。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantExtensionCache implements ExtensionReloadListener, AutoCloseable {
+
+    /**
+     * 默认最大缓存条目数
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 默认空闲过期时间
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(30);
+
+    private final ConcurrentMap<Key, Resolved> entries = new ConcurrentHashMap<>();
+    private final ClockSweeper<Key, Resolved> sweeper;
+    private final Map<Class<?>, TenantExtensionLoader<?>> loaders = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * 使用默认容量和过期时间创建缓存
+     */
+    public TenantExtensionCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_ACCESS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maximumSize       最大缓存条目数
+     * @param expireAfterAccess 空闲过期时间
+     */
+    public TenantExtensionCache(long maximumSize, Duration expireAfterAccess) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.sweeper = new ClockSweeper<>(entries, maximumSize, expireAfterAccess, resolved -> true);
+        DefaultExtensionLoader.addReloadListener(this);
+    }
+
+    /**
+     * 获取指定扩展点的租户感知加载器
+     *
+     * @param type 扩展点类型
+     * @param <T>  扩展点类型
+     * @return 租户感知加载器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ExtensionLoader<T> getExtensionLoader(Class<T> type) {
+        return (ExtensionLoader<T>) loaders.computeIfAbsent(type,
+                k -> new TenantExtensionLoader<>(type, SPILoader.getExtensionLoader(type), this));
+    }
+
+    /**
+     * 清除指定扩展点的全部缓存
+     *
+     * @param type 扩展点类型
+     */
+    public void invalidate(Class<?> type) {
+        // 先递增代数，之后写入的旧解析结果都已过期
+        epoch.incrementAndGet();
+        entries.keySet().removeIf(key -> key.type() == type);
+    }
+
+    @Override
+    public void onReload(Class<?> type) {
+        invalidate(type);
+    }
+
+    /**
+     * 停止监听扩展重新加载
+     */
+    @Override
+    public void close() {
+        DefaultExtensionLoader.removeReloadListener(this);
+    }
+
+    /**
+     * 当前缓存条目数
+     *
+     * @return 缓存条目数
+     */
+    public long size() {
+        return entries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Supplier<T> get(String tenantId, Class<T> type, String name,
+                        BiFunction<String, String, Supplier<T>> resolver) {
+        Key key = new Key(tenantId, type, name);
+        long current = epoch.get();
+        Resolved resolved = entries.get(key);
+        if (resolved != null) {
+            resolved.markAccessed();
+            if (resolved.epoch == current) {
+                return (Supplier<T>) resolved.supplier;
+            }
+        } else {
+            sweeper.sweepIfNeeded();
+        }
+        // 在映射外解析，使扩展不存在等异常原样抛出；并发解析时保留代数更新的结果
+        Resolved fresh = new Resolved(current, resolver.apply(tenantId, name));
+        return (Supplier<T>) entries.merge(key, fresh,
+                (existing, candidate) -> existing.epoch >= candidate.epoch ? existing : candidate).supplier;
+    }
+
+    /**
+     * 缓存键
+     */
+    private record Key(String tenantId, Class<?> type, String name) {
+    }
+
+    /**
+     * 解析结果及解析开始时的重载代数
+     */
+    private static final class Resolved extends ClockSweeper.Entry {
+        private final long epoch;
+        private final Supplier<?> supplier;
+
+        private Resolved(long epoch, Supplier<?> supplier) {
+            this.epoch = epoch;
+            this.supplier = supplier;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+import com.wangguangwu.flowengine.spi.loader.ActivateCondition;
+import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 租户感知的扩展加载器
+ * <p>
+ * 按当前租户解析扩展：先查找名为 {@code <租户ID>:<扩展名>} 的租户专属实现，不存在时回退到全局实现。
+ * 解析结果缓存在 {@link TenantExtensionCache} 中，没有租户上下文时直接委托全局加载器。
+ * </p>
+ *
+ * @param <T> 扩展点类型
+ * @author wangguangwu
+ */
+public class TenantExtensionLoader<T> implements ExtensionLoader<T> {
+
+    /**
+     * 租户ID与扩展名的分隔符
+     */
+    public static final char TENANT_SEPARATOR = ':';
+
+    /**
+     * 默认扩展名
+     */
+    private static final String DEFAULT_NAME = "default";
+
+    private final Class<T> type;
+    private final ExtensionLoader<T> delegate;
+    private final TenantExtensionCache cache;
+    private final boolean singleton;
+    private final BiFunction<String, String, Supplier<T>> resolver = this::resolve;
+    private final BiFunction<String, String, Supplier<T>> defaultResolver = this::resolveDefault;
+
+    /**
+     * 构造函数
+     *
+     * @param type     扩展点类型
+     * @param delegate 全局扩展加载器
+     * @param cache    租户扩展解析缓存
+     */
+    public TenantExtensionLoader(Class<T> type, ExtensionLoader<T> delegate, TenantExtensionCache cache) {
+        this.type = type;
+        this.delegate = delegate;
+        this.cache = cache;
+        SPI spi = type.getAnnotation(SPI.class);
+        this.singleton = spi == null || spi.singleton();
+    }
+
+    @Override
+    public T getExtension(String name) {
+        String tenantId = TenantContextHolder.getCurrentTenantId();
+        if (tenantId == null) {
+            return delegate.getExtension(name);
+        }
+        return cache.get(tenantId, type, name, resolver).get();
+    }
+
+    @Override
+    public T getDefaultExtension() {
+        String tenantId = TenantContextHolder.getCurrentTenantId();
+        if (tenantId == null) {
+            return delegate.getDefaultExtension();
+        }
+        return cache.get(tenantId, type, DEFAULT_NAME, defaultResolver).get();
+    }
+
+    @Override
+    public boolean hasExtension(String name) {
+        String tenantId = TenantContextHolder.getCurrentTenantId();
+        return (tenantId != null && delegate.hasExtension(tenantId + TENANT_SEPARATOR + name)) || delegate.hasExtension(name);
+    }
+
+    @Override
+    public List<T> getActivatedExtensions(ActivateCondition condition) {
+        return delegate.getActivatedExtensions(condition);
+    }
+
+    private Supplier<T> resolve(String tenantId, String name) {
+        String tenantName = tenantId + TENANT_SEPARATOR + name;
+        return toSupplier(delegate.hasExtension(tenantName) ? tenantName : name);
+    }
+
+    private Supplier<T> resolveDefault(String tenantId, String name) {
+        String tenantName = tenantId + TENANT_SEPARATOR + name;
+        if (delegate.hasExtension(tenantName)) {
+            return toSupplier(tenantName);
+        }
+        return singleton ? constant(delegate.getDefaultExtension()) : delegate::getDefaultExtension;
+    }
+
+    private Supplier<T> toSupplier(String name) {
+        if (singleton) {
+            return constant(delegate.getExtension(name));
+        }
+        return () -> delegate.getExtension(name);
+    }
+
+    private static <T> Supplier<T> constant(T instance) {
+        return () -> instance;
+    }
+}
@@ -0,0 +1,61 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
+
+/**
+ * 租户访问检查
+ * <p>
+ * 编译期生成的租户强制子类在每个 {@link TenantAware} 方法入口直接调用 {@link #check}，
+ * 不经过代理和连接点，检查内容与 {@code TenantAwareAspect} 一致，但不修改租户上下文。
+ * 生成类与原类位于同一个包，类名为 {@code TenantEnforced_} 加上原类的嵌套类名（以 {@code _} 连接）。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantGuard {
+
+    /**
+     * 生成类的类名前缀
+     */
+    public static final String ENFORCED_CLASS_PREFIX = "TenantEnforced_";
+
+    private TenantGuard() {}
+
+    /**
+     * 检查当前线程的租户上下文
+     *
+     * @param required          是否必须有租户上下文
+     * @param allowSystemTenant 是否允许系统租户
+     * @param method            方法描述，用于异常信息
+     * @throws TenantNotFoundException 要求租户上下文但不存在
+     * @throws IllegalStateException   不允许系统租户但当前为系统租户
+     */
+    public static void check(boolean required, boolean allowSystemTenant, String method) {
+        TenantContext context = TenantContextHolder.getContext();
+        if (context == null) {
+            if (required) {
+                TenantMetrics.recorder().recordRejection(null, TenantRejectionReason.MISSING_TENANT);
+                throw new TenantNotFoundException("租户上下文不存在，但方法要求必须有租户上下文: " + method);
+            }
+        } else if (!allowSystemTenant && context.systemTenant()) {
+            TenantMetrics.recorder().recordRejection(context.tenantId(), TenantRejectionReason.SYSTEM_TENANT);
+            throw new IllegalStateException("方法不允许系统租户访问: " + method);
+        }
+    }
+
+    /**
+     * 计算类对应的租户强制生成类名
+     *
+     * @param className 原类的二进制名，例如 {@code demo.Outer$Inner}
+     * @return 生成类的二进制名，例如 {@code demo.TenantEnforced_Outer_Inner}
+     */
+    public static String enforcedClassName(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        String packagePrefix = className.substring(0, packageEnd + 1);
+        return packagePrefix + ENFORCED_CLASS_PREFIX + className.substring(packageEnd + 1).replace('$', '_');
+    }
+}
@@ -0,0 +1,27 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+import java.sql.Connection;
+
+/**
+ * 独立数据库策略
+ * <p>
+ * 每个租户使用由 {@link TenantDataSourceFactory} 创建的独立数据源，连接不做额外处理
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Extension(value = DatabaseTenantRoutingStrategy.NAME, order = 100)
+public class DatabaseTenantRoutingStrategy implements TenantRoutingStrategy {
+
+    /**
+     * 策略名称
+     */
+    public static final String NAME = "database";
+
+    @Override
+    public Connection prepare(Connection connection, String tenantId, TenantRoutingSettings settings) {
+        return connection;
+    }
+}
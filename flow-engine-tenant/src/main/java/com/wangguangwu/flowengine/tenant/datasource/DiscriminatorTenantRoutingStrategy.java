@@ -0,0 +1,163 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 共享表策略
+ * <p>
+ * 租户共享数据源和表，通过租户列区分数据。借出的连接在创建语句和执行SQL时由 {@link TenantSqlRewriter}
+ * 追加租户条件，改写模板按 (SQL, 租户列) 缓存，同一条SQL只解析一次。无法安全改写的SQL和存储过程调用直接拒绝
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Extension(value = DiscriminatorTenantRoutingStrategy.NAME, order = 300)
+public class DiscriminatorTenantRoutingStrategy implements TenantRoutingStrategy {
+
+    /**
+     * 策略名称
+     */
+    public static final String NAME = "discriminator";
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+    /**
+     * 需要继续代理的返回类型，它们都能取回所属连接
+     */
+    private static final Set<Class<?>> WRAPPED_TYPES =
+            Set.of(Statement.class, PreparedStatement.class, ResultSet.class, DatabaseMetaData.class);
+
+    private final ConcurrentMap<String, TenantSqlRewriter> rewriters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean sharedDataSource() {
+        return true;
+    }
+
+    @Override
+    public Connection prepare(Connection connection, String tenantId, TenantRoutingSettings settings) {
+        // 租户ID以字面量写入SQL，必须先校验
+        TenantContextRegistry.validate(tenantId);
+        TenantSqlRewriter rewriter =
+                rewriters.computeIfAbsent(settings.discriminatorColumn(), TenantSqlRewriter::new);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new RewritingHandler(connection, rewriter, tenantId));
+    }
+
+    /**
+     * 获取租户列对应的SQL改写器
+     *
+     * @param column 租户列名
+     * @return SQL改写器，尚未使用时返回null
+     */
+    public TenantSqlRewriter getRewriter(String column) {
+        return rewriters.get(column);
+    }
+
+    /**
+     * 改写连接及其语句上传入的SQL
+     * <p>
+     * 从改写连接派生的语句、结果集和数据库元数据同样被代理：{@code getConnection}、{@code getStatement}
+     * 只返回代理，{@code unwrap} 只能得到代理本身，不能取得底层对象绕过改写
+     * </p>
+     */
+    private static final class RewritingHandler implements InvocationHandler {
+        private final Object target;
+        private final TenantSqlRewriter rewriter;
+        private final String tenantId;
+        /**
+         * 改写连接，代理连接本身时为null
+         */
+        private final Connection connection;
+        /**
+         * 结果集所属的语句代理，其他对象或元数据结果集为null
+         */
+        private final Object statement;
+
+        private RewritingHandler(Connection target, TenantSqlRewriter rewriter, String tenantId) {
+            this(target, rewriter, tenantId, null, null);
+        }
+
+        private RewritingHandler(Object target, TenantSqlRewriter rewriter, String tenantId, Connection connection,
+                                 Object statement) {
+            this.target = target;
+            this.rewriter = rewriter;
+            this.tenantId = tenantId;
+            this.connection = connection;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int parameterCount = method.getParameterCount();
+            if ("equals".equals(name) && parameterCount == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && parameterCount == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("unwrap".equals(name) && parameterCount == 1) {
+                Class<?> type = (Class<?>) args[0];
+                if (type.isInstance(proxy)) {
+                    return proxy;
+                }
+                throw new SQLException("Cannot unwrap tenant-rewriting " + method.getDeclaringClass().getSimpleName()
+                        + " to " + type.getName());
+            }
+            if ("isWrapperFor".equals(name) && parameterCount == 1) {
+                return ((Class<?>) args[0]).isInstance(proxy);
+            }
+            Connection owner = connection == null ? (Connection) proxy : connection;
+            if ("getConnection".equals(name) && parameterCount == 0) {
+                return owner;
+            }
+            if (proxy instanceof ResultSet && "getStatement".equals(name) && parameterCount == 0) {
+                return statement;
+            }
+            if (proxy instanceof Connection) {
+                if ("prepareCall".equals(name)) {
+                    throw new SQLFeatureNotSupportedException("Stored procedures are not supported for shared tables");
+                }
+                rewriteSql(PREPARE_METHODS, name, args);
+            } else if (proxy instanceof Statement) {
+                rewriteSql(EXECUTE_METHODS, name, args);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> type = method.getReturnType();
+            if (result != null && WRAPPED_TYPES.contains(type)) {
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new RewritingHandler(
+                        result, rewriter, tenantId, owner, proxy instanceof Statement ? proxy : null));
+            }
+            return result;
+        }
+
+        private void rewriteSql(Set<String> methods, String name, Object[] args) throws SQLException {
+            if (methods.contains(name) && args != null && args.length > 0 && args[0] instanceof String sql) {
+                args[0] = rewriter.rewrite(sql, tenantId);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * 基于 HikariCP 的租户数据源工厂
+ * <p>
+ * 按JDBC URL模板为每个租户创建连接池，模板中的 {@value #TENANT_PLACEHOLDER} 替换为租户ID。
+ * 连接池不保留最小空闲连接，空闲连接在 {@code idleTimeout} 后释放；创建时不建立连接。
+ * 租户连接池的最大连接数随路由数据源分配的连接额度增长，不超过 {@code maximumPoolSize}。
+ * 所有连接池共享一个维护线程，避免每个租户各占一个线程
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class HikariTenantDataSourceFactory implements TenantDataSourceFactory, AutoCloseable {
+
+    /**
+     * URL模板中的租户ID占位符
+     */
+    public static final String TENANT_PLACEHOLDER = "{tenant}";
+
+    private final String urlTemplate;
+    private final String username;
+    private final String password;
+    private final int maximumPoolSize;
+    private final Duration idleTimeout;
+    private final Duration connectionTimeout;
+    private final ScheduledThreadPoolExecutor housekeeper;
+
+    /**
+     * 构造函数
+     *
+     * @param urlTemplate       JDBC URL模板，例如 {@code jdbc:h2:mem:{tenant}}，为null时只能创建共享数据源
+     * @param username          用户名，可以为null
+     * @param password          密码，可以为null
+     * @param maximumPoolSize   单个租户连接池的最大连接数
+     * @param idleTimeout       空闲连接的释放时间
+     * @param connectionTimeout 获取连接的超时时间
+     */
+    public HikariTenantDataSourceFactory(String urlTemplate, String username, String password,
+                                         int maximumPoolSize, Duration idleTimeout, Duration connectionTimeout) {
+        if (urlTemplate != null && !urlTemplate.contains(TENANT_PLACEHOLDER)) {
+            throw new IllegalArgumentException("urlTemplate must contain " + TENANT_PLACEHOLDER);
+        }
+        this.urlTemplate = urlTemplate;
+        this.username = username;
+        this.password = password;
+        this.maximumPoolSize = maximumPoolSize;
+        this.idleTimeout = idleTimeout;
+        this.connectionTimeout = connectionTimeout;
+        this.housekeeper = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tenant-datasource-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public DataSource create(String tenantId) {
+        if (urlTemplate == null) {
+            throw new IllegalStateException("No urlTemplate configured for tenant " + tenantId);
+        }
+        return create("tenant-" + tenantId, urlTemplate.replace(TENANT_PLACEHOLDER, tenantId), maximumPoolSize);
+    }
+
+    @Override
+    public int limitConnections(DataSource dataSource, int limit) {
+        int applied = Math.min(limit, maximumPoolSize);
+        ((HikariDataSource) dataSource).getHikariConfigMXBean().setMaximumPoolSize(applied);
+        return applied;
+    }
+
+    /**
+     * 创建使用相同账号和超时配置的连接池，用于所有租户共享的数据源
+     *
+     * @param poolName        连接池名称
+     * @param jdbcUrl         JDBC URL
+     * @param maximumPoolSize 最大连接数
+     * @return 连接池
+     */
+    public HikariDataSource create(String poolName, String jdbcUrl, int maximumPoolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(idleTimeout.toMillis());
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        config.setInitializationFailTimeout(-1);
+        config.setScheduledExecutor(housekeeper);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 停止共享的维护线程，应在所有租户连接池关闭之后调用
+     */
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+    }
+}
@@ -0,0 +1,36 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 独立schema策略
+ * <p>
+ * 租户共享一个数据源和连接池，借出连接时通过 {@link Connection#setSchema(String)} 切换到租户的schema，
+ * 不重新建立连接。连接归还时需要由连接池恢复默认schema，HikariCP会自动恢复被修改过的schema
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Extension(value = SchemaTenantRoutingStrategy.NAME, order = 200)
+public class SchemaTenantRoutingStrategy implements TenantRoutingStrategy {
+
+    /**
+     * 策略名称
+     */
+    public static final String NAME = "schema";
+
+    @Override
+    public boolean sharedDataSource() {
+        return true;
+    }
+
+    @Override
+    public Connection prepare(Connection connection, String tenantId, TenantRoutingSettings settings)
+            throws SQLException {
+        connection.setSchema(settings.schemaOf(tenantId));
+        return connection;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * 租户数据源工厂
+ * <p>
+ * 由 {@link TenantRoutingDataSource} 在租户首次获取连接时调用。返回的数据源如果实现了 {@link AutoCloseable}，
+ * 租户连接池被淘汰或路由数据源关闭时会调用其 {@code close} 方法
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@FunctionalInterface
+public interface TenantDataSourceFactory {
+
+    /**
+     * 创建租户数据源
+     *
+     * @param tenantId 租户ID
+     * @return 租户数据源
+     */
+    DataSource create(String tenantId);
+
+    /**
+     * 把租户数据源的最大物理连接数限制为其占用的连接额度
+     * <p>
+     * 路由数据源在租户占用的额度增加时调用，额度只增不减，数据源关闭时一并归还。
+     * 默认实现不做限制，此时空闲的物理连接数只由数据源自身的配置约束
+     * </p>
+     *
+     * @param dataSource 由 {@link #create(String)} 创建的租户数据源
+     * @param limit      租户占用的连接额度
+     * @return 实际生效的最大连接数，小于 {@code limit} 表示已达到数据源自身的上限，不再占用新的额度
+     */
+    default int limitConnections(DataSource dataSource, int limit) {
+        return limit;
+    }
+}
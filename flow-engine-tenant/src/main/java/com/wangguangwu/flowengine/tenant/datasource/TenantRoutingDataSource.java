@@ -0,0 +1,446 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+import com.wangguangwu.flowengine.tenant.core.ClockSweeper;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 租户路由数据源
+ * <p>
+ * 按 {@link #determineCurrentLookupKey()}（默认为当前租户ID）路由连接，租户数据源在首次获取连接时
+ * 通过 {@link TenantDataSourceFactory} 创建。没有租户上下文时使用默认数据源，未配置默认数据源则抛出
+ * {@link TenantNotFoundException}。
+ * </p>
+ * <p>
+ * 每个租户按 {@link TenantRoutingSettings} 选择 {@link TenantRoutingStrategy}：{@code database} 使用租户独立的数据源，
+ * {@code schema} 和 {@code discriminator} 使用共享数据源，分别切换schema和改写SQL。
+ * </p>
+ * <p>
+ * 所有租户共享 {@code maxTotalConnections} 个连接额度，限制的是物理连接数而不只是借出的连接数：
+ * 租户数据源的并发借出数超过已占用的额度时再占用一个，并通过 {@link TenantDataSourceFactory#limitConnections}
+ * 把数据源的最大连接数限制为占用的额度，空闲的物理连接继续占用额度，数据源关闭时才归还。
+ * 额度耗尽时先关闭没有借出连接的租户数据源回收额度，仍无法获得额度则等待 {@code connectionTimeout}
+ * 后抛出 {@link SQLTransientConnectionException}；共享数据源的连接借出时占用额度、关闭时归还。
+ * 创建新的租户数据源前由 {@link ClockSweeper} 淘汰空闲的租户数据源，仍有连接借出的数据源不会被关闭。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    /**
+     * 额度耗尽时重新检查可回收数据源的间隔
+     */
+    private static final long RECLAIM_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TenantDataSourceFactory factory;
+    private final long connectionTimeoutNanos;
+    private final Semaphore permits;
+    private final int maxTotalConnections;
+    private final AtomicInteger borrowedConnections = new AtomicInteger();
+    private final ConcurrentMap<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final ClockSweeper<String, TenantPool> sweeper;
+    private volatile boolean closed;
+    private DataSource defaultDataSource;
+    private DataSource sharedDataSource;
+    private TenantRoutingSettings settings = TenantRoutingSettings.ofDefaults();
+    private Map<String, TenantRoutingStrategy> strategies = Map.of(DatabaseTenantRoutingStrategy.NAME,
+            SPILoader.getExtension(TenantRoutingStrategy.class, DatabaseTenantRoutingStrategy.NAME));
+
+    /**
+     * 构造函数
+     *
+     * @param factory             租户数据源工厂
+     * @param maxDataSources      同时保留的最大租户数据源数
+     * @param idleTimeout         租户数据源的空闲淘汰时间
+     * @param maxTotalConnections 所有租户的最大物理连接数
+     * @param connectionTimeout   等待连接额度的超时时间
+     */
+    public TenantRoutingDataSource(TenantDataSourceFactory factory, int maxDataSources, Duration idleTimeout,
+                                   int maxTotalConnections, Duration connectionTimeout) {
+        if (maxDataSources <= 0) {
+            throw new IllegalArgumentException("maxDataSources must be positive");
+        }
+        if (maxTotalConnections <= 0) {
+            throw new IllegalArgumentException("maxTotalConnections must be positive");
+        }
+        this.factory = factory;
+        this.sweeper = new ClockSweeper<>(pools, maxDataSources, idleTimeout, TenantPool::tryRetire);
+        this.maxTotalConnections = maxTotalConnections;
+        this.connectionTimeoutNanos = connectionTimeout.toNanos();
+        this.permits = new Semaphore(maxTotalConnections);
+    }
+
+    /**
+     * 设置没有租户上下文时使用的默认数据源，默认数据源的连接不占用连接额度
+     *
+     * @param defaultDataSource 默认数据源，可以为null
+     */
+    public void setDefaultDataSource(DataSource defaultDataSource) {
+        this.defaultDataSource = defaultDataSource;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Tenant routing data source is closed");
+        }
+        String tenantId = determineCurrentLookupKey();
+        if (tenantId == null) {
+            if (defaultDataSource == null) {
+                throw new TenantNotFoundException("租户上下文不存在，无法路由数据源");
+            }
+            return defaultDataSource.getConnection();
+        }
+        TenantRoutingStrategy strategy = strategyOf(tenantId);
+        Connection connection = strategy.sharedDataSource() ? borrowShared(tenantId) : borrowDedicated(tenantId);
+        try {
+            return strategy.prepare(connection, tenantId, settings);
+        } catch (SQLException | RuntimeException e) {
+            // 关闭借出的连接会归还租户数据源或共享数据源的额度
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 设置路由配置，配置中的策略名称必须都是已注册的 {@link TenantRoutingStrategy} 扩展
+     *
+     * @param settings 路由配置
+     */
+    public void setRoutingSettings(TenantRoutingSettings settings) {
+        Map<String, TenantRoutingStrategy> resolved = new HashMap<>();
+        resolved.put(settings.defaultStrategy(),
+                SPILoader.getExtension(TenantRoutingStrategy.class, settings.defaultStrategy()));
+        for (String name : settings.tenantStrategies().values()) {
+            resolved.computeIfAbsent(name, key -> SPILoader.getExtension(TenantRoutingStrategy.class, key));
+        }
+        this.strategies = resolved;
+        this.settings = settings;
+    }
+
+    /**
+     * 设置共享数据源，供使用共享数据源的路由策略使用，路由数据源关闭时一并关闭
+     *
+     * @param sharedDataSource 共享数据源
+     */
+    public void setSharedDataSource(DataSource sharedDataSource) {
+        this.sharedDataSource = sharedDataSource;
+    }
+
+    /**
+     * 租户数据源的账号由 {@link TenantDataSourceFactory} 配置，不支持按调用指定
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Tenant data source credentials are configured by the factory");
+    }
+
+    /**
+     * 确定当前路由键
+     *
+     * @return 当前租户ID，没有租户上下文时返回null
+     */
+    protected String determineCurrentLookupKey() {
+        return TenantContextHolder.getCurrentTenantId();
+    }
+
+    /**
+     * 关闭并移除指定租户的数据源，已借出的连接仍可使用到关闭为止
+     *
+     * @param tenantId 租户ID
+     */
+    public void evict(String tenantId) {
+        TenantPool pool = pools.remove(tenantId);
+        if (pool != null) {
+            pool.retireWhenIdle();
+        }
+    }
+
+    /**
+     * 当前保留的租户数据源数
+     *
+     * @return 租户数据源数
+     */
+    public int getDataSourceCount() {
+        return pools.size();
+    }
+
+    /**
+     * 当前所有租户借出的连接数
+     *
+     * @return 借出的连接数
+     */
+    public int getBorrowedConnections() {
+        return borrowedConnections.get();
+    }
+
+    /**
+     * 当前占用的连接额度，即租户数据源和共享数据源借出连接的物理连接数上限
+     *
+     * @return 占用的连接额度
+     */
+    public int getReservedConnections() {
+        return maxTotalConnections - permits.availablePermits();
+    }
+
+    /**
+     * 关闭所有租户数据源
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (String tenantId : pools.keySet()) {
+            evict(tenantId);
+        }
+        if (sharedDataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // 关闭失败不影响租户数据源的关闭
+            }
+        }
+    }
+
+    private void acquirePermit(String tenantId) throws SQLException {
+        long deadline = System.nanoTime() + connectionTimeoutNanos;
+        try {
+            while (!permits.tryAcquire()) {
+                // 额度被其他租户空闲的物理连接占用时，关闭没有借出连接的数据源归还额度
+                if (reclaimIdle()) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLTransientConnectionException("Tenant connection limit " + maxTotalConnections
+                            + " reached, tenant " + tenantId + " timed out waiting for a connection");
+                }
+                if (permits.tryAcquire(Math.min(remaining, RECLAIM_INTERVAL_NANOS), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a tenant connection", e);
+        }
+    }
+
+    private boolean reclaimIdle() {
+        Iterator<TenantPool> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            TenantPool pool = iterator.next();
+            if (pool.reserved > 0 && pool.tryRetire()) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TenantRoutingStrategy strategyOf(String tenantId) {
+        return strategies.get(settings.strategyOf(tenantId));
+    }
+
+    private Connection borrowShared(String tenantId) throws SQLException {
+        if (sharedDataSource == null) {
+            throw new SQLException("No shared data source configured for tenant " + tenantId);
+        }
+        acquirePermit(tenantId);
+        try {
+            return wrap(sharedDataSource.getConnection(), null);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection borrowDedicated(String tenantId) throws SQLException {
+        TenantPool pool = borrow(tenantId);
+        try {
+            reserve(pool, tenantId);
+            return wrap(pool.dataSource.getConnection(), pool);
+        } catch (SQLException | RuntimeException e) {
+            pool.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 借出数超过占用的额度时为租户数据源再占用一个额度，数据源已达到自身的最大连接数时不再占用；
+     * 在锁外等待额度，避免同一租户的其他借出在等待期间阻塞在锁上，获得额度后在锁内重新检查，不需要时归还
+     */
+    private void reserve(TenantPool pool, String tenantId) throws SQLException {
+        if (!pool.needsPermit()) {
+            return;
+        }
+        acquirePermit(tenantId);
+        boolean used = false;
+        try {
+            synchronized (pool) {
+                if (pool.needsPermit()) {
+                    int limit = factory.limitConnections(pool.dataSource, pool.reserved + 1);
+                    if (limit > pool.reserved) {
+                        pool.reserved++;
+                        used = true;
+                    } else {
+                        pool.full = true;
+                    }
+                }
+            }
+        } finally {
+            if (!used) {
+                permits.release();
+            }
+        }
+    }
+
+    private TenantPool borrow(String tenantId) {
+        while (true) {
+            TenantPool pool = pools.get(tenantId);
+            if (pool == null) {
+                sweeper.sweepIfNeeded();
+                pool = pools.computeIfAbsent(tenantId, id -> new TenantPool(factory.create(id)));
+            }
+            // 淘汰与借出竞争时，已淘汰的数据源不再借出，重新查找
+            if (pool.tryBorrow()) {
+                return pool;
+            }
+        }
+    }
+
+    private Connection wrap(Connection connection, TenantPool pool) {
+        borrowedConnections.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new BorrowedConnection(connection, pool));
+    }
+
+    /**
+     * 租户数据源及其借出计数，计数为-1表示已关闭；{@code reserved} 是数据源占用的连接额度，只在持有锁时增加
+     */
+    private final class TenantPool extends ClockSweeper.Entry {
+        private final DataSource dataSource;
+        private final AtomicInteger borrowed = new AtomicInteger();
+        private volatile int reserved;
+        private volatile boolean full;
+        private volatile boolean retiring;
+
+        private TenantPool(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean tryBorrow() {
+            int current;
+            do {
+                current = borrowed.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!borrowed.compareAndSet(current, current + 1));
+            markAccessed();
+            return true;
+        }
+
+        private void release() {
+            // 主动淘汰时等待最后一个借出的连接归还后关闭
+            if (borrowed.decrementAndGet() == 0 && retiring && borrowed.compareAndSet(0, -1)) {
+                closeQuietly();
+            }
+        }
+
+        private boolean needsPermit() {
+            return !full && borrowed.get() > reserved;
+        }
+
+        private boolean tryRetire() {
+            if (borrowed.compareAndSet(0, -1)) {
+                closeQuietly();
+                return true;
+            }
+            return false;
+        }
+
+        private void retireWhenIdle() {
+            retiring = true;
+            tryRetire();
+        }
+
+        private void closeQuietly() {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // 淘汰的数据源关闭失败不影响其他租户
+                }
+            }
+            // 借出计数为-1后不会再占用额度
+            permits.release(reserved);
+        }
+    }
+
+    /**
+     * 借出的连接，关闭时归还租户数据源的借出计数；共享数据源的连接没有对应的租户数据源，关闭时归还连接额度
+     */
+    private final class BorrowedConnection implements InvocationHandler {
+        private final Connection target;
+        private final TenantPool pool;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private BorrowedConnection(Connection target, TenantPool pool) {
+            this.target = target;
+            this.pool = pool;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("close".equals(name) && method.getParameterCount() == 0) {
+                try {
+                    target.close();
+                } finally {
+                    if (returned.compareAndSet(false, true)) {
+                        borrowedConnections.decrementAndGet();
+                        if (pool != null) {
+                            pool.release();
+                        } else {
+                            permits.release();
+                        }
+                    }
+                }
+                return null;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import java.util.Map;
+
+/**
+ * 租户路由配置
+ *
+ * @param defaultStrategy     默认的路由策略名称
+ * @param tenantStrategies    租户ID -> 路由策略名称，未配置的租户使用默认策略
+ * @param schemaTemplate      SCHEMA策略的schema名称模板，{tenant} 替换为租户ID
+ * @param discriminatorColumn DISCRIMINATOR策略的租户列名
+ * @author wangguangwu
+ */
+public record TenantRoutingSettings(String defaultStrategy, Map<String, String> tenantStrategies,
+                                    String schemaTemplate, String discriminatorColumn) {
+
+    /**
+     * 模板中的租户ID占位符
+     */
+    public static final String TENANT_PLACEHOLDER = "{tenant}";
+
+    public TenantRoutingSettings {
+        tenantStrategies = tenantStrategies == null ? Map.of() : Map.copyOf(tenantStrategies);
+    }
+
+    /**
+     * 所有租户使用独立数据源的默认配置
+     *
+     * @return 默认配置
+     */
+    public static TenantRoutingSettings ofDefaults() {
+        return new TenantRoutingSettings(DatabaseTenantRoutingStrategy.NAME, Map.of(), TENANT_PLACEHOLDER, "tenant_id");
+    }
+
+    /**
+     * 获取租户的路由策略名称
+     *
+     * @param tenantId 租户ID
+     * @return 路由策略名称
+     */
+    public String strategyOf(String tenantId) {
+        return tenantStrategies.getOrDefault(tenantId, defaultStrategy);
+    }
+
+    /**
+     * 获取租户的schema名称
+     *
+     * @param tenantId 租户ID
+     * @return schema名称
+     */
+    public String schemaOf(String tenantId) {
+        return schemaTemplate.replace(TENANT_PLACEHOLDER, tenantId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 租户路由策略扩展点
+ * <p>
+ * 决定租户连接来自租户独立的数据源还是共享数据源，并在借出前对连接做租户隔离处理。
+ * 每个租户的策略由 {@link TenantRoutingSettings#strategyOf(String)} 确定，实现应为无状态或线程安全的单例。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@SPI(DatabaseTenantRoutingStrategy.NAME)
+public interface TenantRoutingStrategy {
+
+    /**
+     * 是否使用所有租户共享的数据源
+     *
+     * @return 使用共享数据源返回true，使用租户独立的数据源返回false
+     */
+    default boolean sharedDataSource() {
+        return false;
+    }
+
+    /**
+     * 借出连接前进行租户隔离处理
+     *
+     * @param connection 数据源返回的连接
+     * @param tenantId   已校验的租户ID
+     * @param settings   路由配置
+     * @return 交给调用方的连接
+     * @throws SQLException 处理失败
+     */
+    Connection prepare(Connection connection, String tenantId, TenantRoutingSettings settings) throws SQLException;
+}
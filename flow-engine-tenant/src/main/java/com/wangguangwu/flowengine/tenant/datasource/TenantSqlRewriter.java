@@ -0,0 +1,504 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 租户SQL改写器
+ * <p>
+ * 为共享表中的单表 {@code SELECT}、{@code UPDATE}、{@code DELETE} 追加租户列条件，为 {@code INSERT} 追加租户列和值。
+ * 改写结果按SQL缓存为模板，同一条SQL只解析一次，之后每次执行只需拼接租户ID。
+ * </p>
+ * <p>
+ * 无法确认只涉及一张表的语句一律拒绝，包括连接查询、子查询、集合运算、{@code WITH}、多条语句、
+ * 没有列名列表的 {@code INSERT}、{@code INSERT ... SELECT}、写入租户列的语句，以及DDL等其他语句，
+ * 拒绝结果同样缓存。不访问任何表的 {@code SELECT}（例如 {@code SELECT 1}）不做改写。
+ * </p>
+ * <p>
+ * 词法分析只接受MySQL与PostgreSQL解释一致的写法，其余一律拒绝而不是猜测：{@code #} 注释、
+ * 后面不跟空白的 {@code --}、嵌套注释和MySQL可执行注释 {@code /*!}、字符串或引号标识符中的反斜杠
+ * （MySQL转义与PostgreSQL {@code E''} 字符串）、{@code $} 开头的美元引号和位置参数，以及其他不认识的符号。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantSqlRewriter {
+
+    /**
+     * 默认缓存的最大SQL数
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final Set<String> TABLE_TERMINATORS =
+            Set.of("WHERE", "GROUP", "HAVING", "WINDOW", "ORDER", "LIMIT", "OFFSET", "FETCH", "FOR", "RETURNING");
+    private static final Set<String> WHERE_TERMINATORS =
+            Set.of("GROUP", "HAVING", "WINDOW", "ORDER", "LIMIT", "OFFSET", "FETCH", "FOR", "RETURNING");
+    private static final Set<String> REJECTED_KEYWORDS =
+            Set.of("JOIN", "UNION", "INTERSECT", "EXCEPT", "MINUS", "WITH");
+    /**
+     * 各方言含义相同的符号，其余符号（如 {@code #}、{@code $}、{@code \}、{@code {}}）可能开始注释或字符串
+     */
+    private static final String SYMBOLS = "(),;.=<>!+-*/%?:|&^~@[]";
+
+    private final String column;
+    private final int maximumSize;
+    private final ConcurrentMap<String, TenantSql> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param column 租户列名
+     */
+    public TenantSqlRewriter(String column) {
+        this(column, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param column      租户列名
+     * @param maximumSize 缓存的最大SQL数，超出后新的SQL每次执行都重新解析
+     */
+    public TenantSqlRewriter(String column, int maximumSize) {
+        this.column = column;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * 改写SQL
+     *
+     * @param sql      原始SQL
+     * @param tenantId 已校验的租户ID
+     * @return 改写后的SQL
+     * @throws SQLFeatureNotSupportedException 无法安全地追加租户条件
+     */
+    public String rewrite(String sql, String tenantId) throws SQLFeatureNotSupportedException {
+        return parse(sql).bind(tenantId);
+    }
+
+    /**
+     * 解析SQL，结果按SQL缓存
+     *
+     * @param sql 原始SQL
+     * @return 改写模板
+     */
+    public TenantSql parse(String sql) {
+        TenantSql parsed = cache.get(sql);
+        if (parsed == null) {
+            parsed = compile(sql);
+            if (cache.size() < maximumSize) {
+                cache.putIfAbsent(sql, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * 当前缓存的SQL数
+     *
+     * @return 缓存的SQL数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private TenantSql compile(String sql) {
+        List<Token> tokens;
+        try {
+            tokens = tokenize(sql);
+        } catch (IllegalArgumentException e) {
+            return TenantSql.rejected(e.getMessage());
+        }
+        int end = tokens.size();
+        if (end > 0 && tokens.get(end - 1).is(";")) {
+            end--;
+        }
+        if (end == 0) {
+            return TenantSql.rejected("empty statement");
+        }
+        int selects = 0;
+        for (int i = 0; i < end; i++) {
+            Token token = tokens.get(i);
+            if (token.is(";")) {
+                return TenantSql.rejected("multiple statements");
+            }
+            if (token.keyword != null && REJECTED_KEYWORDS.contains(token.keyword)) {
+                return TenantSql.rejected(token.keyword + " is not supported");
+            }
+            if ("SELECT".equals(token.keyword)) {
+                selects++;
+            }
+        }
+        Rewrite rewrite = new Rewrite(sql);
+        String statement = tokens.get(0).keyword;
+        String error;
+        if ("SELECT".equals(statement)) {
+            error = selects > 1 ? "subqueries are not supported" : rewriteSelect(tokens, end, rewrite);
+        } else if (selects > 0) {
+            error = "subqueries are not supported";
+        } else if ("UPDATE".equals(statement)) {
+            error = rewriteUpdate(tokens, end, rewrite);
+        } else if ("DELETE".equals(statement)) {
+            error = rewriteDelete(tokens, end, rewrite);
+        } else if ("INSERT".equals(statement)) {
+            error = rewriteInsert(tokens, end, rewrite);
+        } else {
+            error = (statement == null ? "statement" : statement) + " is not supported";
+        }
+        return error != null ? TenantSql.rejected(error) : rewrite.toTenantSql();
+    }
+
+    private String rewriteSelect(List<Token> tokens, int end, Rewrite rewrite) {
+        int from = indexOf(tokens, 1, end, "FROM");
+        if (from < 0) {
+            return null;
+        }
+        String error = checkSingleTable(tokens, from + 1, clauseEnd(tokens, from + 1, end, TABLE_TERMINATORS));
+        return error != null ? error : appendCondition(tokens, from + 1, end, rewrite);
+    }
+
+    private String rewriteUpdate(List<Token> tokens, int end, Rewrite rewrite) {
+        int set = indexOf(tokens, 1, end, "SET");
+        if (set < 0) {
+            return "UPDATE without SET";
+        }
+        String error = checkSingleTable(tokens, 1, set);
+        if (error != null) {
+            return error;
+        }
+        int assignmentsEnd = clauseEnd(tokens, set + 1, end, TABLE_TERMINATORS);
+        for (int i = set + 1; i < assignmentsEnd; i++) {
+            if (isColumn(tokens.get(i))) {
+                return "updating " + column + " is not allowed";
+            }
+        }
+        return appendCondition(tokens, set + 1, end, rewrite);
+    }
+
+    private String rewriteDelete(List<Token> tokens, int end, Rewrite rewrite) {
+        if (end < 3 || !"FROM".equals(tokens.get(1).keyword)) {
+            return "DELETE without FROM";
+        }
+        String error = checkSingleTable(tokens, 2, clauseEnd(tokens, 2, end, TABLE_TERMINATORS));
+        return error != null ? error : appendCondition(tokens, 2, end, rewrite);
+    }
+
+    private String rewriteInsert(List<Token> tokens, int end, Rewrite rewrite) {
+        if (end < 3 || !"INTO".equals(tokens.get(1).keyword)) {
+            return "INSERT without INTO";
+        }
+        int open = 2;
+        while (open < end && !tokens.get(open).is("(")) {
+            if ("VALUES".equals(tokens.get(open).keyword) || "SELECT".equals(tokens.get(open).keyword)) {
+                return "INSERT without column list";
+            }
+            open++;
+        }
+        if (open == end) {
+            return "INSERT without column list";
+        }
+        int close = matching(tokens, open, end);
+        for (int i = open + 1; i < close; i++) {
+            if (isColumn(tokens.get(i))) {
+                return "inserting " + column + " is not allowed";
+            }
+        }
+        if (close + 1 >= end || !"VALUES".equals(tokens.get(close + 1).keyword)) {
+            return "only INSERT ... VALUES is supported";
+        }
+        rewrite.insert(tokens.get(close).start, ", " + column);
+        int i = close + 2;
+        while (true) {
+            if (i >= end || !tokens.get(i).is("(")) {
+                return "malformed VALUES";
+            }
+            int rowEnd = matching(tokens, i, end);
+            if (rowEnd == end) {
+                return "malformed VALUES";
+            }
+            rewrite.insert(tokens.get(rowEnd).start, ", ");
+            rewrite.tenantLiteral(tokens.get(rowEnd).start);
+            i = rowEnd + 1;
+            if (i == end) {
+                return null;
+            }
+            if (!tokens.get(i).is(",")) {
+                return "only INSERT ... VALUES is supported";
+            }
+            i++;
+        }
+    }
+
+    /**
+     * 在 {@code WHERE} 条件后追加租户条件，没有 {@code WHERE} 时在 {@code start} 之后的第一个子句前插入
+     */
+    private String appendCondition(List<Token> tokens, int start, int end, Rewrite rewrite) {
+        int where = indexOf(tokens, start, end, "WHERE");
+        if (where >= 0) {
+            int whereEnd = clauseEnd(tokens, where + 1, end, WHERE_TERMINATORS);
+            if (whereEnd == where + 1) {
+                return "empty WHERE";
+            }
+            rewrite.insert(tokens.get(where + 1).start, "(");
+            rewrite.insert(tokens.get(whereEnd - 1).end, ") AND " + column + " = ");
+            rewrite.tenantLiteral(tokens.get(whereEnd - 1).end);
+        } else {
+            int position = tokens.get(clauseEnd(tokens, start, end, WHERE_TERMINATORS) - 1).end;
+            rewrite.insert(position, " WHERE " + column + " = ");
+            rewrite.tenantLiteral(position);
+        }
+        return null;
+    }
+
+    private String checkSingleTable(List<Token> tokens, int start, int end) {
+        if (start >= end) {
+            return "missing table";
+        }
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            if (token.is(",")) {
+                return "multiple tables are not supported";
+            }
+            if (token.is("(")) {
+                return "table expressions are not supported";
+            }
+        }
+        return null;
+    }
+
+    private boolean isColumn(Token token) {
+        return token.type == TokenType.WORD ? token.text.equalsIgnoreCase(column)
+                : token.type == TokenType.QUOTED && token.text.equals(column);
+    }
+
+    private static int indexOf(List<Token> tokens, int start, int end, String keyword) {
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            depth += token.depthDelta();
+            if (depth == 0 && keyword.equals(token.keyword)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int clauseEnd(List<Token> tokens, int start, int end, Set<String> clauses) {
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            depth += token.depthDelta();
+            if (depth == 0 && token.keyword != null && clauses.contains(token.keyword)) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int matching(List<Token> tokens, int open, int end) {
+        int depth = 0;
+        for (int i = open; i < end; i++) {
+            depth += tokens.get(i).depthDelta();
+            if (depth == 0) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                // MySQL只把后跟空白的 -- 当作注释，否则是两个减号
+                if (i + 2 < length && !Character.isWhitespace(sql.charAt(i + 2))) {
+                    throw new IllegalArgumentException("ambiguous -- comment");
+                }
+                int newline = sql.indexOf('\n', i);
+                i = newline < 0 ? length : newline + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int close = sql.indexOf("*/", i + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("unterminated comment");
+                }
+                // PostgreSQL的注释可以嵌套，MySQL执行 /*! 中的内容
+                if ((i + 2 < length && sql.charAt(i + 2) == '!') || sql.substring(i + 2, close).contains("/*")) {
+                    throw new IllegalArgumentException("nested or executable comments are not supported");
+                }
+                i = close + 2;
+            } else if (c == '\'') {
+                int start = i;
+                i = skipQuoted(sql, i, c, "string literal");
+                tokens.add(new Token(TokenType.LITERAL, sql.substring(start, i), start, i));
+            } else if (c == '"' || c == '`') {
+                int start = i;
+                i = skipQuoted(sql, i, c, "quoted identifier");
+                String text = sql.substring(start + 1, i - 1).replace(String.valueOf(c) + c, String.valueOf(c));
+                tokens.add(new Token(TokenType.QUOTED, text, start, i));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                        || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql.substring(start, i), start, i));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.LITERAL, sql.substring(start, i), start, i));
+            } else if (SYMBOLS.indexOf(c) >= 0) {
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), i, i + 1));
+                i++;
+            } else {
+                throw new IllegalArgumentException("unsupported character '" + c + "'");
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 跳过以 {@code quote} 包围、重复引号转义的字符串或标识符，反斜杠在各方言中含义不同，直接拒绝
+     *
+     * @return 结束引号之后的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote, String description) {
+        int length = sql.length();
+        int i = start + 1;
+        while (true) {
+            if (i >= length) {
+                throw new IllegalArgumentException("unterminated " + description);
+            }
+            char c = sql.charAt(i++);
+            if (c == '\\') {
+                throw new IllegalArgumentException("backslash in " + description + " is not supported");
+            }
+            if (c == quote) {
+                if (i < length && sql.charAt(i) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 改写后的SQL模板，租户ID插入各片段之间
+     *
+     * @param parts     SQL片段
+     * @param rejection 拒绝原因，可改写时为null
+     */
+    public record TenantSql(String[] parts, String rejection) {
+
+        private static TenantSql rejected(String rejection) {
+            return new TenantSql(null, rejection);
+        }
+
+        /**
+         * 是否可以改写
+         *
+         * @return 可以改写返回true
+         */
+        public boolean supported() {
+            return rejection == null;
+        }
+
+        /**
+         * 绑定租户ID
+         *
+         * @param tenantId 已校验的租户ID，只包含字母、数字、'-'、'_'、'.'
+         * @return 改写后的SQL
+         * @throws SQLFeatureNotSupportedException 无法安全地追加租户条件
+         */
+        public String bind(String tenantId) throws SQLFeatureNotSupportedException {
+            if (rejection != null) {
+                throw new SQLFeatureNotSupportedException("Cannot add tenant condition: " + rejection);
+            }
+            if (parts.length == 1) {
+                return parts[0];
+            }
+            int length = 0;
+            for (String part : parts) {
+                length += part.length();
+            }
+            StringBuilder sql = new StringBuilder(length + (parts.length - 1) * (tenantId.length() + 2));
+            sql.append(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                sql.append('\'').append(tenantId).append('\'').append(parts[i]);
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * 按原始SQL中的位置收集插入内容，插入位置单调递增
+     */
+    private static final class Rewrite {
+        private final String sql;
+        private final List<String> parts = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+        private int position;
+
+        private Rewrite(String sql) {
+            this.sql = sql;
+        }
+
+        private void insert(int at, String text) {
+            current.append(sql, position, at).append(text);
+            position = at;
+        }
+
+        private void tenantLiteral(int at) {
+            current.append(sql, position, at);
+            position = at;
+            parts.add(current.toString());
+            current.setLength(0);
+        }
+
+        private TenantSql toTenantSql() {
+            current.append(sql, position, sql.length());
+            parts.add(current.toString());
+            return new TenantSql(parts.toArray(new String[0]), null);
+        }
+    }
+
+    private enum TokenType {
+        WORD, QUOTED, LITERAL, SYMBOL
+    }
+
+    private static final class Token {
+        private final TokenType type;
+        private final String text;
+        private final String keyword;
+        private final int start;
+        private final int end;
+
+        private Token(TokenType type, String text, int start, int end) {
+            this.type = type;
+            this.text = text;
+            this.keyword = type == TokenType.WORD ? text.toUpperCase(Locale.ROOT) : null;
+            this.start = start;
+            this.end = end;
+        }
+
+        private boolean is(String symbol) {
+            return type == TokenType.SYMBOL && text.equals(symbol);
+        }
+
+        private int depthDelta() {
+            return is("(") ? 1 : is(")") ? -1 : 0;
+        }
+    }
+}
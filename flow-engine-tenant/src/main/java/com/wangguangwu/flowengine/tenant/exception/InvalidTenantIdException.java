@@ -0,0 +1,21 @@
+package com.wangguangwu.flowengine.tenant.exception;
+
+/**
+ * 非法租户ID异常
+ * <p>
+ * 当租户ID为空、过长或包含非法字符时抛出此异常
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class InvalidTenantIdException extends IllegalArgumentException {
+
+    /**
+     * 构造函数
+     *
+     * @param message 异常信息
+     */
+    public InvalidTenantIdException(String message) {
+        super(message);
+    }
+}
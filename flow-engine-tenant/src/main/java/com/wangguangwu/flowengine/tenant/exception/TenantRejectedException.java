@@ -0,0 +1,78 @@
+package com.wangguangwu.flowengine.tenant.exception;
+
+/**
+ * 租户请求被拒绝异常
+ * <p>
+ * 当租户超过限速或并发上限时抛出此异常。被拒绝的请求在过载时大量出现，因此不填充异常栈。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantRejectedException extends RuntimeException {
+
+    /**
+     * 拒绝原因
+     */
+    private final Reason reason;
+
+    /**
+     * 建议的重试等待时间（纳秒），并发超限时为0
+     */
+    private final long retryAfterNanos;
+
+    /**
+     * 构造函数
+     *
+     * @param tenantId        租户ID
+     * @param reason          拒绝原因
+     * @param retryAfterNanos 建议的重试等待时间（纳秒）
+     */
+    public TenantRejectedException(String tenantId, Reason reason, long retryAfterNanos) {
+        super("Tenant " + tenantId + " rejected: " + reason, null, false, false);
+        this.reason = reason;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * 获取拒绝原因
+     *
+     * @return 拒绝原因
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * 获取建议的重试等待时间
+     *
+     * @return 重试等待时间（纳秒），并发超限时为0
+     */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+
+    /**
+     * 获取建议的重试等待秒数，向上取整，用于 Retry-After 响应头
+     *
+     * @return 重试等待秒数，并发超限时为0
+     */
+    public long getRetryAfterSeconds() {
+        return (retryAfterNanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    /**
+     * 拒绝原因
+     */
+    public enum Reason {
+
+        /**
+         * 超过租户限速
+         */
+        RATE_LIMITED,
+
+        /**
+         * 超过租户并发上限
+         */
+        CONCURRENCY_LIMITED
+    }
+}
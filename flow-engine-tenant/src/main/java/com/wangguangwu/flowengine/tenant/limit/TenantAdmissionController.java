@@ -0,0 +1,156 @@
+package com.wangguangwu.flowengine.tenant.limit;
+
+import com.wangguangwu.flowengine.tenant.core.ClockSweeper;
+import com.wangguangwu.flowengine.tenant.exception.TenantRejectedException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租户准入控制器
+ * <p>
+ * 在租户解析之后按租户限速并限制并发，避免单个租户占满整个节点。每个租户的状态是一个 {@link TenantLimiter}，
+ * 准入路径只有一次 {@link ConcurrentHashMap#get}、本租户的CAS和分段计数器累加，不加锁；
+ * 只有配置了限速的租户才读取时钟。未单独配置的租户使用默认限制。
+ * </p>
+ * <p>
+ * 新租户加入前由 {@link ClockSweeper} 淘汰空闲租户的状态，有处理中请求的租户不会被淘汰。
+ * 被淘汰的租户再次出现时以满令牌桶重新开始，空闲过期时间不短于令牌桶的填满时间时这与保留状态没有区别。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantAdmissionController {
+
+    /**
+     * 默认最大保留租户数
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 默认空闲过期时间
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+    private final TenantLimit defaultLimit;
+    private final Map<String, TenantLimit> tenantLimits;
+    private final ConcurrentMap<String, TenantLimiter> limiters = new ConcurrentHashMap<>();
+    private final ClockSweeper<String, TenantLimiter> sweeper;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder concurrencyLimited = new LongAdder();
+
+    /**
+     * 使用默认容量和过期时间创建准入控制器，所有租户使用同一限制
+     *
+     * @param defaultLimit 默认限制
+     */
+    public TenantAdmissionController(TenantLimit defaultLimit) {
+        this(defaultLimit, Map.of(), DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_ACCESS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param defaultLimit      默认限制
+     * @param tenantLimits      租户ID -> 限制，未配置的租户使用默认限制
+     * @param maximumSize       最大保留租户数
+     * @param expireAfterAccess 空闲过期时间
+     */
+    public TenantAdmissionController(TenantLimit defaultLimit, Map<String, TenantLimit> tenantLimits,
+                                     long maximumSize, Duration expireAfterAccess) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.defaultLimit = defaultLimit;
+        this.tenantLimits = tenantLimits == null ? Map.of() : Map.copyOf(tenantLimits);
+        this.sweeper = new ClockSweeper<>(limiters, maximumSize, expireAfterAccess, TenantLimiter::retire);
+    }
+
+    /**
+     * 准入租户的一个请求
+     * <p>
+     * 成功时返回租户的准入状态，请求结束时必须调用一次 {@link TenantLimiter#release()}。
+     * </p>
+     *
+     * @param tenantId 已校验的租户ID
+     * @return 租户的准入状态
+     * @throws TenantRejectedException 超过租户限速或并发上限
+     */
+    public TenantLimiter acquire(String tenantId) {
+        while (true) {
+            TenantLimiter limiter = limiters.get(tenantId);
+            if (limiter == null) {
+                limiter = register(tenantId);
+            } else {
+                limiter.markAccessed();
+            }
+            long status = limiter.tryAcquire();
+            if (status == TenantLimiter.ADMITTED) {
+                admitted.increment();
+                return limiter;
+            }
+            if (status == TenantLimiter.RETIRED) {
+                // 与清理并发：移除已淘汰的状态后重新创建
+                limiters.remove(tenantId, limiter);
+                continue;
+            }
+            if (status == TenantLimiter.CONCURRENCY_LIMITED) {
+                concurrencyLimited.increment();
+                throw new TenantRejectedException(tenantId, TenantRejectedException.Reason.CONCURRENCY_LIMITED, 0);
+            }
+            rateLimited.increment();
+            throw new TenantRejectedException(tenantId, TenantRejectedException.Reason.RATE_LIMITED, status);
+        }
+    }
+
+    /**
+     * 获取租户的准入限制
+     *
+     * @param tenantId 租户ID
+     * @return 单独配置的限制，未配置时返回默认限制
+     */
+    public TenantLimit getLimit(String tenantId) {
+        return tenantLimits.getOrDefault(tenantId, defaultLimit);
+    }
+
+    /**
+     * 获取租户处理中的请求数
+     *
+     * @param tenantId 租户ID
+     * @return 处理中的请求数，没有保留状态时返回0
+     */
+    public int getInFlight(String tenantId) {
+        TenantLimiter limiter = limiters.get(tenantId);
+        return limiter == null ? 0 : limiter.getInFlight();
+    }
+
+    /**
+     * 当前保留准入状态的租户数
+     *
+     * @return 租户数
+     */
+    public long size() {
+        return limiters.size();
+    }
+
+    /**
+     * 获取准入统计信息
+     *
+     * @return 准入统计信息
+     */
+    public TenantAdmissionStatistics getStatistics() {
+        return new TenantAdmissionStatistics(admitted.sum(), rateLimited.sum(), concurrencyLimited.sum(),
+                limiters.size());
+    }
+
+    private TenantLimiter register(String tenantId) {
+        sweeper.sweepIfNeeded();
+        TenantLimiter created = new TenantLimiter(tenantId, getLimit(tenantId));
+        TenantLimiter existing = limiters.putIfAbsent(tenantId, created);
+        return existing != null ? existing : created;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wangguangwu.flowengine.tenant.limit;
+
+/**
+ * 租户准入统计信息
+ *
+ * @param admitted           准入的请求数
+ * @param rateLimited        因超过限速被拒绝的请求数
+ * @param concurrencyLimited 因超过并发上限被拒绝的请求数
+ * @param tenants            当前保留准入状态的租户数
+ * @author wangguangwu
+ */
+public record TenantAdmissionStatistics(long admitted, long rateLimited, long concurrencyLimited, long tenants) {
+
+    /**
+     * 拒绝率
+     *
+     * @return 被拒绝的请求占全部请求的比例，没有请求时返回0
+     */
+    public double rejectionRatio() {
+        long rejected = rateLimited + concurrencyLimited;
+        long total = admitted + rejected;
+        return total == 0 ? 0 : (double) rejected / total;
+    }
+}
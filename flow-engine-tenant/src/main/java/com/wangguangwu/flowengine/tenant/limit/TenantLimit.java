@@ -0,0 +1,47 @@
+package com.wangguangwu.flowengine.tenant.limit;
+
+/**
+ * 租户准入限制
+ *
+ * @param permitsPerSecond 每秒允许的请求数，为0时不限速
+ * @param burst            令牌桶容量，即空闲后允许的突发请求数；限速时为0则取每秒请求数（至少为1）
+ * @param maxInFlight      同时处理的最大请求数，为0时不限制并发
+ * @author wangguangwu
+ */
+public record TenantLimit(double permitsPerSecond, int burst, int maxInFlight) {
+
+    /**
+     * 不做任何限制
+     */
+    public static final TenantLimit UNLIMITED = new TenantLimit(0, 0, 0);
+
+    public TenantLimit {
+        if (!(permitsPerSecond >= 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be a non-negative finite number");
+        }
+        if (burst < 0 || maxInFlight < 0) {
+            throw new IllegalArgumentException("burst and maxInFlight must not be negative");
+        }
+        if (permitsPerSecond > 0 && burst == 0) {
+            burst = (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(permitsPerSecond)));
+        }
+    }
+
+    /**
+     * 是否限速
+     *
+     * @return 每秒请求数大于0时返回true
+     */
+    public boolean rateLimited() {
+        return permitsPerSecond > 0;
+    }
+
+    /**
+     * 是否限制并发
+     *
+     * @return 最大并发数大于0时返回true
+     */
+    public boolean concurrencyLimited() {
+        return maxInFlight > 0;
+    }
+}
@@ -0,0 +1,147 @@
+package com.wangguangwu.flowengine.tenant.limit;
+
+import com.wangguangwu.flowengine.tenant.core.ClockSweeper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个租户的准入状态
+ * <p>
+ * 限速采用GCRA（通用信元速率算法）实现的令牌桶：只保存一个"理论到达时间"，
+ * 每次准入用一次CAS把它推后一个发放间隔，超出桶容量对应的时间窗口即拒绝，不需要后台补充令牌。
+ * 并发上限由一个原子计数器实现，值为负数表示该状态已被淘汰，持有者需要重新获取。
+ * 同一租户的请求只竞争本租户的两个原子变量，不同租户之间互不影响。
+ * </p>
+ * <p>
+ * 由 {@link TenantAdmissionController#acquire(String)} 返回，请求结束时必须调用且只调用一次 {@link #release()}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantLimiter extends ClockSweeper.Entry {
+
+    /**
+     * 准入成功
+     */
+    static final long ADMITTED = 0;
+
+    /**
+     * 状态已被淘汰
+     */
+    static final long RETIRED = -1;
+
+    /**
+     * 超过并发上限
+     */
+    static final long CONCURRENCY_LIMITED = -2;
+
+    private static final int RETIRED_IN_FLIGHT = Integer.MIN_VALUE;
+
+    private final String tenantId;
+    private final TenantLimit limit;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    TenantLimiter(String tenantId, TenantLimit limit) {
+        this.tenantId = tenantId;
+        this.limit = limit;
+        if (limit.rateLimited()) {
+            this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / limit.permitsPerSecond()));
+            this.toleranceNanos = intervalNanos > Long.MAX_VALUE / 4 / limit.burst()
+                    ? Long.MAX_VALUE / 4 : intervalNanos * limit.burst();
+        } else {
+            this.intervalNanos = 0;
+            this.toleranceNanos = 0;
+        }
+        // 新建时令牌桶是满的
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试准入一个请求
+     *
+     * @return {@link #ADMITTED}、{@link #RETIRED}、{@link #CONCURRENCY_LIMITED}，或大于0的限速等待时间（纳秒）
+     */
+    long tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current < 0) {
+                return RETIRED;
+            }
+            if (limit.maxInFlight() > 0 && current >= limit.maxInFlight()) {
+                return CONCURRENCY_LIMITED;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        if (intervalNanos > 0) {
+            long waitNanos = reserve();
+            if (waitNanos > 0) {
+                inFlight.decrementAndGet();
+                return waitNanos;
+            }
+        }
+        return ADMITTED;
+    }
+
+    private long reserve() {
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - now > 0 ? arrival : now) + intervalNanos;
+            long waitNanos = next - now - toleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * 没有处理中的请求时标记为已淘汰
+     *
+     * @return 标记成功返回true
+     */
+    boolean retire() {
+        return inFlight.compareAndSet(0, RETIRED_IN_FLIGHT);
+    }
+
+    /**
+     * 请求处理结束，释放并发名额
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 获取租户ID
+     *
+     * @return 租户ID
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * 获取租户的准入限制
+     *
+     * @return 准入限制
+     */
+    public TenantLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * 获取处理中的请求数
+     *
+     * @return 处理中的请求数
+     */
+    public int getInFlight() {
+        return Math.max(0, inFlight.get());
+    }
+}
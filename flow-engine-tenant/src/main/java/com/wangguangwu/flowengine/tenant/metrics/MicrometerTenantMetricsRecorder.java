@@ -0,0 +1,170 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的租户指标记录器
+ * <p>
+ * 记录以下指标：
+ * <ul>
+ *     <li>{@value #REQUESTS}：请求数和耗时分布，标签 {@code tenant}</li>
+ *     <li>{@value #REJECTIONS}：被拒绝的请求或调用数，标签 {@code tenant}、{@code reason}</li>
+ *     <li>{@value #PROPAGATION}：租户上下文传播次数，标签 {@code event}（propagated / empty / leaked）</li>
+ * </ul>
+ * {@code tenant} 标签由 {@link TenantHeavyHitters} 限制基数：只有请求量最大的若干租户使用自己的租户ID，
+ * 其余为 {@value TenantHeavyHitters#OTHER}，没有租户时为 {@value #NO_TENANT}。
+ * 租户的计量器在晋升时创建、淘汰时从注册表移除，记录时只调用已创建计量器，不查找注册表也不分配对象。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class MicrometerTenantMetricsRecorder implements TenantMetricsRecorder, AutoCloseable {
+
+    /**
+     * 请求指标名称
+     */
+    public static final String REQUESTS = "flow.tenant.requests";
+
+    /**
+     * 拒绝指标名称
+     */
+    public static final String REJECTIONS = "flow.tenant.rejections";
+
+    /**
+     * 上下文传播指标名称
+     */
+    public static final String PROPAGATION = "flow.tenant.propagation";
+
+    /**
+     * 租户标签名称
+     */
+    public static final String TENANT_TAG = "tenant";
+
+    /**
+     * 没有租户时的租户标签值
+     */
+    public static final String NO_TENANT = "none";
+
+    private static final TenantRejectionReason[] REASONS = TenantRejectionReason.values();
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistogram;
+    private final TenantHeavyHitters<TenantMeters> heavyHitters;
+    private final TenantMeters noTenant;
+    private final Counter[] propagation;
+
+    /**
+     * 构造函数
+     *
+     * @param registry            计量器注册表
+     * @param maxTenantTags       使用独立租户标签的最大租户数
+     * @param decayInterval       热点租户排名的衰减周期
+     * @param percentileHistogram 是否为请求耗时发布百分位直方图
+     */
+    public MicrometerTenantMetricsRecorder(MeterRegistry registry, int maxTenantTags, Duration decayInterval,
+                                           boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+        this.heavyHitters = new TenantHeavyHitters<>(maxTenantTags, decayInterval,
+                tenant -> new TenantMeters(tenant, true), TenantMeters::remove);
+        // 没有租户时只会记录拒绝
+        this.noTenant = new TenantMeters(NO_TENANT, false);
+        TenantPropagationEvent[] events = TenantPropagationEvent.values();
+        this.propagation = new Counter[events.length];
+        for (TenantPropagationEvent event : events) {
+            propagation[event.ordinal()] = Counter.builder(PROPAGATION)
+                    .description("Tenant context propagation to tasks")
+                    .tag("event", event.tagValue())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void recordRequest(String tenantId, long durationNanos) {
+        heavyHitters.get(tenantId).requests.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRejection(String tenantId, TenantRejectionReason reason) {
+        TenantMeters meters = tenantId == null ? noTenant : heavyHitters.get(tenantId);
+        meters.rejection(reason).increment();
+    }
+
+    @Override
+    public void recordPropagation(TenantPropagationEvent event) {
+        propagation[event.ordinal()].increment();
+    }
+
+    /**
+     * 获取热点租户识别器
+     *
+     * @return 热点租户识别器
+     */
+    public TenantHeavyHitters<?> getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    /**
+     * 从全局持有者中移除当前记录器
+     */
+    @Override
+    public void close() {
+        TenantMetrics.removeRecorder(this);
+    }
+
+    /**
+     * 一个租户标签值对应的计量器
+     */
+    private final class TenantMeters {
+
+        private final String tenant;
+        private final Timer requests;
+        private final Counter[] rejections = new Counter[REASONS.length];
+
+        private TenantMeters(String tenant, boolean withRequests) {
+            this.tenant = tenant;
+            if (!withRequests) {
+                this.requests = null;
+                return;
+            }
+            Timer.Builder builder = Timer.builder(REQUESTS)
+                    .description("Requests per tenant")
+                    .tag(TENANT_TAG, tenant);
+            if (percentileHistogram) {
+                builder.publishPercentileHistogram();
+            }
+            this.requests = builder.register(registry);
+        }
+
+        private Counter rejection(TenantRejectionReason reason) {
+            Counter counter = rejections[reason.ordinal()];
+            if (counter == null) {
+                // 注册表按标识去重，并发创建得到同一个计数器
+                counter = Counter.builder(REJECTIONS)
+                        .description("Rejected requests and calls per tenant")
+                        .tag(TENANT_TAG, tenant)
+                        .tag("reason", reason.tagValue())
+                        .register(registry);
+                rejections[reason.ordinal()] = counter;
+            }
+            return counter;
+        }
+
+        private void remove() {
+            if (requests != null) {
+                registry.remove(requests);
+            }
+            for (Meter counter : rejections) {
+                if (counter != null) {
+                    registry.remove(counter);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 租户热点识别
+ * <p>
+ * 只为请求量最大的 {@code capacity} 个租户分配独立的值（例如带租户标签的指标），其余租户共享 {@link #OTHER} 对应的值，
+ * 使指标的标签基数不随租户数增长。
+ * </p>
+ * <p>
+ * 已跟踪租户的命中路径是一次 {@link ConcurrentHashMap#get} 和一次分段计数器累加；
+ * 未跟踪租户的请求计入 Count-Min 草图（{@value #DEPTH} 行 × {@value #WIDTH} 列的原子计数器），
+ * 估计值超过当前门槛时晋升：未满时直接晋升，已满时需要超过最冷跟踪租户计数的两倍，替换该租户。
+ * 两条路径都不加锁、不分配对象，只有晋升和衰减时加锁。
+ * </p>
+ * <p>
+ * 每隔衰减周期（在未跟踪租户的请求中检查），草图和跟踪租户的计数减半，整个周期没有请求的跟踪租户被移除，
+ * 因此排名反映最近几个周期的请求量。移除时调用 {@code remover} 释放对应的值。
+ * </p>
+ *
+ * @param <T> 每个租户对应的值
+ * @author wangguangwu
+ */
+public class TenantHeavyHitters<T> {
+
+    /**
+     * 未跟踪租户共享的键
+     */
+    public static final String OTHER = "other";
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 11;
+    private static final int MAINTENANCE_MASK = (1 << 8) - 1;
+
+    private final int capacity;
+    private final long decayIntervalNanos;
+    private final Function<String, T> factory;
+    private final Consumer<T> remover;
+    private final T other;
+    private final ConcurrentMap<String, Tracked<T>> tracked = new ConcurrentHashMap<>();
+    private final AtomicLongArray sketch = new AtomicLongArray(DEPTH * WIDTH);
+    private volatile long promotionThreshold;
+    private volatile long lastDecayNanos = System.nanoTime();
+    private int ticks;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity      最多跟踪的租户数
+     * @param decayInterval 衰减周期
+     * @param factory       按租户ID（或 {@link #OTHER}）创建值
+     * @param remover       租户不再跟踪时释放值
+     */
+    public TenantHeavyHitters(int capacity, Duration decayInterval, Function<String, T> factory, Consumer<T> remover) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.capacity = capacity;
+        this.decayIntervalNanos = decayInterval.toNanos();
+        this.factory = factory;
+        this.remover = remover;
+        this.other = factory.apply(OTHER);
+        this.promotionThreshold = capacity == 0 ? Long.MAX_VALUE : 0;
+    }
+
+    /**
+     * 记录一次租户请求并返回对应的值
+     *
+     * @param tenantId 租户ID
+     * @return 已跟踪租户的值，否则返回 {@link #OTHER} 对应的值
+     */
+    public T get(String tenantId) {
+        Tracked<T> entry = tracked.get(tenantId);
+        if (entry != null) {
+            entry.hits.increment();
+            return entry.value;
+        }
+        long estimate = increment(tenantId.hashCode());
+        // 计数不要求精确，未同步的自增只会推迟衰减检查
+        if ((++ticks & MAINTENANCE_MASK) == 0) {
+            decayIfNeeded();
+        }
+        if (estimate > promotionThreshold) {
+            T promoted = promote(tenantId, estimate);
+            if (promoted != null) {
+                return promoted;
+            }
+        }
+        return other;
+    }
+
+    /**
+     * 获取未跟踪租户共享的值
+     *
+     * @return {@link #OTHER} 对应的值
+     */
+    public T other() {
+        return other;
+    }
+
+    /**
+     * 当前跟踪的租户
+     *
+     * @return 租户ID集合的快照
+     */
+    public Set<String> trackedTenants() {
+        return Set.copyOf(tracked.keySet());
+    }
+
+    /**
+     * 立即执行一次衰减
+     */
+    public void decay() {
+        synchronized (this) {
+            lastDecayNanos = System.nanoTime();
+            for (int i = 0; i < sketch.length(); i++) {
+                long count = sketch.get(i);
+                if (count != 0) {
+                    sketch.set(i, count >> 1);
+                }
+            }
+            for (Map.Entry<String, Tracked<T>> entry : tracked.entrySet()) {
+                long hits = entry.getValue().hits.sumThenReset();
+                if (hits == 0) {
+                    tracked.remove(entry.getKey());
+                    remover.accept(entry.getValue().value);
+                } else {
+                    entry.getValue().hits.add(hits >> 1);
+                }
+            }
+            updateThreshold();
+        }
+    }
+
+    private long increment(int hash) {
+        int h1 = hash * 0x9E3779B9;
+        int h2 = Integer.rotateLeft(hash * 0x85EBCA6B, 16) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * WIDTH + ((h1 + row * h2) >>> 21 & (WIDTH - 1));
+            estimate = Math.min(estimate, sketch.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    private void decayIfNeeded() {
+        if (System.nanoTime() - lastDecayNanos >= decayIntervalNanos) {
+            synchronized (this) {
+                if (System.nanoTime() - lastDecayNanos >= decayIntervalNanos) {
+                    decay();
+                }
+            }
+        }
+    }
+
+    private synchronized T promote(String tenantId, long estimate) {
+        Tracked<T> existing = tracked.get(tenantId);
+        if (existing != null) {
+            return existing.value;
+        }
+        if (tracked.size() >= capacity) {
+            Map.Entry<String, Tracked<T>> coldest = coldest();
+            long coldestHits = coldest == null ? Long.MAX_VALUE : coldest.getValue().hits.sum();
+            if (estimate <= 2 * coldestHits) {
+                promotionThreshold = 2 * coldestHits;
+                return null;
+            }
+            tracked.remove(coldest.getKey());
+            remover.accept(coldest.getValue().value);
+        }
+        Tracked<T> created = new Tracked<>(factory.apply(tenantId));
+        created.hits.add(estimate);
+        tracked.put(tenantId, created);
+        updateThreshold();
+        return created.value;
+    }
+
+    private void updateThreshold() {
+        if (tracked.size() < capacity) {
+            promotionThreshold = 0;
+            return;
+        }
+        Map.Entry<String, Tracked<T>> coldest = coldest();
+        promotionThreshold = coldest == null ? Long.MAX_VALUE : 2 * coldest.getValue().hits.sum();
+    }
+
+    private Map.Entry<String, Tracked<T>> coldest() {
+        Map.Entry<String, Tracked<T>> coldest = null;
+        long coldestHits = Long.MAX_VALUE;
+        for (Map.Entry<String, Tracked<T>> entry : tracked.entrySet()) {
+            long hits = entry.getValue().hits.sum();
+            if (hits < coldestHits) {
+                coldest = entry;
+                coldestHits = hits;
+            }
+        }
+        return coldest;
+    }
+
+    /**
+     * 跟踪的租户
+     */
+    private static final class Tracked<T> {
+        private final T value;
+        private final LongAdder hits = new LongAdder();
+
+        private Tracked(T value) {
+            this.value = value;
+        }
+    }
+}
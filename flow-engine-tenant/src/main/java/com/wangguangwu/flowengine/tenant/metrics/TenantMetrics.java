@@ -0,0 +1,46 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+/**
+ * 租户指标记录器持有者
+ * <p>
+ * 与 {@link com.wangguangwu.flowengine.tenant.core.TenantContextHolder} 的存储模式一样是进程级配置，
+ * 默认不记录，由自动配置在存在 {@code MeterRegistry} 时设置。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantMetrics {
+
+    private static volatile TenantMetricsRecorder recorder = TenantMetricsRecorder.NOOP;
+
+    private TenantMetrics() {}
+
+    /**
+     * 获取当前的指标记录器
+     *
+     * @return 指标记录器，未设置时返回 {@link TenantMetricsRecorder#NOOP}
+     */
+    public static TenantMetricsRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * 设置指标记录器
+     *
+     * @param newRecorder 指标记录器，为null时不记录
+     */
+    public static synchronized void setRecorder(TenantMetricsRecorder newRecorder) {
+        recorder = newRecorder != null ? newRecorder : TenantMetricsRecorder.NOOP;
+    }
+
+    /**
+     * 当前记录器是指定的记录器时恢复为不记录
+     *
+     * @param expected 要移除的记录器
+     */
+    public static synchronized void removeRecorder(TenantMetricsRecorder expected) {
+        if (recorder == expected) {
+            recorder = TenantMetricsRecorder.NOOP;
+        }
+    }
+}
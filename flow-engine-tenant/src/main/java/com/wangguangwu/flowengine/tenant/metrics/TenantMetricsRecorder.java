@@ -0,0 +1,58 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+/**
+ * 租户指标记录器
+ * <p>
+ * 过滤器、切面和上下文传播器通过 {@link TenantMetrics#recorder()} 获取当前记录器。
+ * 实现在请求路径上调用，应当不加锁、不分配对象。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface TenantMetricsRecorder {
+
+    /**
+     * 不记录任何指标
+     */
+    TenantMetricsRecorder NOOP = new TenantMetricsRecorder() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * 是否记录指标，返回false时调用方可以跳过计时
+     *
+     * @return 是否记录指标
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 记录一个租户请求
+     *
+     * @param tenantId      租户ID
+     * @param durationNanos 请求耗时（纳秒）
+     */
+    default void recordRequest(String tenantId, long durationNanos) {
+    }
+
+    /**
+     * 记录一次被拒绝的请求或调用
+     *
+     * @param tenantId 已校验的租户ID，没有租户或租户ID非法时为null
+     * @param reason   拒绝原因
+     */
+    default void recordRejection(String tenantId, TenantRejectionReason reason) {
+    }
+
+    /**
+     * 记录一次租户上下文传播
+     *
+     * @param event 传播事件
+     */
+    default void recordPropagation(TenantPropagationEvent event) {
+    }
+}
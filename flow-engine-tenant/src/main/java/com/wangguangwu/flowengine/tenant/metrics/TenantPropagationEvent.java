@@ -0,0 +1,37 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import java.util.Locale;
+
+/**
+ * 租户上下文传播事件
+ *
+ * @author wangguangwu
+ */
+public enum TenantPropagationEvent {
+
+    /**
+     * 任务在提交线程的租户上下文中执行
+     */
+    PROPAGATED,
+
+    /**
+     * 提交任务时没有租户上下文
+     */
+    EMPTY,
+
+    /**
+     * 任务开始时执行线程残留了其他租户的上下文，通常是之前的任务没有清理
+     */
+    LEAKED;
+
+    private final String tagValue = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * 获取指标标签值
+     *
+     * @return 小写的事件名称
+     */
+    public String tagValue() {
+        return tagValue;
+    }
+}
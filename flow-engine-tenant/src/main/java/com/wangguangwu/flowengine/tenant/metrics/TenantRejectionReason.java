@@ -0,0 +1,62 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import com.wangguangwu.flowengine.tenant.exception.TenantRejectedException;
+
+import java.util.Locale;
+
+/**
+ * 租户请求被拒绝的原因
+ *
+ * @author wangguangwu
+ */
+public enum TenantRejectionReason {
+
+    /**
+     * 租户ID非法
+     */
+    INVALID_TENANT,
+
+    /**
+     * 超过租户限速
+     */
+    RATE_LIMITED,
+
+    /**
+     * 超过租户并发上限
+     */
+    CONCURRENCY_LIMITED,
+
+    /**
+     * 要求租户上下文但不存在
+     */
+    MISSING_TENANT,
+
+    /**
+     * 不允许系统租户访问
+     */
+    SYSTEM_TENANT;
+
+    private final String tagValue = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * 获取指标标签值
+     *
+     * @return 小写的原因名称
+     */
+    public String tagValue() {
+        return tagValue;
+    }
+
+    /**
+     * 获取准入拒绝对应的原因
+     *
+     * @param reason 准入拒绝原因
+     * @return 拒绝原因
+     */
+    public static TenantRejectionReason of(TenantRejectedException.Reason reason) {
+        return switch (reason) {
+            case RATE_LIMITED -> RATE_LIMITED;
+            case CONCURRENCY_LIMITED -> CONCURRENCY_LIMITED;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.resolver.TenantRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * 基于 {@link ServerHttpRequest} 的租户解析请求视图
+ *
+ * @param request 响应式请求
+ * @author wangguangwu
+ */
+record ServerTenantRequest(ServerHttpRequest request) implements TenantRequest {
+
+    @Override
+    public String getHeader(String name) {
+        return request.getHeaders().getFirst(name);
+    }
+
+    @Override
+    public String getPath() {
+        return request.getPath().value();
+    }
+
+    @Override
+    public String getHost() {
+        return request.getURI().getHost();
+    }
+}
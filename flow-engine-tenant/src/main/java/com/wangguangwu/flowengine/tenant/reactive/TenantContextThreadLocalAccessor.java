@@ -0,0 +1,37 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * {@link TenantContextHolder} 的上下文传播访问器
+ * <p>
+ * 通过 {@code META-INF/services} 注册到 Micrometer {@code ContextRegistry}。Reactor 的自动上下文传播
+ * 以及 {@code contextCapture()} 借助它在 {@link TenantReactorContext#KEY} 与线程本地的租户上下文之间相互转换
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantContextThreadLocalAccessor implements ThreadLocalAccessor<TenantContext> {
+
+    @Override
+    public Object key() {
+        return TenantReactorContext.KEY;
+    }
+
+    @Override
+    public TenantContext getValue() {
+        return TenantContextHolder.getContext();
+    }
+
+    @Override
+    public void setValue(TenantContext value) {
+        TenantContextHolder.setContext(value);
+    }
+
+    @Override
+    public void setValue() {
+        TenantContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,67 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * 基于 Reactor {@link Context} 的租户上下文工具类
+ * <p>
+ * 响应式链路中租户上下文保存在订阅的 {@link Context} 中，随订阅向上游传递，不依赖执行线程。
+ * 只有在调用阻塞代码时，才通过 {@link #fromCallable(Callable)} 把租户上下文临时绑定到 {@link TenantContextHolder}。
+ * 开启 Reactor 自动上下文传播（{@code spring.reactor.context-propagation=auto}）时，
+ * {@link TenantContextThreadLocalAccessor} 会在相同的键下自动完成绑定。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantReactorContext {
+
+    /**
+     * 租户上下文在 Reactor {@link Context} 中的键
+     */
+    public static final String KEY = "flow.engine.tenant.context";
+
+    private TenantReactorContext() {}
+
+    /**
+     * 生成写入租户上下文的 {@link Context} 修改函数，用于 {@code contextWrite}
+     *
+     * @param tenantContext 租户上下文
+     * @return Context修改函数
+     */
+    public static Function<Context, Context> withTenant(TenantContext tenantContext) {
+        return context -> context.put(KEY, tenantContext);
+    }
+
+    /**
+     * 获取当前订阅的租户上下文
+     *
+     * @return 租户上下文，不存在时为空
+     */
+    public static Mono<TenantContext> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<TenantContext>getOrEmpty(KEY)));
+    }
+
+    /**
+     * 在当前订阅的租户上下文中执行阻塞调用
+     * <p>
+     * 调用期间 {@link TenantContextHolder} 持有订阅的租户上下文，结束后恢复执行线程原有的值。
+     * 阻塞调用应配合 {@code subscribeOn(Schedulers.boundedElastic())} 使用，避免阻塞事件循环线程
+     * </p>
+     *
+     * @param callable 阻塞调用
+     * @param <T>      返回值类型
+     * @return 调用结果
+     */
+    public static <T> Mono<T> fromCallable(Callable<T> callable) {
+        return Mono.deferContextual(context -> {
+            TenantContext tenantContext = context.getOrDefault(KEY, null);
+            return Mono.fromCallable(() -> TenantContextHolder.callWithContext(tenantContext, callable));
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.api.TenantContextInitializer;
+import com.wangguangwu.flowengine.tenant.exception.InvalidTenantIdException;
+import com.wangguangwu.flowengine.tenant.exception.TenantRejectedException;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimiter;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式租户上下文过滤器
+ * <p>
+ * WebFlux 版本的租户上下文过滤器：通过 {@link TenantResolverChain} 解析租户ID，
+ * 将租户上下文写入后续过滤器链订阅的 Reactor Context，而不是线程本地变量，
+ * 因此在操作符切换线程后依然有效。租户ID非法时返回400；配置了 {@link TenantAdmissionController} 时，
+ * 租户超过限速或并发上限返回429，并发名额在响应完成、出错或取消时释放。
+ * 启用租户指标时，通过 {@link TenantMetrics} 记录每个租户的请求耗时和被拒绝的请求。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantWebFilter implements WebFilter, Ordered {
+
+    /**
+     * 租户解析链
+     */
+    private final TenantResolverChain resolverChain;
+
+    /**
+     * 租户上下文初始化器
+     */
+    private final TenantContextInitializer initializer;
+
+    /**
+     * 租户准入控制器，为null时不限制
+     */
+    private final TenantAdmissionController admissionController;
+
+    /**
+     * 构造函数
+     *
+     * @param resolverChain 租户解析链
+     * @param initializer   租户上下文初始化器
+     */
+    public TenantWebFilter(TenantResolverChain resolverChain, TenantContextInitializer initializer) {
+        this(resolverChain, initializer, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param resolverChain       租户解析链
+     * @param initializer         租户上下文初始化器
+     * @param admissionController 租户准入控制器，为null时不限制
+     */
+    public TenantWebFilter(TenantResolverChain resolverChain, TenantContextInitializer initializer,
+                           TenantAdmissionController admissionController) {
+        this.resolverChain = resolverChain;
+        this.initializer = initializer;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String tenantId = resolverChain.resolve(new ServerTenantRequest(exchange.getRequest()));
+        if (tenantId == null) {
+            return chain.filter(exchange);
+        }
+        TenantMetricsRecorder metrics = TenantMetrics.recorder();
+        TenantContext tenantContext;
+        try {
+            tenantContext = initializer.initializeContext(tenantId);
+        } catch (InvalidTenantIdException e) {
+            metrics.recordRejection(null, TenantRejectionReason.INVALID_TENANT);
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return exchange.getResponse().setComplete();
+        }
+        if (admissionController == null && !metrics.isEnabled()) {
+            return chain.filter(exchange).contextWrite(TenantReactorContext.withTenant(tenantContext));
+        }
+        // 每次订阅获取一次名额并在该订阅结束时释放，只组装不订阅或重复订阅都不会泄漏名额
+        return Mono.defer(() -> admit(exchange, chain, tenantContext, metrics));
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, TenantContext tenantContext,
+                             TenantMetricsRecorder metrics) {
+        TenantLimiter limiter = null;
+        if (admissionController != null) {
+            try {
+                limiter = admissionController.acquire(tenantContext.tenantId());
+            } catch (TenantRejectedException e) {
+                metrics.recordRejection(tenantContext.tenantId(), TenantRejectionReason.of(e.getReason()));
+                long retryAfterSeconds = e.getRetryAfterSeconds();
+                if (retryAfterSeconds > 0) {
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                }
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return exchange.getResponse().setComplete();
+            }
+        }
+        if (limiter == null && !metrics.isEnabled()) {
+            return chain.filter(exchange).contextWrite(TenantReactorContext.withTenant(tenantContext));
+        }
+        TenantLimiter admitted = limiter;
+        long startNanos = metrics.isEnabled() ? System.nanoTime() : 0;
+        return Mono.defer(() -> chain.filter(exchange))
+                .contextWrite(TenantReactorContext.withTenant(tenantContext))
+                .doFinally(signal -> {
+                    if (admitted != null) {
+                        admitted.release();
+                    }
+                    if (metrics.isEnabled()) {
+                        metrics.recordRequest(tenantContext.tenantId(), System.nanoTime() - startNanos);
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // 与Servlet版本的过滤器保持一致
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
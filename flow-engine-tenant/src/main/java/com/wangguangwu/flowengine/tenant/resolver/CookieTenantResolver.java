@@ -0,0 +1,66 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 从Cookie解析租户ID
+ * <p>
+ * 直接在 {@code Cookie} 请求头上定位目标Cookie，不解析其他Cookie
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Activate
+@Extension(value = "cookie", order = 200)
+public class CookieTenantResolver implements TenantResolver {
+
+    private static final String COOKIE_HEADER = "Cookie";
+
+    @Override
+    public boolean isEnabled(TenantResolverSettings settings) {
+        return settings.cookie() != null;
+    }
+
+    @Override
+    public String resolve(TenantRequest request, TenantResolverSettings settings) {
+        String header = request.getHeader(COOKIE_HEADER);
+        return header == null ? null : findCookie(header, settings.cookie());
+    }
+
+    /**
+     * 在Cookie请求头中查找指定Cookie的值
+     *
+     * @param header Cookie请求头
+     * @param name   Cookie名称
+     * @return Cookie的值，不存在或为空时返回null
+     */
+    static String findCookie(String header, String name) {
+        int length = header.length();
+        int nameLength = name.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && header.charAt(i) == ' ') {
+                i++;
+            }
+            int end = header.indexOf(';', i);
+            if (end < 0) {
+                end = length;
+            }
+            if (end - i > nameLength && header.charAt(i + nameLength) == '='
+                    && header.regionMatches(i, name, 0, nameLength)) {
+                int start = i + nameLength + 1;
+                while (end > start && header.charAt(end - 1) == ' ') {
+                    end--;
+                }
+                if (end - start >= 2 && header.charAt(start) == '"' && header.charAt(end - 1) == '"') {
+                    start++;
+                    end--;
+                }
+                return end > start ? header.substring(start, end) : null;
+            }
+            i = end + 1;
+        }
+        return null;
+    }
+}
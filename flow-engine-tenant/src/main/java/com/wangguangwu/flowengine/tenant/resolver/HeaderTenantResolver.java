@@ -0,0 +1,25 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 从请求头解析租户ID
+ *
+ * @author wangguangwu
+ */
+@Activate
+@Extension(value = "header", order = 100)
+public class HeaderTenantResolver implements TenantResolver {
+
+    @Override
+    public boolean isEnabled(TenantResolverSettings settings) {
+        return settings.header() != null;
+    }
+
+    @Override
+    public String resolve(TenantRequest request, TenantResolverSettings settings) {
+        String tenantId = request.getHeader(settings.header());
+        return tenantId == null || tenantId.isEmpty() ? null : tenantId;
+    }
+}
@@ -0,0 +1,160 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 从Bearer令牌的声明中解析租户ID
+ * <p>
+ * 将JWT载荷Base64URL解码到线程本地缓冲区，在字节上查找配置的声明并切出字符串值，不构建JSON对象。
+ * <b>不校验令牌签名</b>，只能部署在已经完成认证的网关或安全过滤器之后。
+ * 声明值必须是不含转义字符的JSON字符串，载荷中存在同名键时取第一个。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Activate
+@Extension(value = "jwt", order = 500)
+public class JwtTenantResolver implements TenantResolver {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * 载荷的最大解码长度
+     */
+    static final int MAX_PAYLOAD_BYTES = 6 * 1024;
+
+    private static final int[] BASE64_URL = new int[128];
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_PAYLOAD_BYTES]);
+
+    static {
+        Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    @Override
+    public boolean isEnabled(TenantResolverSettings settings) {
+        return settings.jwtClaim() != null;
+    }
+
+    @Override
+    public String resolve(TenantRequest request, TenantResolverSettings settings) {
+        String header = request.getHeader(AUTHORIZATION_HEADER);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        int start = header.indexOf('.', BEARER_PREFIX.length());
+        if (start < 0) {
+            return null;
+        }
+        int end = header.indexOf('.', ++start);
+        if (end < 0) {
+            return null;
+        }
+        byte[] payload = BUFFER.get();
+        int length = decode(header, start, end, payload);
+        return length < 0 ? null : findClaim(payload, length, settings.jwtClaim());
+    }
+
+    /**
+     * Base64URL解码
+     *
+     * @param source 源字符串
+     * @param start  起始位置（包含）
+     * @param end    结束位置（不包含）
+     * @param out    输出缓冲区
+     * @return 解码后的字节数，格式错误或超出缓冲区时返回-1
+     */
+    static int decode(String source, int start, int end, byte[] out) {
+        while (end > start && source.charAt(end - 1) == '=') {
+            end--;
+        }
+        int length = end - start;
+        if (length % 4 == 1 || length / 4 * 3 + Math.max(length % 4 - 1, 0) > out.length) {
+            return -1;
+        }
+        int written = 0;
+        int bits = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                out[written++] = (byte) (bits >> 16);
+                out[written++] = (byte) (bits >> 8);
+                out[written++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 2) {
+            out[written++] = (byte) (bits >> 4);
+        } else if (count == 3) {
+            out[written++] = (byte) (bits >> 10);
+            out[written++] = (byte) (bits >> 2);
+        }
+        return written;
+    }
+
+    /**
+     * 在JSON字节中查找字符串类型的声明值
+     *
+     * @param json   JSON字节
+     * @param length 有效长度
+     * @param claim  声明名称
+     * @return 声明值，不存在、不是字符串或包含转义字符时返回null
+     */
+    static String findClaim(byte[] json, int length, String claim) {
+        int claimLength = claim.length();
+        for (int i = 0; i + claimLength + 1 < length; i++) {
+            if (json[i] != '"' || json[i + claimLength + 1] != '"' || !matches(json, i + 1, claim)) {
+                continue;
+            }
+            int p = skipWhitespace(json, i + claimLength + 2, length);
+            if (p >= length || json[p] != ':') {
+                continue;
+            }
+            p = skipWhitespace(json, p + 1, length);
+            if (p >= length || json[p] != '"') {
+                return null;
+            }
+            int start = ++p;
+            while (p < length && json[p] != '"') {
+                if (json[p] == '\\') {
+                    return null;
+                }
+                p++;
+            }
+            return p < length && p > start ? new String(json, start, p - start, StandardCharsets.UTF_8) : null;
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] json, int offset, String claim) {
+        for (int k = 0; k < claim.length(); k++) {
+            if (json[offset + k] != claim.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(byte[] json, int p, int length) {
+        while (p < length && (json[p] == ' ' || json[p] == '\t' || json[p] == '\n' || json[p] == '\r')) {
+            p++;
+        }
+        return p;
+    }
+}
@@ -0,0 +1,38 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 从请求路径解析租户ID
+ * <p>
+ * 路径以配置的前缀开头时，取前缀之后的第一段路径作为租户ID，例如前缀为 {@code /tenants/} 时，
+ * {@code /tenants/acme/orders} 解析为 {@code acme}
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Activate
+@Extension(value = "path", order = 300)
+public class PathTenantResolver implements TenantResolver {
+
+    @Override
+    public boolean isEnabled(TenantResolverSettings settings) {
+        return settings.pathPrefix() != null;
+    }
+
+    @Override
+    public String resolve(TenantRequest request, TenantResolverSettings settings) {
+        String path = request.getPath();
+        String prefix = settings.pathPrefix();
+        if (path == null || !path.startsWith(prefix)) {
+            return null;
+        }
+        int start = prefix.length();
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        return end > start ? path.substring(start, end) : null;
+    }
+}
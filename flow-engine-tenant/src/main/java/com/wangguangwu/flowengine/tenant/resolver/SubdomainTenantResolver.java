@@ -0,0 +1,38 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+
+/**
+ * 从子域名解析租户ID
+ * <p>
+ * 主机名为 {@code <tenant>.<baseDomain>} 时解析出 {@code <tenant>}，只接受一级子域名，忽略大小写
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Activate
+@Extension(value = "subdomain", order = 400)
+public class SubdomainTenantResolver implements TenantResolver {
+
+    @Override
+    public boolean isEnabled(TenantResolverSettings settings) {
+        return settings.baseDomain() != null;
+    }
+
+    @Override
+    public String resolve(TenantRequest request, TenantResolverSettings settings) {
+        String host = request.getHost();
+        String baseDomain = settings.baseDomain();
+        if (host == null) {
+            return null;
+        }
+        int end = host.length() - baseDomain.length() - 1;
+        if (end <= 0 || host.charAt(end) != '.'
+                || !host.regionMatches(true, end + 1, baseDomain, 0, baseDomain.length())
+                || host.lastIndexOf('.', end - 1) >= 0) {
+            return null;
+        }
+        return host.substring(0, end);
+    }
+}
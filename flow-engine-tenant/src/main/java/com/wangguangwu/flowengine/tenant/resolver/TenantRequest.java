@@ -0,0 +1,34 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+/**
+ * 租户解析所需的请求视图
+ * <p>
+ * 屏蔽具体的Web容器实现，只暴露租户解析用到的请求信息
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface TenantRequest {
+
+    /**
+     * 获取请求头
+     *
+     * @param name 请求头名称
+     * @return 请求头的值，不存在时返回null
+     */
+    String getHeader(String name);
+
+    /**
+     * 获取请求路径，不包含查询参数
+     *
+     * @return 请求路径
+     */
+    String getPath();
+
+    /**
+     * 获取请求的主机名，不包含端口
+     *
+     * @return 主机名，无法确定时返回null
+     */
+    String getHost();
+}
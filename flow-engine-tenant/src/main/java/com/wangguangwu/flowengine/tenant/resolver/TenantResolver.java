@@ -0,0 +1,38 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Activate;
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import com.wangguangwu.flowengine.spi.annotation.SPI;
+
+/**
+ * 租户解析器扩展点
+ * <p>
+ * 从请求中解析租户ID。所有标注 {@link Activate} 的实现按 {@link Extension#order()} 升序组成
+ * {@link TenantResolverChain}，第一个返回非null结果的解析器生效，因此开销小的解析器应使用较小的order。
+ * 实现应为无状态的单例，解析时避免正则和 {@link String#split} 等中间分配。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@SPI("header")
+public interface TenantResolver {
+
+    /**
+     * 在当前配置下是否启用，未启用的解析器不会加入解析链
+     *
+     * @param settings 解析器配置
+     * @return 启用返回true
+     */
+    default boolean isEnabled(TenantResolverSettings settings) {
+        return true;
+    }
+
+    /**
+     * 解析租户ID
+     *
+     * @param request  请求
+     * @param settings 解析器配置
+     * @return 租户ID，无法解析时返回null
+     */
+    String resolve(TenantRequest request, TenantResolverSettings settings);
+}
@@ -0,0 +1,123 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import com.wangguangwu.flowengine.spi.annotation.Extension;
+import com.wangguangwu.flowengine.spi.loader.ActivateCondition;
+import com.wangguangwu.flowengine.spi.util.SPILoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租户解析链
+ * <p>
+ * 按顺序调用启用的 {@link TenantResolver}，返回第一个解析成功的租户ID。
+ * 每个解析器单独记录调用次数和命中次数，计数使用 {@link LongAdder} 避免高并发下的争用。
+ * 读取时钟的开销与一次解析相当，因此耗时只对随机抽样的 1/{@value #TIMING_SAMPLE_RATE} 调用统计。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantResolverChain {
+
+    /**
+     * 耗时抽样比例，必须是2的幂
+     */
+    static final int TIMING_SAMPLE_RATE = 16;
+
+    private final TenantResolverSettings settings;
+    private final Node[] nodes;
+
+    /**
+     * 构造函数
+     *
+     * @param resolvers 按优先级排列的解析器
+     * @param settings  解析器配置
+     */
+    public TenantResolverChain(List<? extends TenantResolver> resolvers, TenantResolverSettings settings) {
+        this.settings = settings;
+        List<Node> enabled = new ArrayList<>(resolvers.size());
+        for (TenantResolver resolver : resolvers) {
+            if (resolver.isEnabled(settings)) {
+                enabled.add(new Node(nameOf(resolver), resolver));
+            }
+        }
+        this.nodes = enabled.toArray(new Node[0]);
+    }
+
+    /**
+     * 通过SPI加载所有自动激活的解析器，按 {@link Extension#order()} 排序
+     *
+     * @param settings 解析器配置
+     * @return 租户解析链
+     */
+    public static TenantResolverChain load(TenantResolverSettings settings) {
+        return new TenantResolverChain(
+                SPILoader.getActivatedExtensions(TenantResolver.class, ActivateCondition.NONE), settings);
+    }
+
+    /**
+     * 解析租户ID
+     *
+     * @param request 请求
+     * @return 第一个解析成功的租户ID，全部失败时返回null
+     */
+    public String resolve(TenantRequest request) {
+        boolean timed = (ThreadLocalRandom.current().nextInt() & (TIMING_SAMPLE_RATE - 1)) == 0;
+        for (Node node : nodes) {
+            String tenantId;
+            if (timed) {
+                long start = System.nanoTime();
+                tenantId = node.resolver.resolve(request, settings);
+                node.timedNanos.add(System.nanoTime() - start);
+                node.timedInvocations.increment();
+            } else {
+                tenantId = node.resolver.resolve(request, settings);
+            }
+            node.invocations.increment();
+            if (tenantId != null) {
+                node.hits.increment();
+                return tenantId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取各解析器的统计信息，顺序与解析顺序一致
+     *
+     * @return 统计信息
+     */
+    public List<TenantResolverStatistics> getStatistics() {
+        List<TenantResolverStatistics> statistics = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            statistics.add(new TenantResolverStatistics(node.name, node.invocations.sum(), node.hits.sum(),
+                    node.timedInvocations.sum(), node.timedNanos.sum()));
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
+    private static String nameOf(TenantResolver resolver) {
+        Extension extension = resolver.getClass().getAnnotation(Extension.class);
+        return extension != null ? extension.value() : resolver.getClass().getSimpleName();
+    }
+
+    /**
+     * 解析链节点
+     */
+    private static final class Node {
+        private final String name;
+        private final TenantResolver resolver;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder timedInvocations = new LongAdder();
+        private final LongAdder timedNanos = new LongAdder();
+
+        private Node(String name, TenantResolver resolver) {
+            this.name = name;
+            this.resolver = resolver;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+/**
+ * 租户解析器配置
+ * <p>
+ * 某项配置为null时，对应的解析器不参与解析
+ * </p>
+ *
+ * @param header     租户ID请求头名称
+ * @param cookie     租户ID Cookie名称
+ * @param pathPrefix 租户ID所在的路径前缀，例如 {@code /tenants/}，租户ID为前缀后的第一段路径
+ * @param baseDomain 租户子域名的基础域名，例如 {@code example.com}，租户ID为 {@code <tenant>.example.com} 中的第一级子域名
+ * @param jwtClaim   Bearer令牌中保存租户ID的声明名称
+ * @author wangguangwu
+ */
+public record TenantResolverSettings(String header, String cookie, String pathPrefix, String baseDomain,
+                                     String jwtClaim) {
+
+    /**
+     * 只从请求头解析租户ID
+     *
+     * @param header 租户ID请求头名称
+     * @return 解析器配置
+     */
+    public static TenantResolverSettings ofHeader(String header) {
+        return new TenantResolverSettings(header, null, null, null, null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+/**
+ * 租户解析器统计信息
+ *
+ * @param name             解析器名称
+ * @param invocations      调用次数
+ * @param hits             解析成功次数
+ * @param timedInvocations 统计了耗时的抽样调用次数
+ * @param timedNanos       抽样调用的累计耗时（纳秒）
+ * @author wangguangwu
+ */
+public record TenantResolverStatistics(String name, long invocations, long hits, long timedInvocations,
+                                       long timedNanos) {
+
+    /**
+     * 命中率
+     *
+     * @return 解析成功次数占调用次数的比例，未调用时返回0
+     */
+    public double hitRatio() {
+        return invocations == 0 ? 0 : (double) hits / invocations;
+    }
+
+    /**
+     * 平均耗时
+     *
+     * @return 抽样调用的平均耗时（纳秒），没有抽样时返回0
+     */
+    public double averageNanos() {
+        return timedInvocations == 0 ? 0 : (double) timedNanos / timedInvocations;
+    }
+}
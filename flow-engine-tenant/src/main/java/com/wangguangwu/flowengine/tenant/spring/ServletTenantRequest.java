@@ -0,0 +1,28 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.resolver.TenantRequest;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 基于 {@link HttpServletRequest} 的租户解析请求视图
+ *
+ * @param request Servlet请求
+ * @author wangguangwu
+ */
+record ServletTenantRequest(HttpServletRequest request) implements TenantRequest {
+
+    @Override
+    public String getHeader(String name) {
+        return request.getHeader(name);
+    }
+
+    @Override
+    public String getPath() {
+        return request.getRequestURI();
+    }
+
+    @Override
+    public String getHost() {
+        return request.getServerName();
+    }
+}
@@ -1,15 +1,46 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContextInitializer;
-import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantAwareExecutorService;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+import com.wangguangwu.flowengine.tenant.core.TenantExtensionCache;
+import com.wangguangwu.flowengine.tenant.datasource.HikariTenantDataSourceFactory;
+import com.wangguangwu.flowengine.tenant.datasource.TenantDataSourceFactory;
+import com.wangguangwu.flowengine.tenant.datasource.TenantRoutingDataSource;
+import com.wangguangwu.flowengine.tenant.datasource.TenantRoutingSettings;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
+import com.wangguangwu.flowengine.tenant.metrics.MicrometerTenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.reactive.TenantWebFilter;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolver;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverSettings;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.AbstractDataSource;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.web.server.WebFilter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
 
 /**
  * 租户自动配置类
@@ -20,45 +51,143 @@ import org.springframework.scheduling.annotation.Async;
  * @author wangguangwu
  */
 @Configuration
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@AutoConfigureBefore(name = "org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration")
 @EnableConfigurationProperties(TenantProperties.class)
 @ConditionalOnProperty(prefix = "flow.engine.tenant", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class TenantAutoConfiguration {
 
     /**
-     * 配置租户感知切面
+     * 构造函数
+     * <p>
+     * 在创建任何租户相关Bean之前应用配置的上下文存储模式
+     * </p>
+     *
+     * @param properties 租户配置属性
+     */
+    public TenantAutoConfiguration(TenantProperties properties) {
+        TenantContextHolder.setMode(properties.getHolderMode());
+    }
+
+    /**
+     * 配置租户感知切面，仅在代理强制方式下注册
      *
      * @return 租户感知切面
      */
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "flow.engine.tenant", name = "enforcement", havingValue = "proxy",
+            matchIfMissing = true)
     public TenantAwareAspect tenantAwareAspect() {
         return new TenantAwareAspect();
     }
 
     /**
-     * 配置租户上下文过滤器
+     * 配置租户解析链，加载所有自动激活的 {@link TenantResolver} 扩展
      *
      * @param properties 租户配置属性
-     * @return 租户上下文过滤器
+     * @return 租户解析链
      */
     @Bean
-    @ConditionalOnWebApplication
     @ConditionalOnMissingBean
-    public TenantContextFilter tenantContextFilter(TenantProperties properties) {
-        return new TenantContextFilter(properties.getTenantIdHeader(), properties.getSystemTenantId());
+    public TenantResolverChain tenantResolverChain(TenantProperties properties) {
+        TenantProperties.Resolver resolver = properties.getResolver();
+        return TenantResolverChain.load(new TenantResolverSettings(properties.getTenantIdHeader(),
+                resolver.getCookieName(), resolver.getPathPrefix(), resolver.getBaseDomain(),
+                resolver.getJwtClaim()));
     }
 
     /**
      * 配置默认的租户上下文初始化器
+     * <p>
+     * 按租户ID缓存共享的租户上下文，请求之间复用同一实例
+     * </p>
      *
+     * @param properties 租户配置属性
      * @return 默认的租户上下文初始化器
      */
     @Bean
     @ConditionalOnMissingBean
-    public TenantContextInitializer tenantContextInitializer() {
-        return DefaultTenantContext::create;
+    public TenantContextInitializer tenantContextInitializer(TenantProperties properties) {
+        return new TenantContextRegistry(properties.getSystemTenantId(),
+                properties.getContextCacheSize(), properties.getContextCacheTtl());
     }
     
+    /**
+     * 配置租户扩展解析缓存
+     * <p>
+     * 通过 {@link TenantExtensionCache#getExtensionLoader(Class)} 获取按租户解析的扩展加载器
+     * </p>
+     *
+     * @param properties 租户配置属性
+     * @return 租户扩展解析缓存
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TenantExtensionCache tenantExtensionCache(TenantProperties properties) {
+        return new TenantExtensionCache(properties.getExtensionCacheSize(), properties.getExtensionCacheTtl());
+    }
+
+    /**
+     * 配置租户准入控制器，仅在 {@code flow.engine.tenant.admission.enabled=true} 时注册
+     *
+     * @param properties 租户配置属性
+     * @return 租户准入控制器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "flow.engine.tenant.admission", name = "enabled", havingValue = "true")
+    public TenantAdmissionController tenantAdmissionController(TenantProperties properties) {
+        TenantProperties.Admission admission = properties.getAdmission();
+        Map<String, TenantLimit> tenantLimits = new HashMap<>();
+        admission.getTenants().forEach((tenantId, limit) -> tenantLimits.put(tenantId, limit.toTenantLimit()));
+        return new TenantAdmissionController(admission.getLimit().toTenantLimit(), tenantLimits,
+                admission.getMaxTenants(), admission.getIdleTimeout());
+    }
+
+    /**
+     * 配置传递租户上下文的任务装饰器
+     * <p>
+     * 由Spring Boot应用到自动配置的 {@code applicationTaskExecutor}，{@code @Async} 任务自动传递租户上下文，
+     * 线程池本身仍由 {@code spring.task.execution} 配置
+     * </p>
+     *
+     * @return 租户上下文任务装饰器
+     */
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public TenantContextTaskDecorator tenantContextTaskDecorator() {
+        return new TenantContextTaskDecorator();
+    }
+
+    /**
+     * 配置租户感知的固定大小任务线程池，仅在 {@code flow.engine.tenant.executor-pool-size} 大于0时注册
+     * <p>
+     * Bean名称为taskExecutor，注册后替代Spring Boot的 {@code applicationTaskExecutor}，
+     * {@code spring.task.execution} 配置不再生效
+     * </p>
+     *
+     * @param properties 租户配置属性
+     * @return 租户感知的任务线程池
+     */
+    @Bean(name = "taskExecutor", destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = "taskExecutor")
+    @ConditionalOnExpression("${flow.engine.tenant.executor-pool-size:0} > 0")
+    public TenantAwareExecutorService taskExecutor(TenantProperties properties) {
+        return new TenantAwareExecutorService(Executors.newFixedThreadPool(properties.getExecutorPoolSize()));
+    }
+
+    /**
+     * 配置租户强制生成类替换处理器，仅在生成类强制方式下注册
+     *
+     * @return 租户强制生成类替换处理器
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "flow.engine.tenant", name = "enforcement", havingValue = "generated")
+    public static TenantEnforcedBeanFactoryPostProcessor tenantEnforcedBeanFactoryPostProcessor() {
+        return new TenantEnforcedBeanFactoryPostProcessor();
+    }
+
     /**
      * 配置租户感知的异步切面
      * <p>
@@ -73,4 +202,174 @@ public class TenantAutoConfiguration {
     public TenantAwareAsyncAspect tenantAwareAsyncAspect() {
         return new TenantAwareAsyncAspect();
     }
+
+    /**
+     * Servlet Web应用的租户配置
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletTenantConfiguration {
+
+        /**
+         * 配置租户上下文过滤器
+         *
+         * @param resolverChain       租户解析链
+         * @param initializer         租户上下文初始化器
+         * @param admissionController 租户准入控制器，未启用时不限制
+         * @return 租户上下文过滤器
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantContextFilter tenantContextFilter(TenantResolverChain resolverChain,
+                                                       TenantContextInitializer initializer,
+                                                       ObjectProvider<TenantAdmissionController> admissionController) {
+            return new TenantContextFilter(resolverChain, initializer, admissionController.getIfAvailable());
+        }
+    }
+
+    /**
+     * 响应式Web应用的租户配置
+     * <p>
+     * 租户上下文通过Reactor Context传递，不占用线程本地变量
+     * </p>
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(WebFilter.class)
+    static class ReactiveTenantConfiguration {
+
+        /**
+         * 配置响应式租户上下文过滤器
+         *
+         * @param resolverChain       租户解析链
+         * @param initializer         租户上下文初始化器
+         * @param admissionController 租户准入控制器，未启用时不限制
+         * @return 响应式租户上下文过滤器
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantWebFilter tenantWebFilter(TenantResolverChain resolverChain,
+                                               TenantContextInitializer initializer,
+                                               ObjectProvider<TenantAdmissionController> admissionController) {
+            return new TenantWebFilter(resolverChain, initializer, admissionController.getIfAvailable());
+        }
+    }
+
+    /**
+     * 租户指标配置
+     * <p>
+     * 存在 {@link MeterRegistry} 时注册，过滤器、切面和上下文传播器通过 {@link TenantMetrics} 记录指标
+     * </p>
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "flow.engine.tenant.metrics", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    static class TenantMetricsConfiguration {
+
+        /**
+         * 配置基于Micrometer的租户指标记录器，并设置为全局记录器，容器关闭时移除
+         *
+         * @param registry   计量器注册表
+         * @param properties 租户配置属性
+         * @return 租户指标记录器
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public MicrometerTenantMetricsRecorder tenantMetricsRecorder(MeterRegistry registry,
+                                                                     TenantProperties properties) {
+            TenantProperties.Metrics metrics = properties.getMetrics();
+            MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(registry,
+                    metrics.getMaxTenantTags(), metrics.getDecayInterval(), metrics.isPercentileHistogram());
+            TenantMetrics.setRecorder(recorder);
+            return recorder;
+        }
+    }
+
+    /**
+     * 租户数据源路由配置
+     * <p>
+     * 配置 {@code flow.engine.tenant.datasource.url-template} 或 {@code shared-url} 后注册，
+     * 使用独立数据库策略的租户在首次获取连接时创建独立的连接池
+     * </p>
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({HikariDataSource.class, AbstractDataSource.class})
+    @Conditional(TenantDataSourceCondition.class)
+    static class TenantDataSourceConfiguration {
+
+        /**
+         * 配置租户数据源工厂
+         *
+         * @param properties 租户配置属性
+         * @return 基于HikariCP的租户数据源工厂
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantDataSourceFactory tenantDataSourceFactory(TenantProperties properties) {
+            TenantProperties.Datasource datasource = properties.getDatasource();
+            return new HikariTenantDataSourceFactory(datasource.getUrlTemplate(), datasource.getUsername(),
+                    datasource.getPassword(), datasource.getMaximumPoolSize(), datasource.getIdleTimeout(),
+                    datasource.getConnectionTimeout());
+        }
+
+        /**
+         * 配置租户路由数据源
+         *
+         * @param factory    租户数据源工厂
+         * @param properties 租户配置属性
+         * @return 租户路由数据源
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantRoutingDataSource tenantRoutingDataSource(TenantDataSourceFactory factory,
+                                                               TenantProperties properties) {
+            TenantProperties.Datasource datasource = properties.getDatasource();
+            TenantRoutingDataSource routingDataSource = new TenantRoutingDataSource(factory,
+                    datasource.getMaxDataSources(), datasource.getIdleTimeout(),
+                    datasource.getMaxTotalConnections(), datasource.getConnectionTimeout());
+            routingDataSource.setRoutingSettings(new TenantRoutingSettings(datasource.getDefaultStrategy(),
+                    datasource.getTenantStrategies(), datasource.getSchemaTemplate(),
+                    datasource.getDiscriminatorColumn()));
+            if (datasource.getSharedUrl() != null) {
+                if (!(factory instanceof HikariTenantDataSourceFactory hikari)) {
+                    throw new IllegalStateException("shared-url requires HikariTenantDataSourceFactory, "
+                            + "set the shared data source on a custom TenantRoutingDataSource instead");
+                }
+                routingDataSource.setSharedDataSource(
+                        hikari.create("tenant-shared", datasource.getSharedUrl(), datasource.getSharedPoolSize()));
+            }
+            return routingDataSource;
+        }
+
+        /**
+         * 配置租户路由切面
+         *
+         * @return 租户路由切面
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public TenantRoutingAspect tenantRoutingAspect() {
+            return new TenantRoutingAspect();
+        }
+    }
+
+    /**
+     * 配置了租户数据源URL模板或共享数据源URL时匹配
+     */
+    static class TenantDataSourceCondition extends AnyNestedCondition {
+
+        TenantDataSourceCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "flow.engine.tenant.datasource", name = "url-template")
+        static class UrlTemplate {
+        }
+
+        @ConditionalOnProperty(prefix = "flow.engine.tenant.datasource", name = "shared-url")
+        static class SharedUrl {
+        }
+    }
 }
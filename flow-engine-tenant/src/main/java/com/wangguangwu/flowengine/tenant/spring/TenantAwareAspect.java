@@ -1,14 +1,14 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
-import com.wangguangwu.flowengine.tenant.api.TenantAware;
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
 import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
 import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 
 import java.lang.reflect.Method;
@@ -16,7 +16,8 @@ import java.lang.reflect.Method;
 /**
  * 租户感知切面
  * <p>
- * 处理标记了@TenantAware注解的方法，检查租户上下文
+ * 处理标记了@TenantAware注解的方法或类，检查租户上下文。
+ * 注解按 {@link TenantAwarePolicy} 解析并缓存，每次调用不再查找注解；被拒绝的调用记录到 {@link TenantMetrics}
  * </p>
  *
  * @author wangguangwu
@@ -37,21 +38,24 @@ public class TenantAwareAspect {
         // 获取方法签名
         MethodSignature signature = (MethodSignature) pjp.getSignature();
         Method method = signature.getMethod();
+        Object target = pjp.getTarget();
         
-        // 获取方法或类上的TenantAware注解
-        TenantAware tenantAware = AnnotationUtils.findAnnotation(method, TenantAware.class);
+        // 获取方法或类上的TenantAware注解对应的策略，解析结果按方法缓存
+        TenantAwarePolicy policy = TenantAwarePolicy.of(method, target != null ? target.getClass() : null);
 
         // 获取当前租户上下文
         TenantContext tenantContext = TenantContextHolder.getContext();
         
         try {
             // 检查是否需要租户上下文
-            if (tenantAware.required() && tenantContext == null) {
+            if (policy.required() && tenantContext == null) {
+                TenantMetrics.recorder().recordRejection(null, TenantRejectionReason.MISSING_TENANT);
                 throw new TenantNotFoundException("租户上下文不存在，但方法要求必须有租户上下文: " + method);
             }
             
             // 检查是否允许系统租户
-            if (!tenantAware.allowSystemTenant() && tenantContext != null && tenantContext.systemTenant()) {
+            if (!policy.allowSystemTenant() && tenantContext != null && tenantContext.systemTenant()) {
+                TenantMetrics.recorder().recordRejection(tenantContext.tenantId(), TenantRejectionReason.SYSTEM_TENANT);
                 throw new IllegalStateException("方法不允许系统租户访问: " + method);
             }
             
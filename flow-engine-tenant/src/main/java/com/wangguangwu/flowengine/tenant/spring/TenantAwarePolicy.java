@@ -0,0 +1,110 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 租户感知策略
+ * <p>
+ * 由方法上的 {@link TenantAware} 注解决定，方法上没有时使用目标类上的注解（{@code @within} 的情况）。
+ * 注解查找需要遍历方法和类的继承层次，因此按 (目标类, 方法) 缓存解析结果：外层使用 {@link ClassValue}，
+ * 缓存随目标类一起回收，不会阻止插件类加载器卸载；内层使用 {@link ConcurrentHashMap}。
+ * 只有四种取值，全部复用常量实例。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class TenantAwarePolicy {
+
+    /**
+     * 没有注解时的策略：不要求租户上下文，允许系统租户
+     */
+    public static final TenantAwarePolicy NONE = new TenantAwarePolicy(false, true);
+
+    private static final TenantAwarePolicy[] POLICIES = {
+            NONE,
+            new TenantAwarePolicy(false, false),
+            new TenantAwarePolicy(true, true),
+            new TenantAwarePolicy(true, false)
+    };
+
+    private static final ClassValue<Map<Method, TenantAwarePolicy>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Method, TenantAwarePolicy> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final boolean required;
+    private final boolean allowSystemTenant;
+
+    private TenantAwarePolicy(boolean required, boolean allowSystemTenant) {
+        this.required = required;
+        this.allowSystemTenant = allowSystemTenant;
+    }
+
+    /**
+     * 获取缓存的策略
+     *
+     * @param method      被调用的方法
+     * @param targetClass 目标类，为null时使用方法的声明类
+     * @return 租户感知策略
+     */
+    public static TenantAwarePolicy of(Method method, Class<?> targetClass) {
+        Class<?> type = targetClass != null ? targetClass : method.getDeclaringClass();
+        Map<Method, TenantAwarePolicy> policies = CACHE.get(type);
+        TenantAwarePolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = resolve(method, type);
+            policies.put(method, policy);
+        }
+        return policy;
+    }
+
+    /**
+     * 解析策略，不使用缓存
+     *
+     * @param method      被调用的方法
+     * @param targetClass 目标类
+     * @return 租户感知策略
+     */
+    public static TenantAwarePolicy resolve(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        TenantAware tenantAware = AnnotatedElementUtils.findMergedAnnotation(specificMethod, TenantAware.class);
+        if (tenantAware == null) {
+            tenantAware = AnnotatedElementUtils.findMergedAnnotation(targetClass, TenantAware.class);
+        }
+        if (tenantAware == null) {
+            return NONE;
+        }
+        return POLICIES[(tenantAware.required() ? 2 : 0) + (tenantAware.allowSystemTenant() ? 0 : 1)];
+    }
+
+    /**
+     * 是否必须有租户上下文
+     *
+     * @return 必须有租户上下文返回true
+     */
+    public boolean required() {
+        return required;
+    }
+
+    /**
+     * 是否允许系统租户
+     *
+     * @return 允许系统租户返回true
+     */
+    public boolean allowSystemTenant() {
+        return allowSystemTenant;
+    }
+
+    @Override
+    public String toString() {
+        return "TenantAwarePolicy[required=" + required + ", allowSystemTenant=" + allowSystemTenant + "]";
+    }
+}
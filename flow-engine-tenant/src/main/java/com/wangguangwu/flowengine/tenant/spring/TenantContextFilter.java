@@ -1,13 +1,25 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
-import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.api.TenantContextInitializer;
 import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+import com.wangguangwu.flowengine.tenant.exception.InvalidTenantIdException;
+import com.wangguangwu.flowengine.tenant.exception.TenantRejectedException;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimiter;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverSettings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -15,7 +27,11 @@ import java.io.IOException;
 /**
  * 租户上下文过滤器
  * <p>
- * 从HTTP请求中提取租户信息，并设置到当前线程的租户上下文中
+ * 从HTTP请求中提取租户信息，并设置到当前线程的租户上下文中。
+ * 租户ID由 {@link TenantResolverChain} 依次尝试请求头、Cookie、路径、子域名、令牌等来源解析；
+ * 租户上下文由 {@link TenantContextInitializer} 提供，默认使用 {@link TenantContextRegistry} 复用每个租户的共享实例；
+ * 租户ID非法时返回400；配置了 {@link TenantAdmissionController} 时，租户超过限速或并发上限返回429。
+ * 启用租户指标时，通过 {@link TenantMetrics} 记录每个租户的请求耗时和被拒绝的请求。
  * </p>
  *
  * @author wangguangwu
@@ -28,55 +44,124 @@ public class TenantContextFilter extends OncePerRequestFilter implements Ordered
     private static final String DEFAULT_TENANT_ID_HEADER = "X-Tenant-ID";
     
     /**
-     * 租户ID请求头名称
+     * 租户解析链
      */
-    private final String tenantIdHeader;
+    private final TenantResolverChain resolverChain;
     
     /**
-     * 系统租户ID
+     * 租户上下文初始化器
      */
-    private final String systemTenantId;
+    private final TenantContextInitializer initializer;
+
+    /**
+     * 租户准入控制器，为null时不限制
+     */
+    private final TenantAdmissionController admissionController;
     
     /**
-     * 构造函数
+     * 构造函数，使用默认配置的租户上下文注册表
      *
      * @param tenantIdHeader 租户ID请求头名称，如果为null则使用默认值
      * @param systemTenantId 系统租户ID
      */
     public TenantContextFilter(String tenantIdHeader, String systemTenantId) {
-        this.tenantIdHeader = tenantIdHeader != null ? tenantIdHeader : DEFAULT_TENANT_ID_HEADER;
-        this.systemTenantId = systemTenantId;
+        this(tenantIdHeader, new TenantContextRegistry(systemTenantId));
+    }
+
+    /**
+     * 构造函数，只从请求头解析租户ID
+     *
+     * @param tenantIdHeader 租户ID请求头名称，如果为null则使用默认值
+     * @param initializer    租户上下文初始化器
+     */
+    public TenantContextFilter(String tenantIdHeader, TenantContextInitializer initializer) {
+        this(TenantResolverChain.load(TenantResolverSettings.ofHeader(
+                tenantIdHeader != null ? tenantIdHeader : DEFAULT_TENANT_ID_HEADER)), initializer);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param resolverChain 租户解析链
+     * @param initializer   租户上下文初始化器
+     */
+    public TenantContextFilter(TenantResolverChain resolverChain, TenantContextInitializer initializer) {
+        this(resolverChain, initializer, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param resolverChain       租户解析链
+     * @param initializer         租户上下文初始化器
+     * @param admissionController 租户准入控制器，为null时不限制
+     */
+    public TenantContextFilter(TenantResolverChain resolverChain, TenantContextInitializer initializer,
+                               TenantAdmissionController admissionController) {
+        this.resolverChain = resolverChain;
+        this.initializer = initializer;
+        this.admissionController = admissionController;
     }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        TenantMetricsRecorder metrics = TenantMetrics.recorder();
+        long startNanos = metrics.isEnabled() ? System.nanoTime() : 0;
+        TenantContext tenantContext = null;
+        TenantLimiter limiter = null;
         try {
-            // 从请求头中获取租户ID
-            String tenantId = request.getHeader(tenantIdHeader);
+            // 依次通过解析链获取租户ID
+            String tenantId = resolverChain.resolve(new ServletTenantRequest(request));
             
-            // 如果请求头中有租户ID，则设置租户上下文
-            if (tenantId != null && !tenantId.isEmpty()) {
-                TenantContext tenantContext;
+            // 如果解析到租户ID，则设置租户上下文
+            if (tenantId != null) {
+                TenantContext resolved;
+                try {
+                    resolved = initializer.initializeContext(tenantId);
+                } catch (InvalidTenantIdException e) {
+                    metrics.recordRejection(null, TenantRejectionReason.INVALID_TENANT);
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+                    return;
+                }
                 
-                // 判断是否为系统租户
-                if (systemTenantId != null && systemTenantId.equals(tenantId)) {
-                    tenantContext = DefaultTenantContext.createSystemTenant(tenantId);
-                } else {
-                    tenantContext = DefaultTenantContext.create(tenantId);
+                // 租户准入，超过限速或并发上限时拒绝
+                if (admissionController != null) {
+                    try {
+                        limiter = admissionController.acquire(resolved.tenantId());
+                    } catch (TenantRejectedException e) {
+                        metrics.recordRejection(resolved.tenantId(), TenantRejectionReason.of(e.getReason()));
+                        reject(response, e);
+                        return;
+                    }
                 }
                 
                 // 设置租户上下文
+                tenantContext = resolved;
                 TenantContextHolder.setContext(tenantContext);
             }
             
             // 继续执行过滤器链
             filterChain.doFilter(request, response);
         } finally {
+            if (limiter != null) {
+                limiter.release();
+            }
+            if (tenantContext != null && metrics.isEnabled()) {
+                metrics.recordRequest(tenantContext.tenantId(), System.nanoTime() - startNanos);
+            }
             // 清除租户上下文，防止内存泄漏
             TenantContextHolder.clearContext();
         }
     }
+
+    private void reject(HttpServletResponse response, TenantRejectedException e) throws IOException {
+        long retryAfterSeconds = e.getRetryAfterSeconds();
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        }
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+    }
     
     @Override
     public int getOrder() {
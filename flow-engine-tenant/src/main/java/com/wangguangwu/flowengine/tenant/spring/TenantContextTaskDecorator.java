@@ -0,0 +1,22 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.core.TenantContextSnapshot;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 传递租户上下文的任务装饰器
+ * <p>
+ * Spring Boot 把唯一的 {@link TaskDecorator} Bean 应用到自动配置的 {@code applicationTaskExecutor}，
+ * {@code @Async} 方法和注入的 {@code TaskExecutor} 提交的任务在提交时捕获 {@link TenantContextSnapshot}，
+ * 执行结束后恢复工作线程原有的上下文。线程池的大小、队列和关闭行为仍由 {@code spring.task.execution} 配置。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContextSnapshot.capture().wrap(runnable);
+    }
+}
@@ -0,0 +1,38 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.core.TenantGuard;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 租户强制生成类替换处理器
+ * <p>
+ * 对按类名注册的Bean（例如组件扫描得到的Bean），如果存在编译期生成的 {@code TenantEnforced_} 子类，
+ * 则将Bean的实现类替换为该子类。通过 {@code @Bean} 工厂方法创建的Bean不做替换，需要自行实例化生成类。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class TenantEnforcedBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        ClassLoader classLoader = beanFactory.getBeanClassLoader();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            String className = definition.getBeanClassName();
+            if (!(definition instanceof AbstractBeanDefinition) || className == null
+                    || definition.getFactoryMethodName() != null) {
+                continue;
+            }
+            String enforcedClassName = TenantGuard.enforcedClassName(className);
+            if (ClassUtils.isPresent(enforcedClassName, classLoader)) {
+                definition.setBeanClassName(enforcedClassName);
+            }
+        }
+    }
+}
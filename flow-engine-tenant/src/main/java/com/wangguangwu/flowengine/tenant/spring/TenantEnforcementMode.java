@@ -0,0 +1,21 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+/**
+ * {@link com.wangguangwu.flowengine.tenant.api.TenantAware} 的强制方式
+ *
+ * @author wangguangwu
+ */
+public enum TenantEnforcementMode {
+
+    /**
+     * 通过Spring AOP代理和 {@link TenantAwareAspect} 检查，调用结束后清理租户上下文
+     */
+    PROXY,
+
+    /**
+     * 使用 flow-engine-tenant-processor 在编译期生成的子类替换Bean的实现类，
+     * 在方法入口直接调用 {@link com.wangguangwu.flowengine.tenant.core.TenantGuard} 检查；
+     * 不创建代理，类内部的自调用同样生效，不修改租户上下文
+     */
+    GENERATED
+}
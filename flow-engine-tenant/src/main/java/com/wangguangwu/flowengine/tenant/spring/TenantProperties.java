@@ -1,9 +1,18 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolderMode;
+import com.wangguangwu.flowengine.tenant.datasource.DatabaseTenantRoutingStrategy;
+import com.wangguangwu.flowengine.tenant.datasource.TenantRoutingSettings;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 租户配置属性
  * <p>
@@ -32,4 +41,258 @@ public class TenantProperties {
      */
     private String tenantIdHeader = "X-Tenant-ID";
 
+    /**
+     * 租户ID的其他解析来源，请求头始终最先解析
+     */
+    private Resolver resolver = new Resolver();
+
+    /**
+     * 租户扩展解析缓存的最大条目数
+     */
+    private long extensionCacheSize = 10_000;
+
+    /**
+     * 租户扩展解析缓存的空闲过期时间
+     */
+    private Duration extensionCacheTtl = Duration.ofMinutes(30);
+
+    /**
+     * 租户上下文缓存的最大租户数
+     */
+    private long contextCacheSize = 10_000;
+
+    /**
+     * 租户上下文缓存的空闲过期时间
+     */
+    private Duration contextCacheTtl = Duration.ofMinutes(30);
+
+    /**
+     * 租户上下文存储模式
+     */
+    private TenantContextHolderMode holderMode = TenantContextHolderMode.INHERITABLE;
+
+    /**
+     * {@code @TenantAware} 的强制方式，GENERATED需要在编译期启用 flow-engine-tenant-processor
+     */
+    private TenantEnforcementMode enforcement = TenantEnforcementMode.PROXY;
+
+    /**
+     * 租户感知任务线程池（taskExecutor）的固定线程数，大于0时替代Spring Boot的applicationTaskExecutor；
+     * 为0时不注册，由 {@link TenantContextTaskDecorator} 为Spring Boot的线程池传递租户上下文
+     */
+    private int executorPoolSize = 0;
+
+    /**
+     * 租户数据源路由配置，配置了URL模板或共享数据源URL时启用
+     */
+    private Datasource datasource = new Datasource();
+
+    /**
+     * 租户准入配置，启用后按租户限速并限制并发
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * 租户指标配置，存在 {@code MeterRegistry} 时生效
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 租户解析配置，未配置的来源不参与解析
+     */
+    @Setter
+    @Getter
+    public static class Resolver {
+
+        /**
+         * 租户ID Cookie名称
+         */
+        private String cookieName;
+
+        /**
+         * 租户ID所在的路径前缀，例如 /tenants/
+         */
+        private String pathPrefix;
+
+        /**
+         * 租户子域名的基础域名，例如 example.com
+         */
+        private String baseDomain;
+
+        /**
+         * Bearer令牌中保存租户ID的声明名称，令牌签名需由前置的认证组件校验
+         */
+        private String jwtClaim;
+    }
+
+    /**
+     * 租户数据源路由配置
+     */
+    @Setter
+    @Getter
+    public static class Datasource {
+
+        /**
+         * 租户JDBC URL模板，{tenant} 替换为租户ID，例如 jdbc:h2:mem:{tenant}
+         */
+        private String urlTemplate;
+
+        /**
+         * 数据库用户名
+         */
+        private String username;
+
+        /**
+         * 数据库密码
+         */
+        private String password;
+
+        /**
+         * 单个租户连接池的最大连接数
+         */
+        private int maximumPoolSize = 5;
+
+        /**
+         * 所有租户连接池的最大物理连接数，空闲连接同样计入
+         */
+        private int maxTotalConnections = 50;
+
+        /**
+         * 同时保留的最大租户连接池数
+         */
+        private int maxDataSources = 100;
+
+        /**
+         * 租户连接池及其空闲连接的释放时间
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * 获取连接的超时时间
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 共享数据源的JDBC URL，schema和discriminator策略的租户使用
+         */
+        private String sharedUrl;
+
+        /**
+         * 共享数据源的最大连接数
+         */
+        private int sharedPoolSize = 10;
+
+        /**
+         * 默认的路由策略：database / schema / discriminator
+         */
+        private String defaultStrategy = DatabaseTenantRoutingStrategy.NAME;
+
+        /**
+         * 按租户指定的路由策略，租户ID -> 策略名称
+         */
+        private Map<String, String> tenantStrategies = new HashMap<>();
+
+        /**
+         * schema策略的schema名称模板，{tenant} 替换为租户ID
+         */
+        private String schemaTemplate = TenantRoutingSettings.TENANT_PLACEHOLDER;
+
+        /**
+         * discriminator策略的租户列名
+         */
+        private String discriminatorColumn = "tenant_id";
+    }
+
+    /**
+     * 租户准入配置
+     */
+    @Setter
+    @Getter
+    public static class Admission {
+
+        /**
+         * 是否启用租户准入控制
+         */
+        private boolean enabled = false;
+
+        /**
+         * 默认的租户准入限制
+         */
+        private Limit limit = new Limit();
+
+        /**
+         * 按租户指定的准入限制，租户ID -> 限制，未设置的项不做限制
+         */
+        private Map<String, Limit> tenants = new HashMap<>();
+
+        /**
+         * 同时保留准入状态的最大租户数
+         */
+        private long maxTenants = TenantAdmissionController.DEFAULT_MAXIMUM_SIZE;
+
+        /**
+         * 空闲租户准入状态的过期时间，应不短于令牌桶的填满时间
+         */
+        private Duration idleTimeout = TenantAdmissionController.DEFAULT_EXPIRE_AFTER_ACCESS;
+    }
+
+    /**
+     * 租户指标配置
+     */
+    @Setter
+    @Getter
+    public static class Metrics {
+
+        /**
+         * 是否记录租户指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 使用独立租户标签的最大租户数，其余租户的标签为 other
+         */
+        private int maxTenantTags = 100;
+
+        /**
+         * 热点租户排名的衰减周期
+         */
+        private Duration decayInterval = Duration.ofMinutes(1);
+
+        /**
+         * 是否为请求耗时发布百分位直方图
+         */
+        private boolean percentileHistogram = true;
+    }
+
+    /**
+     * 租户准入限制
+     */
+    @Setter
+    @Getter
+    public static class Limit {
+
+        /**
+         * 每秒允许的请求数，为0时不限速
+         */
+        private double permitsPerSecond = 0;
+
+        /**
+         * 允许的突发请求数，为0时取每秒请求数
+         */
+        private int burst = 0;
+
+        /**
+         * 同时处理的最大请求数，为0时不限制
+         */
+        private int maxInFlight = 0;
+
+        /**
+         * 转换为租户准入限制
+         *
+         * @return 租户准入限制
+         */
+        public TenantLimit toTenantLimit() {
+            return new TenantLimit(permitsPerSecond, burst, maxInFlight);
+        }
+    }
 }
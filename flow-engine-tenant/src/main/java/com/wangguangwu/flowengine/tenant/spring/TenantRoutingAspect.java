@@ -0,0 +1,40 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantRejectionReason;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 租户路由切面
+ * <p>
+ * 处理标记了@TenantRouting注解的方法或类。路由数据源在没有租户上下文时会回退到默认数据源，
+ * 切面在方法执行前检查租户上下文，保证方法内的连接不会路由到默认数据源
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Aspect
+@Order(100)
+public class TenantRoutingAspect {
+
+    /**
+     * 环绕通知，拦截标记了@TenantRouting注解的方法
+     *
+     * @param pjp 连接点
+     * @return 方法执行结果
+     * @throws Throwable 如果方法执行过程中发生异常
+     */
+    @Around("@annotation(com.wangguangwu.flowengine.tenant.api.TenantRouting) || @within(com.wangguangwu.flowengine.tenant.api.TenantRouting)")
+    public Object around(ProceedingJoinPoint pjp) throws Throwable {
+        if (TenantContextHolder.getContext() == null) {
+            TenantMetrics.recorder().recordRejection(null, TenantRejectionReason.MISSING_TENANT);
+            throw new TenantNotFoundException("租户上下文不存在，无法路由租户资源: " + pjp.getSignature());
+        }
+        return pjp.proceed();
+    }
+}
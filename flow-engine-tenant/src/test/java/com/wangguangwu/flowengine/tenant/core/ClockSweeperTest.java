@@ -0,0 +1,72 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClockSweeper 单元测试
+ *
+ * @author wangguangwu
+ */
+class ClockSweeperTest {
+
+    private final ConcurrentMap<String, TestEntry> entries = new ConcurrentHashMap<>();
+
+    @Test
+    @DisplayName("测试所有条目都被访问过时只淘汰到低于上限")
+    void testEvictOnlyBelowCapacity() {
+        ClockSweeper<String, TestEntry> sweeper = new ClockSweeper<>(entries, 4, Duration.ofMinutes(1), entry -> true);
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            sweeper.sweepIfNeeded();
+            entries.put(key, new TestEntry());
+        }
+
+        sweeper.sweepIfNeeded();
+        entries.put("e", new TestEntry());
+        assertEquals(4, entries.size());
+
+        // 指针从上次停下的位置继续，被访问过的条目获得第二次机会
+        entries.get("c").markAccessed();
+        sweeper.sweepIfNeeded();
+        entries.put("f", new TestEntry());
+        assertEquals(4, entries.size());
+        assertTrue(entries.containsKey("c"));
+    }
+
+    @Test
+    @DisplayName("测试没有可退役的条目时最多扫描两圈")
+    void testBoundedWhenNothingRetires() {
+        ClockSweeper<String, TestEntry> sweeper = new ClockSweeper<>(entries, 2, Duration.ofMinutes(1), entry -> false);
+        entries.put("a", new TestEntry());
+        entries.put("b", new TestEntry());
+
+        sweeper.sweepIfNeeded();
+        assertEquals(Set.of("a", "b"), entries.keySet());
+    }
+
+    @Test
+    @DisplayName("测试空闲过期时移除两次清理之间未被访问的条目")
+    void testExpireIdleEntries() {
+        ClockSweeper<String, TestEntry> sweeper = new ClockSweeper<>(entries, 100, Duration.ofNanos(1), entry -> true);
+        entries.put("idle", new TestEntry());
+        entries.put("active", new TestEntry());
+
+        // 新条目视为已访问，第一次清理只重置访问标记
+        sweeper.sweepIfNeeded();
+        assertEquals(2, entries.size());
+
+        entries.get("active").markAccessed();
+        sweeper.sweepIfNeeded();
+        assertEquals(Set.of("active"), entries.keySet());
+    }
+
+    private static final class TestEntry extends ClockSweeper.Entry {
+    }
+}
@@ -0,0 +1,104 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantAwareExecutorService 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantAwareExecutorServiceTest {
+
+    private ExecutorService delegate;
+    private TenantAwareExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        // 在设置租户上下文之前创建线程池，工作线程不会继承上下文
+        delegate = Executors.newSingleThreadExecutor();
+        executor = new TenantAwareExecutorService(delegate);
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("测试submit传递上下文并恢复工作线程原有上下文")
+    void testSubmitRestoresWorkerContext() throws Exception {
+        delegate.submit(() -> TenantContextHolder.setContext(DefaultTenantContext.create("worker"))).get();
+
+        assertEquals("tenant-a", executor.submit(TenantContextHolder::getCurrentTenantId).get());
+        Future<?> future = executor.submit(() -> assertEquals("tenant-a", TenantContextHolder.getCurrentTenantId()));
+        future.get();
+
+        assertEquals("worker", delegate.submit(TenantContextHolder::getCurrentTenantId).get());
+    }
+
+    @Test
+    @DisplayName("测试invokeAll的所有任务使用同一租户")
+    void testInvokeAll() throws Exception {
+        List<Callable<String>> tasks = List.of(TenantContextHolder::getCurrentTenantId,
+                TenantContextHolder::getCurrentTenantId, TenantContextHolder::getCurrentTenantId);
+        for (Future<String> future : executor.invokeAll(tasks)) {
+            assertEquals("tenant-a", future.get());
+        }
+        assertEquals("tenant-a", executor.invokeAny(tasks));
+    }
+
+    @Test
+    @DisplayName("测试CompletableFuture异步阶段传递上下文")
+    void testCompletableFuture() {
+        String tenants = CompletableFuture.supplyAsync(TenantContextHolder::getCurrentTenantId, executor)
+                .thenApplyAsync(first -> first + "," + TenantContextHolder.getCurrentTenantId(), executor)
+                .join();
+        assertEquals("tenant-a,tenant-a", tenants);
+    }
+
+    @Test
+    @DisplayName("测试没有租户上下文时提交任务")
+    void testSubmitWithoutContext() throws Exception {
+        TenantContextHolder.clearContext();
+        assertNull(executor.submit(TenantContextHolder::getCurrentTenantId).get());
+    }
+
+    @Test
+    @DisplayName("测试定时任务传递上下文")
+    void testSchedule() throws Exception {
+        TenantAwareScheduledExecutorService scheduled =
+                new TenantAwareScheduledExecutorService(Executors.newSingleThreadScheduledExecutor());
+        try {
+            assertEquals("tenant-a",
+                    scheduled.schedule(TenantContextHolder::getCurrentTenantId, 10, TimeUnit.MILLISECONDS).get());
+        } finally {
+            scheduled.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("测试虚拟线程执行器")
+    void testVirtualThreadPerTaskExecutor() throws Exception {
+        TenantAwareExecutorService virtual = TenantAwareExecutorService.newVirtualThreadPerTaskExecutor();
+        try {
+            assertEquals("tenant-a", virtual.submit(TenantContextHolder::getCurrentTenantId).get());
+        } finally {
+            virtual.shutdown();
+        }
+    }
+}
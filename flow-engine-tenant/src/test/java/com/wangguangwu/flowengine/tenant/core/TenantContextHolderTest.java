@@ -20,6 +20,7 @@ class TenantContextHolderTest {
     @AfterEach
     void tearDown() {
         TenantContextHolder.clearContext();
+        TenantContextHolder.setMode(TenantContextHolderMode.INHERITABLE);
     }
 
     @Test
@@ -110,4 +111,50 @@ class TenantContextHolderTest {
         assertEquals("parent-tenant", childContext.get().tenantId());
         assertEquals(parentContext.tenantId(), childContext.get().tenantId());
     }
+
+    @Test
+    @DisplayName("测试调用范围内的上下文在结束后恢复")
+    void testRunWithContextRestoresPrevious() throws Exception {
+        TenantContext outer = DefaultTenantContext.create("outer-tenant");
+        TenantContext inner = DefaultTenantContext.create("inner-tenant");
+        TenantContextHolder.setContext(outer);
+
+        TenantContextHolder.runWithContext(inner, () -> {
+            assertEquals("inner-tenant", TenantContextHolder.getCurrentTenantId());
+            TenantContextHolder.runWithContext(null, () -> assertFalse(TenantContextHolder.hasContext()));
+            assertEquals("inner-tenant", TenantContextHolder.getCurrentTenantId());
+        });
+        assertEquals("outer-tenant", TenantContextHolder.getCurrentTenantId());
+
+        assertThrows(IllegalStateException.class, () -> TenantContextHolder.callWithContext(inner, () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertSame(outer, TenantContextHolder.getContext());
+
+        TenantContextHolder.clearContext();
+        assertEquals("inner-tenant", TenantContextHolder.callWithContext(inner, TenantContextHolder::getCurrentTenantId));
+        assertFalse(TenantContextHolder.hasContext());
+    }
+
+    @Test
+    @DisplayName("测试SCOPED模式下子线程不继承上下文")
+    void testScopedModeNotInherited() throws InterruptedException {
+        TenantContextHolder.setMode(TenantContextHolderMode.SCOPED);
+        assertEquals(TenantContextHolderMode.SCOPED, TenantContextHolder.getMode());
+
+        AtomicReference<TenantContext> childContext = new AtomicReference<>(DefaultTenantContext.create("marker"));
+        TenantContextHolder.runWithContext(DefaultTenantContext.create("parent-tenant"), () -> {
+            assertEquals("parent-tenant", TenantContextHolder.getCurrentTenantId());
+            Thread childThread = new Thread(() -> childContext.set(TenantContextHolder.getContext()));
+            childThread.start();
+            try {
+                childThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertNull(childContext.get());
+        assertFalse(TenantContextHolder.hasContext());
+    }
 }
@@ -0,0 +1,97 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.exception.InvalidTenantIdException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantContextRegistry 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantContextRegistryTest {
+
+    private static final String SYSTEM_TENANT_ID = "system";
+
+    @Test
+    @DisplayName("测试同一租户复用同一上下文实例")
+    void testSameInstanceForSameTenant() {
+        TenantContextRegistry registry = new TenantContextRegistry(SYSTEM_TENANT_ID);
+
+        TenantContext first = registry.initializeContext("tenant-001");
+        // 模拟每次请求解析出的新字符串
+        TenantContext second = registry.initializeContext(new String("tenant-001"));
+
+        assertSame(first, second);
+        assertEquals("tenant-001", first.tenantId());
+        assertEquals("Tenant-tenant-001", first.tenantName());
+        assertFalse(first.systemTenant());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("测试系统租户")
+    void testSystemTenant() {
+        TenantContextRegistry registry = new TenantContextRegistry(SYSTEM_TENANT_ID);
+
+        TenantContext context = registry.initializeContext(SYSTEM_TENANT_ID);
+
+        assertTrue(context.systemTenant());
+        assertSame(context, registry.initializeContext(SYSTEM_TENANT_ID));
+    }
+
+    @Test
+    @DisplayName("测试非法租户ID被拒绝且不进入缓存")
+    void testInvalidTenantId() {
+        TenantContextRegistry registry = new TenantContextRegistry(SYSTEM_TENANT_ID);
+
+        assertThrows(InvalidTenantIdException.class, () -> registry.initializeContext(null));
+        assertThrows(InvalidTenantIdException.class, () -> registry.initializeContext(""));
+        assertThrows(InvalidTenantIdException.class, () -> registry.initializeContext("tenant 001"));
+        assertThrows(InvalidTenantIdException.class, () -> registry.initializeContext("tenant/../001"));
+        assertThrows(InvalidTenantIdException.class,
+                () -> registry.initializeContext("t".repeat(TenantContextRegistry.MAX_TENANT_ID_LENGTH + 1)));
+
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("测试缓存容量有界且可主动移除")
+    void testBoundedSize() {
+        TenantContextRegistry registry = new TenantContextRegistry(SYSTEM_TENANT_ID, 10, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            registry.initializeContext("tenant-" + i);
+        }
+        assertTrue(registry.size() <= 10);
+
+        TenantContext context = registry.initializeContext("tenant-x");
+        registry.invalidate("tenant-x");
+        TenantContext recreated = registry.initializeContext("tenant-x");
+        assertNotSame(context, recreated);
+        assertEquals(context, recreated);
+    }
+
+    @Test
+    @DisplayName("测试空闲租户过期淘汰")
+    void testExpireIdleTenant() {
+        TenantContextRegistry registry = new TenantContextRegistry(SYSTEM_TENANT_ID, 100, Duration.ofNanos(1));
+
+        TenantContext idle = registry.initializeContext("idle-tenant");
+        // 新加入的租户视为已访问，下一个租户加入时的清理只重置其访问标记
+        TenantContext active = registry.initializeContext("active-tenant");
+        assertEquals(2, registry.size());
+        // 清理前被访问过的租户获得第二次机会
+        registry.initializeContext("active-tenant");
+        registry.initializeContext("new-tenant");
+
+        assertEquals(2, registry.size());
+        assertSame(active, registry.initializeContext("active-tenant"));
+        assertNotSame(idle, registry.initializeContext("idle-tenant"));
+    }
+}
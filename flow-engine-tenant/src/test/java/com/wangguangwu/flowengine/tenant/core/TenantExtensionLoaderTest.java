@@ -0,0 +1,110 @@
+package com.wangguangwu.flowengine.tenant.core;
+
+import com.wangguangwu.flowengine.spi.exception.SPIException;
+import com.wangguangwu.flowengine.spi.loader.DefaultExtensionLoader;
+import com.wangguangwu.flowengine.spi.loader.ExtensionLoader;
+import com.wangguangwu.flowengine.tenant.core.extension.PricingStep;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantExtensionLoader 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantExtensionLoaderTest {
+
+    private final TenantExtensionCache cache = new TenantExtensionCache(2, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        cache.close();
+    }
+
+    @Test
+    @DisplayName("测试无租户上下文时使用全局扩展")
+    void testGlobalExtensionWithoutTenant() {
+        ExtensionLoader<PricingStep> loader = cache.getExtensionLoader(PricingStep.class);
+
+        assertEquals("standard", loader.getDefaultExtension().price());
+        assertEquals("discount", loader.getExtension("discount").price());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("测试租户覆盖扩展")
+    void testTenantOverride() {
+        ExtensionLoader<PricingStep> loader = cache.getExtensionLoader(PricingStep.class);
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertEquals("tenant-a", loader.getDefaultExtension().price());
+        assertEquals("tenant-a", loader.getExtension("default").price());
+        // 未覆盖的扩展回退到全局实现
+        assertEquals("discount", loader.getExtension("discount").price());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-b"));
+        assertEquals("standard", loader.getExtension("default").price());
+    }
+
+    @Test
+    @DisplayName("测试缓存容量有界")
+    void testCacheBounded() {
+        ExtensionLoader<PricingStep> loader = cache.getExtensionLoader(PricingStep.class);
+        for (int i = 0; i < 10; i++) {
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-" + i));
+            loader.getExtension("discount");
+        }
+        assertTrue(cache.size() <= 2);
+
+        cache.invalidate(PricingStep.class);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("测试与重新加载并发的旧解析结果不会留在缓存中")
+    void testStaleResolutionDuringReload() {
+        Supplier<String> stale = () -> "stale";
+        Supplier<String> fresh = () -> "fresh";
+        Supplier<String> first = cache.get("tenant-a", String.class, "name", (tenantId, name) -> {
+            // 解析期间扩展点被重新加载
+            cache.invalidate(String.class);
+            return stale;
+        });
+        assertSame(stale, first);
+        assertSame(fresh, cache.get("tenant-a", String.class, "name", (tenantId, name) -> fresh));
+        assertSame(fresh, cache.get("tenant-a", String.class, "name", (tenantId, name) -> stale));
+    }
+
+    @Test
+    @DisplayName("测试扩展不存在")
+    void testNoSuchExtension() {
+        ExtensionLoader<PricingStep> loader = cache.getExtensionLoader(PricingStep.class);
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertThrows(SPIException.class, () -> loader.getExtension("not-exist"));
+        assertFalse(loader.hasExtension("not-exist"));
+    }
+
+    @Test
+    @DisplayName("测试扩展重新加载后清除缓存")
+    void testInvalidateOnReload() {
+        ExtensionLoader<PricingStep> loader = cache.getExtensionLoader(PricingStep.class);
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        PricingStep before = loader.getDefaultExtension();
+        assertEquals(1, cache.size());
+
+        DefaultExtensionLoader.getExtensionLoader(PricingStep.class)
+                .reload(PricingStep.class.getClassLoader(), Duration.ZERO).join();
+
+        assertEquals(0, cache.size());
+        PricingStep after = loader.getDefaultExtension();
+        assertNotSame(before, after);
+        assertEquals("tenant-a", after.price());
+    }
+}
@@ -0,0 +1,15 @@
+package com.wangguangwu.flowengine.tenant.core.extension;
+
+/**
+ * 测试用定价扩展点
+ *
+ * @author wangguangwu
+ */
+public interface PricingStep {
+    /**
+     * 计算价格
+     *
+     * @return 价格策略名称
+     */
+    String price();
+}
@@ -0,0 +1,8 @@
+package com.wangguangwu.flowengine.tenant.core.extension;
+
+public class StandardPricingStep implements PricingStep {
+    @Override
+    public String price() {
+        return "standard";
+    }
+}
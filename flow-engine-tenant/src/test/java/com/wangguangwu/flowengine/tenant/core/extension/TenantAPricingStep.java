@@ -0,0 +1,8 @@
+package com.wangguangwu.flowengine.tenant.core.extension;
+
+public class TenantAPricingStep implements PricingStep {
+    @Override
+    public String price() {
+        return "tenant-a";
+    }
+}
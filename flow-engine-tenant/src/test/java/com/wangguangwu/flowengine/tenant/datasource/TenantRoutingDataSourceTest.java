@@ -0,0 +1,221 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantRoutingDataSource 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantRoutingDataSourceTest {
+
+    private final Map<String, HikariDataSource> created = new HashMap<>();
+    private final HikariTenantDataSourceFactory hikari = new HikariTenantDataSourceFactory(
+            "jdbc:h2:mem:routing_{tenant};DB_CLOSE_DELAY=-1", "sa", "", 2,
+            Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        created.values().forEach(HikariDataSource::close);
+        hikari.close();
+    }
+
+    @Test
+    @DisplayName("测试按租户路由到独立数据库")
+    void testRouteByTenant() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(10, 10)) {
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            execute(dataSource, "CREATE TABLE orders (id INT)");
+            execute(dataSource, "INSERT INTO orders VALUES (1)");
+            assertEquals(1, count(dataSource));
+
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-b"));
+            execute(dataSource, "CREATE TABLE orders (id INT)");
+            assertEquals(0, count(dataSource));
+
+            assertEquals(2, dataSource.getDataSourceCount());
+            assertEquals(0, dataSource.getBorrowedConnections());
+        }
+        assertTrue(created.values().stream().allMatch(HikariDataSource::isClosed));
+    }
+
+    @Test
+    @DisplayName("测试没有租户上下文时的路由")
+    void testWithoutTenant() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(10, 10)) {
+            assertThrows(TenantNotFoundException.class, dataSource::getConnection);
+
+            JdbcDataSource defaultDataSource = new JdbcDataSource();
+            defaultDataSource.setURL("jdbc:h2:mem:routing_default");
+            dataSource.setDefaultDataSource(defaultDataSource);
+            try (Connection connection = dataSource.getConnection()) {
+                assertTrue(connection.getMetaData().getURL().contains("routing_default"));
+            }
+            assertEquals(0, dataSource.getDataSourceCount());
+        }
+    }
+
+    @Test
+    @DisplayName("测试所有租户共享连接上限")
+    void testMaxTotalConnections() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(10, 2)) {
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            Connection first = dataSource.getConnection();
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-b"));
+            Connection second = dataSource.getConnection();
+            assertEquals(2, dataSource.getBorrowedConnections());
+
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-c"));
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+            // 重复关闭只归还一次许可
+            first.close();
+            first.close();
+            try (Connection third = dataSource.getConnection()) {
+                assertFalse(third.isClosed());
+                assertEquals(2, dataSource.getBorrowedConnections());
+            }
+            second.close();
+            assertEquals(0, dataSource.getBorrowedConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("测试空闲的物理连接也计入连接额度")
+    void testPhysicalConnectionsWithinLimit() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(100, 3)) {
+            for (int i = 0; i < 6; i++) {
+                TenantContextHolder.setContext(DefaultTenantContext.create("tenant-" + i));
+                try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+                    assertTrue(first.isValid(1) && second.isValid(1));
+                    assertTrue(physicalConnections() <= 3);
+                }
+                // 归还后物理连接仍空闲保留在租户连接池中，继续占用额度
+                assertEquals(2, created.get("tenant-" + i).getHikariPoolMXBean().getTotalConnections());
+                assertTrue(physicalConnections() <= 3);
+                assertTrue(dataSource.getReservedConnections() <= 3);
+            }
+            // 额度耗尽时关闭了空闲的租户连接池
+            assertTrue(dataSource.getDataSourceCount() < 6);
+            assertEquals(0, dataSource.getBorrowedConnections());
+        }
+        assertEquals(0, physicalConnections());
+    }
+
+    @Test
+    @DisplayName("测试淘汰未使用的租户数据源")
+    void testEvictUnusedDataSources() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(2, 10)) {
+            use(dataSource, "tenant-a");
+            use(dataSource, "tenant-b");
+            // 达到上限，第一圈重置两个数据源的访问标记，第二圈只淘汰一个，而不是清空
+            use(dataSource, "tenant-c");
+            assertEquals(2, dataSource.getDataSourceCount());
+            assertEquals(1, closedCount("tenant-a", "tenant-b"));
+            assertFalse(created.get("tenant-c").isClosed());
+
+            // tenant-c 借出连接期间不会被淘汰，其余租户轮流被淘汰
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-c"));
+            try (Connection connection = dataSource.getConnection()) {
+                use(dataSource, "tenant-d");
+                use(dataSource, "tenant-e");
+                use(dataSource, "tenant-f");
+                assertEquals(2, dataSource.getDataSourceCount());
+                assertFalse(created.get("tenant-c").isClosed());
+                assertEquals(2, closedCount("tenant-d", "tenant-e"));
+                assertFalse(created.get("tenant-f").isClosed());
+                assertFalse(connection.isClosed());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("测试主动淘汰租户数据源")
+    void testEvict() throws SQLException {
+        try (TenantRoutingDataSource dataSource = newDataSource(10, 10)) {
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            Connection connection = dataSource.getConnection();
+            dataSource.evict("tenant-a");
+            assertEquals(0, dataSource.getDataSourceCount());
+            // 已借出的连接归还后才关闭数据源
+            assertFalse(created.get("tenant-a").isClosed());
+            connection.close();
+            assertTrue(created.get("tenant-a").isClosed());
+
+            use(dataSource, "tenant-a");
+            assertEquals(1, dataSource.getDataSourceCount());
+        }
+    }
+
+    private TenantRoutingDataSource newDataSource(int maxDataSources, int maxTotalConnections) {
+        TenantDataSourceFactory factory = new TenantDataSourceFactory() {
+            @Override
+            public DataSource create(String tenantId) {
+                DataSource dataSource = hikari.create(tenantId);
+                created.put(tenantId, (HikariDataSource) dataSource);
+                return dataSource;
+            }
+
+            @Override
+            public int limitConnections(DataSource dataSource, int limit) {
+                return hikari.limitConnections(dataSource, limit);
+            }
+        };
+        return new TenantRoutingDataSource(factory, maxDataSources, Duration.ofMinutes(10),
+                maxTotalConnections, Duration.ofMillis(50));
+    }
+
+    private int physicalConnections() {
+        return created.values().stream()
+                .filter(dataSource -> !dataSource.isClosed())
+                .mapToInt(dataSource -> dataSource.getHikariPoolMXBean().getTotalConnections())
+                .sum();
+    }
+
+    private long closedCount(String... tenantIds) {
+        return Arrays.stream(tenantIds).filter(tenantId -> created.get(tenantId).isClosed()).count();
+    }
+
+    private void use(DataSource dataSource, String tenantId) throws SQLException {
+        TenantContextHolder.setContext(DefaultTenantContext.create(tenantId));
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+    }
+
+    private void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int count(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM orders")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
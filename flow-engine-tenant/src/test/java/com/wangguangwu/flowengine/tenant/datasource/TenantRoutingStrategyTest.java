@@ -0,0 +1,177 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.InvalidTenantIdException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbc.JdbcDatabaseMetaData;
+import org.h2.jdbc.JdbcStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 租户路由策略测试
+ *
+ * @author wangguangwu
+ */
+class TenantRoutingStrategyTest {
+
+    private HikariTenantDataSourceFactory factory;
+    private HikariDataSource shared;
+    private TenantRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        factory = new HikariTenantDataSourceFactory("jdbc:h2:mem:strategy_{tenant};DB_CLOSE_DELAY=-1", "sa", "", 2,
+                Duration.ofSeconds(10), Duration.ofSeconds(5));
+        shared = factory.create("tenant-shared", "jdbc:h2:mem:strategy_shared;DB_CLOSE_DELAY=-1", 1);
+        try (Connection connection = shared.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE SCHEMA \"schema-a\"");
+            statement.execute("CREATE SCHEMA \"schema-b\"");
+            statement.execute("CREATE TABLE \"schema-a\".orders (id INT)");
+            statement.execute("CREATE TABLE \"schema-b\".orders (id INT)");
+            statement.execute("CREATE TABLE orders (id INT, tenant_id VARCHAR(64))");
+        }
+        dataSource = new TenantRoutingDataSource(factory, 10, Duration.ofMinutes(10), 10, Duration.ofSeconds(1));
+        dataSource.setSharedDataSource(shared);
+        dataSource.setRoutingSettings(new TenantRoutingSettings("discriminator",
+                Map.of("schema-a", "schema", "schema-b", "schema", "db-a", "database"),
+                "{tenant}", "tenant_id"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+        dataSource.close();
+        factory.close();
+    }
+
+    @Test
+    @DisplayName("测试schema策略在共享连接上切换schema")
+    void testSchemaStrategy() throws SQLException {
+        as("schema-a");
+        execute("INSERT INTO orders VALUES (1)");
+        execute("INSERT INTO orders VALUES (2)");
+        as("schema-b");
+        execute("INSERT INTO orders VALUES (3)");
+
+        assertEquals(1, count("SELECT COUNT(*) FROM orders"));
+        as("schema-a");
+        assertEquals(2, count("SELECT COUNT(*) FROM orders"));
+        // 共享连接池只有一个连接，切换schema不重新建立连接
+        assertEquals(1, shared.getHikariPoolMXBean().getTotalConnections());
+        assertEquals(0, dataSource.getDataSourceCount());
+    }
+
+    @Test
+    @DisplayName("测试discriminator策略按租户列隔离共享表")
+    void testDiscriminatorStrategy() throws SQLException {
+        as("tenant-c");
+        execute("INSERT INTO orders (id) VALUES (1), (2)");
+        as("tenant-d");
+        execute("INSERT INTO orders (id) VALUES (3)");
+
+        assertEquals(1, count("SELECT COUNT(*) FROM orders"));
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE orders SET id = ? WHERE id > ?")) {
+            statement.setInt(1, 10);
+            statement.setInt(2, 0);
+            assertEquals(1, statement.executeUpdate());
+            assertSame(connection, statement.getConnection());
+        }
+        as("tenant-c");
+        assertEquals(2, count("SELECT COUNT(*) FROM orders WHERE id < 10"));
+        execute("DELETE FROM orders");
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        as("tenant-d");
+        assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE id = 10"));
+
+        assertThrows(SQLFeatureNotSupportedException.class,
+                () -> execute("SELECT * FROM orders o JOIN orders p ON o.id = p.id"));
+        assertEquals(0, dataSource.getBorrowedConnections());
+    }
+
+    @Test
+    @DisplayName("测试discriminator策略不暴露未改写的连接")
+    void testDiscriminatorDoesNotLeakRawConnection() throws SQLException {
+        as("tenant-c");
+        execute("INSERT INTO orders (id) VALUES (1)");
+        as("tenant-d");
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isWrapperFor(Connection.class));
+            assertSame(connection, connection.unwrap(Connection.class));
+            assertFalse(connection.isWrapperFor(JdbcConnection.class));
+            assertThrows(SQLException.class, () -> connection.unwrap(JdbcConnection.class));
+            assertSame(connection, connection.getMetaData().getConnection());
+            assertThrows(SQLException.class, () -> connection.getMetaData().unwrap(JdbcDatabaseMetaData.class));
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM orders")) {
+                assertSame(statement, resultSet.getStatement());
+                assertSame(connection, resultSet.getStatement().getConnection());
+                assertThrows(SQLException.class, () -> statement.unwrap(JdbcStatement.class));
+                resultSet.next();
+                assertEquals(0, resultSet.getInt(1));
+                // 通过元数据或结果集取回的连接同样改写
+                try (Statement again = resultSet.getStatement().getConnection().createStatement()) {
+                    assertThrows(SQLFeatureNotSupportedException.class,
+                            () -> again.executeUpdate("DELETE FROM orders # note"));
+                }
+            }
+        }
+        as("tenant-c");
+        assertEquals(1, count("SELECT COUNT(*) FROM orders"));
+    }
+
+    @Test
+    @DisplayName("测试database策略使用独立数据源")
+    void testDatabaseStrategy() throws SQLException {
+        as("db-a");
+        execute("CREATE TABLE orders (id INT)");
+        execute("INSERT INTO orders VALUES (1)");
+        assertEquals(1, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(1, dataSource.getDataSourceCount());
+    }
+
+    @Test
+    @DisplayName("测试discriminator策略拒绝非法租户ID")
+    void testRejectInvalidTenantId() {
+        as("tenant' OR '1'='1");
+        assertThrows(InvalidTenantIdException.class, () -> dataSource.getConnection());
+        assertEquals(0, dataSource.getBorrowedConnections());
+    }
+
+    private void as(String tenantId) {
+        TenantContextHolder.setContext(DefaultTenantContext.create(tenantId));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
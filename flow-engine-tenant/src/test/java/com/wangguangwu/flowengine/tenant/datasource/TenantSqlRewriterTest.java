@@ -0,0 +1,117 @@
+package com.wangguangwu.flowengine.tenant.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLFeatureNotSupportedException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantSqlRewriter 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantSqlRewriterTest {
+
+    private final TenantSqlRewriter rewriter = new TenantSqlRewriter("tenant_id");
+
+    @Test
+    @DisplayName("测试改写查询语句")
+    void testRewriteSelect() throws SQLFeatureNotSupportedException {
+        assertEquals("SELECT * FROM orders WHERE tenant_id = 't1'",
+                rewriter.rewrite("SELECT * FROM orders", "t1"));
+        assertEquals("select id from app.orders o WHERE tenant_id = 't1' order by id limit 10;",
+                rewriter.rewrite("select id from app.orders o order by id limit 10;", "t1"));
+        assertEquals("SELECT status, COUNT(*) FROM orders WHERE (id > ? OR status = 'a OR b') AND tenant_id = 't1' "
+                        + "GROUP BY status",
+                rewriter.rewrite("SELECT status, COUNT(*) FROM orders WHERE id > ? OR status = 'a OR b' "
+                        + "GROUP BY status", "t1"));
+        assertEquals("SELECT 1", rewriter.rewrite("SELECT 1", "t1"));
+    }
+
+    @Test
+    @DisplayName("测试改写更新、删除和插入语句")
+    void testRewriteModification() throws SQLFeatureNotSupportedException {
+        assertEquals("UPDATE orders SET status = ? WHERE (id = ?) AND tenant_id = 't1'",
+                rewriter.rewrite("UPDATE orders SET status = ? WHERE id = ?", "t1"));
+        assertEquals("UPDATE orders SET status = 'done' WHERE tenant_id = 't1'",
+                rewriter.rewrite("UPDATE orders SET status = 'done'", "t1"));
+        assertEquals("DELETE FROM orders WHERE (id IN (1, 2)) AND tenant_id = 't1'",
+                rewriter.rewrite("DELETE FROM orders WHERE id IN (1, 2)", "t1"));
+        assertEquals("INSERT INTO orders (id, status, tenant_id) VALUES (?, lower('NEW'), 't1'), (2, 'b', 't1')",
+                rewriter.rewrite("INSERT INTO orders (id, status) VALUES (?, lower('NEW')), (2, 'b')", "t1"));
+    }
+
+    @Test
+    @DisplayName("测试拒绝无法安全改写的语句")
+    void testRejectUnsafeStatements() {
+        String[] unsafe = {
+                "SELECT * FROM orders o JOIN items i ON o.id = i.order_id",
+                "SELECT * FROM orders, items",
+                "SELECT * FROM orders WHERE id IN (SELECT order_id FROM items)",
+                "SELECT id FROM orders UNION SELECT id FROM archived",
+                "WITH t AS (SELECT 1) SELECT * FROM t",
+                "SELECT * FROM (VALUES (1)) v",
+                "SELECT * FROM orders; DELETE FROM orders",
+                "UPDATE orders SET tenant_id = 'other'",
+                "INSERT INTO orders VALUES (1)",
+                "INSERT INTO orders (id, tenant_id) VALUES (1, 'other')",
+                "INSERT INTO orders (id) SELECT id FROM archived",
+                "DROP TABLE orders",
+                "SELECT * FROM orders WHERE status = 'unterminated",
+        };
+        for (String sql : unsafe) {
+            assertFalse(rewriter.parse(sql).supported(), sql);
+            assertThrows(SQLFeatureNotSupportedException.class, () -> rewriter.rewrite(sql, "t1"), sql);
+        }
+    }
+
+    @Test
+    @DisplayName("测试拒绝各方言解释不一致的注释和引号")
+    void testRejectAmbiguousLexicalSyntax() {
+        String[] ambiguous = {
+                // MySQL把 # 之后当作注释，租户条件会被追加到注释里
+                "DELETE FROM orders # note",
+                "DELETE FROM orders WHERE id = 1 --1",
+                "SELECT * FROM orders /*! WHERE 1 = 1 */",
+                "SELECT * FROM orders /* outer /* inner */ WHERE 1 = 1 */",
+                // MySQL中反斜杠转义引号，字符串在 -- 之后才结束
+                "DELETE FROM orders WHERE note = 'a\\' -- ' AND id = 1",
+                "SELECT * FROM orders WHERE note = E'a\\''",
+                "SELECT * FROM orders WHERE \"no\\\"te\" = 1",
+                "SELECT $$ FROM orders $$",
+                "SELECT * FROM orders WHERE id = $1",
+                "SELECT * FROM orders WHERE {fn UCASE(note)} = 'A'",
+        };
+        for (String sql : ambiguous) {
+            assertFalse(rewriter.parse(sql).supported(), sql);
+            assertThrows(SQLFeatureNotSupportedException.class, () -> rewriter.rewrite(sql, "t1"), sql);
+        }
+    }
+
+    @Test
+    @DisplayName("测试忽略字符串和注释中的关键字")
+    void testIgnoreLiteralsAndComments() throws SQLFeatureNotSupportedException {
+        assertEquals("SELECT * FROM orders /* JOIN */ WHERE (note = 'x; SELECT JOIN') AND tenant_id = 't1' -- UNION\n",
+                rewriter.rewrite("SELECT * FROM orders /* JOIN */ WHERE note = 'x; SELECT JOIN' -- UNION\n", "t1"));
+        assertEquals("DELETE FROM \"my\"\"orders\" WHERE (note = 'it''s') AND tenant_id = 't1'",
+                rewriter.rewrite("DELETE FROM \"my\"\"orders\" WHERE note = 'it''s'", "t1"));
+    }
+
+    @Test
+    @DisplayName("测试按SQL缓存改写模板")
+    void testCache() throws SQLFeatureNotSupportedException {
+        String sql = "SELECT * FROM orders WHERE id = ?";
+        TenantSqlRewriter.TenantSql parsed = rewriter.parse(sql);
+        assertSame(parsed, rewriter.parse(sql));
+        assertEquals("SELECT * FROM orders WHERE (id = ?) AND tenant_id = 't2'", rewriter.rewrite(sql, "t2"));
+        assertSame(parsed, rewriter.parse("SELECT * FROM orders WHERE id = ?"));
+        assertEquals(1, rewriter.size());
+
+        TenantSqlRewriter bounded = new TenantSqlRewriter("tenant_id", 1);
+        bounded.parse("SELECT 1");
+        bounded.parse("SELECT 2");
+        assertEquals(1, bounded.size());
+    }
+}
@@ -0,0 +1,207 @@
+package com.wangguangwu.flowengine.tenant.limit;
+
+import com.wangguangwu.flowengine.tenant.exception.TenantRejectedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantAdmissionController 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantAdmissionControllerTest {
+
+    @Test
+    @DisplayName("测试令牌桶允许突发请求后限速")
+    void testRateLimit() {
+        // 每秒1个请求，突发3个：1秒内第4个请求被拒绝
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(1, 3, 0));
+
+        for (int i = 0; i < 3; i++) {
+            controller.acquire("tenant-a").release();
+        }
+        TenantRejectedException e = assertThrows(TenantRejectedException.class,
+                () -> controller.acquire("tenant-a"));
+
+        assertEquals(TenantRejectedException.Reason.RATE_LIMITED, e.getReason());
+        assertTrue(e.getRetryAfterNanos() > 0 && e.getRetryAfterNanos() <= TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, e.getRetryAfterSeconds());
+        // 其他租户不受影响
+        controller.acquire("tenant-b").release();
+
+        TenantAdmissionStatistics statistics = controller.getStatistics();
+        assertEquals(4, statistics.admitted());
+        assertEquals(1, statistics.rateLimited());
+        assertEquals(0, statistics.concurrencyLimited());
+        assertEquals(2, statistics.tenants());
+    }
+
+    @Test
+    @DisplayName("测试令牌按速率补充")
+    void testRefill() throws InterruptedException {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(50, 1, 0));
+
+        controller.acquire("tenant-a").release();
+        assertThrows(TenantRejectedException.class, () -> controller.acquire("tenant-a"));
+
+        Thread.sleep(100);
+        controller.acquire("tenant-a").release();
+    }
+
+    @Test
+    @DisplayName("测试并发上限与释放")
+    void testConcurrencyLimit() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 2));
+
+        TenantLimiter first = controller.acquire("tenant-a");
+        TenantLimiter second = controller.acquire("tenant-a");
+        assertSame(first, second);
+        assertEquals(2, controller.getInFlight("tenant-a"));
+
+        TenantRejectedException e = assertThrows(TenantRejectedException.class,
+                () -> controller.acquire("tenant-a"));
+        assertEquals(TenantRejectedException.Reason.CONCURRENCY_LIMITED, e.getReason());
+        assertEquals(0, e.getRetryAfterSeconds());
+
+        first.release();
+        controller.acquire("tenant-a");
+        assertEquals(2, controller.getInFlight("tenant-a"));
+        assertEquals(1, controller.getStatistics().concurrencyLimited());
+    }
+
+    @Test
+    @DisplayName("测试限速拒绝时归还并发名额")
+    void testRateRejectionReleasesConcurrency() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(1, 1, 1));
+
+        controller.acquire("tenant-a").release();
+        assertThrows(TenantRejectedException.class, () -> controller.acquire("tenant-a"));
+
+        assertEquals(0, controller.getInFlight("tenant-a"));
+    }
+
+    @Test
+    @DisplayName("测试按租户配置的限制")
+    void testTenantLimits() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 1),
+                Map.of("vip", TenantLimit.UNLIMITED), 100, Duration.ofMinutes(10));
+
+        for (int i = 0; i < 10; i++) {
+            controller.acquire("vip");
+        }
+        controller.acquire("tenant-a");
+        assertThrows(TenantRejectedException.class, () -> controller.acquire("tenant-a"));
+
+        assertEquals(TenantLimit.UNLIMITED, controller.getLimit("vip"));
+        assertEquals(10, controller.getInFlight("vip"));
+    }
+
+    @Test
+    @DisplayName("测试超过容量时淘汰空闲租户但保留处理中的租户")
+    void testEviction() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 1),
+                Map.of(), 100, Duration.ofHours(1));
+
+        TenantLimiter busy = controller.acquire("busy");
+        for (int i = 0; i < 1_000; i++) {
+            controller.acquire("tenant-" + i).release();
+        }
+
+        assertTrue(controller.size() <= 101, "size: " + controller.size());
+        // 处理中的租户保留了状态，并发上限仍然生效
+        assertEquals(1, controller.getInFlight("busy"));
+        assertThrows(TenantRejectedException.class, () -> controller.acquire("busy"));
+        busy.release();
+        controller.acquire("busy").release();
+    }
+
+    @Test
+    @DisplayName("测试被淘汰的租户再次出现时重新创建状态")
+    void testRecreateAfterEviction() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 1),
+                Map.of(), 1, Duration.ofHours(1));
+
+        TenantLimiter first = controller.acquire("tenant-a");
+        first.release();
+        controller.acquire("tenant-b").release();
+        controller.acquire("tenant-c").release();
+
+        TenantLimiter again = controller.acquire("tenant-a");
+        assertNotSame(first, again);
+        assertEquals(1, again.getInFlight());
+        assertEquals(0, first.getInFlight());
+    }
+
+    @Test
+    @DisplayName("测试多线程下不超过并发上限")
+    void testConcurrentAcquire() throws Exception {
+        int maxInFlight = 3;
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, maxInFlight));
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger admitted = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        TenantLimiter limiter;
+                        try {
+                            limiter = controller.acquire("tenant-a");
+                        } catch (TenantRejectedException e) {
+                            continue;
+                        }
+                        try {
+                            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+                            admitted.incrementAndGet();
+                            Thread.yield();
+                        } finally {
+                            current.decrementAndGet();
+                            limiter.release();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(peak.get() <= maxInFlight, "peak: " + peak.get());
+        assertEquals(0, controller.getInFlight("tenant-a"));
+        TenantAdmissionStatistics statistics = controller.getStatistics();
+        assertEquals(admitted.get(), statistics.admitted());
+        assertEquals(threads * 2_000L, statistics.admitted() + statistics.concurrencyLimited());
+    }
+
+    @Test
+    @DisplayName("测试非法的限制配置")
+    void testInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new TenantLimit(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TenantLimit(Double.NaN, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TenantLimit(0, 0, -1));
+        assertEquals(5, new TenantLimit(4.5, 0, 0).burst());
+        assertEquals(1, new TenantLimit(0.1, 0, 0).burst());
+    }
+}
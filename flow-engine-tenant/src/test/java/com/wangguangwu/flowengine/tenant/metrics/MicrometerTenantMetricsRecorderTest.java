@@ -0,0 +1,116 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextPropagator;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MicrometerTenantMetricsRecorder 单元测试
+ *
+ * @author wangguangwu
+ */
+class MicrometerTenantMetricsRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        TenantMetrics.setRecorder(null);
+        TenantContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("测试按租户记录请求耗时，长尾租户归入other")
+    void testRequests() {
+        MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(registry, 2,
+                Duration.ofHours(1), false);
+
+        recorder.recordRequest("tenant-a", TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.recordRequest("tenant-a", TimeUnit.MILLISECONDS.toNanos(15));
+        recorder.recordRequest("tenant-b", TimeUnit.MILLISECONDS.toNanos(1));
+        for (int i = 0; i < 1_000; i++) {
+            recorder.recordRequest("tail-" + i, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        Timer tenantA = registry.get(MicrometerTenantMetricsRecorder.REQUESTS).tag("tenant", "tenant-a").timer();
+        assertEquals(2, tenantA.count());
+        assertEquals(20, tenantA.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1_000, registry.get(MicrometerTenantMetricsRecorder.REQUESTS).tag("tenant", "other")
+                .timer().count());
+        // 两个租户加上other
+        assertEquals(3, registry.get(MicrometerTenantMetricsRecorder.REQUESTS).timers().size());
+    }
+
+    @Test
+    @DisplayName("测试记录被拒绝的请求")
+    void testRejections() {
+        MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(registry, 10,
+                Duration.ofHours(1), false);
+
+        recorder.recordRejection("tenant-a", TenantRejectionReason.RATE_LIMITED);
+        recorder.recordRejection("tenant-a", TenantRejectionReason.RATE_LIMITED);
+        recorder.recordRejection(null, TenantRejectionReason.INVALID_TENANT);
+
+        assertEquals(2, registry.get(MicrometerTenantMetricsRecorder.REJECTIONS)
+                .tags("tenant", "tenant-a", "reason", "rate_limited").counter().count());
+        assertEquals(1, registry.get(MicrometerTenantMetricsRecorder.REJECTIONS)
+                .tags("tenant", "none", "reason", "invalid_tenant").counter().count());
+    }
+
+    @Test
+    @DisplayName("测试不再跟踪的租户的计量器被移除")
+    void testRemoveMeters() {
+        MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(registry, 1,
+                Duration.ofHours(1), false);
+        recorder.recordRequest("tenant-a", 1);
+        recorder.recordRejection("tenant-a", TenantRejectionReason.CONCURRENCY_LIMITED);
+
+        // 两次请求的计数经过两次衰减减半为0，第三次衰减时移除
+        recorder.getHeavyHitters().decay();
+        recorder.getHeavyHitters().decay();
+        recorder.getHeavyHitters().decay();
+
+        assertNull(registry.find(MicrometerTenantMetricsRecorder.REQUESTS).tag("tenant", "tenant-a").timer());
+        assertNull(registry.find(MicrometerTenantMetricsRecorder.REJECTIONS).tag("tenant", "tenant-a").counter());
+    }
+
+    @Test
+    @DisplayName("测试记录上下文传播和残留的上下文")
+    void testPropagation() {
+        MicrometerTenantMetricsRecorder recorder = new MicrometerTenantMetricsRecorder(registry, 10,
+                Duration.ofHours(1), false);
+        TenantMetrics.setRecorder(recorder);
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        Runnable propagated = TenantContextPropagator.wrap(() -> { });
+        // 模拟执行线程残留了其他租户的上下文
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-b"));
+        propagated.run();
+        // 包装后的任务结束时清除上下文
+        assertNull(TenantContextHolder.getContext());
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        TenantContextPropagator.wrap(() -> { }).run();
+        TenantContextPropagator.wrap(() -> { }).run();
+
+        assertEquals(1, count("leaked"));
+        assertEquals(1, count("propagated"));
+        assertEquals(1, count("empty"));
+
+        recorder.close();
+        assertSame(TenantMetricsRecorder.NOOP, TenantMetrics.recorder());
+    }
+
+    private double count(String event) {
+        return registry.get(MicrometerTenantMetricsRecorder.PROPAGATION).tag("event", event).counter().count();
+    }
+}
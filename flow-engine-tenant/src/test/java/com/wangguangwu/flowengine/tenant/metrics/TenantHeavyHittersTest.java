@@ -0,0 +1,87 @@
+package com.wangguangwu.flowengine.tenant.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantHeavyHitters 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantHeavyHittersTest {
+
+    private final List<String> removed = new ArrayList<>();
+
+    private TenantHeavyHitters<String> create(int capacity) {
+        return new TenantHeavyHitters<>(capacity, Duration.ofHours(1), tenant -> tenant, removed::add);
+    }
+
+    @Test
+    @DisplayName("测试未满时直接跟踪，已满后其余租户归入other")
+    void testCapacity() {
+        TenantHeavyHitters<String> heavyHitters = create(3);
+
+        assertEquals("tenant-a", heavyHitters.get("tenant-a"));
+        assertEquals("tenant-b", heavyHitters.get("tenant-b"));
+        assertEquals("tenant-c", heavyHitters.get("tenant-c"));
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(TenantHeavyHitters.OTHER, heavyHitters.get("tail-" + i));
+        }
+
+        assertEquals(Set.of("tenant-a", "tenant-b", "tenant-c"), heavyHitters.trackedTenants());
+        assertEquals(TenantHeavyHitters.OTHER, heavyHitters.other());
+    }
+
+    @Test
+    @DisplayName("测试热点租户替换最冷的跟踪租户")
+    void testHeavyHitterReplacesColdest() {
+        TenantHeavyHitters<String> heavyHitters = create(2);
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.get("tenant-a");
+        }
+        heavyHitters.get("tenant-b");
+
+        String last = null;
+        for (int i = 0; i < 10; i++) {
+            last = heavyHitters.get("hot");
+        }
+
+        assertEquals("hot", last);
+        assertEquals(Set.of("tenant-a", "hot"), heavyHitters.trackedTenants());
+        assertEquals(List.of("tenant-b"), removed);
+    }
+
+    @Test
+    @DisplayName("测试衰减后移除空闲租户")
+    void testDecay() {
+        TenantHeavyHitters<String> heavyHitters = create(2);
+        heavyHitters.get("tenant-a");
+        heavyHitters.get("tenant-b");
+
+        heavyHitters.decay();
+        heavyHitters.get("tenant-a");
+        heavyHitters.decay();
+        heavyHitters.decay();
+
+        // tenant-a 在第二个周期有请求，第三个周期计数减半为0后才被移除
+        assertEquals(List.of("tenant-b", "tenant-a"), removed);
+        assertTrue(heavyHitters.trackedTenants().isEmpty());
+        assertEquals("tenant-c", heavyHitters.get("tenant-c"));
+    }
+
+    @Test
+    @DisplayName("测试容量为0时所有租户归入other")
+    void testZeroCapacity() {
+        TenantHeavyHitters<String> heavyHitters = create(0);
+
+        assertEquals(TenantHeavyHitters.OTHER, heavyHitters.get("tenant-a"));
+        assertTrue(heavyHitters.trackedTenants().isEmpty());
+    }
+}
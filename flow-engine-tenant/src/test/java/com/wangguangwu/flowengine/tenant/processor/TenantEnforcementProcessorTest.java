@@ -0,0 +1,216 @@
+package com.wangguangwu.flowengine.tenant.processor;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantEnforcementProcessor 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantEnforcementProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Test
+    void testEnforceAnnotatedMethods() throws Throwable {
+        assertTrue(compile(source("demo.OrderService", """
+                package demo;
+                import com.wangguangwu.flowengine.tenant.api.TenantAware;
+                public class OrderService {
+                    private final String prefix;
+                    public OrderService(String prefix) { this.prefix = prefix; }
+                    @TenantAware
+                    public String find(String id) { return prefix + id; }
+                    @TenantAware(required = false, allowSystemTenant = false)
+                    public void audit() {}
+                    public String publicInfo() { return find("-public"); }
+                }
+                """)).isEmpty());
+
+        Class<?> enforced = load("demo.TenantEnforced_OrderService");
+        Object service = enforced.getConstructor(String.class).newInstance("order");
+
+        // 未标注的方法不覆盖，但内部自调用的受约束方法仍然经过检查
+        assertEquals(enforced.getSuperclass(), enforced.getMethod("publicInfo").getDeclaringClass());
+        assertThrows(TenantNotFoundException.class, () -> invoke(service, "find", "1"));
+        assertThrows(TenantNotFoundException.class, () -> invoke(service, "publicInfo"));
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertEquals("order1", invoke(service, "find", "1"));
+        assertEquals("order-public", invoke(service, "publicInfo"));
+        invoke(service, "audit");
+        // 检查不修改租户上下文
+        assertEquals("tenant-a", TenantContextHolder.getCurrentTenantId());
+
+        TenantContextHolder.setContext(DefaultTenantContext.createSystemTenant("system"));
+        assertThrows(IllegalStateException.class, () -> invoke(service, "audit"));
+
+        TenantContextHolder.clearContext();
+        invoke(service, "audit");
+    }
+
+    @Test
+    void testClassLevelAnnotation() throws Throwable {
+        assertTrue(compile(
+                source("demo.Base", """
+                        package demo;
+                        public class Base<T> {
+                            public T echo(T value) { return value; }
+                        }
+                        """),
+                source("demo.Outer", """
+                        package demo;
+                        import com.wangguangwu.flowengine.tenant.api.TenantAware;
+                        public class Outer {
+                            @TenantAware(allowSystemTenant = false)
+                            public static class Repository<K extends Comparable<K>> extends Base<String> {
+                                public Repository() {}
+                                protected Repository(K seed, String... tags) throws java.io.IOException {}
+                                public <V extends Number> java.util.List<V> list(K key, V... values) throws Exception {
+                                    return java.util.Arrays.asList(values);
+                                }
+                                @TenantAware(required = false)
+                                public int count() { return 1; }
+                                public final String name() { return "repository"; }
+                            }
+                        }
+                        """)).isEmpty());
+
+        Class<?> enforced = load("demo.TenantEnforced_Outer_Repository");
+        Object repository = enforced.getConstructor().newInstance();
+
+        assertThrows(TenantNotFoundException.class, () -> invoke(repository, "echo", "value"));
+        assertEquals(1, invoke(repository, "count"));
+        assertEquals(enforced.getSuperclass(), enforced.getMethod("name").getDeclaringClass());
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertEquals("value", invoke(repository, "echo", "value"));
+        assertEquals(List.of(1, 2), invoke(repository, "list", "key", new Integer[]{1, 2}));
+
+        TenantContextHolder.setContext(DefaultTenantContext.createSystemTenant("system"));
+        assertThrows(IllegalStateException.class, () -> invoke(repository, "echo", "value"));
+    }
+
+    @Test
+    void testSkipPackagePrivateMethodsOfOtherPackages() throws Throwable {
+        assertTrue(compile(
+                source("base.Base", """
+                        package base;
+                        public class Base {
+                            String internal() { return "internal"; }
+                            public String run() { return internal(); }
+                        }
+                        """),
+                source("demo.Child", """
+                        package demo;
+                        @com.wangguangwu.flowengine.tenant.api.TenantAware
+                        public class Child extends base.Base {
+                            String local() { return "local"; }
+                        }
+                        """)).isEmpty());
+
+        Class<?> enforced = load("demo.TenantEnforced_Child");
+        Object child = enforced.getConstructor().newInstance();
+
+        // 同包的包私有方法仍然被覆盖，其他包父类的包私有方法跳过
+        assertEquals(enforced, enforced.getDeclaredMethod("local").getDeclaringClass());
+        assertThrows(NoSuchMethodException.class, () -> enforced.getDeclaredMethod("internal"));
+        assertThrows(TenantNotFoundException.class, () -> invoke(child, "run"));
+
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+        assertEquals("internal", invoke(child, "run"));
+    }
+
+    @Test
+    void testRejectFinalClass() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile(source("demo.Sealed", """
+                package demo;
+                @com.wangguangwu.flowengine.tenant.api.TenantAware
+                public final class Sealed { public void run() {} }
+                """));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains("final type"));
+    }
+
+    @Test
+    void testRejectFinalAnnotatedMethod() {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile(source("demo.Service", """
+                package demo;
+                public class Service {
+                    @com.wangguangwu.flowengine.tenant.api.TenantAware
+                    public final void run() {}
+                }
+                """));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains("final method"));
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                List.of("-d", output.toString(), "-s", output.toString(),
+                        "-classpath", System.getProperty("java.class.path")),
+                null, List.of(sources));
+        task.setProcessors(List.of(new TenantEnforcementProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .toList();
+    }
+
+    private Class<?> load(String className) throws Exception {
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+        return classLoader.loadClass(className);
+    }
+
+    private static Object invoke(Object target, String name, Object... args) throws Throwable {
+        for (Method method : target.getClass().getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
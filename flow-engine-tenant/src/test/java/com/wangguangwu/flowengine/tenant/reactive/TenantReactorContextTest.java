@@ -0,0 +1,81 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantReactorContext 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantReactorContextTest {
+
+    private static final TenantContext TENANT = DefaultTenantContext.create("reactive-tenant");
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("测试租户上下文跨线程切换后仍然有效")
+    void testContextSurvivesThreadHops() {
+        Flux<String> tenantIds = Flux.range(0, 3)
+                .publishOn(Schedulers.parallel())
+                .flatMap(i -> TenantReactorContext.current().subscribeOn(Schedulers.boundedElastic()))
+                .map(TenantContext::tenantId)
+                .contextWrite(TenantReactorContext.withTenant(TENANT));
+
+        StepVerifier.create(tenantIds)
+                .expectNext("reactive-tenant", "reactive-tenant", "reactive-tenant")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("测试没有租户上下文时为空")
+    void testEmptyWithoutTenant() {
+        StepVerifier.create(TenantReactorContext.current()).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("测试阻塞调用期间绑定线程本地的租户上下文")
+    void testFromCallableBindsHolder() {
+        TenantContext previous = DefaultTenantContext.create("previous-tenant");
+        TenantContextHolder.setContext(previous);
+
+        String tenantId = TenantReactorContext.fromCallable(TenantContextHolder::getCurrentTenantId)
+                .contextWrite(TenantReactorContext.withTenant(TENANT))
+                .block();
+
+        assertEquals("reactive-tenant", tenantId);
+        // 调用结束后恢复原有的值
+        assertSame(previous, TenantContextHolder.getContext());
+    }
+
+    @Test
+    @DisplayName("测试通过上下文传播访问器恢复线程本地的租户上下文")
+    void testThreadLocalAccessor() {
+        // handle操作符借助已注册的访问器恢复线程本地变量
+        String tenantId = Mono.just(1)
+                .publishOn(Schedulers.parallel())
+                .<String>handle((value, sink) -> sink.next(TenantContextHolder.getCurrentTenantId()))
+                .contextWrite(TenantReactorContext.withTenant(TENANT))
+                .block();
+        assertEquals("reactive-tenant", tenantId);
+
+        // contextCapture将调用线程的租户上下文写入Reactor Context
+        TenantContextHolder.setContext(TENANT);
+        TenantContext captured = TenantReactorContext.current().contextCapture().block();
+        assertSame(TENANT, captured);
+    }
+}
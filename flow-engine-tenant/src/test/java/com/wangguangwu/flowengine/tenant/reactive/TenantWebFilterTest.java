@@ -0,0 +1,151 @@
+package com.wangguangwu.flowengine.tenant.reactive;
+
+import com.wangguangwu.flowengine.tenant.api.TenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantWebFilter 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantWebFilterTest {
+
+    private static final String TENANT_ID_HEADER = "X-Tenant-ID";
+
+    private TenantWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        TenantResolverChain resolverChain = TenantResolverChain.load(
+                new TenantResolverSettings(TENANT_ID_HEADER, null, "/tenants/", null, null));
+        filter = new TenantWebFilter(resolverChain, new TenantContextRegistry("system"));
+    }
+
+    @Test
+    @DisplayName("测试租户上下文写入Reactor Context而不是线程本地变量")
+    void testTenantInReactorContext() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/orders").header(TENANT_ID_HEADER, "acme"));
+        AtomicReference<TenantContext> captured = new AtomicReference<>();
+        AtomicReference<TenantContext> holder = new AtomicReference<>();
+        WebFilterChain chain = ex -> TenantReactorContext.current()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(context -> {
+                    captured.set(context);
+                    holder.set(TenantContextHolder.getContext());
+                })
+                .then();
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals("acme", captured.get().tenantId());
+        assertNull(holder.get());
+        assertNull(TenantContextHolder.getContext());
+    }
+
+    @Test
+    @DisplayName("测试从路径解析租户ID")
+    void testTenantFromPath() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tenants/acme/orders"));
+        AtomicReference<String> tenantId = new AtomicReference<>();
+        WebFilterChain chain = ex -> TenantReactorContext.current()
+                .doOnNext(context -> tenantId.set(context.tenantId()))
+                .then();
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals("acme", tenantId.get());
+    }
+
+    @Test
+    @DisplayName("测试没有租户ID时直接放行")
+    void testNoTenant() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/orders"));
+        AtomicBoolean present = new AtomicBoolean(true);
+        WebFilterChain chain = ex -> TenantReactorContext.current().hasElement().doOnNext(present::set).then();
+
+        filter.filter(exchange, chain).block();
+
+        assertFalse(present.get());
+    }
+
+    @Test
+    @DisplayName("测试非法租户ID返回400")
+    void testInvalidTenantId() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/orders").header(TENANT_ID_HEADER, "acme;drop"));
+        AtomicBoolean invoked = new AtomicBoolean();
+        WebFilterChain chain = ex -> Mono.fromRunnable(() -> invoked.set(true));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        assertFalse(invoked.get());
+    }
+
+    @Test
+    @DisplayName("测试租户超过并发上限返回429，响应完成后释放名额")
+    void testAdmissionRejected() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 1));
+        TenantWebFilter limitedFilter = new TenantWebFilter(
+                TenantResolverChain.load(new TenantResolverSettings(TENANT_ID_HEADER, null, null, null, null)),
+                new TenantContextRegistry("system"), controller);
+        Sinks.Empty<Void> pending = Sinks.empty();
+        MockServerWebExchange first = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/orders").header(TENANT_ID_HEADER, "acme"));
+        MockServerWebExchange second = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/orders").header(TENANT_ID_HEADER, "acme"));
+
+        // 第一个请求未完成时占用唯一的并发名额
+        limitedFilter.filter(first, ex -> pending.asMono()).subscribe();
+        assertEquals(1, controller.getInFlight("acme"));
+        limitedFilter.filter(second, ex -> Mono.empty()).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+
+        pending.tryEmitEmpty();
+        assertEquals(0, controller.getInFlight("acme"));
+    }
+
+    @Test
+    @DisplayName("测试并发名额在订阅时获取，每次订阅各自释放")
+    void testAdmissionPerSubscription() {
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(0, 0, 1));
+        TenantWebFilter limitedFilter = new TenantWebFilter(
+                TenantResolverChain.load(new TenantResolverSettings(TENANT_ID_HEADER, null, null, null, null)),
+                new TenantContextRegistry("system"), controller);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/orders").header(TENANT_ID_HEADER, "acme"));
+        AtomicInteger invocations = new AtomicInteger();
+
+        // 只组装不订阅时不占用名额
+        Mono<Void> response = limitedFilter.filter(exchange, ex -> Mono.fromRunnable(invocations::incrementAndGet));
+        assertEquals(0, controller.getInFlight("acme"));
+
+        response.block();
+        response.block();
+        assertEquals(2, invocations.get());
+        assertEquals(0, controller.getInFlight("acme"));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+    }
+}
@@ -0,0 +1,61 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantResolverChain 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantResolverChainTest {
+
+    @Test
+    @DisplayName("测试通过SPI按顺序加载启用的解析器")
+    void testLoadOrdered() {
+        TenantResolverChain chain = TenantResolverChain.load(
+                new TenantResolverSettings("X-Tenant-ID", "tenant", "/tenants/", "example.com", "tenant_id"));
+
+        List<String> names = chain.getStatistics().stream().map(TenantResolverStatistics::name).toList();
+        assertEquals(List.of("header", "cookie", "path", "subdomain", "jwt"), names);
+
+        TenantResolverChain headerOnly = TenantResolverChain.load(TenantResolverSettings.ofHeader("X-Tenant-ID"));
+        assertEquals(1, headerOnly.getStatistics().size());
+    }
+
+    @Test
+    @DisplayName("测试返回第一个解析成功的结果并记录统计")
+    void testFirstMatchAndStatistics() {
+        TenantResolverChain chain = TenantResolverChain.load(
+                new TenantResolverSettings("X-Tenant-ID", null, "/tenants/", "example.com", null));
+
+        TenantRequest fromHeader = new TestTenantRequest(
+                Map.of("X-Tenant-ID", "header-tenant"), "/tenants/path-tenant", "host.example.com");
+        TenantRequest fromPath = new TestTenantRequest(Map.of(), "/tenants/path-tenant", "host.example.com");
+        TenantRequest fromHost = new TestTenantRequest(Map.of(), "/orders", "host.example.com");
+        TenantRequest none = new TestTenantRequest(Map.of(), "/orders", "localhost");
+
+        assertEquals("header-tenant", chain.resolve(fromHeader));
+        assertEquals("path-tenant", chain.resolve(fromPath));
+        assertEquals("host", chain.resolve(fromHost));
+        assertNull(chain.resolve(none));
+
+        List<TenantResolverStatistics> statistics = chain.getStatistics();
+        TenantResolverStatistics header = statistics.get(0);
+        TenantResolverStatistics path = statistics.get(1);
+        TenantResolverStatistics subdomain = statistics.get(2);
+        assertEquals(4, header.invocations());
+        assertEquals(1, header.hits());
+        assertEquals(0.25, header.hitRatio());
+        assertEquals(3, path.invocations());
+        assertEquals(1, path.hits());
+        assertEquals(2, subdomain.invocations());
+        assertEquals(1, subdomain.hits());
+        assertTrue(header.averageNanos() >= 0);
+    }
+}
@@ -0,0 +1,132 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内置租户解析器单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantResolverTest {
+
+    private static final TenantResolverSettings SETTINGS = new TenantResolverSettings(
+            "X-Tenant-ID", "tenant", "/tenants/", "example.com", "tenant_id");
+
+    @Test
+    @DisplayName("测试请求头解析")
+    void testHeader() {
+        HeaderTenantResolver resolver = new HeaderTenantResolver();
+
+        assertEquals("acme", resolver.resolve(TestTenantRequest.ofHeader("X-Tenant-ID", "acme"), SETTINGS));
+        assertNull(resolver.resolve(TestTenantRequest.ofHeader("X-Tenant-ID", ""), SETTINGS));
+        assertNull(resolver.resolve(TestTenantRequest.ofHeader("Other", "acme"), SETTINGS));
+    }
+
+    @Test
+    @DisplayName("测试Cookie解析")
+    void testCookie() {
+        assertEquals("acme", CookieTenantResolver.findCookie("tenant=acme", "tenant"));
+        assertEquals("acme", CookieTenantResolver.findCookie("a=1; tenant=acme; b=2", "tenant"));
+        assertEquals("acme", CookieTenantResolver.findCookie("a=1;tenant=\"acme\" ", "tenant"));
+        assertNull(CookieTenantResolver.findCookie("mytenant=acme; tenants=x", "tenant"));
+        assertNull(CookieTenantResolver.findCookie("tenant=; a=1", "tenant"));
+        assertNull(CookieTenantResolver.findCookie("", "tenant"));
+
+        TenantRequest request = TestTenantRequest.ofHeader("Cookie", "session=abc; tenant=acme");
+        assertEquals("acme", new CookieTenantResolver().resolve(request, SETTINGS));
+    }
+
+    @Test
+    @DisplayName("测试路径解析")
+    void testPath() {
+        PathTenantResolver resolver = new PathTenantResolver();
+
+        assertEquals("acme", resolver.resolve(pathRequest("/tenants/acme/orders/1"), SETTINGS));
+        assertEquals("acme", resolver.resolve(pathRequest("/tenants/acme"), SETTINGS));
+        assertNull(resolver.resolve(pathRequest("/tenants/"), SETTINGS));
+        assertNull(resolver.resolve(pathRequest("/tenants//orders"), SETTINGS));
+        assertNull(resolver.resolve(pathRequest("/orders/acme"), SETTINGS));
+    }
+
+    @Test
+    @DisplayName("测试子域名解析")
+    void testSubdomain() {
+        SubdomainTenantResolver resolver = new SubdomainTenantResolver();
+
+        assertEquals("acme", resolver.resolve(hostRequest("acme.example.com"), SETTINGS));
+        assertEquals("acme", resolver.resolve(hostRequest("acme.EXAMPLE.com"), SETTINGS));
+        assertNull(resolver.resolve(hostRequest("example.com"), SETTINGS));
+        assertNull(resolver.resolve(hostRequest("a.acme.example.com"), SETTINGS));
+        assertNull(resolver.resolve(hostRequest("acmeexample.com"), SETTINGS));
+        assertNull(resolver.resolve(hostRequest("acme.example.org"), SETTINGS));
+        assertNull(resolver.resolve(hostRequest(null), SETTINGS));
+    }
+
+    @Test
+    @DisplayName("测试令牌声明解析")
+    void testJwt() {
+        JwtTenantResolver resolver = new JwtTenantResolver();
+
+        assertEquals("acme", resolver.resolve(bearer("{\"sub\":\"tenant_id\",\"tenant_id\" : \"acme\"}"), SETTINGS));
+        assertEquals("acme", resolver.resolve(bearer("{\"tenant_id\":\"acme\",\"x\":\"yz\"}"), SETTINGS));
+        assertNull(resolver.resolve(bearer("{\"tenant_id\":1}"), SETTINGS));
+        assertNull(resolver.resolve(bearer("{\"tenant_id\":\"ac\\\"me\"}"), SETTINGS));
+        assertNull(resolver.resolve(bearer("{\"sub\":\"acme\"}"), SETTINGS));
+        assertNull(resolver.resolve(TestTenantRequest.ofHeader("Authorization", "Basic YWJj"), SETTINGS));
+        assertNull(resolver.resolve(TestTenantRequest.ofHeader("Authorization", "Bearer a.b*c.d"), SETTINGS));
+    }
+
+    @Test
+    @DisplayName("测试Base64URL解码与JDK一致")
+    void testBase64UrlDecode() {
+        byte[] out = new byte[64];
+        for (int length = 0; length < 20; length++) {
+            byte[] source = new byte[length];
+            for (int i = 0; i < length; i++) {
+                source[i] = (byte) (i * 37 - 100);
+            }
+            String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(source);
+            int decoded = JwtTenantResolver.decode(encoded, 0, encoded.length(), out);
+            assertEquals(length, decoded);
+            for (int i = 0; i < length; i++) {
+                assertEquals(source[i], out[i]);
+            }
+        }
+        assertEquals(-1, JwtTenantResolver.decode("abcde", 0, 5, out));
+        assertEquals(-1, JwtTenantResolver.decode("A".repeat(200), 0, 200, new byte[10]));
+    }
+
+    @Test
+    @DisplayName("测试未配置的解析器不启用")
+    void testDisabledWithoutSettings() {
+        TenantResolverSettings headerOnly = TenantResolverSettings.ofHeader("X-Tenant-ID");
+
+        assertTrue(new HeaderTenantResolver().isEnabled(headerOnly));
+        assertFalse(new CookieTenantResolver().isEnabled(headerOnly));
+        assertFalse(new PathTenantResolver().isEnabled(headerOnly));
+        assertFalse(new SubdomainTenantResolver().isEnabled(headerOnly));
+        assertFalse(new JwtTenantResolver().isEnabled(headerOnly));
+    }
+
+    private static TenantRequest pathRequest(String path) {
+        return new TestTenantRequest(Map.of(), path, null);
+    }
+
+    private static TenantRequest hostRequest(String host) {
+        return new TestTenantRequest(Map.of(), "/", host);
+    }
+
+    private static TenantRequest bearer(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + '.'
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+        return TestTenantRequest.ofHeader("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,33 @@
+package com.wangguangwu.flowengine.tenant.resolver;
+
+import java.util.Map;
+
+/**
+ * 测试用租户解析请求
+ *
+ * @param headers 请求头
+ * @param path    请求路径
+ * @param host    主机名
+ * @author wangguangwu
+ */
+record TestTenantRequest(Map<String, String> headers, String path, String host) implements TenantRequest {
+
+    static TestTenantRequest ofHeader(String name, String value) {
+        return new TestTenantRequest(Map.of(name, value), "/", null);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,21 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+
+/**
+ * 租户强制测试服务
+ *
+ * @author wangguangwu
+ */
+public class EnforcedTestService {
+
+    @TenantAware
+    public String currentTenant() {
+        return TenantContextHolder.getCurrentTenantId();
+    }
+
+    public String delegate() {
+        return currentTenant();
+    }
+}
@@ -1,14 +1,35 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContextInitializer;
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantAwareExecutorService;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolderMode;
+import com.wangguangwu.flowengine.tenant.core.TenantExtensionCache;
+import com.wangguangwu.flowengine.tenant.datasource.TenantRoutingDataSource;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.metrics.MicrometerTenantMetricsRecorder;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetrics;
+import com.wangguangwu.flowengine.tenant.metrics.TenantMetricsRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverStatistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +56,42 @@ class TenantAutoConfigurationTest {
                 assertFalse(context.containsBean("tenantContextFilter"));
                 // 验证接口类型的Bean是否存在
                 assertNotEquals(0, context.getBeanNamesForType(TenantContextInitializer.class).length);
+                assertNotNull(context.getBean(TenantExtensionCache.class));
+                assertNotNull(context.getBean(TenantContextTaskDecorator.class));
+                assertFalse(context.containsBean("taskExecutor"));
+            });
+    }
+
+    @Test
+    @DisplayName("测试保留Spring Boot的任务线程池并传递租户上下文")
+    void testApplicationTaskExecutorIsDecorated() {
+        contextRunner
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withPropertyValues("spring.task.execution.pool.core-size=3")
+            .run(context -> {
+                ThreadPoolTaskExecutor executor =
+                        context.getBean("applicationTaskExecutor", ThreadPoolTaskExecutor.class);
+                assertEquals(3, executor.getCorePoolSize());
+
+                TenantContextHolder.setContext(DefaultTenantContext.create("tenant-async"));
+                try {
+                    String tenantId = executor.submit(TenantContextHolder::getCurrentTenantId).get(5, TimeUnit.SECONDS);
+                    assertEquals("tenant-async", tenantId);
+                } finally {
+                    TenantContextHolder.clearContext();
+                }
+            });
+    }
+
+    @Test
+    @DisplayName("测试显式配置固定大小的租户感知线程池")
+    void testFixedTenantAwareExecutor() {
+        contextRunner
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withPropertyValues("flow.engine.tenant.executor-pool-size=2")
+            .run(context -> {
+                assertInstanceOf(TenantAwareExecutorService.class, context.getBean("taskExecutor"));
+                assertFalse(context.containsBean("applicationTaskExecutor"));
             });
     }
     
@@ -72,6 +129,154 @@ class TenantAutoConfigurationTest {
                 });
     }
     
+    @Test
+    @DisplayName("测试按Web应用类型注册过滤器")
+    void testWebApplicationType() {
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(TenantAutoConfiguration.class))
+                .run(context -> {
+                    assertTrue(context.containsBean("tenantContextFilter"));
+                    assertFalse(context.containsBean("tenantWebFilter"));
+                });
+        new ReactiveWebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(TenantAutoConfiguration.class))
+                .run(context -> {
+                    assertTrue(context.containsBean("tenantWebFilter"));
+                    assertFalse(context.containsBean("tenantContextFilter"));
+                });
+    }
+    
+    @Test
+    @DisplayName("测试配置租户解析来源")
+    void testResolverChain() {
+        contextRunner
+                .withPropertyValues(
+                        "flow.engine.tenant.resolver.path-prefix=/tenants/",
+                        "flow.engine.tenant.resolver.jwt-claim=tenant_id"
+                )
+                .run(context -> {
+                    TenantResolverChain chain = context.getBean(TenantResolverChain.class);
+                    List<String> names = chain.getStatistics().stream()
+                            .map(TenantResolverStatistics::name)
+                            .toList();
+                    assertEquals(List.of("header", "path", "jwt"), names);
+                });
+    }
+    
+    @Test
+    @DisplayName("测试配置上下文存储模式")
+    void testHolderMode() {
+        try {
+            contextRunner
+                    .withPropertyValues("flow.engine.tenant.holder-mode=scoped")
+                    .run(context -> {
+                        assertEquals(TenantContextHolderMode.SCOPED,
+                                context.getBean(TenantProperties.class).getHolderMode());
+                        assertEquals(TenantContextHolderMode.SCOPED, TenantContextHolder.getMode());
+                    });
+        } finally {
+            TenantContextHolder.setMode(TenantContextHolderMode.INHERITABLE);
+        }
+    }
+
+    @Test
+    @DisplayName("测试生成类强制模式")
+    void testGeneratedEnforcement() {
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withPropertyValues("flow.engine.tenant.enforcement=generated")
+                .run(context -> {
+                    assertEquals(TenantEnforcementMode.GENERATED,
+                            context.getBean(TenantProperties.class).getEnforcement());
+                    assertFalse(context.containsBean("tenantAwareAspect"));
+                    assertTrue(context.containsBean("tenantEnforcedBeanFactoryPostProcessor"));
+                });
+    }
+
+    @Test
+    @DisplayName("测试配置租户数据源路由")
+    void testTenantDataSource() {
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .run(context -> assertFalse(context.containsBean("tenantRoutingDataSource")));
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withPropertyValues(
+                        "flow.engine.tenant.datasource.url-template=jdbc:h2:mem:auto_{tenant}",
+                        "flow.engine.tenant.datasource.max-total-connections=8"
+                )
+                .run(context -> {
+                    assertNotNull(context.getBean(TenantRoutingDataSource.class));
+                    assertTrue(context.containsBean("tenantDataSourceFactory"));
+                    assertTrue(context.containsBean("tenantRoutingAspect"));
+                    assertEquals(8, context.getBean(TenantProperties.class).getDatasource().getMaxTotalConnections());
+                });
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withPropertyValues(
+                        "flow.engine.tenant.datasource.shared-url=jdbc:h2:mem:auto_shared",
+                        "flow.engine.tenant.datasource.default-strategy=discriminator",
+                        "flow.engine.tenant.datasource.tenant-strategies.tenant-a=schema"
+                )
+                .run(context -> {
+                    TenantProperties.Datasource datasource = context.getBean(TenantProperties.class).getDatasource();
+                    assertEquals("discriminator", datasource.getDefaultStrategy());
+                    assertEquals("schema", datasource.getTenantStrategies().get("tenant-a"));
+                    assertNotNull(context.getBean(TenantRoutingDataSource.class));
+                });
+    }
+
+    @Test
+    @DisplayName("测试配置租户准入控制")
+    void testAdmissionController() {
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .run(context -> assertFalse(context.containsBean("tenantAdmissionController")));
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withPropertyValues(
+                        "flow.engine.tenant.admission.enabled=true",
+                        "flow.engine.tenant.admission.limit.permits-per-second=100",
+                        "flow.engine.tenant.admission.limit.max-in-flight=20",
+                        "flow.engine.tenant.admission.tenants.vip.max-in-flight=200"
+                )
+                .run(context -> {
+                    TenantAdmissionController controller = context.getBean(TenantAdmissionController.class);
+                    assertEquals(100, controller.getLimit("tenant-a").permitsPerSecond());
+                    assertEquals(100, controller.getLimit("tenant-a").burst());
+                    assertEquals(20, controller.getLimit("tenant-a").maxInFlight());
+                    assertEquals(0, controller.getLimit("vip").permitsPerSecond());
+                    assertEquals(200, controller.getLimit("vip").maxInFlight());
+                });
+    }
+
+    @Test
+    @DisplayName("测试存在MeterRegistry时记录租户指标")
+    void testMetrics() {
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .run(context -> {
+                    assertFalse(context.containsBean("tenantMetricsRecorder"));
+                    assertSame(TenantMetricsRecorder.NOOP, TenantMetrics.recorder());
+                });
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("flow.engine.tenant.metrics.max-tenant-tags=5")
+                .run(context -> {
+                    MicrometerTenantMetricsRecorder recorder = context.getBean(MicrometerTenantMetricsRecorder.class);
+                    assertSame(recorder, TenantMetrics.recorder());
+                    assertEquals(5, context.getBean(TenantProperties.class).getMetrics().getMaxTenantTags());
+                });
+        // 容器关闭后恢复为不记录
+        assertSame(TenantMetricsRecorder.NOOP, TenantMetrics.recorder());
+        contextRunner
+                .withClassLoader(new FilteredClassLoader(Async.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("flow.engine.tenant.metrics.enabled=false")
+                .run(context -> assertFalse(context.containsBean("tenantMetricsRecorder")));
+    }
+
     @Test
     @DisplayName("测试自定义Bean覆盖")
     void testCustomBeanOverride() {
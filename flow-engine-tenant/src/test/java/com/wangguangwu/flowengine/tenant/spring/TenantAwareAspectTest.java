@@ -4,6 +4,7 @@ import com.wangguangwu.flowengine.tenant.api.TenantAware;
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
 import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
 import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -115,6 +116,29 @@ class TenantAwareAspectTest {
         assertNull(TenantContextHolder.getContext());
     }
     
+    @Test
+    @DisplayName("测试类上的注解")
+    void testClassLevelAnnotation() throws Throwable {
+        // 准备测试数据
+        Method method = ClassLevelService.class.getMethod("process");
+        
+        when(joinPoint.getTarget()).thenReturn(new ClassLevelService());
+        when(joinPoint.getSignature()).thenReturn(mock(org.aspectj.lang.reflect.MethodSignature.class));
+        when(((org.aspectj.lang.reflect.MethodSignature) joinPoint.getSignature()).getMethod()).thenReturn(method);
+        
+        // 没有租户上下文时按类上的注解拒绝调用
+        assertThrows(TenantNotFoundException.class, () -> aspect.around(joinPoint));
+        verify(joinPoint, never()).proceed();
+        
+        // 类上的注解不允许系统租户
+        TenantContextHolder.setContext(DefaultTenantContext.createSystemTenant("system"));
+        assertThrows(IllegalStateException.class, () -> aspect.around(joinPoint));
+        verify(joinPoint, never()).proceed();
+        
+        // 验证租户上下文是否被清理
+        assertNull(TenantContextHolder.getContext());
+    }
+    
     // 测试用的服务类
     static class TestService {
         
@@ -133,4 +157,12 @@ class TenantAwareAspectTest {
             return "normal method";
         }
     }
+    
+    @TenantAware(allowSystemTenant = false)
+    static class ClassLevelService {
+        
+        public String process() {
+            return "class level";
+        }
+    }
 }
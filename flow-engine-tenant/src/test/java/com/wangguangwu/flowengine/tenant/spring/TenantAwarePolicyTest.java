@@ -0,0 +1,93 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.api.TenantAware;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantAwarePolicy 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantAwarePolicyTest {
+
+    @Test
+    @DisplayName("测试方法注解优先于类注解")
+    void testMethodAnnotationOverridesClass() throws NoSuchMethodException {
+        Method method = ClassLevelService.class.getMethod("optional");
+
+        TenantAwarePolicy policy = TenantAwarePolicy.of(method, ClassLevelService.class);
+
+        assertFalse(policy.required());
+        assertTrue(policy.allowSystemTenant());
+    }
+
+    @Test
+    @DisplayName("测试方法没有注解时使用类注解")
+    void testClassLevelAnnotation() throws NoSuchMethodException {
+        Method method = ClassLevelService.class.getMethod("inherited");
+
+        TenantAwarePolicy policy = TenantAwarePolicy.of(method, ClassLevelService.class);
+
+        assertTrue(policy.required());
+        assertFalse(policy.allowSystemTenant());
+    }
+
+    @Test
+    @DisplayName("测试通过接口方法调用时使用实现类上的注解")
+    void testInterfaceMethod() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("call");
+
+        assertTrue(TenantAwarePolicy.of(method, AnnotatedImplementation.class).required());
+        assertSame(TenantAwarePolicy.NONE, TenantAwarePolicy.of(method, PlainImplementation.class));
+    }
+
+    @Test
+    @DisplayName("测试策略按方法缓存")
+    void testCached() throws NoSuchMethodException {
+        Method method = ClassLevelService.class.getMethod("inherited");
+
+        assertSame(TenantAwarePolicy.of(method, ClassLevelService.class),
+                TenantAwarePolicy.of(method, ClassLevelService.class));
+        assertSame(TenantAwarePolicy.resolve(method, ClassLevelService.class),
+                TenantAwarePolicy.of(method, ClassLevelService.class));
+    }
+
+    @TenantAware(allowSystemTenant = false)
+    static class ClassLevelService {
+
+        public String inherited() {
+            return "inherited";
+        }
+
+        @TenantAware(required = false)
+        public String optional() {
+            return "optional";
+        }
+    }
+
+    interface Service {
+        String call();
+    }
+
+    static class AnnotatedImplementation implements Service {
+
+        @Override
+        @TenantAware
+        public String call() {
+            return "annotated";
+        }
+    }
+
+    static class PlainImplementation implements Service {
+
+        @Override
+        public String call() {
+            return "plain";
+        }
+    }
+}
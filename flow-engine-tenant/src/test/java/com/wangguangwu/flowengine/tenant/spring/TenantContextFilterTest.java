@@ -2,6 +2,11 @@ package com.wangguangwu.flowengine.tenant.spring;
 
 import com.wangguangwu.flowengine.tenant.api.TenantContext;
 import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.core.TenantContextRegistry;
+import com.wangguangwu.flowengine.tenant.limit.TenantAdmissionController;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverChain;
+import com.wangguangwu.flowengine.tenant.resolver.TenantResolverSettings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -137,4 +142,41 @@ class TenantContextFilterTest {
         // 由于过滤器执行完会清除上下文，所以这里应该为null
         assertNull(TenantContextHolder.getContext());
     }
+    
+    @Test
+    @DisplayName("测试非法租户ID返回400")
+    void testInvalidTenantId() throws ServletException, IOException {
+        // 准备测试数据
+        when(request.getHeader(TENANT_ID_HEADER)).thenReturn("tenant;drop");
+        
+        // 执行测试
+        filter.doFilterInternal(request, response, filterChain);
+        
+        // 验证请求被拒绝，过滤器链不再执行
+        verify(response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST), anyString());
+        verify(filterChain, never()).doFilter(request, response);
+        assertNull(TenantContextHolder.getContext());
+    }
+    
+    @Test
+    @DisplayName("测试租户超过限速返回429并在请求结束后释放并发名额")
+    void testAdmissionRejected() throws ServletException, IOException {
+        // 准备测试数据：每个租户只允许一个突发请求
+        TenantAdmissionController controller = new TenantAdmissionController(new TenantLimit(1, 1, 1));
+        TenantContextFilter limitedFilter = new TenantContextFilter(
+                TenantResolverChain.load(TenantResolverSettings.ofHeader(TENANT_ID_HEADER)),
+                new TenantContextRegistry(SYSTEM_TENANT_ID), controller);
+        when(request.getHeader(TENANT_ID_HEADER)).thenReturn("test-tenant");
+        
+        // 执行测试
+        limitedFilter.doFilterInternal(request, response, filterChain);
+        limitedFilter.doFilterInternal(request, response, filterChain);
+        
+        // 验证第二个请求被拒绝，过滤器链只执行一次
+        verify(filterChain, times(1)).doFilter(request, response);
+        verify(response).setHeader("Retry-After", "1");
+        verify(response).sendError(eq(429), anyString());
+        assertEquals(0, controller.getInFlight("test-tenant"));
+        assertNull(TenantContextHolder.getContext());
+    }
 }
@@ -0,0 +1,67 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TenantEnforcedBeanFactoryPostProcessor 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantEnforcedBeanFactoryPostProcessorTest {
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("测试按类名注册的Bean替换为生成类")
+    void testReplaceRegisteredBeanClass() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.addBeanFactoryPostProcessor(new TenantEnforcedBeanFactoryPostProcessor());
+            context.registerBean("enforcedTestService", EnforcedTestService.class);
+            context.refresh();
+
+            EnforcedTestService service = context.getBean(EnforcedTestService.class);
+            assertInstanceOf(TenantEnforced_EnforcedTestService.class, service);
+            // 自调用同样经过检查
+            assertThrows(TenantNotFoundException.class, service::delegate);
+
+            TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+            assertEquals("tenant-a", service.delegate());
+            // 检查不会清理租户上下文
+            assertEquals("tenant-a", TenantContextHolder.getCurrentTenantId());
+        }
+    }
+
+    @Test
+    @DisplayName("测试工厂方法创建的Bean不替换")
+    void testSkipFactoryMethodBean() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.addBeanFactoryPostProcessor(new TenantEnforcedBeanFactoryPostProcessor());
+            context.register(FactoryConfiguration.class);
+            context.refresh();
+
+            assertEquals(EnforcedTestService.class, context.getBean(EnforcedTestService.class).getClass());
+        }
+    }
+
+    @Configuration
+    static class FactoryConfiguration {
+
+        @Bean
+        public EnforcedTestService enforcedTestService() {
+            return new EnforcedTestService();
+        }
+    }
+}
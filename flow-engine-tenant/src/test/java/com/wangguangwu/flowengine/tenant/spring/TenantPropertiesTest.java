@@ -1,5 +1,7 @@
 package com.wangguangwu.flowengine.tenant.spring;
 
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolderMode;
+import com.wangguangwu.flowengine.tenant.limit.TenantLimit;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -22,6 +24,15 @@ class TenantPropertiesTest {
         assertTrue(properties.isEnabled(), "默认应该启用多租户功能");
         assertEquals("X-Tenant-ID", properties.getTenantIdHeader(), "默认租户ID请求头应为X-Tenant-ID");
         assertEquals("system", properties.getSystemTenantId(), "默认系统租户ID应为system");
+        assertEquals(TenantContextHolderMode.INHERITABLE, properties.getHolderMode(), "默认使用可继承的上下文存储");
+        assertEquals(10_000, properties.getContextCacheSize(), "默认缓存10000个租户上下文");
+        assertEquals(TenantEnforcementMode.PROXY, properties.getEnforcement(), "默认通过AOP代理强制租户约束");
+        assertNull(properties.getDatasource().getUrlTemplate(), "默认不启用租户数据源路由");
+        assertEquals(50, properties.getDatasource().getMaxTotalConnections(), "默认所有租户最多借出50个连接");
+        assertEquals("database", properties.getDatasource().getDefaultStrategy(), "默认每个租户使用独立数据库");
+        assertFalse(properties.getAdmission().isEnabled(), "默认不启用租户准入控制");
+        assertEquals(TenantLimit.UNLIMITED, properties.getAdmission().getLimit().toTenantLimit(), "默认不限制租户");
+        assertEquals(100, properties.getMetrics().getMaxTenantTags(), "默认最多100个租户使用独立标签");
     }
     
     @Test
@@ -0,0 +1,49 @@
+package com.wangguangwu.flowengine.tenant.spring;
+
+import com.wangguangwu.flowengine.tenant.core.DefaultTenantContext;
+import com.wangguangwu.flowengine.tenant.core.TenantContextHolder;
+import com.wangguangwu.flowengine.tenant.exception.TenantNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TenantRoutingAspect 单元测试
+ *
+ * @author wangguangwu
+ */
+class TenantRoutingAspectTest {
+
+    private final TenantRoutingAspect aspect = new TenantRoutingAspect();
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("测试没有租户上下文时拒绝执行")
+    void testWithoutTenant() throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(mock(Signature.class));
+
+        assertThrows(TenantNotFoundException.class, () -> aspect.around(joinPoint));
+        verify(joinPoint, never()).proceed();
+    }
+
+    @Test
+    @DisplayName("测试存在租户上下文时执行且不清理上下文")
+    void testWithTenant() throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn("success");
+        TenantContextHolder.setContext(DefaultTenantContext.create("tenant-a"));
+
+        assertEquals("success", aspect.around(joinPoint));
+        assertEquals("tenant-a", TenantContextHolder.getCurrentTenantId());
+    }
+}